@@ -0,0 +1,88 @@
+package com.example.pdfgen.loadtest;
+
+import java.util.List;
+
+/**
+ * POST endpoints of the PDF generator API that the harness can drive
+ *
+ * New endpoints go at the end: each corpus is seeded from the endpoint's ordinal, so reordering
+ * would change the documents earlier runs were measured with. Artifact downloads are not driven;
+ * they need the ID of an earlier render and the artifact store is disabled by default.
+ */
+public enum Endpoint {
+
+    RESUME_PDF("resume-pdf", "/api/pdf/resume/generate", Body.PROFILE, Templates.RESUME),
+    COVER_LETTER_PDF("cover-letter-pdf", "/api/pdf/cover-letter/generate", Body.COVER_LETTER, Templates.COVER_LETTER),
+    RESUME_DOCX("resume-docx", "/api/docx/resume/generate", Body.PROFILE,
+            List.of("resume_template_001")),
+    COVER_LETTER_DOCX("cover-letter-docx", "/api/docx/cover-letter/generate", Body.COVER_LETTER,
+            List.of("cover_letter_template_001")),
+    RESUME_PDF_FITTED("resume-pdf-fitted", "/api/pdf/resume/generate?fitToPages=1", Body.PROFILE, Templates.RESUME),
+    APPLICATION_PDF("application-pdf", "/api/pdf/application/generate", Body.APPLICATION, Templates.RESUME),
+    BULK_RUN("bulk-run", "/api/bulk/runs", Body.BULK_RUN, Templates.RESUME),
+    PROFILE_RANK("profile-rank", "/api/profiles/rank", Body.RANK, List.of());
+
+    /**
+     * Request body an endpoint takes
+     */
+    public enum Body {
+        /** ProfileRequest: templateId and profile */
+        PROFILE,
+        /** CoverLetterRequest: templateId and coverLetter */
+        COVER_LETTER,
+        /** ApplicationRequest: both template IDs, profile and coverLetter */
+        APPLICATION,
+        /** BulkRunRequest: templateId and --bulk-profiles profiles; answered 202 once accepted */
+        BULK_RUN,
+        /** RankRequest: a job description, ranked against the profiles indexed before the run */
+        RANK
+    }
+
+    private static final class Templates {
+        static final List<String> RESUME =
+                List.of("resume_template_001", "resume_template_002", "resume_template_003");
+        static final List<String> COVER_LETTER =
+                List.of("cover_letter_template_001", "cover_letter_template_002", "cover_letter_template_003");
+    }
+
+    private final String id;
+    private final String path;
+    private final Body body;
+    private final List<String> templates;
+
+    Endpoint(String id, String path, Body body, List<String> templates) {
+        this.id = id;
+        this.path = path;
+        this.body = body;
+        this.templates = templates;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    public Body body() {
+        return body;
+    }
+
+    /**
+     * Template IDs accepted by the endpoint (DOCX ignores the template, but the request requires one);
+     * resume templates for the application endpoint, empty for ranking
+     */
+    public List<String> templates() {
+        return templates;
+    }
+
+    public static Endpoint fromId(String id) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.id.equals(id)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint: " + id);
+    }
+}
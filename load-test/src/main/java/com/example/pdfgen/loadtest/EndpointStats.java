@@ -0,0 +1,108 @@
+package com.example.pdfgen.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counters for one endpoint
+ *
+ * Latencies are recorded in microseconds from the request's intended start time, so queueing
+ * inside the load generator is counted rather than hidden (coordinated omission).
+ */
+public class EndpointStats {
+
+    /** Highest trackable latency: 10 minutes in microseconds */
+    private static final long MAX_LATENCY_MICROS = 600_000_000L;
+
+    private final Endpoint endpoint;
+    private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final Histogram serviceTime = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+
+    public EndpointStats(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Records a completed request
+     *
+     * @param intendedStartNanos When the schedule wanted the request sent
+     * @param actualStartNanos   When it was actually sent
+     * @param endNanos           When the full response body was received
+     */
+    public void recordResponse(int status, long bytes, long intendedStartNanos, long actualStartNanos, long endNanos) {
+        latency.recordValue(clamp((endNanos - intendedStartNanos) / 1_000));
+        serviceTime.recordValue(clamp((endNanos - actualStartNanos) / 1_000));
+        statusCounts.computeIfAbsent(status, s -> new LongAdder()).increment();
+        responseBytes.add(bytes);
+    }
+
+    /**
+     * Records a request that failed without a response (connection refused, timeout, ...)
+     * The time until failure is still recorded as latency
+     */
+    public void recordError(long intendedStartNanos, long endNanos) {
+        latency.recordValue(clamp((endNanos - intendedStartNanos) / 1_000));
+        errors.increment();
+    }
+
+    /**
+     * Records a request the open-loop schedule wanted to send but could not because too many were in flight
+     */
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public Histogram getServiceTime() {
+        return serviceTime;
+    }
+
+    public Map<Integer, Long> getStatusCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    public long getSuccesses() {
+        return statusCounts.entrySet().stream()
+                .filter(e -> e.getKey() >= 200 && e.getKey() < 300)
+                .mapToLong(e -> e.getValue().sum())
+                .sum();
+    }
+
+    public long getCompleted() {
+        return latency.getTotalCount();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getResponseBytes() {
+        return responseBytes.sum();
+    }
+
+    private static long clamp(long micros) {
+        return Math.max(0, Math.min(micros, MAX_LATENCY_MICROS));
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.pdfgen.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives requests against the server in open-loop or closed-loop mode
+ *
+ * Open loop: request i is due at start + i / rate. The schedule never waits for responses, so a
+ * slow server builds up in-flight requests instead of silently lowering the offered load. When
+ * more than --max-in-flight requests are outstanding the due request is counted as dropped.
+ *
+ * Closed loop: --concurrency workers each send a request and wait for the response. With --rate
+ * each worker is paced to rate / concurrency requests per second and latency is measured from the
+ * paced start, so a stalled response is charged to the requests it delayed.
+ *
+ * Everything sent during --warmup is recorded into throwaway stats.
+ */
+public class LoadGenerator {
+
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private final Map<Endpoint, List<HttpRequest>> requests = new EnumMap<>(Endpoint.class);
+    private final List<Endpoint> endpointMix;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public LoadGenerator(LoadTestConfig config, HttpClient client, Map<Endpoint, List<String>> corpora) {
+        this.config = config;
+        this.client = client;
+        this.endpointMix = LoadTestConfig.expand(config.endpointMix);
+        corpora.forEach((endpoint, bodies) -> {
+            List<HttpRequest> built = new ArrayList<>(bodies.size());
+            URI uri = URI.create(config.baseUrl + endpoint.path());
+            for (String body : bodies) {
+                built.add(HttpRequest.newBuilder(uri)
+                        .timeout(config.requestTimeout)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build());
+            }
+            requests.put(endpoint, built);
+        });
+    }
+
+    /**
+     * Runs warmup followed by the measured duration
+     *
+     * @return Wall-clock nanoseconds of the measured phase
+     */
+    public long run(Map<Endpoint, EndpointStats> measured) throws InterruptedException {
+        Map<Endpoint, EndpointStats> warmup = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : measured.keySet()) {
+            warmup.put(endpoint, new EndpointStats(endpoint));
+        }
+
+        long start = System.nanoTime();
+        long measureStart = start + config.warmup.toNanos();
+        long end = measureStart + config.duration.toNanos();
+
+        if (config.mode == LoadTestConfig.Mode.OPEN) {
+            runOpen(start, measureStart, end, warmup, measured);
+        } else {
+            runClosed(start, measureStart, end, warmup, measured);
+        }
+        return end - measureStart;
+    }
+
+    private void runOpen(long start, long measureStart, long end,
+                         Map<Endpoint, EndpointStats> warmup, Map<Endpoint, EndpointStats> measured)
+            throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(config.seed);
+        double periodNanos = 1_000_000_000.0 / config.ratePerSecond;
+
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * periodNanos);
+            if (intended >= end) {
+                break;
+            }
+            sleepUntil(intended);
+
+            Endpoint endpoint = endpointMix.get(random.nextInt(endpointMix.size()));
+            HttpRequest request = pickRequest(endpoint, random);
+            EndpointStats stats = (intended < measureStart ? warmup : measured).get(endpoint);
+
+            if (inFlight.get() >= config.maxInFlight) {
+                stats.recordDropped();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                    .whenComplete((response, error) -> {
+                        long done = System.nanoTime();
+                        if (error == null) {
+                            stats.recordResponse(response.statusCode(), response.body().length, intended, sent, done);
+                        } else {
+                            stats.recordError(intended, done);
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+
+        // Let outstanding requests finish so their latency is counted
+        long drainDeadline = System.nanoTime() + config.requestTimeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void runClosed(long start, long measureStart, long end,
+                           Map<Endpoint, EndpointStats> warmup, Map<Endpoint, EndpointStats> measured)
+            throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(config.concurrency);
+        // Per-worker pacing; 0 means send the next request as soon as the previous one returns
+        double periodNanos = config.ratePerSecond > 0
+                ? 1_000_000_000.0 * config.concurrency / config.ratePerSecond
+                : 0;
+
+        for (int w = 0; w < config.concurrency; w++) {
+            SplittableRandom random = new SplittableRandom(config.seed + w);
+            // Stagger paced workers so they don't fire in lockstep
+            long offset = (long) (periodNanos * w / config.concurrency);
+            Thread worker = new Thread(() -> {
+                try {
+                    long next = start + offset;
+                    while (true) {
+                        long intended = periodNanos > 0 ? next : System.nanoTime();
+                        if (intended >= end) {
+                            break;
+                        }
+                        sleepUntil(intended);
+
+                        Endpoint endpoint = endpointMix.get(random.nextInt(endpointMix.size()));
+                        EndpointStats stats = (intended < measureStart ? warmup : measured).get(endpoint);
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response =
+                                    client.send(pickRequest(endpoint, random), HttpResponse.BodyHandlers.ofByteArray());
+                            stats.recordResponse(response.statusCode(), response.body().length,
+                                    intended, sent, System.nanoTime());
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            stats.recordError(intended, System.nanoTime());
+                        }
+                        next += (long) periodNanos;
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-worker-" + w);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        done.await(end - System.nanoTime() + config.requestTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private HttpRequest pickRequest(Endpoint endpoint, SplittableRandom random) {
+        List<HttpRequest> corpus = requests.get(endpoint);
+        return corpus.get(random.nextInt(corpus.size()));
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
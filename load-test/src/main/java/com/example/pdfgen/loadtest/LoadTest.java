@@ -0,0 +1,118 @@
+package com.example.pdfgen.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Load generator for the PDF/DOCX generation API
+ *
+ * Replaces concurrent-test.sh with open-loop (constant arrival rate) and closed-loop (fixed
+ * concurrency) load, a seeded synthetic corpus with controllable document size, a configurable
+ * endpoint and template mix, and coordinated-omission-corrected latency histograms.
+ *
+ * Example:
+ *   mvn -f load-test/pom.xml -q compile exec:java \
+ *     -Dexec.args="--base-url http://localhost:8080 --mode open --rate 20 --duration 60s --label 4vcpu"
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            if (!"help".equals(e.getMessage())) {
+                System.err.println("Error: " + e.getMessage());
+                System.err.println();
+            }
+            LoadTestConfig.printUsage();
+            System.exit("help".equals(e.getMessage()) ? 0 : 1);
+            return;
+        }
+
+        Map<Endpoint, List<String>> corpora = buildCorpora(config);
+        Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        corpora.keySet().forEach(endpoint -> stats.put(endpoint, new EndpointStats(endpoint)));
+
+        System.out.printf("Target: %s, mode: %s, %s, warmup %ds, duration %ds%n",
+                config.baseUrl, config.mode.name().toLowerCase(),
+                config.mode == LoadTestConfig.Mode.OPEN
+                        ? config.ratePerSecond + " req/s"
+                        : config.concurrency + " workers" + (config.ratePerSecond > 0 ? " @ " + config.ratePerSecond + " req/s" : ""),
+                config.warmup.toSeconds(), config.duration.toSeconds());
+        System.out.println("Endpoint mix: " + config.endpointMix + ", corpus " + config.corpusSize
+                + " docs/endpoint, experience " + config.minExperience + ".." + config.maxExperience);
+
+        ExecutorService httpExecutor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "load-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(config.requestTimeout)
+                .executor(httpExecutor)
+                .build();
+
+        if (corpora.containsKey(Endpoint.PROFILE_RANK)) {
+            indexProfiles(config, client);
+        }
+
+        long measuredNanos = new LoadGenerator(config, client, corpora).run(stats);
+
+        ReportWriter reportWriter = new ReportWriter(config);
+        reportWriter.printSummary(stats.values(), measuredNanos, System.out);
+        reportWriter.write(stats.values(), measuredNanos);
+        System.out.println("Reports written to " + config.reportDir.toAbsolutePath());
+
+        httpExecutor.shutdownNow();
+    }
+
+    private static Map<Endpoint, List<String>> buildCorpora(LoadTestConfig config) {
+        SyntheticProfiles generator = new SyntheticProfiles(config);
+        Map<Endpoint, List<String>> corpora = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : config.endpointMix.keySet()) {
+            List<String> templates = new ArrayList<>();
+            if (config.templateMix.isEmpty() || endpoint.templates().isEmpty()) {
+                templates.addAll(endpoint.templates());
+            } else {
+                // Only the templates this endpoint accepts, weighted by the mix
+                for (String template : LoadTestConfig.expand(config.templateMix)) {
+                    if (endpoint.templates().contains(template)) {
+                        templates.add(template);
+                    }
+                }
+                if (templates.isEmpty()) {
+                    templates.add(endpoint.templates().get(0));
+                }
+            }
+            corpora.put(endpoint, generator.corpus(endpoint, templates));
+        }
+        return corpora;
+    }
+
+    /**
+     * Loads the synthetic profiles into the server's ranking index, replacing any from an earlier run
+     */
+    private static void indexProfiles(LoadTestConfig config, HttpClient client) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(config.baseUrl + "/api/profiles"))
+                .timeout(config.requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(new SyntheticProfiles(config).indexRequest()))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Indexing profiles for profile-rank failed with HTTP " + response.statusCode());
+        }
+        System.out.println("Indexed " + config.corpusSize + " profiles for profile-rank");
+    }
+}
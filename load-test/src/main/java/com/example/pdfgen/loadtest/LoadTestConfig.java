@@ -0,0 +1,158 @@
+package com.example.pdfgen.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line options for a load test run
+ */
+public class LoadTestConfig {
+
+    public enum Mode {
+        /** Requests are issued at a constant arrival rate regardless of response times */
+        OPEN,
+        /** A fixed number of workers each send the next request once the previous one completes */
+        CLOSED
+    }
+
+    String baseUrl = "http://localhost:8080";
+    Mode mode = Mode.OPEN;
+    double ratePerSecond = 0;
+    int concurrency = 8;
+    Duration duration = Duration.ofSeconds(60);
+    Duration warmup = Duration.ofSeconds(10);
+    Duration requestTimeout = Duration.ofSeconds(60);
+    int maxInFlight = 1000;
+    Map<Endpoint, Integer> endpointMix = new LinkedHashMap<>(Map.of(Endpoint.RESUME_PDF, 1));
+    Map<String, Integer> templateMix = new LinkedHashMap<>();
+    int minExperience = 2;
+    int maxExperience = 6;
+    int sentencesPerEntry = 4;
+    int skills = 12;
+    int coverLetterParagraphs = 4;
+    int bulkProfiles = 10;
+    int corpusSize = 200;
+    long seed = 42;
+    Path reportDir = Path.of("target", "load-test");
+    String label = "run";
+
+    static LoadTestConfig parse(String[] args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (int i = 0; i < args.length; i++) {
+            String key = args[i];
+            if (key.equals("--help") || key.equals("-h")) {
+                throw new IllegalArgumentException("help");
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + key);
+            }
+            String value = args[++i];
+            switch (key) {
+                case "--base-url" -> config.baseUrl = value.replaceAll("/+$", "");
+                case "--mode" -> config.mode = Mode.valueOf(value.toUpperCase());
+                case "--rate" -> config.ratePerSecond = Double.parseDouble(value);
+                case "--concurrency" -> config.concurrency = Integer.parseInt(value);
+                case "--duration" -> config.duration = parseDuration(value);
+                case "--warmup" -> config.warmup = parseDuration(value);
+                case "--timeout" -> config.requestTimeout = parseDuration(value);
+                case "--max-in-flight" -> config.maxInFlight = Integer.parseInt(value);
+                case "--endpoints" -> {
+                    config.endpointMix = new LinkedHashMap<>();
+                    parseWeights(value).forEach((id, weight) -> config.endpointMix.put(Endpoint.fromId(id), weight));
+                }
+                case "--templates" -> config.templateMix = parseWeights(value);
+                case "--experience" -> {
+                    String[] range = value.split("\\.\\.");
+                    config.minExperience = Integer.parseInt(range[0]);
+                    config.maxExperience = Integer.parseInt(range.length > 1 ? range[1] : range[0]);
+                }
+                case "--sentences" -> config.sentencesPerEntry = Integer.parseInt(value);
+                case "--skills" -> config.skills = Integer.parseInt(value);
+                case "--paragraphs" -> config.coverLetterParagraphs = Integer.parseInt(value);
+                case "--bulk-profiles" -> config.bulkProfiles = Integer.parseInt(value);
+                case "--corpus" -> config.corpusSize = Integer.parseInt(value);
+                case "--seed" -> config.seed = Long.parseLong(value);
+                case "--report-dir" -> config.reportDir = Path.of(value);
+                case "--label" -> config.label = value;
+                default -> throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+        if (config.mode == Mode.OPEN && config.ratePerSecond <= 0) {
+            throw new IllegalArgumentException("--rate must be positive in open mode");
+        }
+        if (config.minExperience > config.maxExperience) {
+            throw new IllegalArgumentException("--experience range is empty");
+        }
+        return config;
+    }
+
+    /**
+     * Parses "a:3,b:1,c" into weights (missing weight = 1)
+     */
+    static Map<String, Integer> parseWeights(String value) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] kv = part.trim().split(":");
+            weights.put(kv[0], kv.length > 1 ? Integer.parseInt(kv[1]) : 1);
+        }
+        return weights;
+    }
+
+    /**
+     * Parses durations like 500ms, 30s, 5m
+     */
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    /**
+     * Expands a weight map into a list where each key appears weight times, for uniform picking
+     */
+    static <T> List<T> expand(Map<T, Integer> weights) {
+        List<T> expanded = new ArrayList<>();
+        weights.forEach((key, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                expanded.add(key);
+            }
+        });
+        return expanded;
+    }
+
+    static void printUsage() {
+        System.out.println("Usage: LoadTest [options]");
+        System.out.println();
+        System.out.println("  --base-url URL          Target server (default http://localhost:8080)");
+        System.out.println("  --mode open|closed      Constant arrival rate or fixed worker count (default open)");
+        System.out.println("  --rate N                Requests/second; required in open mode, optional pacing in closed mode");
+        System.out.println("  --concurrency N         Closed-loop workers (default 8)");
+        System.out.println("  --duration 60s          Measured duration");
+        System.out.println("  --warmup 10s            Unmeasured warmup before the measured duration");
+        System.out.println("  --timeout 60s           Per-request timeout");
+        System.out.println("  --max-in-flight N       Open-loop cap on outstanding requests (default 1000)");
+        System.out.println("  --endpoints a:w,b:w     Endpoint mix: resume-pdf, cover-letter-pdf, resume-docx, cover-letter-docx,");
+        System.out.println("                          resume-pdf-fitted, application-pdf, bulk-run, profile-rank");
+        System.out.println("  --templates t:w,...     Template mix (default: uniform over each endpoint's templates)");
+        System.out.println("  --experience 2..6       Experience entries per synthetic profile");
+        System.out.println("  --sentences N           Sentences per experience description (default 4)");
+        System.out.println("  --skills N              Skills per profile (default 12)");
+        System.out.println("  --paragraphs N          Cover letter paragraphs (default 4)");
+        System.out.println("  --bulk-profiles N       Profiles per bulk-run submission (default 10)");
+        System.out.println("  --corpus N              Distinct synthetic documents per endpoint (default 200)");
+        System.out.println("  --seed N                Random seed for reproducible corpora and mixes (default 42)");
+        System.out.println("  --report-dir DIR        Where CSV/JSON/hgrm reports are written (default target/load-test)");
+        System.out.println("  --label NAME            Report file prefix, e.g. the node size (default run)");
+    }
+}
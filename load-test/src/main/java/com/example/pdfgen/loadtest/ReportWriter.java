@@ -0,0 +1,149 @@
+package com.example.pdfgen.loadtest;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Writes load test results to the console and to machine-readable report files
+ *
+ * For a run labelled L the report directory receives:
+ *   L.json              full summary including configuration and status codes
+ *   L-&lt;endpoint&gt;.hgrm   HdrHistogram percentile distribution (plot with HistogramLogAnalyzer)
+ *   runs.csv            one row per endpoint per run, appended so runs on different node sizes can be compared
+ */
+public class ReportWriter {
+
+    private static final String CSV_HEADER = "label,mode,offered_rps,endpoint,completed,success,errors,dropped,"
+            + "throughput_rps,mean_ms,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,service_p99_ms,avg_bytes";
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LoadTestConfig config;
+
+    public ReportWriter(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    public void printSummary(Collection<EndpointStats> results, long measuredNanos, PrintStream out) {
+        double seconds = measuredNanos / 1e9;
+        out.println();
+        out.printf(Locale.ROOT, "%-18s %9s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "completed", "rps", "failed", "dropped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (EndpointStats stats : results) {
+            Histogram h = stats.getLatency();
+            out.printf(Locale.ROOT, "%-18s %9d %9.1f %7d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    stats.getEndpoint().id(), stats.getCompleted(), stats.getSuccesses() / seconds,
+                    stats.getCompleted() - stats.getSuccesses(),
+                    stats.getDropped(),
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+                    ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+            if (stats.getStatusCounts().keySet().stream().anyMatch(s -> s < 200 || s >= 300)) {
+                out.println("    status codes: " + stats.getStatusCounts());
+            }
+        }
+        out.println();
+    }
+
+    public void write(Collection<EndpointStats> results, long measuredNanos) throws IOException {
+        Files.createDirectories(config.reportDir);
+        double seconds = measuredNanos / 1e9;
+
+        writeJson(results, seconds);
+        for (EndpointStats stats : results) {
+            Path hgrm = config.reportDir.resolve(config.label + "-" + stats.getEndpoint().id() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(hgrm), false, StandardCharsets.UTF_8)) {
+                // Values are recorded in microseconds; scale the output to milliseconds
+                stats.getLatency().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        appendCsv(results, seconds);
+    }
+
+    private void writeJson(Collection<EndpointStats> results, double seconds) throws IOException {
+        JsonObject root = new JsonObject();
+        root.addProperty("label", config.label);
+        root.addProperty("baseUrl", config.baseUrl);
+        root.addProperty("mode", config.mode.name().toLowerCase());
+        root.addProperty("offeredRps", config.mode == LoadTestConfig.Mode.OPEN || config.ratePerSecond > 0
+                ? config.ratePerSecond : null);
+        root.addProperty("concurrency", config.mode == LoadTestConfig.Mode.CLOSED ? config.concurrency : null);
+        root.addProperty("durationSeconds", seconds);
+        root.addProperty("warmupSeconds", config.warmup.toMillis() / 1000.0);
+        root.addProperty("seed", config.seed);
+
+        JsonArray endpoints = new JsonArray();
+        for (EndpointStats stats : results) {
+            JsonObject e = new JsonObject();
+            e.addProperty("endpoint", stats.getEndpoint().id());
+            e.addProperty("completed", stats.getCompleted());
+            e.addProperty("success", stats.getSuccesses());
+            e.addProperty("errors", stats.getErrors());
+            e.addProperty("dropped", stats.getDropped());
+            e.addProperty("throughputRps", round(stats.getSuccesses() / seconds));
+            e.addProperty("avgResponseBytes", stats.getCompleted() == 0 ? 0 : stats.getResponseBytes() / stats.getCompleted());
+
+            JsonObject statuses = new JsonObject();
+            stats.getStatusCounts().forEach((status, count) -> statuses.addProperty(String.valueOf(status), count));
+            e.add("statusCodes", statuses);
+            e.add("latencyMs", percentiles(stats.getLatency()));
+            e.add("serviceTimeMs", percentiles(stats.getServiceTime()));
+            endpoints.add(e);
+        }
+        root.add("endpoints", endpoints);
+
+        Files.writeString(config.reportDir.resolve(config.label + ".json"),
+                new GsonBuilder().setPrettyPrinting().serializeNulls().create().toJson(root));
+    }
+
+    private void appendCsv(Collection<EndpointStats> results, double seconds) throws IOException {
+        Path csv = config.reportDir.resolve("runs.csv");
+        StringBuilder rows = new StringBuilder();
+        if (!Files.exists(csv)) {
+            rows.append(CSV_HEADER).append('\n');
+        }
+        for (EndpointStats stats : results) {
+            Histogram h = stats.getLatency();
+            rows.append(String.format(Locale.ROOT, "%s,%s,%s,%s,%d,%d,%d,%d,%.2f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%d%n",
+                    config.label, config.mode.name().toLowerCase(),
+                    config.ratePerSecond > 0 ? String.valueOf(config.ratePerSecond) : "",
+                    stats.getEndpoint().id(), stats.getCompleted(), stats.getSuccesses(),
+                    stats.getErrors(), stats.getDropped(), stats.getSuccesses() / seconds,
+                    h.getMean() / 1000.0,
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+                    ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()),
+                    ms(stats.getServiceTime().getValueAtPercentile(99)),
+                    stats.getCompleted() == 0 ? 0 : stats.getResponseBytes() / stats.getCompleted()));
+        }
+        Files.writeString(csv, rows, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static JsonObject percentiles(Histogram histogram) {
+        JsonObject p = new JsonObject();
+        p.addProperty("mean", round(histogram.getMean() / 1000.0));
+        for (double percentile : PERCENTILES) {
+            p.addProperty("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                    ms(histogram.getValueAtPercentile(percentile)));
+        }
+        p.addProperty("max", ms(histogram.getMaxValue()));
+        return p;
+    }
+
+    private static double ms(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.pdfgen.loadtest;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded generator of request bodies whose size is controlled by the command-line options
+ *
+ * The same seed always yields the same corpus, so runs against different node sizes or builds
+ * render byte-identical documents.
+ */
+public class SyntheticProfiles {
+
+    private static final String[] FIRST_NAMES = {
+            "Alex", "Priya", "Jordan", "Mei", "Samuel", "Fatima", "Lukas", "Ana", "Kwame", "Hannah"
+    };
+    private static final String[] LAST_NAMES = {
+            "Morgan", "Sharma", "Lee", "Chen", "Okafor", "Haddad", "Novak", "Silva", "Mensah", "Fischer"
+    };
+    private static final String[] CITIES = {
+            "San Francisco, CA", "Austin, TX", "Seattle, WA", "New York, NY", "Chicago, IL", "Denver, CO"
+    };
+    private static final String[] TITLES = {
+            "Software Engineer", "Senior Software Engineer", "Staff Engineer", "Platform Engineer",
+            "Backend Developer", "Engineering Manager", "Site Reliability Engineer", "Data Engineer"
+    };
+    private static final String[] COMPANIES = {
+            "TechCorp Inc.", "Northwind Systems", "Blue Harbor Labs", "Acme Cloud", "Quantum Retail",
+            "Vertex Analytics", "Helios Payments", "Orbital Media"
+    };
+    private static final String[] SKILLS = {
+            "Java", "Spring Boot", "Kotlin", "Python", "Go", "Kubernetes", "Docker", "AWS", "GCP", "PostgreSQL",
+            "Kafka", "Redis", "Terraform", "gRPC", "GraphQL", "React", "TypeScript", "CI/CD", "Observability",
+            "Distributed Systems", "Microservices", "System Design", "Performance Tuning", "Linux"
+    };
+    private static final String[] VERBS = {
+            "Designed", "Led", "Built", "Migrated", "Optimized", "Automated", "Scaled", "Introduced", "Refactored"
+    };
+    private static final String[] OBJECTS = {
+            "the payments platform", "a multi-region event pipeline", "the internal developer portal",
+            "the search indexing service", "a real-time pricing engine", "the observability stack",
+            "legacy batch jobs", "the customer onboarding flow", "a shared component library"
+    };
+    private static final String[] OUTCOMES = {
+            "reducing p99 latency by 40%", "cutting infrastructure cost by 25%", "serving 3x more traffic",
+            "improving deployment frequency from weekly to daily", "eliminating a class of production incidents",
+            "shortening onboarding time for new engineers", "raising test coverage above 85%"
+    };
+    private static final String[] DEGREES = {
+            "B.S. Computer Science", "M.S. Computer Science", "B.Eng. Software Engineering", "M.S. Data Science"
+    };
+    private static final String[] UNIVERSITIES = {
+            "State University", "Institute of Technology", "Polytechnic University", "College of Engineering"
+    };
+
+    private final LoadTestConfig config;
+
+    public SyntheticProfiles(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Builds the request bodies for an endpoint; templates are assigned round-robin from the template mix
+     * and ignored by endpoints that take none
+     */
+    public List<String> corpus(Endpoint endpoint, List<String> templates) {
+        Random random = new Random(config.seed ^ endpoint.ordinal() * 0x9E3779B97F4A7C15L);
+        List<String> bodies = new ArrayList<>(config.corpusSize);
+        for (int i = 0; i < config.corpusSize; i++) {
+            JsonObject request = new JsonObject();
+            switch (endpoint.body()) {
+                case PROFILE -> {
+                    request.addProperty("templateId", templates.get(i % templates.size()));
+                    request.add("profile", profile(random));
+                }
+                case COVER_LETTER -> {
+                    request.addProperty("templateId", templates.get(i % templates.size()));
+                    request.add("coverLetter", coverLetter(random));
+                }
+                case APPLICATION -> {
+                    List<String> coverLetterTemplates = Endpoint.COVER_LETTER_PDF.templates();
+                    request.addProperty("resumeTemplateId", templates.get(i % templates.size()));
+                    request.addProperty("coverLetterTemplateId", coverLetterTemplates.get(i % coverLetterTemplates.size()));
+                    request.add("profile", profile(random));
+                    request.add("coverLetter", coverLetter(random));
+                }
+                case BULK_RUN -> {
+                    request.addProperty("templateId", templates.get(i % templates.size()));
+                    JsonArray profiles = new JsonArray();
+                    for (int p = 0; p < config.bulkProfiles; p++) {
+                        profiles.add(profile(random));
+                    }
+                    request.add("profiles", profiles);
+                }
+                case RANK -> request.addProperty("jobDescription", jobDescription(random));
+            }
+            bodies.add(request.toString());
+        }
+        return bodies;
+    }
+
+    /**
+     * Body for POST /api/profiles indexing --corpus profiles as p0, p1, ..., so ranking has something to rank
+     */
+    public String indexRequest() {
+        Random random = new Random(config.seed ^ 0x5DEECE66DL);
+        JsonObject profiles = new JsonObject();
+        for (int i = 0; i < config.corpusSize; i++) {
+            profiles.add("p" + i, profile(random));
+        }
+        JsonObject request = new JsonObject();
+        request.add("profiles", profiles);
+        return request.toString();
+    }
+
+    JsonObject profile(Random random) {
+        String name = pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES);
+        JsonObject profile = new JsonObject();
+        profile.addProperty("name", name);
+        profile.addProperty("email", name.toLowerCase().replace(' ', '.') + "@example.com");
+        profile.addProperty("phone", String.format("+1 (555) %03d-%04d", random.nextInt(1000), random.nextInt(10000)));
+        profile.addProperty("location", pick(random, CITIES));
+        profile.addProperty("summary", paragraph(random, 3));
+
+        JsonArray skills = new JsonArray();
+        for (int i = 0; i < config.skills; i++) {
+            skills.add(SKILLS[(i + random.nextInt(SKILLS.length)) % SKILLS.length]);
+        }
+        profile.add("skills", skills);
+
+        int experienceCount = config.minExperience
+                + random.nextInt(config.maxExperience - config.minExperience + 1);
+        JsonArray experience = new JsonArray();
+        int year = 2024;
+        for (int i = 0; i < experienceCount; i++) {
+            int years = 1 + random.nextInt(4);
+            JsonObject entry = new JsonObject();
+            entry.addProperty("title", pick(random, TITLES));
+            entry.addProperty("company", pick(random, COMPANIES));
+            entry.addProperty("duration", (year - years) + " - " + (i == 0 ? "Present" : String.valueOf(year)));
+            entry.addProperty("description", paragraph(random, config.sentencesPerEntry));
+            experience.add(entry);
+            year -= years;
+        }
+        profile.add("experience", experience);
+
+        JsonArray education = new JsonArray();
+        JsonObject degree = new JsonObject();
+        degree.addProperty("degree", pick(random, DEGREES));
+        degree.addProperty("institution", pick(random, UNIVERSITIES));
+        degree.addProperty("year", String.valueOf(year - 1));
+        education.add(degree);
+        profile.add("education", education);
+
+        JsonArray certifications = new JsonArray();
+        certifications.add("AWS Certified Solutions Architect");
+        profile.add("certifications", certifications);
+        return profile;
+    }
+
+    JsonObject coverLetter(Random random) {
+        String name = pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES);
+        JsonObject header = new JsonObject();
+        header.addProperty("name", name);
+        header.addProperty("email", name.toLowerCase().replace(' ', '.') + "@example.com");
+        header.addProperty("phone", String.format("+1 (555) %03d-%04d", random.nextInt(1000), random.nextInt(10000)));
+        header.addProperty("date", "January " + (1 + random.nextInt(28)) + ", 2025");
+
+        JsonObject recipient = new JsonObject();
+        recipient.addProperty("name", "Hiring Manager");
+        recipient.addProperty("company", pick(random, COMPANIES));
+        recipient.addProperty("position", pick(random, TITLES));
+
+        JsonArray content = new JsonArray();
+        for (int i = 0; i < config.coverLetterParagraphs; i++) {
+            content.add(paragraph(random, config.sentencesPerEntry));
+        }
+
+        JsonObject closing = new JsonObject();
+        closing.addProperty("valediction", "Best regards");
+        closing.addProperty("name", name);
+
+        JsonObject coverLetter = new JsonObject();
+        coverLetter.add("header", header);
+        coverLetter.add("recipient", recipient);
+        coverLetter.add("content", content);
+        coverLetter.add("closing", closing);
+        return coverLetter;
+    }
+
+    String jobDescription(Random random) {
+        StringBuilder text = new StringBuilder(pick(random, TITLES)).append(" at ").append(pick(random, COMPANIES))
+                .append(". Experience with");
+        for (int i = 0; i < 5; i++) {
+            text.append(i == 0 ? " " : i == 4 ? " and " : ", ").append(pick(random, SKILLS));
+        }
+        return text.append(". ").append(paragraph(random, config.sentencesPerEntry)).toString();
+    }
+
+    private static String paragraph(Random random, int sentences) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < sentences; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(pick(random, VERBS)).append(' ').append(pick(random, OBJECTS))
+                    .append(", ").append(pick(random, OUTCOMES)).append('.');
+        }
+        return text.toString();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -2,120 +2,677 @@ package com.example.pdfgen;
 
 import com.example.pdfgen.model.CandidateProfile;
 import com.example.pdfgen.service.PdfGeneratorService;
-import com.example.pdfgen.service.ProfileOptimizer;
+import com.example.pdfgen.service.RenderDeadline;
 import com.example.pdfgen.service.TemplateService;
+import com.example.pdfgen.service.WordGeneratorService;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.templateresolver.FileTemplateResolver;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 
 /**
- * Main application class for generating optimized candidate profile PDFs
+ * Command-line tool that renders a directory of candidate profiles in parallel
+ *
+ * Every profile JSON in the input directory matching the include pattern is rendered in each requested
+ * format into the output directory, named after the input file. One template engine and one set of
+ * generators are shared by all items, which render on a fork-join pool of the given parallelism.
+ * A profile that fails is recorded and the run carries on; the run ends with a summary of throughput,
+ * latency percentiles and failures, and exits with status 1 if any profile failed.
+ *
+ * Every run records in a {@link RenderManifest} in the output directory which profile, template and
+ * format each document was rendered from. With --incremental only documents whose profile or template
+ * content changed, or that are missing, are rendered again, and the documents of deleted profiles are
+ * removed; after a template edit that is exactly the outputs of that template. --watch does an
+ * incremental run and then another each time the input or template directory changes, until stopped.
  */
 public class ProfilePdfGenerator {
 
-    private static final String DEFAULT_TEMPLATE = "david_anderson";
-    private static final String DEFAULT_OUTPUT = "/tmp/"+DEFAULT_TEMPLATE+".pdf";
+    private static final String DEFAULT_INPUT = "src/main/resources/input";
+    private static final String DEFAULT_INCLUDE = "*-profile.json";
+    private static final String DEFAULT_OUTPUT = "/tmp";
+    private static final String DEFAULT_TEMPLATE = "resume_template_001";
+    private static final String DEFAULT_FORMATS = "pdf";
+    private static final Set<String> FORMATS = Set.of("pdf", "docx");
+    private static final Set<String> FLAGS = Set.of("incremental", "watch");
+    private static final long SETTLE_MILLIS = 300;
 
+    private final Gson gson = new Gson();
+    private final TemplateService templateService;
+    private final PdfGeneratorService pdfGeneratorService;
+    private final WordGeneratorService wordGeneratorService;
+    private final String templateId;
+    private final Set<String> formats;
+    private final Path templatesDir;
+    private final TemplateEngine templateEngine;
+    private RenderManifest manifest;
+    private Path manifestDir;
+    private String classpathTemplateHash;
+    private String lastTemplateHash;
 
-    public static void main(String[] args) {
-        List<String> profiles =  List.of("entry-level-profile", "marketing-manager-profile", "senior-engineer-profile");
-        for (String profile : profiles) {
-            generate(profile);
+    /**
+     * @param templateId Resume template used for PDF output
+     * @param formats    Formats to write for every profile, any of pdf and docx
+     */
+    public ProfilePdfGenerator(String templateId, Set<String> formats) {
+        this(templateId, formats, null);
+    }
+
+    /**
+     * @param templateId   Resume template used for PDF output
+     * @param formats      Formats to write for every profile, any of pdf and docx
+     * @param templatesDir Directory holding &lt;templateId&gt;.html, or null for the bundled templates
+     */
+    public ProfilePdfGenerator(String templateId, Set<String> formats, Path templatesDir) {
+        if (templatesDir != null) {
+            FileTemplateResolver templateResolver = new FileTemplateResolver();
+            templateResolver.setPrefix(templatesDir.toAbsolutePath() + "/");
+            templateResolver.setSuffix(".html");
+            templateResolver.setTemplateMode("HTML");
+            templateResolver.setCharacterEncoding("UTF-8");
+            // Kept until the template's content hash changes, see templateHash
+            templateResolver.setCacheable(true);
+            this.templateEngine = new TemplateEngine();
+            this.templateEngine.setTemplateResolver(templateResolver);
+            this.templateService = new TemplateService(templateEngine);
+        } else {
+            this.templateEngine = null;
+            this.templateService = new TemplateService();
         }
+        this.pdfGeneratorService = new PdfGeneratorService();
+        this.wordGeneratorService = new WordGeneratorService();
+        this.templateId = templateId;
+        this.formats = formats;
+        this.templatesDir = templatesDir;
     }
 
-    private static void generate(String profile){
+    public static void main(String[] args) {
+        Map<String, String> options;
+        Set<String> formats;
+        int parallelism;
         try {
+            options = parseOptions(args);
+            if (options.containsKey("help")) {
+                printUsage();
+                return;
+            }
+            formats = parseFormats(options.getOrDefault("format", DEFAULT_FORMATS));
+            parallelism = Integer.parseInt(options.getOrDefault("parallelism",
+                    String.valueOf(Runtime.getRuntime().availableProcessors())));
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("Parallelism must be at least 1");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println();
+            printUsage();
+            System.exit(2);
+            return;
+        }
 
+        Path input = Paths.get(options.getOrDefault("input", DEFAULT_INPUT));
+        Path output = Paths.get(options.getOrDefault("output", DEFAULT_OUTPUT));
+        String include = options.getOrDefault("include", DEFAULT_INCLUDE);
+        String template = options.getOrDefault("template", DEFAULT_TEMPLATE);
+        Path templates = options.containsKey("templates") ? Paths.get(options.get("templates")) : null;
+        boolean watch = options.containsKey("watch");
+        boolean incremental = watch || options.containsKey("incremental");
 
-            String profilePath = "src/main/resources/input/"+profile+".json";
-            String jobDescriptionPath = "src/main/resources/input/job-description.txt";
+        System.out.println("=== Profile PDF Generator ===");
+        System.out.println("Input: " + input + " (" + include + ")");
+        System.out.println("Output: " + output);
+        System.out.println("Template: " + template + ", formats: " + String.join(",", formats)
+                + ", parallelism: " + parallelism + (incremental ? ", incremental" : ""));
+        if (templates != null) {
+            System.out.println("Templates: " + templates);
+        }
+        System.out.println();
 
-            String outputPath =  "/tmp/"+profile+".pdf";
+        try {
+            ProfilePdfGenerator generator = new ProfilePdfGenerator(template, formats, templates);
+            if (watch) {
+                generator.watch(input, include, output, parallelism);
+                return;
+            }
+            Summary summary = generator.run(input, include, output, parallelism, incremental);
+            summary.print(System.out);
+            if (summary.getFailed() > 0) {
+                System.exit(1);
+            }
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-            System.out.println("=== Profile PDF Generator ===");
-            System.out.println("Profile: " + profilePath);
-            System.out.println("Job Description: " + jobDescriptionPath);
-            System.out.println("Output: " + outputPath);
-            System.out.println();
+    /**
+     * Renders every matching profile in the input directory
+     *
+     * @param inputDir    Directory holding profile JSON files
+     * @param include     Glob selecting the profile files, e.g. *.json
+     * @param outputDir   Directory the documents are written to, created if missing
+     * @param parallelism Number of profiles rendered at once
+     * @return Per-run counts, timings and failures
+     * @throws IOException If the input directory cannot be listed or the output directory created
+     */
+    public Summary run(Path inputDir, String include, Path outputDir, int parallelism) throws IOException {
+        return run(inputDir, include, outputDir, parallelism, false);
+    }
 
-            // Read input files
-            String profileJson = readFile(profilePath);
-            String jobDescription = readFile(jobDescriptionPath);
+    /**
+     * Renders the matching profiles in the input directory, all of them or only those out of date
+     *
+     * @param inputDir    Directory holding profile JSON files
+     * @param include     Glob selecting the profile files, e.g. *.json
+     * @param outputDir   Directory the documents are written to, created if missing
+     * @param parallelism Number of profiles rendered at once
+     * @param incremental Skip documents whose inputs are unchanged since they were rendered, and remove
+     *                    the documents of profiles that no longer exist
+     * @return Per-run counts, timings and failures
+     * @throws IOException If the input directory cannot be listed, the template read or the output
+     *                     directory or manifest written
+     */
+    public Summary run(Path inputDir, String include, Path outputDir, int parallelism,
+                       boolean incremental) throws IOException {
+        PathMatcher matcher = inputDir.getFileSystem().getPathMatcher("glob:" + include);
+        Set<String> present = new LinkedHashSet<>();
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(inputDir)) {
+            for (Path file : entries) {
+                if (Files.isRegularFile(file) && !file.getFileName().toString().startsWith(RenderManifest.FILE_NAME)) {
+                    present.add(file.getFileName().toString());
+                    if (matcher.matches(file.getFileName())) {
+                        files.add(file);
+                    }
+                }
+            }
+        }
+        files.sort(null);
+        Files.createDirectories(outputDir);
 
-            // Parse the candidate profile from JSON
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            CandidateProfile originalProfile = gson.fromJson(profileJson, CandidateProfile.class);
+        long start = System.nanoTime();
+        RenderManifest manifest = manifest(outputDir);
+        String templateHash = formats.contains("pdf") ? templateHash(manifest) : null;
 
-            System.out.println("Original Profile:");
-            System.out.println("  Name: " + originalProfile.getName());
-            System.out.println("  Email: " + originalProfile.getEmail());
-            System.out.println();
+        // Plan: the documents of each profile that need rendering, with the digest of their inputs
+        List<Job> jobs = new ArrayList<>(files.size());
+        int skipped = 0;
+        for (Path file : files) {
+            String profileHash;
+            try {
+                profileHash = manifest.contentHash(file);
+            } catch (NoSuchFileException e) {
+                // Deleted since the directory was listed; the next run removes its documents
+                continue;
+            }
+            String baseName = file.getFileName().toString().replaceFirst("\\.json$", "");
+            Map<String, String> digests = new LinkedHashMap<>();
+            for (String format : formats) {
+                String digest = format.equals("pdf")
+                        ? RenderManifest.digest(format, templateId, templateHash, profileHash)
+                        : RenderManifest.digest(format, profileHash);
+                if (!incremental || !manifest.isCurrent(baseName + "." + format, digest)) {
+                    digests.put(format, digest);
+                }
+            }
+            if (digests.isEmpty()) {
+                skipped++;
+            } else {
+                jobs.add(new Job(file, baseName, digests));
+            }
+        }
 
-            // Process the template with optimized profile data
-            TemplateService templateService = new TemplateService();
-            String processedHtml = templateService.processTemplate(DEFAULT_TEMPLATE, originalProfile);
+        int removed = 0;
+        if (incremental) {
+            for (String output : manifest.outputsWithoutSource(present)) {
+                Files.deleteIfExists(outputDir.resolve(output));
+                manifest.remove(output);
+                removed++;
+                System.out.println("  removed " + output);
+            }
+        }
 
-            // Generate PDF from the processed HTML
-            PdfGeneratorService pdfService = new PdfGeneratorService();
-            pdfService.generatePdf(processedHtml, outputPath);
+        List<Item> items = new ArrayList<>(jobs.size());
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<Item>> tasks = new ArrayList<>(jobs.size());
+            for (Job job : jobs) {
+                tasks.add(pool.submit(() -> render(job, outputDir, manifest)));
+            }
+            for (ForkJoinTask<Item> task : tasks) {
+                Item item = task.join();
+                items.add(item);
+                System.out.println((item.error == null ? "  ok      " : "  FAILED  ") + item.file.getFileName()
+                        + String.format(Locale.ROOT, " (%d ms)", item.nanos / 1_000_000));
+            }
+        } finally {
+            pool.shutdown();
+            manifest.save();
+        }
+        return new Summary(items, skipped, removed, System.nanoTime() - start);
+    }
 
+    /**
+     * Renders once now and again whenever a file in the input directory, or the template directory if
+     * one was given, is created, changed or deleted; runs until the thread is interrupted
+     *
+     * A run that fails, e.g. because the template was deleted mid-edit, is reported and the watch goes
+     * on. Events for the generator's own writes (documents, partial files and the manifest, when the
+     * output directory is or lies inside a watched directory) do not start a run.
+     *
+     * @throws IOException If a directory cannot be watched
+     */
+    public void watch(Path inputDir, String include, Path outputDir, int parallelism)
+            throws IOException, InterruptedException {
+        try (WatchService watcher = inputDir.getFileSystem().newWatchService()) {
+            inputDir.register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            if (templatesDir != null) {
+                templatesDir.register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            }
+            Path output = outputDir.toAbsolutePath().normalize();
+            runAndReport(inputDir, include, outputDir, parallelism, true);
             System.out.println();
-            System.out.println("✓ Success! Optimized profile PDF generated: " + outputPath);
+            System.out.println("Watching " + inputDir + (templatesDir != null ? " and " + templatesDir : "")
+                    + " for changes");
+
+            while (true) {
+                WatchKey key = watcher.take();
+                // Saves and copies arrive as bursts of events; plan once the burst has settled. The plan
+                // compares content hashes, so which events arrived (or overflowed) does not matter.
+                boolean changed = false;
+                while (key != null) {
+                    Path dir = ((Path) key.watchable()).toAbsolutePath().normalize();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        changed |= event.kind() == OVERFLOW || !isOwnWrite(dir.resolve((Path) event.context()), output);
+                    }
+                    key.reset();
+                    key = watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (changed) {
+                    runAndReport(inputDir, include, outputDir, parallelism, false);
+                }
+            }
+        }
+    }
+
+    /**
+     * One watch run; failures are printed instead of thrown
+     *
+     * @param always Print the summary even if nothing was rendered or removed
+     */
+    private void runAndReport(Path inputDir, String include, Path outputDir, int parallelism, boolean always) {
+        try {
+            Summary summary = run(inputDir, include, outputDir, parallelism, true);
+            if (always || summary.getProfiles() > 0 || summary.getRemoved() > 0) {
+                summary.print(System.out);
+            }
+        } catch (IOException e) {
+            System.err.println("Run failed, waiting for the next change: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Whether the path is the output directory itself or a file the generator writes into it
+     */
+    private boolean isOwnWrite(Path path, Path outputDir) {
+        if (path.equals(outputDir)) {
+            return true;
+        }
+        if (!outputDir.equals(path.getParent())) {
+            return false;
+        }
+        String name = path.getFileName().toString();
+        return name.startsWith(RenderManifest.FILE_NAME) || name.endsWith(".part")
+                || (manifest != null && outputDir.equals(manifestDir.toAbsolutePath().normalize())
+                && manifest.isOutput(name));
+    }
+
+    /**
+     * The manifest of the output directory, kept across runs so file hashes are not recomputed
+     */
+    private RenderManifest manifest(Path outputDir) throws IOException {
+        if (manifest == null || !outputDir.equals(manifestDir)) {
+            manifest = RenderManifest.load(outputDir);
+            manifestDir = outputDir;
+        }
+        return manifest;
+    }
+
+    /**
+     * Content hash of the PDF template; clears the engine's template cache when a template directory
+     * is in use and the template changed since the last run
+     */
+    private String templateHash(RenderManifest manifest) throws IOException {
+        if (templatesDir == null) {
+            if (classpathTemplateHash == null) {
+                try (InputStream in = getClass().getResourceAsStream("/templates/" + templateId + ".html")) {
+                    if (in == null) {
+                        throw new IOException("Template not found: " + templateId);
+                    }
+                    classpathTemplateHash = RenderManifest.hash(in);
+                }
+            }
+            return classpathTemplateHash;
+        }
+        Path template = templatesDir.resolve(templateId + ".html");
+        if (!Files.isRegularFile(template)) {
+            throw new IOException("Template not found: " + template);
+        }
+        String hash = manifest.contentHash(template);
+        if (lastTemplateHash != null && !lastTemplateHash.equals(hash)) {
+            templateEngine.clearTemplateCache();
+        }
+        lastTemplateHash = hash;
+        return hash;
+    }
+
+    /**
+     * Renders the planned formats of one profile and records each in the manifest; never throws, so
+     * one bad file cannot stop the run
+     */
+    private Item render(Job job, Path outputDir, RenderManifest manifest) {
+        long start = System.nanoTime();
+        Path file = job.file;
+        String baseName = job.baseName;
+        int documents = 0;
+        Path partial = null;
+        try {
+            CandidateProfile profile;
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                profile = gson.fromJson(reader, CandidateProfile.class);
+            }
+            if (profile == null) {
+                throw new IllegalArgumentException("File is empty");
+            }
 
+            for (Map.Entry<String, String> planned : job.digests.entrySet()) {
+                String format = planned.getKey();
+                Path target = outputDir.resolve(baseName + "." + format);
+                // Written under a temporary name so an interrupted run never leaves a truncated document
+                partial = outputDir.resolve(baseName + "." + format + ".part");
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                    if (format.equals("pdf")) {
+                        pdfGeneratorService.generatePdfToStream(
+                                writer -> templateService.processTemplate(templateId, profile, RenderDeadline.none(), writer),
+                                out, RenderDeadline.none(), templateId);
+                    } else {
+                        wordGeneratorService.generateResumeDocx(profile, out);
+                    }
+                }
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                partial = null;
+                manifest.record(target.getFileName().toString(), file.getFileName().toString(), planned.getValue());
+                documents++;
+            }
+            return new Item(file, System.nanoTime() - start, documents, null);
 
         } catch (Exception e) {
-            System.err.println("Error: " + e.getMessage());
-            e.printStackTrace();
-            System.exit(1);
+            if (partial != null) {
+                try {
+                    Files.deleteIfExists(partial);
+                } catch (IOException ignored) {
+                    // Reported through the original failure
+                }
+            }
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return new Item(file, System.nanoTime() - start, documents, message);
         }
     }
 
     /**
-     * Reads the entire content of a file
+     * A profile to render and the digest of each of its out-of-date documents, by format
      */
-    private static String readFile(String filePath) throws IOException {
-        System.out.println("Reading file: " + filePath);
-        return new String(Files.readAllBytes(Paths.get(filePath)));
+    private static final class Job {
+        private final Path file;
+        private final String baseName;
+        private final Map<String, String> digests;
+
+        Job(Path file, String baseName, Map<String, String> digests) {
+            this.file = file;
+            this.baseName = baseName;
+            this.digests = digests;
+        }
     }
 
     /**
-     * Cleans JSON response by removing markdown code blocks if present
+     * Outcome of one profile
      */
-    private static String cleanJsonResponse(String response) {
-        // Remove markdown code blocks if present
-        String cleaned = response.trim();
-        if (cleaned.startsWith("```json")) {
-            cleaned = cleaned.substring(7);
-        } else if (cleaned.startsWith("```")) {
-            cleaned = cleaned.substring(3);
+    private static final class Item {
+        private final Path file;
+        private final long nanos;
+        private final int documents;
+        private final String error;
+
+        Item(Path file, long nanos, int documents, String error) {
+            this.file = file;
+            this.nanos = nanos;
+            this.documents = documents;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Counts, throughput and latency of a run, and the error of each failed profile
+     */
+    public static final class Summary {
+        private final int succeeded;
+        private final int documents;
+        private final int skipped;
+        private final int removed;
+        private final long wallNanos;
+        private final long[] latencies;
+        private final Map<Path, String> failures = new LinkedHashMap<>();
+
+        Summary(List<Item> items, int skipped, int removed, long wallNanos) {
+            this.skipped = skipped;
+            this.removed = removed;
+            this.wallNanos = wallNanos;
+            this.latencies = new long[items.size()];
+            int ok = 0;
+            int written = 0;
+            for (int i = 0; i < items.size(); i++) {
+                Item item = items.get(i);
+                latencies[i] = item.nanos;
+                written += item.documents;
+                if (item.error == null) {
+                    ok++;
+                } else {
+                    failures.put(item.file, item.error);
+                }
+            }
+            Arrays.sort(latencies);
+            this.succeeded = ok;
+            this.documents = written;
+        }
+
+        /**
+         * Profiles rendered, failed ones included; profiles that were up to date are not counted
+         */
+        public int getProfiles() {
+            return latencies.length;
         }
-        if (cleaned.endsWith("```")) {
-            cleaned = cleaned.substring(0, cleaned.length() - 3);
+
+        public int getSucceeded() {
+            return succeeded;
+        }
+
+        public int getFailed() {
+            return failures.size();
+        }
+
+        /**
+         * Documents written; in an incremental run only those that were out of date
+         */
+        public int getDocuments() {
+            return documents;
+        }
+
+        /**
+         * Profiles whose documents were all up to date, in an incremental run
+         */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * Documents deleted because their profile no longer exists, in an incremental run
+         */
+        public int getRemoved() {
+            return removed;
+        }
+
+        /**
+         * Error message of each failed profile, by input file
+         */
+        public Map<Path, String> getFailures() {
+            return failures;
+        }
+
+        /**
+         * Profiles completed per second of wall time, failed ones included
+         */
+        public double getThroughput() {
+            return wallNanos == 0 ? 0 : latencies.length / (wallNanos / 1e9);
+        }
+
+        /**
+         * Latency of one profile (all of its formats) at the given percentile, nearest rank
+         */
+        public long getLatencyMillis(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * latencies.length);
+            return latencies[Math.max(0, Math.min(latencies.length - 1, rank - 1))] / 1_000_000;
+        }
+
+        public void print(PrintStream out) {
+            out.println();
+            out.println("=== Summary ===");
+            out.printf(Locale.ROOT, "Profiles:   %d (%d succeeded, %d failed)%n", latencies.length, succeeded, getFailed());
+            out.printf(Locale.ROOT, "Documents:  %d%n", documents);
+            if (skipped > 0 || removed > 0) {
+                out.printf(Locale.ROOT, "Up to date: %d profiles, %d documents removed%n", skipped, removed);
+            }
+            out.printf(Locale.ROOT, "Wall time:  %d ms%n", wallNanos / 1_000_000);
+            out.printf(Locale.ROOT, "Throughput: %.2f profiles/s%n", getThroughput());
+            out.printf(Locale.ROOT, "Latency:    p50=%d ms, p95=%d ms, p99=%d ms, max=%d ms%n",
+                    getLatencyMillis(50), getLatencyMillis(95), getLatencyMillis(99), getLatencyMillis(100));
+            if (!failures.isEmpty()) {
+                out.println("Failures:");
+                failures.forEach((file, error) -> out.println("  " + file.getFileName() + ": " + error));
+            }
+        }
+    }
+
+    /**
+     * Parses --name value and --name=value options; --help and the FLAGS take no value
+     */
+    private static Map<String, String> parseOptions(String[] args) {
+        Set<String> known = Set.of("input", "output", "include", "template", "templates", "format", "parallelism");
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--help") || arg.equals("-h")) {
+                options.put("help", "");
+                continue;
+            }
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            String name = arg.substring(2);
+            if (FLAGS.contains(name)) {
+                options.put(name, "");
+                continue;
+            }
+            String value;
+            int equals = name.indexOf('=');
+            if (equals >= 0) {
+                value = name.substring(equals + 1);
+                name = name.substring(0, equals);
+            } else if (i + 1 < args.length) {
+                value = args[++i];
+            } else {
+                throw new IllegalArgumentException("Missing value for --" + name);
+            }
+            if (!known.contains(name)) {
+                throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+            options.put(name, value);
+        }
+        return options;
+    }
+
+    private static Set<String> parseFormats(String formats) {
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String format : formats.split(",")) {
+            String normalized = format.trim().toLowerCase(Locale.ROOT);
+            if (!FORMATS.contains(normalized)) {
+                throw new IllegalArgumentException("Unsupported format: " + format);
+            }
+            parsed.add(normalized);
         }
-        return cleaned.trim();
+        return parsed;
     }
 
     /**
      * Prints usage instructions
      */
     private static void printUsage() {
-        System.out.println("Usage: java -jar pdfhtml.jar <profile.json> <job-description.txt> [output.pdf]");
+        System.out.println("Usage: java -Dloader.main=com.example.pdfgen.ProfilePdfGenerator -cp pdfhtml.jar \\");
+        System.out.println("           org.springframework.boot.loader.launch.PropertiesLauncher [options]");
         System.out.println();
-        System.out.println("Arguments:");
-        System.out.println("  profile.json          - Path to candidate profile JSON file");
-        System.out.println("  job-description.txt   - Path to job description text file");
-        System.out.println("  output.pdf            - (Optional) Output PDF path (default: optimized-profile.pdf)");
+        System.out.println("Options:");
+        System.out.println("  --input <dir>          Directory of profile JSON files (default: " + DEFAULT_INPUT + ")");
+        System.out.println("  --include <glob>       Profile files to render (default: " + DEFAULT_INCLUDE + ")");
+        System.out.println("  --output <dir>         Directory the documents are written to (default: " + DEFAULT_OUTPUT + ")");
+        System.out.println("  --template <id>        Resume template for PDF output (default: " + DEFAULT_TEMPLATE + ")");
+        System.out.println("  --format <list>        Comma-separated formats, any of pdf and docx (default: " + DEFAULT_FORMATS + ")");
+        System.out.println("  --parallelism <n>      Profiles rendered at once (default: number of cores)");
+        System.out.println("  --templates <dir>      Read templates from this directory instead of the bundled ones");
+        System.out.println("  --incremental          Render only documents whose profile or template changed");
+        System.out.println("  --watch                Render incrementally, then again on every change until stopped");
         System.out.println();
-        System.out.println("Environment Variables:");
-        System.out.println("  OPENAI_API_KEY        - Your OpenAI API key (required)");
+        System.out.println("Exit status: 0 if every profile rendered, 1 if any failed, 2 on invalid options");
         System.out.println();
         System.out.println("Example:");
-        System.out.println("  export OPENAI_API_KEY=sk-your-api-key");
-        System.out.println("  java -jar pdfhtml.jar src/main/resources/input/profile.json src/main/resources/input/job-description.txt");
+        System.out.println("  java -Dloader.main=com.example.pdfgen.ProfilePdfGenerator -cp pdfhtml.jar \\");
+        System.out.println("      org.springframework.boot.loader.launch.PropertiesLauncher \\");
+        System.out.println("      --input profiles --include '*.json' --output out --format pdf,docx --parallelism 8");
+        System.out.println("  ... --input profiles --output out --templates templates --watch");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,209 @@
+package com.example.pdfgen;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Record of the inputs each document in an output directory was rendered from
+ *
+ * Maps every output file name to the profile it came from and a digest of everything that went into
+ * it: the profile's content hash, the format and, for PDFs, the template ID and the template's content
+ * hash. A document is current while its digest matches and the file still exists. Content hashes of
+ * input files are cached by size and modification time, so re-planning after one file changed only
+ * reads that file. Stored as JSON in {@link #FILE_NAME} and replaced atomically on save. Thread-safe.
+ */
+final class RenderManifest {
+
+    static final String FILE_NAME = ".render-manifest.json";
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final TypeToken<TreeMap<String, Entry>> ENTRIES = new TypeToken<>() { };
+
+    /**
+     * One output document
+     */
+    static final class Entry {
+        String source;
+        String digest;
+
+        Entry(String source, String digest) {
+            this.source = source;
+            this.digest = digest;
+        }
+    }
+
+    /**
+     * Content hash of a file as of the given size and modification time
+     */
+    private static final class FileHash {
+        final long size;
+        final long modified;
+        final String hash;
+
+        FileHash(long size, long modified, String hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+    }
+
+    private final Path file;
+    private final TreeMap<String, Entry> entries;
+    private final Map<Path, FileHash> fileHashes = new HashMap<>();
+    private boolean changed;
+
+    private RenderManifest(Path file, TreeMap<String, Entry> entries) {
+        this.file = file;
+        this.entries = entries;
+    }
+
+    /**
+     * Loads the manifest of an output directory; a missing or unreadable one starts empty, which
+     * simply renders everything once
+     */
+    static RenderManifest load(Path outputDir) throws IOException {
+        Path file = outputDir.resolve(FILE_NAME);
+        TreeMap<String, Entry> entries = null;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            entries = GSON.fromJson(reader, ENTRIES.getType());
+        } catch (NoSuchFileException e) {
+            // First run into this directory
+        } catch (JsonParseException e) {
+            System.err.println("Ignoring unreadable manifest " + file + ": " + e.getMessage());
+        }
+        return new RenderManifest(file, entries != null ? entries : new TreeMap<>());
+    }
+
+    /**
+     * Whether the output exists and was rendered from inputs with this digest
+     */
+    synchronized boolean isCurrent(String output, String digest) {
+        Entry entry = entries.get(output);
+        return entry != null && entry.digest.equals(digest) && Files.exists(file.resolveSibling(output));
+    }
+
+    synchronized void record(String output, String source, String digest) {
+        entries.put(output, new Entry(source, digest));
+        changed = true;
+    }
+
+    synchronized void remove(String output) {
+        changed |= entries.remove(output) != null;
+    }
+
+    /**
+     * Whether the name is an output recorded in the manifest
+     */
+    synchronized boolean isOutput(String name) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * Outputs recorded for sources not in the given set, e.g. profiles that were deleted
+     */
+    synchronized Set<String> outputsWithoutSource(Set<String> sources) {
+        Set<String> orphans = new HashSet<>();
+        entries.forEach((output, entry) -> {
+            if (!sources.contains(entry.source)) {
+                orphans.add(output);
+            }
+        });
+        return orphans;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes the manifest next to the outputs, replacing the previous one atomically; does nothing if no
+     * output was recorded or removed since it was loaded or last saved
+     */
+    synchronized void save() throws IOException {
+        if (!changed) {
+            return;
+        }
+        Path partial = file.resolveSibling(FILE_NAME + ".part");
+        try (Writer writer = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+            GSON.toJson(entries, ENTRIES.getType(), writer);
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        changed = false;
+    }
+
+    /**
+     * SHA-256 of the file's content, read again only when its size or modification time changed
+     */
+    String contentHash(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long modified = attributes.lastModifiedTime().toMillis();
+        synchronized (fileHashes) {
+            FileHash cached = fileHashes.get(path);
+            if (cached != null && cached.size == attributes.size() && cached.modified == modified) {
+                return cached.hash;
+            }
+        }
+        String hash;
+        try (InputStream in = Files.newInputStream(path)) {
+            hash = hash(in);
+        }
+        synchronized (fileHashes) {
+            fileHashes.put(path, new FileHash(attributes.size(), modified, hash));
+        }
+        return hash;
+    }
+
+    /**
+     * SHA-256 of everything read from the stream
+     */
+    static String hash(InputStream in) throws IOException {
+        MessageDigest digest = sha256();
+        try (DigestInputStream digesting = new DigestInputStream(in, digest)) {
+            digesting.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * SHA-256 of the parts, each terminated by a NUL so adjacent parts cannot run together
+     */
+    static String digest(String... parts) {
+        MessageDigest digest = sha256();
+        for (String part : parts) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.pdfgen.config;
 
+import com.example.pdfgen.service.AdaptiveConcurrencyLimit;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -15,22 +17,25 @@ import java.util.concurrent.Executor;
 @Slf4j
 public class ConcurrencyConfig {
 
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+
     /**
      * Configure async executor for potential async PDF generation tasks
-     * This is optional but provides better control over concurrent operations
+     * Sized from the core count since rendering is CPU-bound; admission control is
+     * handled by the RenderScheduler, so this pool only needs to keep the cores busy
      */
     @Bean(name = "pdfTaskExecutor")
     public Executor pdfTaskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
 
         // Core pool size - minimum number of threads
-        executor.setCorePoolSize(10);
+        executor.setCorePoolSize(CORES);
 
         // Max pool size - maximum number of threads
-        executor.setMaxPoolSize(50);
+        executor.setMaxPoolSize(CORES * 2);
 
         // Queue capacity - requests waiting when all threads are busy
-        executor.setQueueCapacity(100);
+        executor.setQueueCapacity(CORES * 8);
 
         // Thread name prefix for debugging
         executor.setThreadNamePrefix("pdf-async-");
@@ -47,4 +52,48 @@ public class ConcurrencyConfig {
 
         return executor;
     }
+
+    /**
+     * Executor for streamed (async) responses such as recruiter packets
+     * A bean so the context shuts it down: on close it stops taking new streams and waits up to the
+     * stream timeout for those in progress to finish writing
+     */
+    @Bean(name = "pdfStreamExecutor")
+    public ThreadPoolTaskExecutor pdfStreamExecutor(
+            @Value("${render.stream.threads:8}") int streamThreads,
+            @Value("${render.stream.timeout-ms:900000}") long streamTimeoutMs) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamThreads);
+        executor.setMaxPoolSize(streamThreads);
+        executor.setQueueCapacity(streamThreads * 4);
+        executor.setThreadNamePrefix("pdf-stream-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationMillis(streamTimeoutMs);
+
+        log.info("Streaming response executor initialized: threads={}", streamThreads);
+
+        return executor;
+    }
+
+    /**
+     * Adaptive limit on concurrent renders, discovered at runtime from render latency
+     * A value of 0 for the initial or max limit derives it from the core count
+     */
+    @Bean
+    public AdaptiveConcurrencyLimit renderConcurrencyLimit(
+            @Value("${render.limiter.enabled:true}") boolean enabled,
+            @Value("${render.limiter.initial-limit:0}") int initialLimit,
+            @Value("${render.limiter.min-limit:1}") int minLimit,
+            @Value("${render.limiter.max-limit:0}") int maxLimit) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+                initialLimit > 0 ? initialLimit : CORES,
+                minLimit,
+                maxLimit > 0 ? maxLimit : CORES * 4,
+                enabled);
+
+        log.info("Render concurrency limit initialized: initial={}, min={}, max={}, adaptive={}",
+                limit.getLimit(), limit.getMinLimit(), limit.getMaxLimit(), limit.isAdaptive());
+
+        return limit;
+    }
 }
@@ -0,0 +1,211 @@
+package com.example.pdfgen.config;
+
+import com.example.pdfgen.service.AdaptiveConcurrencyLimit;
+import com.example.pdfgen.service.ArtifactStore;
+import com.example.pdfgen.service.BulkJobService;
+import com.example.pdfgen.service.JobJournal;
+import com.example.pdfgen.service.OutputBufferPool;
+import com.example.pdfgen.service.PhotoCache;
+import com.example.pdfgen.service.ProfileIndex;
+import com.example.pdfgen.service.RenderCostEstimator;
+import com.example.pdfgen.service.RenderPriority;
+import com.example.pdfgen.service.RenderScheduler;
+import com.example.pdfgen.service.RenderWorkerPool;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for rendering pipeline metrics (exposed via /actuator/metrics)
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Concurrency limit, measured render RTTs and per-lane queue state
+     */
+    @Bean
+    public MeterBinder renderConcurrencyMetrics(AdaptiveConcurrencyLimit limit, RenderScheduler scheduler) {
+        return registry -> {
+            Gauge.builder("render.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Current adaptive limit on concurrent renders")
+                    .register(registry);
+            Gauge.builder("render.concurrency.in_flight", scheduler, RenderScheduler::getInFlight)
+                    .description("Renders currently holding a slot")
+                    .register(registry);
+            Gauge.builder("render.rtt.short", limit, AdaptiveConcurrencyLimit::getShortRttMillis)
+                    .description("Short-term average render time")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("render.rtt.long", limit, AdaptiveConcurrencyLimit::getLongRttMillis)
+                    .description("Long-term average render time")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("render.rtt.min", limit, AdaptiveConcurrencyLimit::getMinRttMillis)
+                    .description("Fastest render time observed")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("render.rtt.last", limit, AdaptiveConcurrencyLimit::getLastRttMillis)
+                    .description("Most recent render time")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+
+            for (RenderPriority priority : RenderPriority.values()) {
+                String lane = priority.name().toLowerCase();
+                Gauge.builder("render.queue.size", scheduler, s -> s.getQueued(priority))
+                        .tag("lane", lane)
+                        .register(registry);
+                FunctionCounter.builder("render.rejected", scheduler, s -> s.getRejected(priority))
+                        .tag("lane", lane)
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * Output buffer segment reuse
+     */
+    @Bean
+    public MeterBinder outputBufferMetrics(OutputBufferPool pool) {
+        return registry -> {
+            FunctionCounter.builder("render.buffer.segments", pool, OutputBufferPool::getHits)
+                    .tag("result", "hit")
+                    .description("Output buffer segments served from the pool")
+                    .register(registry);
+            FunctionCounter.builder("render.buffer.segments", pool, OutputBufferPool::getMisses)
+                    .tag("result", "miss")
+                    .description("Output buffer segments newly allocated")
+                    .register(registry);
+            Gauge.builder("render.buffer.hit_rate", pool, OutputBufferPool::getHitRate)
+                    .description("Fraction of output buffer segments served from the pool")
+                    .register(registry);
+            Gauge.builder("render.buffer.idle_segments", pool, OutputBufferPool::getIdleSegments)
+                    .description("Segments currently pooled")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Stored document count, size and evictions
+     */
+    @Bean
+    public MeterBinder artifactStoreMetrics(ArtifactStore store) {
+        return registry -> {
+            Gauge.builder("render.store.documents", store, ArtifactStore::getCount)
+                    .description("Documents in the artifact store")
+                    .register(registry);
+            Gauge.builder("render.store.size", store, ArtifactStore::getTotalBytes)
+                    .description("Bytes in the artifact store")
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("render.store.evictions", store, ArtifactStore::getEvictions)
+                    .description("Documents evicted to stay under render.store.max-bytes")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Bulk run progress and journal fsync batching
+     */
+    @Bean
+    public MeterBinder bulkJobMetrics(BulkJobService bulkJobService) {
+        return registry -> {
+            FunctionCounter.builder("render.jobs.items.rendered", bulkJobService, BulkJobService::getRenderedItems)
+                    .description("Bulk run items rendered since startup")
+                    .register(registry);
+            FunctionCounter.builder("render.jobs.items.skipped", bulkJobService, BulkJobService::getSkippedItems)
+                    .description("Bulk run items already completed when their run was resumed")
+                    .register(registry);
+            FunctionCounter.builder("render.jobs.journal.appends", bulkJobService.getJournal(), JobJournal::getAppended)
+                    .description("Records appended to the job journal")
+                    .register(registry);
+            FunctionCounter.builder("render.jobs.journal.syncs", bulkJobService.getJournal(), JobJournal::getSyncs)
+                    .description("Job journal fsyncs; fewer than appends when commits are grouped")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Out-of-process render workers: jobs, recycles, crashes and failed restarts
+     */
+    @Bean
+    public MeterBinder renderWorkerMetrics(RenderWorkerPool renderWorkerPool) {
+        return registry -> {
+            Gauge.builder("render.workers.idle", renderWorkerPool, RenderWorkerPool::getIdleWorkers)
+                    .description("Render worker JVMs waiting for a job")
+                    .register(registry);
+            FunctionCounter.builder("render.workers.jobs", renderWorkerPool, RenderWorkerPool::getJobs)
+                    .description("Conversions sent to render worker JVMs")
+                    .register(registry);
+            FunctionCounter.builder("render.workers.recycled", renderWorkerPool, RenderWorkerPool::getRecycled)
+                    .description("Render workers replaced after max-jobs or heap growth")
+                    .register(registry);
+            FunctionCounter.builder("render.workers.crashed", renderWorkerPool, RenderWorkerPool::getCrashed)
+                    .description("Render workers that died, e.g. on OutOfMemoryError")
+                    .register(registry);
+            FunctionCounter.builder("render.workers.spawn-failures", renderWorkerPool, RenderWorkerPool::getSpawnFailures)
+                    .description("Failed attempts to start a replacement render worker, retried with backoff")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Processed photo cache size and hit rate
+     */
+    @Bean
+    public MeterBinder photoCacheMetrics(PhotoCache photoCache) {
+        return registry -> {
+            Gauge.builder("render.photo.cache.size", photoCache, PhotoCache::getCacheBytes)
+                    .description("Bytes held by processed photos")
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("render.photo.cache.hits", photoCache, PhotoCache::getHits)
+                    .description("Photos served from the cache")
+                    .register(registry);
+            FunctionCounter.builder("render.photo.cache.misses", photoCache, PhotoCache::getMisses)
+                    .description("Photos decoded and downscaled")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Profiles checked by the cost estimator, and how many were large or refused
+     */
+    @Bean
+    public MeterBinder renderCostMetrics(RenderCostEstimator renderCostEstimator) {
+        return registry -> {
+            FunctionCounter.builder("render.cost.estimated", renderCostEstimator, RenderCostEstimator::getEstimated)
+                    .description("Profiles whose page count was estimated before rendering")
+                    .register(registry);
+            FunctionCounter.builder("render.cost.large", renderCostEstimator, RenderCostEstimator::getLarge)
+                    .description("Profiles estimated at render.cost.large-pages or more")
+                    .register(registry);
+            FunctionCounter.builder("render.cost.rejected", renderCostEstimator, RenderCostEstimator::getRejected)
+                    .description("Profiles refused for exceeding render.cost.max-pages")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Profiles held by the ranking index and how often it is queried
+     */
+    @Bean
+    public MeterBinder profileIndexMetrics(ProfileIndex profileIndex) {
+        return registry -> {
+            Gauge.builder("profiles.index.size", profileIndex, ProfileIndex::size)
+                    .description("Profiles in the ranking index")
+                    .register(registry);
+            Gauge.builder("profiles.index.terms", profileIndex, ProfileIndex::getTermCount)
+                    .description("Distinct terms in the ranking index")
+                    .register(registry);
+            FunctionCounter.builder("profiles.index.indexed", profileIndex, ProfileIndex::getIndexed)
+                    .description("Profiles added to or replaced in the ranking index")
+                    .register(registry);
+            FunctionCounter.builder("profiles.index.rankings", profileIndex, ProfileIndex::getRankings)
+                    .description("Job descriptions ranked against the index")
+                    .register(registry);
+        };
+    }
+}
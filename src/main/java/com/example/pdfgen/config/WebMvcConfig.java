@@ -0,0 +1,38 @@
+package com.example.pdfgen.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration for streamed (async) responses such as recruiter packets
+ * Streams run on their own bounded pool (see {@link ConcurrencyConfig#pdfStreamExecutor}); the render
+ * work inside them still goes through the RenderScheduler
+ */
+@Configuration
+@Slf4j
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final long streamTimeoutMs;
+    private final AsyncTaskExecutor streamExecutor;
+
+    public WebMvcConfig(
+            @Value("${render.stream.timeout-ms:900000}") long streamTimeoutMs,
+            @Qualifier("pdfStreamExecutor") AsyncTaskExecutor streamExecutor) {
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.streamExecutor = streamExecutor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // The servlet container default (30s on Tomcat) is far too short for a large packet
+        configurer.setDefaultTimeout(streamTimeoutMs);
+        configurer.setTaskExecutor(streamExecutor);
+
+        log.info("Streaming responses configured: timeout={}ms", streamTimeoutMs);
+    }
+}
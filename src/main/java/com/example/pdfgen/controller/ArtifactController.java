@@ -0,0 +1,98 @@
+package com.example.pdfgen.controller;
+
+import com.example.pdfgen.service.ArtifactStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * REST Controller for re-downloading stored documents by their content hash
+ *
+ * Documents are sent straight from the file through Tomcat's sendfile support when the connector
+ * offers it, which is zero-copy. Otherwise they are copied to the response stream: transferTo into a
+ * channel over the servlet output stream goes through a small heap buffer, so this fallback is
+ * buffered, though it never holds more than that buffer of the document in the heap. Neither path
+ * renders anything.
+ */
+@RestController
+@RequestMapping("/api/artifacts")
+@RequiredArgsConstructor
+@Slf4j
+public class ArtifactController {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ArtifactStore artifactStore;
+
+    /**
+     * Download a stored document
+     *
+     * @param id Document ID from the {@value ArtifactStore#ARTIFACT_HEADER} header of the generating request
+     */
+    @GetMapping("/{id}")
+    public void downloadArtifact(@PathVariable String id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Optional<ArtifactStore.Artifact> found = artifactStore.get(id);
+        if (found.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        ArtifactStore.Artifact artifact = found.get();
+
+        // Content never changes for a given hash
+        String etag = "\"" + artifact.getId() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType("pdf".equals(artifact.getExtension())
+                ? MediaType.APPLICATION_PDF_VALUE
+                : "application/vnd.openxmlformats-officedocument.wordprocessingml.document");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(artifact.getId() + "." + artifact.getExtension()).build().toString());
+        response.setContentLengthLong(artifact.getSize());
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat sends the file itself once this handler returns
+            request.setAttribute(SENDFILE_FILENAME, artifact.getPath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, artifact.getSize());
+            return;
+        }
+
+        // Buffered copy: the target is not a file or socket channel, so transferTo cannot use sendfile
+        try (FileChannel file = FileChannel.open(artifact.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < artifact.getSize()) {
+                position += file.transferTo(position, artifact.getSize() - position, out);
+            }
+        } catch (NoSuchFileException e) {
+            // Evicted between lookup and open
+            log.warn("Artifact {} disappeared before it could be sent", id);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            }
+        }
+    }
+}
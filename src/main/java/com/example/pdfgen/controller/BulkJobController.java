@@ -0,0 +1,111 @@
+package com.example.pdfgen.controller;
+
+import com.example.pdfgen.controller.pdf.ResumePdfController;
+import com.example.pdfgen.dto.BulkRunRequest;
+import com.example.pdfgen.service.BulkJobService;
+import com.example.pdfgen.service.JobJournal;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for bulk generation runs
+ *
+ * A run is accepted once it is recorded in the job journal and rendered in the background; it
+ * continues after a restart. Each finished item links to its PDF under /api/artifacts/{id}.
+ */
+@RestController
+@RequestMapping("/api/bulk/runs")
+@Slf4j
+public class BulkJobController {
+
+    private final BulkJobService bulkJobService;
+    private final int maxProfiles;
+
+    public BulkJobController(BulkJobService bulkJobService,
+                             @Value("${render.jobs.max-profiles:50000}") int maxProfiles) {
+        this.bulkJobService = bulkJobService;
+        this.maxProfiles = maxProfiles;
+    }
+
+    /**
+     * Submit a run rendering one resume PDF per profile
+     *
+     * @param request Template ID and profiles
+     * @return 202 with the run status and its URL in the Location header
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> submitRun(@Valid @RequestBody BulkRunRequest request) {
+        try {
+            if (!ResumePdfController.TEMPLATE_IDS.contains(request.getTemplateId())) {
+                throw new IllegalArgumentException("Unknown resume template: " + request.getTemplateId());
+            }
+            if (request.getProfiles().size() > maxProfiles) {
+                throw new IllegalArgumentException("Run has " + request.getProfiles().size()
+                        + " profiles, limit is " + maxProfiles);
+            }
+
+            String runId = bulkJobService.submit(request.getTemplateId(), request.getProfiles());
+            JobJournal.Run run = bulkJobService.getRun(runId).orElseThrow();
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, "/api/bulk/runs/" + runId)
+                    .body(toStatus(run));
+
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid input for bulk run: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (IllegalStateException e) {
+            log.error("Bulk runs unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (IOException e) {
+            log.error("Could not record bulk run: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Get the progress of a run and the artifact ID of every finished item
+     */
+    @GetMapping("/{runId}")
+    public ResponseEntity<Map<String, Object>> getRun(@PathVariable String runId) {
+        return bulkJobService.getRun(runId)
+                .map(run -> ResponseEntity.ok(toStatus(run)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    private static Map<String, Object> toStatus(JobJournal.Run run) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < run.getItemCount(); i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("index", i);
+            item.put("state", run.getState(i).name().toLowerCase());
+            if (run.getState(i) == JobJournal.ItemState.COMPLETED) {
+                item.put("artifactId", run.getResult(i));
+            } else if (run.getState(i) == JobJournal.ItemState.FAILED) {
+                item.put("error", run.getResult(i));
+            }
+            items.add(item);
+        }
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("runId", run.getId());
+        status.put("templateId", run.getTemplateId());
+        status.put("finished", run.isFinished());
+        status.put("items", run.getItemCount());
+        status.put("completed", run.count(JobJournal.ItemState.COMPLETED));
+        status.put("failed", run.count(JobJournal.ItemState.FAILED));
+        status.put("results", items);
+        return status;
+    }
+}
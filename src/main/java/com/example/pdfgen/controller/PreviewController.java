@@ -0,0 +1,148 @@
+package com.example.pdfgen.controller;
+
+import com.example.pdfgen.dto.PreviewSessionRequest;
+import com.example.pdfgen.service.JsonMergePatch;
+import com.example.pdfgen.service.PreviewSessionService;
+import com.example.pdfgen.service.PreviewUpdate;
+import com.example.pdfgen.service.RenderCost;
+import com.example.pdfgen.service.RenderRejectedException;
+import com.example.pdfgen.service.RenderTooLargeException;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * REST Controller for the template editor's live preview
+ *
+ * The editor opens a session with the initial model, subscribes to its Server-Sent Events stream,
+ * and sends each edit as a JSON merge patch. Every event carries the model version it was rendered
+ * from as its ID; "html" events carry the processed template, "pdf" events the base64 PDF.
+ */
+@RestController
+@RequestMapping("/api/preview/sessions")
+@RequiredArgsConstructor
+@Slf4j
+public class PreviewController {
+
+    private final PreviewSessionService previewSessionService;
+
+    /**
+     * Open a live-preview session
+     *
+     * @param request Template, preview format and initial profile model
+     * @return The session ID and the URL of its event stream
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, String>> openSession(@Valid @RequestBody PreviewSessionRequest request) {
+        try {
+            PreviewUpdate.Format format = request.getFormat() != null ? request.getFormat() : PreviewUpdate.Format.HTML;
+            String sessionId = previewSessionService.open(request.getTemplateId(), format, request.getProfile());
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+                    "sessionId", sessionId,
+                    "events", "/api/preview/sessions/" + sessionId + "/events"));
+
+        } catch (RenderRejectedException e) {
+            log.warn("Preview session rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (RenderTooLargeException e) {
+            log.warn("Preview session refused: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .header(RenderCost.ESTIMATED_PAGES_HEADER, String.valueOf(e.getEstimatedPages()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid input for preview session: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    /**
+     * Subscribe to the session's rendered documents; the current model is rendered immediately
+     */
+    @GetMapping(value = "/{sessionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(@PathVariable String sessionId) {
+        SseEmitter emitter = new SseEmitter();
+        PreviewSessionService.PreviewListener listener = new PreviewSessionService.PreviewListener() {
+            @Override
+            public void onUpdate(PreviewUpdate update) throws IOException {
+                String data = update.getFormat() == PreviewUpdate.Format.HTML
+                        ? update.getHtml()
+                        : Base64.getEncoder().encodeToString(update.getPdf());
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(update.getVersion()))
+                        .name(update.getFormat().name().toLowerCase())
+                        .data(data));
+            }
+
+            @Override
+            public void onError(long version, String message) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(version))
+                        .name("error")
+                        .data(message != null ? message : "Render failed"));
+            }
+
+            @Override
+            public void onClose() {
+                emitter.complete();
+            }
+        };
+
+        try {
+            emitter.onCompletion(() -> previewSessionService.unsubscribe(sessionId, listener));
+            emitter.onTimeout(() -> previewSessionService.unsubscribe(sessionId, listener));
+            previewSessionService.subscribe(sessionId, listener);
+            return ResponseEntity.ok(emitter);
+
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    /**
+     * Apply an edit to the session's model as a JSON merge patch (RFC 7386)
+     *
+     * @return The new model version; the matching event follows once edits pause
+     */
+    @PatchMapping(value = "/{sessionId}/profile", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Map<String, Long>> patchProfile(@PathVariable String sessionId, @RequestBody JsonNode patch) {
+        try {
+            long version = previewSessionService.patch(sessionId, patch);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("version", version));
+
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (RenderTooLargeException e) {
+            log.warn("Preview patch for session {} refused: {}", sessionId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .header(RenderCost.ESTIMATED_PAGES_HEADER, String.valueOf(e.getEstimatedPages()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid preview patch for session {}: {}", sessionId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    /**
+     * Close the session and end its event stream
+     */
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Void> closeSession(@PathVariable String sessionId) {
+        previewSessionService.close(sessionId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.pdfgen.controller;
+
+import com.example.pdfgen.dto.IndexProfilesRequest;
+import com.example.pdfgen.dto.RankRequest;
+import com.example.pdfgen.model.CandidateProfile;
+import com.example.pdfgen.service.ProfileIndex;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for ranking candidate profiles against a job description
+ *
+ * Profiles are added to an in-memory index under the caller's IDs and ranked locally with BM25, so the
+ * best few can be chosen before any of them is sent to the LLM for optimization. The index is not
+ * persisted; callers load their profiles again after a restart.
+ */
+@RestController
+@RequestMapping("/api/profiles")
+@Slf4j
+public class ProfileIndexController {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final ProfileIndex profileIndex;
+    private final int maxLimit;
+
+    public ProfileIndexController(ProfileIndex profileIndex,
+                                  @Value("${profiles.rank.max-limit:100}") int maxLimit) {
+        this.profileIndex = profileIndex;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Add profiles to the index, replacing any already indexed under the same IDs
+     *
+     * @param request Profiles by ID
+     * @return 200 with the number added and the index size, 507 if the index is full
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> indexProfiles(@Valid @RequestBody IndexProfilesRequest request) {
+        return index(request.getProfiles());
+    }
+
+    /**
+     * Add or replace one profile
+     */
+    @PutMapping("/{profileId}")
+    public ResponseEntity<Map<String, Object>> indexProfile(@PathVariable String profileId,
+                                                            @RequestBody CandidateProfile profile) {
+        return index(Map.of(profileId, profile));
+    }
+
+    /**
+     * Remove a profile from the index
+     */
+    @DeleteMapping("/{profileId}")
+    public ResponseEntity<Void> removeProfile(@PathVariable String profileId) {
+        return profileIndex.remove(profileId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    /**
+     * Rank the indexed profiles against a job description
+     *
+     * @param request Job description and the number of profiles to return
+     * @return 200 with the best profiles first, their scores and the matched terms
+     */
+    @PostMapping(value = "/rank", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> rank(@Valid @RequestBody RankRequest request) {
+        return rank(request.getJobDescription(), request.getLimit());
+    }
+
+    /**
+     * Rank against a job description posted as plain text, e.g. curl --data-binary @job-description.txt
+     */
+    @PostMapping(value = "/rank", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<Map<String, Object>> rankText(@RequestBody String jobDescription,
+                                                        @RequestParam(required = false) Integer limit) {
+        return rank(jobDescription, limit);
+    }
+
+    private ResponseEntity<Map<String, Object>> index(Map<String, CandidateProfile> profiles) {
+        try {
+            profileIndex.putAll(profiles);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("indexed", profiles.size());
+            body.put("profiles", profileIndex.size());
+            return ResponseEntity.ok(body);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid profiles for the index: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (IllegalStateException e) {
+            log.error("Profile index full: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INSUFFICIENT_STORAGE).build();
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> rank(String jobDescription, Integer limit) {
+        int resultLimit = limit != null ? limit : DEFAULT_LIMIT;
+        if (jobDescription == null || jobDescription.isBlank() || resultLimit < 1 || resultLimit > maxLimit) {
+            log.error("Invalid ranking request: limit {} (1 to {})", resultLimit, maxLimit);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+
+        long start = System.nanoTime();
+        List<ProfileIndex.Match> matches = profileIndex.rank(jobDescription, resultLimit);
+        long micros = (System.nanoTime() - start) / 1000;
+
+        List<Map<String, Object>> results = new ArrayList<>(matches.size());
+        for (ProfileIndex.Match match : matches) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("profileId", match.getProfileId());
+            result.put("name", match.getName());
+            result.put("score", match.getScore());
+            result.put("matchedTerms", match.getMatchedTerms());
+            results.add(result);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("profiles", profileIndex.size());
+        body.put("tookMicros", micros);
+        body.put("results", results);
+        return ResponseEntity.ok(body);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.pdfgen.controller;
+
+import com.example.pdfgen.service.RenderTimings;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Creates the request-scoped {@link RenderTimings} and emits one structured log line per render request
+ *
+ * Lines are sampled with render.timing.log-sample-rate; failed requests and requests slower than
+ * render.timing.slow-threshold-ms are always logged. The line is written after the response body, so
+ * its serialize stage includes writing the response.
+ */
+@Component
+@Slf4j
+public class RenderTimingFilter extends OncePerRequestFilter {
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public RenderTimingFilter(
+            @Value("${render.timing.log-sample-rate:1.0}") double sampleRate,
+            @Value("${render.timing.slow-threshold-ms:5000}") long slowThresholdMs) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThresholdMs * 1_000_000L;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RenderTimings timings = new RenderTimings();
+        request.setAttribute(RenderTimings.ATTRIBUTE, timings);
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            timings.recordResponseWritten();
+            // Only requests that actually rendered something record stages
+            if (!timings.isEmpty() && shouldLog(timings, response.getStatus())) {
+                log.info("render method={} path={} status={}{}",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(), timings.toLogFields());
+            }
+        }
+    }
+
+    private boolean shouldLog(RenderTimings timings, int status) {
+        if (status >= 400 || timings.totalNanos() >= slowThresholdNanos) {
+            return true;
+        }
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+}
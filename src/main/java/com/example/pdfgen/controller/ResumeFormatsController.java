@@ -0,0 +1,229 @@
+package com.example.pdfgen.controller;
+
+import com.example.pdfgen.controller.pdf.ResumePdfController;
+import com.example.pdfgen.dto.ProfileRequest;
+import com.example.pdfgen.model.CandidateProfile;
+import com.example.pdfgen.service.PdfGeneratorService;
+import com.example.pdfgen.service.RenderCancelledException;
+import com.example.pdfgen.service.RenderCost;
+import com.example.pdfgen.service.RenderCostEstimator;
+import com.example.pdfgen.service.RenderDeadline;
+import com.example.pdfgen.service.RenderDeadlinePolicy;
+import com.example.pdfgen.service.RenderPriority;
+import com.example.pdfgen.service.RenderRejectedException;
+import com.example.pdfgen.service.RenderScheduler;
+import com.example.pdfgen.service.RenderTimings;
+import com.example.pdfgen.service.RenderTooLargeException;
+import com.example.pdfgen.service.TemplateService;
+import com.example.pdfgen.service.WordGeneratorService;
+import com.example.pdfgen.service.ZipArchive;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * REST Controller for generating a resume in several formats from one request
+ */
+@RestController
+@RequestMapping("/api/resume")
+@Slf4j
+public class ResumeFormatsController {
+
+    private static final String PDF = "pdf";
+    private static final String DOCX = "docx";
+    private static final Map<String, MediaType> MEDIA_TYPES = Map.of(
+            PDF, MediaType.APPLICATION_PDF,
+            DOCX, MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.wordprocessingml.document"));
+    private static final MediaType APPLICATION_ZIP = MediaType.parseMediaType("application/zip");
+
+    private final TemplateService templateService;
+    private final PdfGeneratorService pdfGeneratorService;
+    private final WordGeneratorService wordGeneratorService;
+    private final RenderScheduler renderScheduler;
+    private final RenderDeadlinePolicy renderDeadlinePolicy;
+    private final RenderCostEstimator renderCostEstimator;
+    private final Executor pdfTaskExecutor;
+
+    public ResumeFormatsController(TemplateService templateService,
+                                   PdfGeneratorService pdfGeneratorService,
+                                   WordGeneratorService wordGeneratorService,
+                                   RenderScheduler renderScheduler,
+                                   RenderDeadlinePolicy renderDeadlinePolicy,
+                                   RenderCostEstimator renderCostEstimator,
+                                   @Qualifier("pdfTaskExecutor") Executor pdfTaskExecutor) {
+        this.templateService = templateService;
+        this.pdfGeneratorService = pdfGeneratorService;
+        this.wordGeneratorService = wordGeneratorService;
+        this.renderScheduler = renderScheduler;
+        this.renderDeadlinePolicy = renderDeadlinePolicy;
+        this.renderCostEstimator = renderCostEstimator;
+        this.pdfTaskExecutor = pdfTaskExecutor;
+    }
+
+    /**
+     * Generate the resume in every requested format from a single parsed request
+     *
+     * The PDF is built on the PDF task executor while the DOCX is built on the request thread, each
+     * through its own render slot. With more than one format the documents are returned as a ZIP;
+     * a single format is returned as the document itself.
+     *
+     * @param request Profile request containing template ID (used for the PDF) and profile data
+     * @param formats Comma-separated formats, any of pdf and docx
+     * @return ZIP archive, or the document when only one format is requested
+     */
+    @PostMapping(value = "/generate", produces = {"application/zip", MediaType.APPLICATION_PDF_VALUE,
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document"})
+    public ResponseEntity<byte[]> generateResume(@Valid @RequestBody ProfileRequest request,
+                                                 @RequestParam(value = "formats", defaultValue = "pdf,docx") String formats,
+                                                 @RequestHeader(value = RenderPriority.HEADER, required = false) String priorityHeader,
+                                                 @RequestHeader(value = RenderDeadline.HEADER, required = false) String deadlineHeader,
+                                                 @RequestAttribute(RenderTimings.ATTRIBUTE) RenderTimings timings) {
+        try {
+            Set<String> requestedFormats = parseFormats(formats);
+            CandidateProfile profile = request.getProfile();
+            if (!ResumePdfController.TEMPLATE_IDS.contains(request.getTemplateId())) {
+                throw new IllegalArgumentException("Unknown resume template: " + request.getTemplateId());
+            }
+
+            timings.tag("template", request.getTemplateId());
+            timings.tag("formats", String.join("+", requestedFormats));
+
+            // Refuse documents too large to render before they take a render slot
+            RenderCost cost = renderCostEstimator.check(profile);
+            timings.tag("estimated_pages", String.valueOf(cost.getEstimatedPages()));
+
+            RenderPriority priority = RenderPriority.resolve(priorityHeader, RenderPriority.INTERACTIVE);
+            RenderDeadline deadline = renderDeadlinePolicy.resolve(deadlineHeader, "resume-formats");
+
+            // Start the PDF first; it is the slower of the two builds
+            CompletableFuture<byte[]> pdf = requestedFormats.contains(PDF)
+                    ? CompletableFuture.supplyAsync(() -> renderPdf(request.getTemplateId(), profile, cost, priority, deadline, timings), pdfTaskExecutor)
+                    : null;
+
+            Map<String, byte[]> documents = new LinkedHashMap<>();
+            String baseName = profile.getName().replaceAll("\\s+", "_") + "_resume";
+            try {
+                if (requestedFormats.contains(DOCX)) {
+                    documents.put(baseName + "." + DOCX, renderDocx(profile, priority, deadline, timings));
+                }
+                if (pdf != null) {
+                    documents.put(baseName + "." + PDF, pdf.join());
+                }
+            } catch (RuntimeException e) {
+                // Stop the other build at its next checkpoint; nobody will read its output
+                deadline.cancel("other format failed");
+                throw e instanceof CompletionException && e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            byte[] body;
+            if (documents.size() == 1) {
+                String format = requestedFormats.iterator().next();
+                body = documents.values().iterator().next();
+                headers.setContentType(MEDIA_TYPES.get(format));
+                headers.setContentDispositionFormData("attachment", baseName + "." + format);
+            } else {
+                body = timings.time("serialize", () -> ZipArchive.of(documents));
+                headers.setContentType(APPLICATION_ZIP);
+                headers.setContentDispositionFormData("attachment", baseName + ".zip");
+            }
+            timings.addOutputBytes(body.length);
+            headers.setContentLength(body.length);
+            headers.set(RenderTimings.SERVER_TIMING_HEADER, timings.toServerTimingHeader());
+
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
+
+        } catch (RenderRejectedException e) {
+            log.warn("Multi-format resume generation rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (RenderCancelledException e) {
+            log.warn("Multi-format resume generation aborted: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        } catch (RenderTooLargeException e) {
+            log.warn("Multi-format resume generation refused: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .header(RenderCost.ESTIMATED_PAGES_HEADER, String.valueOf(e.getEstimatedPages()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid input for multi-format resume generation: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (IOException | UncheckedIOException e) {
+            log.error("IO error generating multi-format resume: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } catch (Exception e) {
+            log.error("Unexpected error generating multi-format resume: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Builds the PDF through its own render slot; runs on the PDF task executor
+     */
+    private byte[] renderPdf(String templateId, CandidateProfile profile, RenderCost cost, RenderPriority priority,
+                             RenderDeadline deadline, RenderTimings timings) {
+        try {
+            return renderScheduler.execute(priority, deadline, () -> {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                timings.run("convert", () -> pdfGeneratorService.generatePdfToStream(
+                        writer -> timings.run("template", () -> templateService.processTemplate(templateId, profile, deadline, writer)),
+                        outputStream, deadline, templateId, cost));
+                return outputStream.toByteArray();
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RenderCancelledException("queue", RenderCancelledException.Reason.CANCELLED, "interrupted");
+        }
+    }
+
+    /**
+     * Builds the DOCX through its own render slot on the calling thread
+     */
+    private byte[] renderDocx(CandidateProfile profile, RenderPriority priority, RenderDeadline deadline,
+                              RenderTimings timings) {
+        try {
+            return renderScheduler.execute(priority, deadline, () -> {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                timings.run("convert-docx", () -> wordGeneratorService.generateResumeDocx(profile, outputStream, deadline));
+                return outputStream.toByteArray();
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RenderCancelledException("queue", RenderCancelledException.Reason.CANCELLED, "interrupted");
+        }
+    }
+
+    private static Set<String> parseFormats(String formats) {
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String format : formats.split(",")) {
+            String normalized = format.trim().toLowerCase(Locale.ROOT);
+            if (!MEDIA_TYPES.containsKey(normalized)) {
+                throw new IllegalArgumentException("Unsupported format: " + format);
+            }
+            parsed.add(normalized);
+        }
+        return parsed;
+    }
+}
@@ -2,17 +2,27 @@ package com.example.pdfgen.controller.docx;
 
 import com.example.pdfgen.dto.CoverLetterRequest;
 import com.example.pdfgen.model.CoverLetter;
+import com.example.pdfgen.service.ArtifactStore;
+import com.example.pdfgen.service.OutputBufferPool;
+import com.example.pdfgen.service.RenderCancelledException;
+import com.example.pdfgen.service.RenderDeadline;
+import com.example.pdfgen.service.RenderDeadlinePolicy;
+import com.example.pdfgen.service.RenderPriority;
+import com.example.pdfgen.service.RenderRejectedException;
+import com.example.pdfgen.service.RenderScheduler;
+import com.example.pdfgen.service.RenderTimings;
+import com.example.pdfgen.service.SegmentedOutputBuffer;
 import com.example.pdfgen.service.WordGeneratorService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 /**
@@ -25,45 +35,65 @@ import java.io.IOException;
 public class CoverLetterDocxController {
 
     private final WordGeneratorService wordGeneratorService;
+    private final RenderScheduler renderScheduler;
+    private final RenderDeadlinePolicy renderDeadlinePolicy;
+    private final OutputBufferPool outputBufferPool;
+    private final ArtifactStore artifactStore;
 
     /**
      * Generate cover letter Word document from cover letter data
      *
      * @param request Cover letter request containing cover letter data
-     * @return DOCX file as byte array
+     * @return DOCX file
      */
     @PostMapping(value = "/generate", produces = "application/vnd.openxmlformats-officedocument.wordprocessingml.document")
-    public ResponseEntity<byte[]> generateCoverLetterDocx(@Valid @RequestBody CoverLetterRequest request) {
-        ByteArrayOutputStream outputStream = null;
-
+    public ResponseEntity<Resource> generateCoverLetterDocx(@Valid @RequestBody CoverLetterRequest request,
+                                                            @RequestHeader(value = RenderPriority.HEADER, required = false) String priorityHeader,
+                                                            @RequestHeader(value = RenderDeadline.HEADER, required = false) String deadlineHeader,
+                                                            @RequestAttribute(RenderTimings.ATTRIBUTE) RenderTimings timings) {
         try {
-            log.info("=== Cover Letter DOCX Generation Request Received ===");
             CoverLetter coverLetter = request.getCoverLetter();
 
             // Apply smart defaults for optional fields
             coverLetter.applyDefaults();
 
-            log.info("Candidate Name: {}", coverLetter.getHeader().getName());
-            log.info("Company: {}", coverLetter.getRecipient().getCompany());
-            log.info("====================================================");
+            RenderPriority priority = RenderPriority.resolve(priorityHeader, RenderPriority.INTERACTIVE);
+            RenderDeadline deadline = renderDeadlinePolicy.resolve(deadlineHeader, "cover-letter-docx");
 
-            // Generate DOCX
-            outputStream = new ByteArrayOutputStream();
-            wordGeneratorService.generateCoverLetterDocx(coverLetter, outputStream);
+            SegmentedOutputBuffer docx = renderScheduler.execute(priority, deadline, () -> outputBufferPool.fill(outputStream -> {
+                // Generate DOCX
+                timings.run("convert", () -> wordGeneratorService.generateCoverLetterDocx(coverLetter, outputStream, deadline));
+            }));
+            timings.addOutputBytes(docx.size());
 
-            byte[] docxBytes = outputStream.toByteArray();
+            // Keep the document so it can be downloaded again without re-rendering
+            String artifactId = timings.time("store", () -> artifactStore.store(docx, "docx"));
 
             // Set headers
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.wordprocessingml.document"));
             headers.setContentDispositionFormData("attachment",
                     coverLetter.getHeader().getName().replaceAll("\\s+", "_") + "_cover_letter.docx");
-            headers.setContentLength(docxBytes.length);
-
-            log.info("Cover letter DOCX generated successfully for: {}", coverLetter.getHeader().getName());
+            headers.setContentLength(docx.size());
+            if (artifactId != null) {
+                headers.set(ArtifactStore.ARTIFACT_HEADER, artifactId);
+            }
+            headers.set(RenderTimings.SERVER_TIMING_HEADER, timings.toServerTimingHeader());
 
-            return new ResponseEntity<>(docxBytes, headers, HttpStatus.OK);
+            return new ResponseEntity<>(docx.toResource(), headers, HttpStatus.OK);
 
+        } catch (RenderRejectedException e) {
+            log.warn("Cover letter DOCX generation rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (RenderCancelledException e) {
+            log.warn("Cover letter DOCX generation aborted: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Cover letter DOCX generation interrupted: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (IllegalArgumentException e) {
             log.error("Invalid input for cover letter DOCX generation: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -73,14 +103,6 @@ public class CoverLetterDocxController {
         } catch (Exception e) {
             log.error("Unexpected error generating cover letter DOCX: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        } finally {
-            if (outputStream != null) {
-                try {
-                    outputStream.close();
-                } catch (IOException e) {
-                    log.error("Error closing output stream: {}", e.getMessage());
-                }
-            }
         }
     }
 }
@@ -2,17 +2,30 @@ package com.example.pdfgen.controller.docx;
 
 import com.example.pdfgen.dto.ProfileRequest;
 import com.example.pdfgen.model.CandidateProfile;
+import com.example.pdfgen.service.ArtifactStore;
+import com.example.pdfgen.service.OutputBufferPool;
+import com.example.pdfgen.service.RenderCancelledException;
+import com.example.pdfgen.service.RenderCost;
+import com.example.pdfgen.service.RenderCostEstimator;
+import com.example.pdfgen.service.RenderDeadline;
+import com.example.pdfgen.service.RenderDeadlinePolicy;
+import com.example.pdfgen.service.RenderPriority;
+import com.example.pdfgen.service.RenderRejectedException;
+import com.example.pdfgen.service.RenderScheduler;
+import com.example.pdfgen.service.RenderTimings;
+import com.example.pdfgen.service.RenderTooLargeException;
+import com.example.pdfgen.service.SegmentedOutputBuffer;
 import com.example.pdfgen.service.WordGeneratorService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 /**
@@ -25,40 +38,72 @@ import java.io.IOException;
 public class ResumeDocxController {
 
     private final WordGeneratorService wordGeneratorService;
+    private final RenderScheduler renderScheduler;
+    private final RenderDeadlinePolicy renderDeadlinePolicy;
+    private final RenderCostEstimator renderCostEstimator;
+    private final OutputBufferPool outputBufferPool;
+    private final ArtifactStore artifactStore;
 
     /**
      * Generate resume Word document from profile data
      *
      * @param request Profile request containing profile data
-     * @return DOCX file as byte array
+     * @return DOCX file
      */
     @PostMapping(value = "/generate", produces = "application/vnd.openxmlformats-officedocument.wordprocessingml.document")
-    public ResponseEntity<byte[]> generateResumeDocx(@Valid @RequestBody ProfileRequest request) {
-        ByteArrayOutputStream outputStream = null;
-
+    public ResponseEntity<Resource> generateResumeDocx(@Valid @RequestBody ProfileRequest request,
+                                                       @RequestHeader(value = RenderPriority.HEADER, required = false) String priorityHeader,
+                                                       @RequestHeader(value = RenderDeadline.HEADER, required = false) String deadlineHeader,
+                                                       @RequestAttribute(RenderTimings.ATTRIBUTE) RenderTimings timings) {
         try {
-            log.info("=== Resume DOCX Generation Request Received ===");
             CandidateProfile profile = request.getProfile();
-            log.info("Profile Name: {}", profile.getName());
-            log.info("=======================================");
 
-            // Generate DOCX
-            outputStream = new ByteArrayOutputStream();
-            wordGeneratorService.generateResumeDocx(profile, outputStream);
+            // Refuse documents too large to render before they take a render slot
+            RenderCost cost = renderCostEstimator.check(profile);
+            timings.tag("estimated_pages", String.valueOf(cost.getEstimatedPages()));
+
+            RenderPriority priority = RenderPriority.resolve(priorityHeader, RenderPriority.INTERACTIVE);
+            RenderDeadline deadline = renderDeadlinePolicy.resolve(deadlineHeader, "resume-docx");
+
+            SegmentedOutputBuffer docx = renderScheduler.execute(priority, deadline, () -> outputBufferPool.fill(outputStream -> {
+                // Generate DOCX
+                timings.run("convert", () -> wordGeneratorService.generateResumeDocx(profile, outputStream, deadline));
+            }));
+            timings.addOutputBytes(docx.size());
 
-            byte[] docxBytes = outputStream.toByteArray();
+            // Keep the document so it can be downloaded again without re-rendering
+            String artifactId = timings.time("store", () -> artifactStore.store(docx, "docx"));
 
             // Set headers
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.wordprocessingml.document"));
             headers.setContentDispositionFormData("attachment",
                     profile.getName().replaceAll("\\s+", "_") + "_resume.docx");
-            headers.setContentLength(docxBytes.length);
-
-            log.info("Resume DOCX generated successfully for: {}", profile.getName());
+            headers.setContentLength(docx.size());
+            if (artifactId != null) {
+                headers.set(ArtifactStore.ARTIFACT_HEADER, artifactId);
+            }
+            headers.set(RenderTimings.SERVER_TIMING_HEADER, timings.toServerTimingHeader());
 
-            return new ResponseEntity<>(docxBytes, headers, HttpStatus.OK);
+            return new ResponseEntity<>(docx.toResource(), headers, HttpStatus.OK);
 
+        } catch (RenderRejectedException e) {
+            log.warn("Resume DOCX generation rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (RenderCancelledException e) {
+            log.warn("Resume DOCX generation aborted: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Resume DOCX generation interrupted: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (RenderTooLargeException e) {
+            log.warn("Resume DOCX generation refused: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .header(RenderCost.ESTIMATED_PAGES_HEADER, String.valueOf(e.getEstimatedPages()))
+                    .build();
         } catch (IllegalArgumentException e) {
             log.error("Invalid input for resume DOCX generation: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -68,14 +113,6 @@ public class ResumeDocxController {
         } catch (Exception e) {
             log.error("Unexpected error generating resume DOCX: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        } finally {
-            if (outputStream != null) {
-                try {
-                    outputStream.close();
-                } catch (IOException e) {
-                    log.error("Error closing output stream: {}", e.getMessage());
-                }
-            }
         }
     }
 }
@@ -0,0 +1,137 @@
+package com.example.pdfgen.controller.pdf;
+
+import com.example.pdfgen.dto.ApplicationRequest;
+import com.example.pdfgen.model.CandidateProfile;
+import com.example.pdfgen.model.CoverLetter;
+import com.example.pdfgen.service.ArtifactStore;
+import com.example.pdfgen.service.OutputBufferPool;
+import com.example.pdfgen.service.PdfGeneratorService;
+import com.example.pdfgen.service.RenderCancelledException;
+import com.example.pdfgen.service.RenderCost;
+import com.example.pdfgen.service.RenderCostEstimator;
+import com.example.pdfgen.service.RenderDeadline;
+import com.example.pdfgen.service.RenderDeadlinePolicy;
+import com.example.pdfgen.service.RenderPriority;
+import com.example.pdfgen.service.RenderRejectedException;
+import com.example.pdfgen.service.RenderScheduler;
+import com.example.pdfgen.service.RenderTimings;
+import com.example.pdfgen.service.RenderTooLargeException;
+import com.example.pdfgen.service.SegmentedOutputBuffer;
+import com.example.pdfgen.service.TemplateService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * REST Controller for generating a cover letter and resume as a single PDF
+ */
+@RestController
+@RequestMapping("/api/pdf/application")
+@RequiredArgsConstructor
+@Slf4j
+public class ApplicationPdfController {
+
+    private final TemplateService templateService;
+    private final PdfGeneratorService pdfGeneratorService;
+    private final RenderScheduler renderScheduler;
+    private final RenderDeadlinePolicy renderDeadlinePolicy;
+    private final RenderCostEstimator renderCostEstimator;
+    private final OutputBufferPool outputBufferPool;
+    private final ArtifactStore artifactStore;
+
+    /**
+     * Generate one PDF containing the cover letter followed by the resume
+     *
+     * @param request Application request containing both template IDs, profile and cover letter data
+     * @return PDF file
+     */
+    @PostMapping(value = "/generate", produces = MediaType.APPLICATION_PDF_VALUE)
+    public ResponseEntity<Resource> generateApplicationPdf(@Valid @RequestBody ApplicationRequest request,
+                                                           @RequestHeader(value = RenderPriority.HEADER, required = false) String priorityHeader,
+                                                           @RequestHeader(value = RenderDeadline.HEADER, required = false) String deadlineHeader,
+                                                           @RequestAttribute(RenderTimings.ATTRIBUTE) RenderTimings timings) {
+        try {
+            CandidateProfile profile = request.getProfile();
+            CoverLetter coverLetter = request.getCoverLetter();
+
+            // Apply smart defaults for optional fields
+            coverLetter.applyDefaults();
+            if (!CoverLetterPdfController.TEMPLATE_IDS.contains(request.getCoverLetterTemplateId())) {
+                throw new IllegalArgumentException("Unknown cover letter template: " + request.getCoverLetterTemplateId());
+            }
+            if (!ResumePdfController.TEMPLATE_IDS.contains(request.getResumeTemplateId())) {
+                throw new IllegalArgumentException("Unknown resume template: " + request.getResumeTemplateId());
+            }
+
+            timings.tag("template", request.getCoverLetterTemplateId() + "+" + request.getResumeTemplateId());
+
+            // Refuse documents too large to render before they take a render slot
+            RenderCost cost = renderCostEstimator.check(profile);
+            timings.tag("estimated_pages", String.valueOf(cost.getEstimatedPages()));
+
+            RenderPriority priority = RenderPriority.resolve(priorityHeader, RenderPriority.INTERACTIVE);
+            RenderDeadline deadline = renderDeadlinePolicy.resolve(deadlineHeader, "application-pdf");
+
+            SegmentedOutputBuffer pdf = renderScheduler.execute(priority, deadline, () -> outputBufferPool.fill(outputStream -> {
+                // Both templates are laid out into one document through a single writer
+                timings.run("convert", () -> pdfGeneratorService.generateCombinedPdfToStream(List.of(
+                        writer -> timings.run("template", () -> templateService.processCoverLetterTemplate(request.getCoverLetterTemplateId(), coverLetter, deadline, writer)),
+                        writer -> timings.run("template", () -> templateService.processTemplate(request.getResumeTemplateId(), profile, deadline, writer))),
+                        outputStream, deadline, request.getResumeTemplateId()));
+            }));
+            timings.addOutputBytes(pdf.size());
+
+            // Keep the document so it can be downloaded again without re-rendering
+            String artifactId = timings.time("store", () -> artifactStore.store(pdf, "pdf"));
+
+            // Set headers
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_PDF);
+            headers.setContentDispositionFormData("attachment",
+                    profile.getName().replaceAll("\\s+", "_") + "_application.pdf");
+            headers.setContentLength(pdf.size());
+            if (artifactId != null) {
+                headers.set(ArtifactStore.ARTIFACT_HEADER, artifactId);
+            }
+            headers.set(RenderTimings.SERVER_TIMING_HEADER, timings.toServerTimingHeader());
+
+            return new ResponseEntity<>(pdf.toResource(), headers, HttpStatus.OK);
+
+        } catch (RenderRejectedException e) {
+            log.warn("Application PDF generation rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (RenderCancelledException e) {
+            log.warn("Application PDF generation aborted: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Application PDF generation interrupted: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (RenderTooLargeException e) {
+            log.warn("Application PDF generation refused: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .header(RenderCost.ESTIMATED_PAGES_HEADER, String.valueOf(e.getEstimatedPages()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid input for application PDF generation: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (IOException e) {
+            log.error("IO error generating application PDF: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } catch (Exception e) {
+            log.error("Unexpected error generating application PDF: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -2,19 +2,30 @@ package com.example.pdfgen.controller.pdf;
 
 import com.example.pdfgen.dto.CoverLetterRequest;
 import com.example.pdfgen.model.CoverLetter;
+import com.example.pdfgen.service.ArtifactStore;
+import com.example.pdfgen.service.OutputBufferPool;
 import com.example.pdfgen.service.PdfGeneratorService;
+import com.example.pdfgen.service.RenderCancelledException;
+import com.example.pdfgen.service.RenderDeadline;
+import com.example.pdfgen.service.RenderDeadlinePolicy;
+import com.example.pdfgen.service.RenderPriority;
+import com.example.pdfgen.service.RenderRejectedException;
+import com.example.pdfgen.service.RenderScheduler;
+import com.example.pdfgen.service.RenderTimings;
+import com.example.pdfgen.service.SegmentedOutputBuffer;
 import com.example.pdfgen.service.TemplateService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.List;
 
 /**
  * REST Controller for Cover Letter PDF generation
@@ -25,56 +36,82 @@ import java.io.IOException;
 @Slf4j
 public class CoverLetterPdfController {
 
+    /**
+     * Available cover letter template IDs
+     */
+    public static final List<String> TEMPLATE_IDS = List.of(
+            "cover_letter_template_001",
+            "cover_letter_template_002",
+            "cover_letter_template_003");
+
     private final TemplateService templateService;
     private final PdfGeneratorService pdfGeneratorService;
+    private final RenderScheduler renderScheduler;
+    private final RenderDeadlinePolicy renderDeadlinePolicy;
+    private final OutputBufferPool outputBufferPool;
+    private final ArtifactStore artifactStore;
 
     /**
      * Generate cover letter PDF from cover letter data
      *
      * @param request Cover letter request containing template ID and cover letter data
-     * @return PDF file as byte array
+     * @return PDF file
      */
     @PostMapping(value = "/generate", produces = MediaType.APPLICATION_PDF_VALUE)
-    public ResponseEntity<byte[]> generateCoverLetterPdf(@Valid @RequestBody CoverLetterRequest request) {
-        ByteArrayOutputStream outputStream = null;
-
+    public ResponseEntity<Resource> generateCoverLetterPdf(@Valid @RequestBody CoverLetterRequest request,
+                                                           @RequestHeader(value = RenderPriority.HEADER, required = false) String priorityHeader,
+                                                           @RequestHeader(value = RenderDeadline.HEADER, required = false) String deadlineHeader,
+                                                           @RequestAttribute(RenderTimings.ATTRIBUTE) RenderTimings timings) {
         try {
-            log.info("=== Cover Letter PDF Generation Request Received ===");
-            log.info("Template ID: {}", request.getTemplateId());
-
             CoverLetter coverLetter = request.getCoverLetter();
 
             // Apply smart defaults for optional fields
             coverLetter.applyDefaults();
+            if (!TEMPLATE_IDS.contains(request.getTemplateId())) {
+                throw new IllegalArgumentException("Unknown cover letter template: " + request.getTemplateId());
+            }
 
-            log.info("Candidate Name: {}", coverLetter.getHeader().getName());
-            log.info("Company: {}", coverLetter.getRecipient().getCompany());
-            log.info("Recipient: {}", coverLetter.getRecipient().getName() != null ? coverLetter.getRecipient().getName() : "Generic (Hiring Manager)");
-            log.info("Position: {}", coverLetter.getRecipient().getPosition());
-            log.info("Salutation: {}", coverLetter.getSalutation());
-            log.info("Content Paragraphs Count: {}", coverLetter.getContent() != null ? coverLetter.getContent().size() : 0);
-            log.info("====================================================");
+            timings.tag("template", request.getTemplateId());
 
-            // Process template with cover letter data
-            String processedHtml = templateService.processCoverLetterTemplate(request.getTemplateId(), coverLetter);
+            RenderPriority priority = RenderPriority.resolve(priorityHeader, RenderPriority.INTERACTIVE);
+            RenderDeadline deadline = renderDeadlinePolicy.resolve(deadlineHeader, "cover-letter-pdf");
 
-            // Generate PDF
-            outputStream = new ByteArrayOutputStream();
-            pdfGeneratorService.generatePdfToStream(processedHtml, outputStream);
+            SegmentedOutputBuffer pdf = renderScheduler.execute(priority, deadline, () -> outputBufferPool.fill(outputStream -> {
+                // Generate PDF, streaming the processed template with cover letter data straight into the converter
+                timings.run("convert", () -> pdfGeneratorService.generatePdfToStream(
+                        writer -> timings.run("template", () -> templateService.processCoverLetterTemplate(request.getTemplateId(), coverLetter, deadline, writer)),
+                        outputStream, deadline, request.getTemplateId()));
+            }));
+            timings.addOutputBytes(pdf.size());
 
-            byte[] pdfBytes = outputStream.toByteArray();
+            // Keep the document so it can be downloaded again without re-rendering
+            String artifactId = timings.time("store", () -> artifactStore.store(pdf, "pdf"));
 
             // Set headers
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("attachment",
                     coverLetter.getHeader().getName().replaceAll("\\s+", "_") + "_cover_letter.pdf");
-            headers.setContentLength(pdfBytes.length);
-
-            log.info("Cover letter PDF generated successfully for: {}", coverLetter.getHeader().getName());
-
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
-
+            headers.setContentLength(pdf.size());
+            if (artifactId != null) {
+                headers.set(ArtifactStore.ARTIFACT_HEADER, artifactId);
+            }
+            headers.set(RenderTimings.SERVER_TIMING_HEADER, timings.toServerTimingHeader());
+
+            return new ResponseEntity<>(pdf.toResource(), headers, HttpStatus.OK);
+
+        } catch (RenderRejectedException e) {
+            log.warn("Cover letter PDF generation rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (RenderCancelledException e) {
+            log.warn("Cover letter PDF generation aborted: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Cover letter PDF generation interrupted: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (IllegalArgumentException e) {
             log.error("Invalid input for cover letter PDF generation: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -84,14 +121,6 @@ public class CoverLetterPdfController {
         } catch (Exception e) {
             log.error("Unexpected error generating cover letter PDF: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        } finally {
-            if (outputStream != null) {
-                try {
-                    outputStream.close();
-                } catch (IOException e) {
-                    log.error("Error closing output stream: {}", e.getMessage());
-                }
-            }
         }
     }
 
@@ -100,10 +129,6 @@ public class CoverLetterPdfController {
      */
     @GetMapping("/templates")
     public ResponseEntity<?> getAvailableTemplates() {
-        return ResponseEntity.ok(new String[]{
-                "cover_letter_template_001",
-                "cover_letter_template_002",
-                "cover_letter_template_003"
-        });
+        return ResponseEntity.ok(TEMPLATE_IDS);
     }
 }
@@ -0,0 +1,106 @@
+package com.example.pdfgen.controller.pdf;
+
+import com.example.pdfgen.dto.PacketRequest;
+import com.example.pdfgen.service.PacketGeneratorService;
+import com.example.pdfgen.service.RenderCost;
+import com.example.pdfgen.service.RenderDeadline;
+import com.example.pdfgen.service.RenderDeadlinePolicy;
+import com.example.pdfgen.service.RenderPriority;
+import com.example.pdfgen.service.RenderTooLargeException;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * REST Controller for generating recruiter packets: many resumes merged into one bookmarked PDF
+ *
+ * The packet is streamed as candidates finish rendering, so the status and headers are sent before
+ * the first candidate is rendered. A failure part-way through is logged and ends the response early;
+ * clients detect it as a truncated body.
+ */
+@RestController
+@RequestMapping("/api/pdf/packet")
+@Slf4j
+public class PacketPdfController {
+
+    private final PacketGeneratorService packetGeneratorService;
+    private final RenderDeadlinePolicy renderDeadlinePolicy;
+    private final int maxProfiles;
+
+    public PacketPdfController(PacketGeneratorService packetGeneratorService,
+                               RenderDeadlinePolicy renderDeadlinePolicy,
+                               @Value("${render.packet.max-profiles:2000}") int maxProfiles) {
+        this.packetGeneratorService = packetGeneratorService;
+        this.renderDeadlinePolicy = renderDeadlinePolicy;
+        this.maxProfiles = maxProfiles;
+    }
+
+    /**
+     * Generate one PDF containing a resume per profile, with a bookmark per candidate
+     *
+     * Candidates are admitted through the bulk lane by default; the render deadline applies to each
+     * candidate separately, and the whole stream is bounded by render.stream.timeout-ms.
+     *
+     * @param request Packet request containing the template ID and the profiles
+     * @return PDF streamed as it is generated
+     */
+    @PostMapping(value = "/generate", produces = MediaType.APPLICATION_PDF_VALUE)
+    public ResponseEntity<StreamingResponseBody> generatePacket(@Valid @RequestBody PacketRequest request,
+                                                                @RequestHeader(value = RenderPriority.HEADER, required = false) String priorityHeader,
+                                                                @RequestHeader(value = RenderDeadline.HEADER, required = false) String deadlineHeader) {
+        try {
+            if (!ResumePdfController.TEMPLATE_IDS.contains(request.getTemplateId())) {
+                throw new IllegalArgumentException("Unknown resume template: " + request.getTemplateId());
+            }
+            if (request.getProfiles().size() > maxProfiles) {
+                throw new IllegalArgumentException("Packet has " + request.getProfiles().size()
+                        + " profiles, limit is " + maxProfiles);
+            }
+
+            // Refuse oversized candidates before the first byte is streamed
+            List<RenderCost> costs = packetGeneratorService.check(request.getProfiles());
+
+            RenderPriority priority = RenderPriority.resolve(priorityHeader, RenderPriority.BULK);
+            // Validate the header now, while a 400 can still be sent
+            renderDeadlinePolicy.resolve(deadlineHeader, "packet-pdf");
+
+            StreamingResponseBody body = outputStream -> {
+                try {
+                    packetGeneratorService.writePacket(request.getTemplateId(), request.getProfiles(), costs, outputStream,
+                            priority, () -> renderDeadlinePolicy.resolve(deadlineHeader, "packet-pdf"));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Packet generation interrupted", e);
+                } catch (IOException | RuntimeException e) {
+                    log.error("Packet generation failed after headers were sent: {}", e.getMessage(), e);
+                    throw e;
+                }
+            };
+
+            // Set headers
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_PDF);
+            headers.setContentDispositionFormData("attachment", "recruiter_packet.pdf");
+
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
+
+        } catch (RenderTooLargeException e) {
+            log.warn("Packet generation refused: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .header(RenderCost.ESTIMATED_PAGES_HEADER, String.valueOf(e.getEstimatedPages()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid input for packet generation: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+}
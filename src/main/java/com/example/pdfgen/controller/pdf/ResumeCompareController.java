@@ -0,0 +1,184 @@
+package com.example.pdfgen.controller.pdf;
+
+import com.example.pdfgen.dto.CompareRequest;
+import com.example.pdfgen.service.PdfGeneratorService;
+import com.example.pdfgen.service.RenderCancelledException;
+import com.example.pdfgen.service.RenderCost;
+import com.example.pdfgen.service.RenderCostEstimator;
+import com.example.pdfgen.service.RenderDeadline;
+import com.example.pdfgen.service.RenderDeadlinePolicy;
+import com.example.pdfgen.service.RenderPriority;
+import com.example.pdfgen.service.RenderRejectedException;
+import com.example.pdfgen.service.RenderScheduler;
+import com.example.pdfgen.service.RenderTimings;
+import com.example.pdfgen.service.RenderTooLargeException;
+import com.example.pdfgen.service.TemplateService;
+import com.example.pdfgen.service.ZipArchive;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.thymeleaf.context.IContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * REST Controller for rendering one profile into several resume templates for side-by-side comparison
+ */
+@RestController
+@RequestMapping("/api/pdf/resume")
+@Slf4j
+public class ResumeCompareController {
+
+    private static final MediaType APPLICATION_ZIP = MediaType.parseMediaType("application/zip");
+
+    private final TemplateService templateService;
+    private final PdfGeneratorService pdfGeneratorService;
+    private final RenderScheduler renderScheduler;
+    private final RenderDeadlinePolicy renderDeadlinePolicy;
+    private final RenderCostEstimator renderCostEstimator;
+    private final Executor pdfTaskExecutor;
+
+    public ResumeCompareController(TemplateService templateService,
+                                   PdfGeneratorService pdfGeneratorService,
+                                   RenderScheduler renderScheduler,
+                                   RenderDeadlinePolicy renderDeadlinePolicy,
+                                   RenderCostEstimator renderCostEstimator,
+                                   @Qualifier("pdfTaskExecutor") Executor pdfTaskExecutor) {
+        this.templateService = templateService;
+        this.pdfGeneratorService = pdfGeneratorService;
+        this.renderScheduler = renderScheduler;
+        this.renderDeadlinePolicy = renderDeadlinePolicy;
+        this.renderCostEstimator = renderCostEstimator;
+        this.pdfTaskExecutor = pdfTaskExecutor;
+    }
+
+    /**
+     * Render the profile into every requested template and return the PDFs as a ZIP
+     *
+     * The profile is bound to a template context once and shared by all renders. Each template is
+     * rendered on the PDF task executor through its own render slot, so the response takes about as
+     * long as the slowest template. If one template fails the others are cancelled.
+     *
+     * @param request Compare request containing the profile and optional template IDs
+     * @return ZIP archive with one &lt;templateId&gt;.pdf entry per template
+     */
+    @PostMapping(value = "/compare", produces = "application/zip")
+    public ResponseEntity<byte[]> compareResumeTemplates(@Valid @RequestBody CompareRequest request,
+                                                         @RequestHeader(value = RenderPriority.HEADER, required = false) String priorityHeader,
+                                                         @RequestHeader(value = RenderDeadline.HEADER, required = false) String deadlineHeader,
+                                                         @RequestAttribute(RenderTimings.ATTRIBUTE) RenderTimings timings) {
+        try {
+            List<String> templateIds = resolveTemplateIds(request.getTemplateIds());
+
+            timings.tag("template", String.join("+", templateIds));
+
+            // Refuse documents too large to render before any template takes a render slot
+            RenderCost cost = renderCostEstimator.check(request.getProfile());
+            timings.tag("estimated_pages", String.valueOf(cost.getEstimatedPages()));
+
+            RenderPriority priority = RenderPriority.resolve(priorityHeader, RenderPriority.INTERACTIVE);
+            RenderDeadline deadline = renderDeadlinePolicy.resolve(deadlineHeader, "resume-compare-pdf");
+
+            IContext profileContext = templateService.bindProfile(request.getProfile());
+
+            Map<String, CompletableFuture<byte[]>> renders = new LinkedHashMap<>();
+            for (String templateId : templateIds) {
+                renders.put(templateId, CompletableFuture.supplyAsync(
+                        () -> render(templateId, profileContext, cost, priority, deadline, timings), pdfTaskExecutor));
+            }
+
+            Map<String, byte[]> pdfs = new LinkedHashMap<>();
+            try {
+                for (Map.Entry<String, CompletableFuture<byte[]>> render : renders.entrySet()) {
+                    pdfs.put(render.getKey() + ".pdf", render.getValue().join());
+                }
+            } catch (CompletionException e) {
+                // Stop the sibling renders at their next checkpoint; nobody will read their output
+                deadline.cancel("sibling template failed");
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+
+            byte[] zipBytes = timings.time("serialize", () -> ZipArchive.of(pdfs));
+            timings.addOutputBytes(zipBytes.length);
+
+            // Set headers
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(APPLICATION_ZIP);
+            headers.setContentDispositionFormData("attachment",
+                    request.getProfile().getName().replaceAll("\\s+", "_") + "_resume_templates.zip");
+            headers.setContentLength(zipBytes.length);
+            headers.set(RenderTimings.SERVER_TIMING_HEADER, timings.toServerTimingHeader());
+
+            return new ResponseEntity<>(zipBytes, headers, HttpStatus.OK);
+
+        } catch (RenderRejectedException e) {
+            log.warn("Resume template comparison rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (RenderCancelledException e) {
+            log.warn("Resume template comparison aborted: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        } catch (RenderTooLargeException e) {
+            log.warn("Resume template comparison refused: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .header(RenderCost.ESTIMATED_PAGES_HEADER, String.valueOf(e.getEstimatedPages()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid input for resume template comparison: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (UncheckedIOException e) {
+            log.error("IO error generating resume template comparison: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } catch (Exception e) {
+            log.error("Unexpected error generating resume template comparison: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Renders one template through its own render slot; runs on the PDF task executor
+     */
+    private byte[] render(String templateId, IContext profileContext, RenderCost cost, RenderPriority priority,
+                          RenderDeadline deadline, RenderTimings timings) {
+        try {
+            return renderScheduler.execute(priority, deadline, () -> {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                timings.run("convert", () -> pdfGeneratorService.generatePdfToStream(
+                        writer -> timings.run("template", () -> templateService.processTemplate(templateId, profileContext, deadline, writer)),
+                        outputStream, deadline, templateId, cost));
+                return outputStream.toByteArray();
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RenderCancelledException("queue", RenderCancelledException.Reason.CANCELLED, "interrupted");
+        }
+    }
+
+    private static List<String> resolveTemplateIds(List<String> requested) {
+        if (requested == null || requested.isEmpty()) {
+            return ResumePdfController.TEMPLATE_IDS;
+        }
+        for (String templateId : requested) {
+            if (!ResumePdfController.TEMPLATE_IDS.contains(templateId)) {
+                throw new IllegalArgumentException("Unknown resume template: " + templateId);
+            }
+        }
+        return requested.stream().distinct().toList();
+    }
+}
@@ -2,19 +2,34 @@ package com.example.pdfgen.controller.pdf;
 
 import com.example.pdfgen.dto.ProfileRequest;
 import com.example.pdfgen.model.CandidateProfile;
+import com.example.pdfgen.service.ArtifactStore;
+import com.example.pdfgen.service.OutputBufferPool;
+import com.example.pdfgen.service.PageFit;
 import com.example.pdfgen.service.PdfGeneratorService;
+import com.example.pdfgen.service.RenderCancelledException;
+import com.example.pdfgen.service.RenderCost;
+import com.example.pdfgen.service.RenderCostEstimator;
+import com.example.pdfgen.service.RenderDeadline;
+import com.example.pdfgen.service.RenderDeadlinePolicy;
+import com.example.pdfgen.service.RenderPriority;
+import com.example.pdfgen.service.RenderRejectedException;
+import com.example.pdfgen.service.RenderScheduler;
+import com.example.pdfgen.service.RenderTimings;
+import com.example.pdfgen.service.RenderTooLargeException;
+import com.example.pdfgen.service.SegmentedOutputBuffer;
 import com.example.pdfgen.service.TemplateService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.List;
 
 /**
  * REST Controller for Resume PDF generation
@@ -25,53 +40,112 @@ import java.io.IOException;
 @Slf4j
 public class ResumePdfController {
 
+    /**
+     * Available resume template IDs
+     */
+    public static final List<String> TEMPLATE_IDS = List.of(
+            "resume_template_001",
+            "resume_template_002",
+            "resume_template_003");
+
     private final TemplateService templateService;
     private final PdfGeneratorService pdfGeneratorService;
+    private final RenderScheduler renderScheduler;
+    private final RenderDeadlinePolicy renderDeadlinePolicy;
+    private final RenderCostEstimator renderCostEstimator;
+    private final OutputBufferPool outputBufferPool;
+    private final ArtifactStore artifactStore;
 
     /**
      * Generate resume PDF from profile data
      *
-     * @param request Profile request containing template ID and profile data
-     * @return PDF file as byte array
+     * With fitToPages the content is scaled down just enough to fit on that many pages; the chosen
+     * scale and the number of layout passes are returned in the {@value PageFit#SCALE_HEADER} and
+     * {@value PageFit#ITERATIONS_HEADER} headers, the resulting page count in {@value PageFit#PAGES_HEADER},
+     * and in {@value PageFit#FITTED_HEADER} whether it fitted at all: content too long even at the minimum
+     * scale is still returned, rendered at that scale, with the header set to false.
+     *
+     * @param request    Profile request containing template ID and profile data
+     * @param fitToPages Optional maximum page count
+     * @return PDF file
      */
     @PostMapping(value = "/generate", produces = MediaType.APPLICATION_PDF_VALUE)
-    public ResponseEntity<byte[]> generateResumePdf(@Valid @RequestBody ProfileRequest request) {
-        ByteArrayOutputStream outputStream = null;
-
+    public ResponseEntity<Resource> generateResumePdf(@Valid @RequestBody ProfileRequest request,
+                                                      @RequestParam(value = "fitToPages", required = false) Integer fitToPages,
+                                                      @RequestHeader(value = RenderPriority.HEADER, required = false) String priorityHeader,
+                                                      @RequestHeader(value = RenderDeadline.HEADER, required = false) String deadlineHeader,
+                                                      @RequestAttribute(RenderTimings.ATTRIBUTE) RenderTimings timings) {
         try {
-            log.info("=== Resume PDF Generation Request Received ===");
-            log.info("Template ID: {}", request.getTemplateId());
-
             CandidateProfile profile = request.getProfile();
-            log.info("Profile Name: {}", profile.getName());
-            log.info("Profile Email: {}", profile.getEmail());
-            log.info("Profile Location: {}", profile.getLocation());
-            log.info("Skills Count: {}", profile.getSkills() != null ? profile.getSkills().size() : 0);
-            log.info("Experience Count: {}", profile.getExperience() != null ? profile.getExperience().size() : 0);
-            log.info("Education Count: {}", profile.getEducation() != null ? profile.getEducation().size() : 0);
-            log.info("Certifications Count: {}", profile.getCertifications() != null ? profile.getCertifications().size() : 0);
-            log.info("=======================================");
+            if (!TEMPLATE_IDS.contains(request.getTemplateId())) {
+                throw new IllegalArgumentException("Unknown resume template: " + request.getTemplateId());
+            }
 
-            // Process template with profile data
-            String processedHtml = templateService.processTemplate(request.getTemplateId(), profile);
+            timings.tag("template", request.getTemplateId());
 
-            // Generate PDF
-            outputStream = new ByteArrayOutputStream();
-            pdfGeneratorService.generatePdfToStream(processedHtml, outputStream);
+            // Refuse documents too large to render before they take a render slot
+            RenderCost cost = renderCostEstimator.check(profile);
+            timings.tag("estimated_pages", String.valueOf(cost.getEstimatedPages()));
 
-            byte[] pdfBytes = outputStream.toByteArray();
+            RenderPriority priority = RenderPriority.resolve(priorityHeader, RenderPriority.INTERACTIVE);
+            RenderDeadline deadline = renderDeadlinePolicy.resolve(deadlineHeader, "resume-pdf");
+
+            PageFit[] fit = new PageFit[1];
+            SegmentedOutputBuffer pdf = renderScheduler.execute(priority, deadline, () -> outputBufferPool.fill(outputStream -> {
+                // Generate PDF, streaming the processed template with profile data straight into the converter
+                PdfGeneratorService.HtmlSource html =
+                        writer -> timings.run("template", () -> templateService.processTemplate(request.getTemplateId(), profile, deadline, writer));
+                if (fitToPages == null) {
+                    timings.run("convert", () -> pdfGeneratorService.generatePdfToStream(html, outputStream, deadline, request.getTemplateId(), cost));
+                } else {
+                    fit[0] = timings.time("convert", () -> pdfGeneratorService.generateFittedPdfToStream(
+                            html, outputStream, fitToPages, deadline, request.getTemplateId(), cost));
+                }
+            }));
+            timings.addOutputBytes(pdf.size());
+
+            // Keep the document so it can be downloaded again without re-rendering
+            String artifactId = timings.time("store", () -> artifactStore.store(pdf, "pdf"));
 
             // Set headers
             HttpHeaders headers = new HttpHeaders();
+            if (fit[0] != null) {
+                timings.tag("fit_scale", String.valueOf(fit[0].getScale()));
+                timings.tag("fit_iterations", String.valueOf(fit[0].getIterations()));
+                timings.tag("fit_measure_ms", String.valueOf(fit[0].getMeasureNanos() / 1_000_000));
+                headers.set(PageFit.SCALE_HEADER, String.valueOf(fit[0].getScale()));
+                headers.set(PageFit.ITERATIONS_HEADER, String.valueOf(fit[0].getIterations()));
+                headers.set(PageFit.PAGES_HEADER, String.valueOf(fit[0].getPageCount()));
+                headers.set(PageFit.FITTED_HEADER, String.valueOf(fit[0].isFitted()));
+            }
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("attachment",
                     profile.getName().replaceAll("\\s+", "_") + "_resume.pdf");
-            headers.setContentLength(pdfBytes.length);
-
-            log.info("Resume PDF generated successfully for: {}", profile.getName());
+            headers.setContentLength(pdf.size());
+            if (artifactId != null) {
+                headers.set(ArtifactStore.ARTIFACT_HEADER, artifactId);
+            }
+            headers.set(RenderTimings.SERVER_TIMING_HEADER, timings.toServerTimingHeader());
 
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+            return new ResponseEntity<>(pdf.toResource(), headers, HttpStatus.OK);
 
+        } catch (RenderRejectedException e) {
+            log.warn("Resume PDF generation rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (RenderCancelledException e) {
+            log.warn("Resume PDF generation aborted: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Resume PDF generation interrupted: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (RenderTooLargeException e) {
+            log.warn("Resume PDF generation refused: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .header(RenderCost.ESTIMATED_PAGES_HEADER, String.valueOf(e.getEstimatedPages()))
+                    .build();
         } catch (IllegalArgumentException e) {
             log.error("Invalid input for resume PDF generation: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -81,14 +155,6 @@ public class ResumePdfController {
         } catch (Exception e) {
             log.error("Unexpected error generating resume PDF: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        } finally {
-            if (outputStream != null) {
-                try {
-                    outputStream.close();
-                } catch (IOException e) {
-                    log.error("Error closing output stream: {}", e.getMessage());
-                }
-            }
         }
     }
 
@@ -97,10 +163,6 @@ public class ResumePdfController {
      */
     @GetMapping("/templates")
     public ResponseEntity<?> getAvailableTemplates() {
-        return ResponseEntity.ok(new String[]{
-                "resume_template_001",
-                "resume_template_002",
-                "resume_template_003"
-        });
+        return ResponseEntity.ok(TEMPLATE_IDS);
     }
 }
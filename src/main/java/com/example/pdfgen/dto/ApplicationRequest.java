@@ -0,0 +1,33 @@
+package com.example.pdfgen.dto;
+
+import com.example.pdfgen.model.CandidateProfile;
+import com.example.pdfgen.model.CoverLetter;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for generating a cover letter and resume together as one document
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApplicationRequest {
+
+    @NotBlank(message = "Resume template ID is required")
+    private String resumeTemplateId;
+
+    @NotBlank(message = "Cover letter template ID is required")
+    private String coverLetterTemplateId;
+
+    @NotNull(message = "Profile data is required")
+    @Valid
+    private CandidateProfile profile;
+
+    @NotNull(message = "Cover letter data is required")
+    @Valid
+    private CoverLetter coverLetter;
+}
@@ -0,0 +1,25 @@
+package com.example.pdfgen.dto;
+
+import com.example.pdfgen.model.CandidateProfile;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for a bulk generation run producing one resume PDF per profile
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRunRequest {
+
+    @NotBlank(message = "Template ID is required")
+    private String templateId;
+
+    @NotEmpty(message = "At least one profile is required")
+    private List<CandidateProfile> profiles;
+}
@@ -0,0 +1,26 @@
+package com.example.pdfgen.dto;
+
+import com.example.pdfgen.model.CandidateProfile;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for rendering one profile into several resume templates side by side
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompareRequest {
+
+    /**
+     * Templates to render; all resume templates when omitted
+     */
+    private List<String> templateIds;
+
+    @NotNull(message = "Profile data is required")
+    private CandidateProfile profile;
+}
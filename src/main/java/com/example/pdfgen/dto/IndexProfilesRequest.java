@@ -0,0 +1,21 @@
+package com.example.pdfgen.dto;
+
+import com.example.pdfgen.model.CandidateProfile;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Request DTO for adding profiles to the ranking index, keyed by the caller's profile IDs
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexProfilesRequest {
+
+    @NotEmpty(message = "At least one profile is required")
+    private Map<String, CandidateProfile> profiles;
+}
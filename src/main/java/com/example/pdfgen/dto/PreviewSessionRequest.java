@@ -0,0 +1,32 @@
+package com.example.pdfgen.dto;
+
+import com.example.pdfgen.service.PreviewUpdate;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for opening a live-preview session
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PreviewSessionRequest {
+
+    @NotBlank(message = "Template ID is required")
+    private String templateId;
+
+    /**
+     * What to push back for each edit; HTML when omitted
+     */
+    private PreviewUpdate.Format format;
+
+    /**
+     * Initial model in the CandidateProfile shape, kept as JSON so later merge patches apply to exactly what the editor sent
+     */
+    @NotNull(message = "Profile data is required")
+    private JsonNode profile;
+}
@@ -0,0 +1,23 @@
+package com.example.pdfgen.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for ranking indexed profiles against a job description
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankRequest {
+
+    @NotBlank(message = "Job description is required")
+    private String jobDescription;
+
+    /**
+     * Most profiles to return; 10 when omitted
+     */
+    private Integer limit;
+}
@@ -0,0 +1,22 @@
+package com.example.pdfgen.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.pdfgen.DocxBuild")
+@Label("DOCX Build")
+@Description("Apache POI build and serialization of a Word document")
+public class DocxBuildEvent extends RenderEvent {
+
+    @Label("Document Type")
+    public String documentType;
+
+    @Label("Paragraph Count")
+    public int paragraphCount;
+
+    @Label("Output Size")
+    @DataAmount
+    public long outputBytes;
+}
@@ -0,0 +1,33 @@
+package com.example.pdfgen.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.pdfgen.OpenAiCall")
+@Label("OpenAI Call")
+@Description("Chat completion request made by the ProfileOptimizer")
+public class OpenAiCallEvent extends RenderEvent {
+
+    @Label("Model")
+    public String model;
+
+    @Label("Prompt Length")
+    @Description("Length of the user prompt in characters")
+    public long promptLength;
+
+    @Label("Prompt Tokens")
+    @Description("Estimated tokens of the system and user messages as sent")
+    public long promptTokens;
+
+    @Label("Original Prompt Tokens")
+    @Description("Estimated tokens of the same prompt before compaction")
+    public long originalPromptTokens;
+
+    @Label("Response Length")
+    @Description("Length of the completion in characters")
+    public long responseLength;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,26 @@
+package com.example.pdfgen.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.pdfgen.PdfConversion")
+@Label("PDF Conversion")
+@Description("pdfHTML conversion of processed HTML into a PDF document")
+public class PdfConversionEvent extends RenderEvent {
+
+    @Label("Template ID")
+    public String templateId;
+
+    @Label("Page Count")
+    public int pageCount;
+
+    @Label("Estimated Page Count")
+    @Description("Page count estimated from the profile before rendering, 0 when not estimated")
+    public int estimatedPages;
+
+    @Label("Output Size")
+    @DataAmount
+    public long outputBytes;
+}
@@ -0,0 +1,54 @@
+package com.example.pdfgen.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Timespan;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Base class for rendering pipeline JFR events
+ *
+ * Adds per-thread allocation and CPU time, measured with the HotSpot ThreadMXBean between
+ * {@link #start()} and {@link #finish()}. The counters are only read when the event is enabled
+ * in the active recording, so disabled events cost a single boolean check.
+ */
+@Category({"PDF Generator", "Rendering"})
+public abstract class RenderEvent extends Event {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    @Label("CPU Time")
+    @Timespan
+    long cpuTime;
+
+    /**
+     * Begins timing and snapshots the thread's allocation and CPU counters
+     */
+    public void start() {
+        if (isEnabled()) {
+            allocatedBytes = THREADS.getCurrentThreadAllocatedBytes();
+            cpuTime = THREADS.getCurrentThreadCpuTime();
+        }
+        begin();
+    }
+
+    /**
+     * Ends timing and commits the event with the counter deltas if the recording wants it
+     */
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            allocatedBytes = THREADS.getCurrentThreadAllocatedBytes() - allocatedBytes;
+            cpuTime = THREADS.getCurrentThreadCpuTime() - cpuTime;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.pdfgen.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.pdfgen.TemplateProcessing")
+@Label("Template Processing")
+@Description("Thymeleaf processing of a resume or cover letter template")
+public class TemplateProcessingEvent extends RenderEvent {
+
+    @Label("Template ID")
+    public String templateId;
+
+    @Label("HTML Length")
+    @Description("Length of the processed HTML in characters")
+    public long htmlLength;
+}
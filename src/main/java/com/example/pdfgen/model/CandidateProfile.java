@@ -12,6 +12,7 @@ public class CandidateProfile {
     private List<Experience> experience;
     private List<Education> education;
     private List<String> certifications;
+    private String photo;
 
     // Constructors
     public CandidateProfile() {
@@ -104,6 +105,17 @@ public class CandidateProfile {
         this.certifications = certifications;
     }
 
+    /**
+     * Base64 image data (PNG, JPEG, GIF or BMP), optionally as a data URI
+     */
+    public String getPhoto() {
+        return photo;
+    }
+
+    public void setPhoto(String photo) {
+        this.photo = photo;
+    }
+
     @Override
     public String toString() {
         return "CandidateProfile{" +
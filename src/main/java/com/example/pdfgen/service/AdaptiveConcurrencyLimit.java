@@ -0,0 +1,131 @@
+package com.example.pdfgen.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gradient-based adaptive concurrency limit for the rendering stage
+ *
+ * Compares a short-term RTT average against a long-term one: while renders are not slowing
+ * down the limit grows by roughly sqrt(limit), and once queuing inside the CPU shows up as
+ * rising latency the limit shrinks proportionally. This converges on the number of concurrent
+ * renders a node can sustain without hand-tuned pool sizes.
+ *
+ * Not thread-safe on its own for updates; {@link RenderScheduler} calls it under its lock.
+ * Getters may be read from any thread (e.g. metrics gauges).
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SHORT_WINDOW_FACTOR = 2.0 / (10 + 1);
+    private static final double LONG_WINDOW_FACTOR = 2.0 / (600 + 1);
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final boolean adaptive;
+
+    private volatile double limit;
+    private volatile double shortRttNanos;
+    private volatile double longRttNanos;
+    private volatile long lastRttNanos;
+    private volatile long minRttNanos = Long.MAX_VALUE;
+
+    /**
+     * @param initialLimit Starting number of concurrent renders
+     * @param minLimit     Lower bound for the limit
+     * @param maxLimit     Upper bound for the limit
+     * @param adaptive     When false the limit stays at initialLimit and samples are only recorded
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, boolean adaptive) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * Records the duration of one render and adjusts the limit
+     *
+     * @param rttNanos Time the render held its slot
+     * @param inFlight Number of renders in flight when this one completed (including itself)
+     */
+    public void onSample(long rttNanos, int inFlight) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        lastRttNanos = rttNanos;
+        minRttNanos = Math.min(minRttNanos, rttNanos);
+
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos = shortRttNanos + (rttNanos - shortRttNanos) * SHORT_WINDOW_FACTOR;
+        longRttNanos = longRttNanos + (rttNanos - longRttNanos) * LONG_WINDOW_FACTOR;
+
+        // Let the long-term average recover quickly after a sustained slowdown has ended
+        if (longRttNanos / shortRttNanos > 2.0) {
+            longRttNanos *= 0.95;
+        }
+
+        if (!adaptive) {
+            return;
+        }
+
+        // Application-limited: not enough load to learn anything about a higher limit
+        if (inFlight < limit / 2) {
+            return;
+        }
+
+        double current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+        double newLimit = current * gradient + Math.sqrt(current);
+        newLimit = current * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+
+        if ((int) newLimit != (int) current) {
+            log.debug("Render concurrency limit {} -> {} (shortRtt={}ms, longRtt={}ms)",
+                    (int) current, (int) newLimit,
+                    TimeUnit.NANOSECONDS.toMillis((long) shortRttNanos),
+                    TimeUnit.NANOSECONDS.toMillis((long) longRttNanos));
+        }
+        limit = newLimit;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public double getShortRttMillis() {
+        return shortRttNanos / 1_000_000.0;
+    }
+
+    public double getLongRttMillis() {
+        return longRttNanos / 1_000_000.0;
+    }
+
+    public double getLastRttMillis() {
+        return lastRttNanos / 1_000_000.0;
+    }
+
+    public double getMinRttMillis() {
+        long min = minRttNanos;
+        return min == Long.MAX_VALUE ? 0 : min / 1_000_000.0;
+    }
+}
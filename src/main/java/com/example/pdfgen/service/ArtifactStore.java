@@ -0,0 +1,368 @@
+package com.example.pdfgen.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * On-disk store for generated documents, keyed by the SHA-256 of their content
+ *
+ * Documents live at &lt;dir&gt;/ab/cd/&lt;hash&gt;.&lt;ext&gt;, so no directory grows beyond a few
+ * hundred entries. Writes go to a temporary file that is fsynced and atomically moved into place;
+ * a document that is already stored is not written again. The in-memory index is kept in access
+ * order and the least recently used documents are evicted once render.store.max-bytes is exceeded.
+ * Access order is persisted as a compact binary snapshot (49 bytes per document) on eviction and
+ * shutdown; on startup the shard directories are scanned and the snapshot only restores the order.
+ * Disabled unless render.store.enabled is set: a response is stored, fsync included, before it is
+ * returned, which adds the disk write to every render's latency. Thread-safe.
+ */
+@Component
+@Slf4j
+public class ArtifactStore {
+
+    /**
+     * Response header carrying the stored document's ID
+     */
+    public static final String ARTIFACT_HEADER = "X-Artifact-Id";
+
+    private static final Pattern ID_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final Set<String> EXTENSIONS = Set.of("pdf", "docx");
+    private static final String INDEX_FILE = "index.bin";
+    private static final int INDEX_MAGIC = 0x41524931; // "ARI1"
+    private static final HexFormat HEX = HexFormat.of();
+
+    /**
+     * A stored document
+     */
+    public static final class Artifact {
+        private final String id;
+        private final String extension;
+        private final long size;
+        private final Path path;
+        private long lastAccessMillis;
+
+        Artifact(String id, String extension, long size, Path path, long lastAccessMillis) {
+            this.id = id;
+            this.extension = extension;
+            this.size = size;
+            this.path = path;
+            this.lastAccessMillis = lastAccessMillis;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+    }
+
+    private final boolean enabled;
+    private final Path root;
+    private final long maxBytes;
+    // Access-ordered: iteration starts at the least recently used document
+    private final LinkedHashMap<String, Artifact> index = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    private long evictions;
+
+    public ArtifactStore(
+            @Value("${render.store.enabled:false}") boolean enabled,
+            @Value("${render.store.dir:${java.io.tmpdir}/pdfgen-artifacts}") String dir,
+            @Value("${render.store.max-bytes:1073741824}") long maxBytes) throws IOException {
+        this.enabled = enabled;
+        this.root = Paths.get(dir).toAbsolutePath();
+        this.maxBytes = maxBytes;
+
+        if (enabled) {
+            Files.createDirectories(root.resolve("tmp"));
+            load();
+            log.info("Artifact store initialized: dir={}, documents={}, bytes={}, maxBytes={}",
+                    root, index.size(), totalBytes, maxBytes);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Stores the buffer's content unless an identical document is already stored
+     *
+     * @param document  Rendered document
+     * @param extension File extension, "pdf" or "docx"
+     * @return The document ID (hex SHA-256 of the content)
+     * @throws IOException If the document cannot be written
+     */
+    public String put(SegmentedOutputBuffer document, String extension) throws IOException {
+        if (!EXTENSIONS.contains(extension)) {
+            throw new IllegalArgumentException("Unsupported artifact type: " + extension);
+        }
+        MessageDigest digest = sha256();
+        try (OutputStream hashing = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            document.writeTo(hashing);
+        }
+        String id = HEX.formatHex(digest.digest());
+
+        synchronized (this) {
+            Artifact existing = index.get(id);
+            if (existing != null) {
+                existing.lastAccessMillis = System.currentTimeMillis();
+                return id;
+            }
+        }
+
+        Path target = pathFor(id, extension);
+        Files.createDirectories(target.getParent());
+        Path temp = root.resolve("tmp").resolve(UUID.randomUUID() + ".part");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                document.writeTo(Channels.newOutputStream(channel));
+                // Durable before it becomes visible under its final name
+                channel.force(true);
+            }
+            moveIntoPlace(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        synchronized (this) {
+            if (!index.containsKey(id)) {
+                index.put(id, new Artifact(id, extension, document.size(), target, System.currentTimeMillis()));
+                totalBytes += document.size();
+            }
+            evictIfNeeded();
+        }
+        return id;
+    }
+
+    /**
+     * Stores the document if the store is enabled, without failing the request when it cannot be written
+     *
+     * @return The document ID, or null if the store is disabled or the write failed
+     */
+    public String store(SegmentedOutputBuffer document, String extension) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            return put(document, extension);
+        } catch (IOException e) {
+            log.error("Could not store generated {}: {}", extension, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Looks up a stored document and marks it as recently used
+     *
+     * @param id Document ID as returned by {@link #put}
+     * @return The document, or empty if unknown or evicted
+     */
+    public synchronized Optional<Artifact> get(String id) {
+        if (id == null || !ID_PATTERN.matcher(id).matches()) {
+            return Optional.empty();
+        }
+        Artifact artifact = index.get(id);
+        if (artifact == null) {
+            return Optional.empty();
+        }
+        artifact.lastAccessMillis = System.currentTimeMillis();
+        return Optional.of(artifact);
+    }
+
+    public synchronized int getCount() {
+        return index.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (enabled) {
+            synchronized (this) {
+                writeIndex();
+            }
+        }
+    }
+
+    private Path pathFor(String id, String extension) {
+        return root.resolve(id.substring(0, 2)).resolve(id.substring(2, 4)).resolve(id + "." + extension);
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // Another request stored the same content first; it is byte-for-byte identical
+            if (!Files.exists(target)) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Evicts least recently used documents down to 90% of the limit; caller holds the lock
+     */
+    private void evictIfNeeded() {
+        if (totalBytes <= maxBytes) {
+            return;
+        }
+        long lowWater = maxBytes - maxBytes / 10;
+        Iterator<Artifact> lru = index.values().iterator();
+        while (totalBytes > lowWater && lru.hasNext()) {
+            Artifact artifact = lru.next();
+            try {
+                Files.deleteIfExists(artifact.path);
+            } catch (IOException e) {
+                log.warn("Could not evict artifact {}: {}", artifact.id, e.getMessage());
+                continue;
+            }
+            lru.remove();
+            totalBytes -= artifact.size;
+            evictions++;
+        }
+        writeIndex();
+    }
+
+    /**
+     * Rebuilds the index from the shard directories, restoring access order from the snapshot
+     */
+    private void load() throws IOException {
+        Map<String, Long> accessTimes = readIndex();
+
+        Map<String, Artifact> found = new LinkedHashMap<>();
+        try (DirectoryStream<Path> level1 = Files.newDirectoryStream(root, p -> p.getFileName().toString().length() == 2)) {
+            for (Path shard1 : level1) {
+                try (DirectoryStream<Path> level2 = Files.newDirectoryStream(shard1)) {
+                    for (Path shard2 : level2) {
+                        try (DirectoryStream<Path> files = Files.newDirectoryStream(shard2)) {
+                            for (Path file : files) {
+                                String name = file.getFileName().toString();
+                                int dot = name.lastIndexOf('.');
+                                if (dot < 0 || !ID_PATTERN.matcher(name.substring(0, dot)).matches()
+                                        || !EXTENSIONS.contains(name.substring(dot + 1))) {
+                                    continue;
+                                }
+                                String id = name.substring(0, dot);
+                                long lastAccess = accessTimes.getOrDefault(id, Files.getLastModifiedTime(file).toMillis());
+                                found.put(id, new Artifact(id, name.substring(dot + 1), Files.size(file), file, lastAccess));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        found.values().stream()
+                .sorted((a, b) -> Long.compare(a.lastAccessMillis, b.lastAccessMillis))
+                .forEach(artifact -> {
+                    index.put(artifact.id, artifact);
+                    totalBytes += artifact.size;
+                });
+        evictIfNeeded();
+    }
+
+    private Map<String, Long> readIndex() {
+        Map<String, Long> accessTimes = new LinkedHashMap<>();
+        Path file = root.resolve(INDEX_FILE);
+        try (InputStream in = Files.newInputStream(file);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+            if (data.readInt() != INDEX_MAGIC) {
+                log.warn("Ignoring artifact index with unknown format: {}", file);
+                return accessTimes;
+            }
+            int count = data.readInt();
+            byte[] hash = new byte[32];
+            for (int i = 0; i < count; i++) {
+                data.readFully(hash);
+                data.readLong(); // size, re-read from the file itself
+                long lastAccess = data.readLong();
+                data.readByte(); // type, taken from the extension
+                accessTimes.put(HEX.formatHex(hash), lastAccess);
+            }
+        } catch (NoSuchFileException e) {
+            // First start
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable artifact index {}: {}", file, e.getMessage());
+        }
+        return accessTimes;
+    }
+
+    /**
+     * Writes the access-ordered snapshot; caller holds the lock
+     */
+    private void writeIndex() {
+        Path file = root.resolve(INDEX_FILE);
+        Path temp = root.resolve("tmp").resolve(INDEX_FILE + ".part");
+        try {
+            try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                data.writeInt(INDEX_MAGIC);
+                data.writeInt(index.size());
+                for (Artifact artifact : index.values()) {
+                    data.write(HEX.parseHex(artifact.id));
+                    data.writeLong(artifact.size);
+                    data.writeLong(artifact.lastAccessMillis);
+                    data.writeByte(artifact.extension.equals("pdf") ? 0 : 1);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Could not write artifact index: {}", e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.pdfgen.service;
+
+import com.example.pdfgen.model.CandidateProfile;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service for bulk generation runs that survive restarts
+ *
+ * A run renders one resume PDF per profile into the {@link ArtifactStore}. Submission, item starts,
+ * completions and failures are recorded in a {@link JobJournal} under render.jobs.dir; on startup
+ * unfinished runs are resumed and items whose output is still stored are skipped. Items are rendered
+ * by render.jobs.workers threads through the scheduler's bulk lane, so runs never crowd out
+ * interactive requests. Items the {@link RenderCostEstimator} finds too large fail without being
+ * rendered. The journal is compacted on startup, and whenever it is beyond render.jobs.compact-bytes
+ * and twice its size after the last compaction: the input of a large unfinished run cannot be
+ * compacted away, and compacting on absolute size alone would rewrite it after every item.
+ */
+@Service
+@Slf4j
+public class BulkJobService {
+
+    private static final Gson GSON = new Gson();
+    private static final TypeToken<List<CandidateProfile>> PROFILES = new TypeToken<>() { };
+
+    private final TemplateService templateService;
+    private final PdfGeneratorService pdfGeneratorService;
+    private final RenderScheduler renderScheduler;
+    private final RenderDeadlinePolicy renderDeadlinePolicy;
+    private final RenderCostEstimator renderCostEstimator;
+    private final OutputBufferPool outputBufferPool;
+    private final ArtifactStore artifactStore;
+    private final JobJournal journal;
+    private final ExecutorService workers;
+    private final long compactBytes;
+    private final int retainFinishedRuns;
+
+    private final AtomicLong renderedItems = new AtomicLong();
+    private final AtomicLong skippedItems = new AtomicLong();
+    private volatile boolean stopping;
+
+    public BulkJobService(TemplateService templateService,
+                          PdfGeneratorService pdfGeneratorService,
+                          RenderScheduler renderScheduler,
+                          RenderDeadlinePolicy renderDeadlinePolicy,
+                          RenderCostEstimator renderCostEstimator,
+                          OutputBufferPool outputBufferPool,
+                          ArtifactStore artifactStore,
+                          @Value("${render.jobs.dir:${java.io.tmpdir}/pdfgen-jobs}") String dir,
+                          @Value("${render.jobs.workers:2}") int workerCount,
+                          @Value("${render.jobs.compact-bytes:67108864}") long compactBytes,
+                          @Value("${render.jobs.retain-finished-runs:100}") int retainFinishedRuns) throws IOException {
+        this.templateService = templateService;
+        this.pdfGeneratorService = pdfGeneratorService;
+        this.renderScheduler = renderScheduler;
+        this.renderDeadlinePolicy = renderDeadlinePolicy;
+        this.renderCostEstimator = renderCostEstimator;
+        this.outputBufferPool = outputBufferPool;
+        this.artifactStore = artifactStore;
+        this.journal = new JobJournal(Paths.get(dir).toAbsolutePath().resolve("journal.log"));
+        this.compactBytes = compactBytes;
+        this.retainFinishedRuns = retainFinishedRuns;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, task -> {
+            Thread thread = new Thread(task, "bulk-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        log.info("Bulk job service initialized: dir={}, workers={}, compactBytes={}, retainFinishedRuns={}",
+                dir, workerCount, compactBytes, retainFinishedRuns);
+    }
+
+    /**
+     * Compacts the journal and resumes every run that had not finished
+     */
+    @PostConstruct
+    public void resumeRuns() throws IOException {
+        journal.compact(retainFinishedRuns);
+        for (JobJournal.Run run : journal.getRuns()) {
+            if (!run.isFinished()) {
+                log.info("Resuming bulk run {}: completed={}, failed={}, items={}",
+                        run.getId(), run.count(JobJournal.ItemState.COMPLETED),
+                        run.count(JobJournal.ItemState.FAILED), run.getItemCount());
+                schedule(run);
+            }
+        }
+    }
+
+    /**
+     * Starts a run rendering one resume per profile; the run is durable once this method returns
+     *
+     * @param templateId Resume template used for every item
+     * @param profiles   Candidates, one output document each
+     * @return The run ID
+     * @throws IOException              If the run cannot be recorded in the journal
+     * @throws IllegalStateException    If the artifact store is disabled
+     * @throws IllegalArgumentException If the profiles are too large to record as one journal entry
+     */
+    public String submit(String templateId, List<CandidateProfile> profiles) throws IOException {
+        if (!artifactStore.isEnabled()) {
+            throw new IllegalStateException("Bulk runs store their output in the artifact store, which is disabled");
+        }
+        String runId = UUID.randomUUID().toString();
+        byte[] spec = GSON.toJson(profiles, PROFILES.getType()).getBytes(StandardCharsets.UTF_8);
+        JobJournal.Run run = journal.submitted(runId, templateId, spec, profiles.size());
+
+        log.info("Bulk run {} submitted: template={}, items={}", runId, templateId, profiles.size());
+        schedule(run, profiles);
+        return runId;
+    }
+
+    public Optional<JobJournal.Run> getRun(String runId) {
+        return Optional.ofNullable(journal.getRun(runId));
+    }
+
+    /**
+     * Items rendered since startup
+     */
+    public long getRenderedItems() {
+        return renderedItems.get();
+    }
+
+    /**
+     * Items found already completed when their run was resumed
+     */
+    public long getSkippedItems() {
+        return skippedItems.get();
+    }
+
+    public JobJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Stops the workers; items in progress are abandoned and rendered again after the restart
+     */
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        stopping = true;
+        workers.shutdownNow();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+        journal.close();
+    }
+
+    private void schedule(JobJournal.Run run) {
+        String json = new String(run.getSpec(), StandardCharsets.UTF_8);
+        schedule(run, GSON.fromJson(json, PROFILES.getType()));
+    }
+
+    private void schedule(JobJournal.Run run, List<CandidateProfile> profiles) {
+        AtomicInteger remaining = new AtomicInteger();
+        int skipped = 0;
+        for (int i = 0; i < run.getItemCount(); i++) {
+            if (isDone(run, i)) {
+                skipped++;
+            } else {
+                remaining.incrementAndGet();
+            }
+        }
+        skippedItems.addAndGet(skipped);
+
+        if (remaining.get() == 0) {
+            finish(run);
+            return;
+        }
+        for (int i = 0; i < run.getItemCount(); i++) {
+            if (!isDone(run, i)) {
+                int item = i;
+                workers.execute(() -> {
+                    if (process(run, item, profiles.get(item)) && remaining.decrementAndGet() == 0) {
+                        finish(run);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Whether the item failed or its output is still stored
+     */
+    private boolean isDone(JobJournal.Run run, int item) {
+        return switch (run.getState(item)) {
+            case FAILED -> true;
+            case COMPLETED -> artifactStore.get(run.getResult(item)).isPresent();
+            case PENDING -> false;
+        };
+    }
+
+    /**
+     * Renders one item and records the outcome
+     *
+     * @return False if the outcome could not be recorded; the item is then rendered again on restart
+     */
+    private boolean process(JobJournal.Run run, int item, CandidateProfile profile) {
+        if (stopping) {
+            return false;
+        }
+        String templateId = run.getTemplateId();
+        try {
+            journal.started(run.getId(), item);
+            String artifactId;
+            try {
+                artifactId = render(templateId, profile);
+            } catch (RuntimeException | IOException e) {
+                // Template and PDF errors included: an item that escaped unrecorded would keep its run
+                // from ever finishing, and fail again on every resume
+                if (stopping) {
+                    return false;
+                }
+                String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                log.warn("Bulk run {} item {} failed: {}", run.getId(), item, message);
+                journal.failed(run.getId(), item, message);
+                return true;
+            }
+            journal.completed(run.getId(), item, artifactId);
+            renderedItems.incrementAndGet();
+            compactIfNeeded();
+            return true;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (IOException e) {
+            log.error("Could not record bulk run {} item {} in the journal: {}", run.getId(), item, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private String render(String templateId, CandidateProfile profile) throws IOException, InterruptedException {
+        RenderCost cost = renderCostEstimator.check(profile);
+        while (true) {
+            RenderDeadline deadline = renderDeadlinePolicy.resolve(null, "bulk-item");
+            try {
+                SegmentedOutputBuffer pdf = renderScheduler.execute(RenderPriority.BULK, deadline, () ->
+                        outputBufferPool.fill(outputStream -> pdfGeneratorService.generatePdfToStream(
+                                writer -> templateService.processTemplate(templateId, profile, deadline, writer),
+                                outputStream, deadline, templateId, cost)));
+                try {
+                    return artifactStore.put(pdf, "pdf");
+                } finally {
+                    pdf.release();
+                }
+            } catch (RenderRejectedException e) {
+                // The bulk lane is full; a run can afford to wait its turn
+                TimeUnit.SECONDS.sleep(Math.max(1, e.getRetryAfterSeconds()));
+            }
+        }
+    }
+
+    private void finish(JobJournal.Run run) {
+        try {
+            journal.finished(run.getId());
+            log.info("Bulk run {} finished: completed={}, failed={}", run.getId(),
+                    run.count(JobJournal.ItemState.COMPLETED), run.count(JobJournal.ItemState.FAILED));
+        } catch (IOException e) {
+            log.error("Could not record the end of bulk run {}: {}", run.getId(), e.getMessage(), e);
+        }
+    }
+
+    private void compactIfNeeded() throws IOException {
+        if (needsCompaction()) {
+            synchronized (journal) {
+                if (needsCompaction()) {
+                    journal.compact(retainFinishedRuns);
+                }
+            }
+        }
+    }
+
+    private boolean needsCompaction() throws IOException {
+        long size = journal.size();
+        return size > compactBytes && size > 2 * journal.getCompactedSize();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.pdfgen.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable per-thread buffer that rendered HTML is written into and read back from without copying
+ *
+ * Thymeleaf writes UTF-8 bytes into the buffer and pdfHTML reads them through {@link #toInputStream()},
+ * so the HTML is never held as a String and the backing array is reused by the next render on the
+ * same worker thread. A buffer that grew past {@link #MAX_RETAINED_CAPACITY} for one large document
+ * shrinks back to the initial capacity when released, so each request thread retains at most that much.
+ */
+public final class HtmlBuffer extends ByteArrayOutputStream {
+
+    private static final int INITIAL_CAPACITY = 32 * 1024;
+    private static final int MAX_RETAINED_CAPACITY = 256 * 1024;
+
+    private static final ThreadLocal<HtmlBuffer> CACHE = new ThreadLocal<>();
+
+    private boolean inUse;
+
+    private HtmlBuffer() {
+        super(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Returns this thread's buffer, or a fresh one if it is already in use further up the stack
+     * Must be paired with {@link #release()}
+     */
+    public static HtmlBuffer acquire() {
+        HtmlBuffer buffer = CACHE.get();
+        if (buffer == null || buffer.inUse) {
+            buffer = new HtmlBuffer();
+            if (CACHE.get() == null) {
+                CACHE.set(buffer);
+            }
+        }
+        buffer.inUse = true;
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer to this thread's cache
+     */
+    public void release() {
+        inUse = false;
+        reset();
+        if (buf.length > MAX_RETAINED_CAPACITY) {
+            buf = new byte[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * A UTF-8 writer appending to this buffer; flush it before reading the buffer back
+     */
+    public Writer writer() {
+        return new OutputStreamWriter(this, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the buffered bytes without copying them
+     */
+    public InputStream toInputStream() {
+        return new ByteArrayInputStream(buf, 0, count);
+    }
+
+    /**
+     * The backing array, valid up to {@link #size()}; for handing the HTML on without copying it
+     */
+    byte[] array() {
+        return buf;
+    }
+
+    /**
+     * Current size of the backing array
+     */
+    int capacity() {
+        return buf.length;
+    }
+}
@@ -0,0 +1,559 @@
+package com.example.pdfgen.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of bulk generation runs, used to resume runs after a restart
+ *
+ * Each record is framed as [length][CRC32C][type][payload]. Replay stops at the first record that is
+ * truncated or fails its checksum (a write torn by a crash) and cuts the file there, so appends
+ * continue from the last intact record. Durable appends are group-committed: a thread that needs its
+ * record on disk fsyncs everything written so far, and threads that appended meanwhile return
+ * without a sync of their own. Item start records are not synced; losing one only means the item is
+ * rendered again. {@link #compact} rewrites the journal with the live state only.
+ * Thread-safe.
+ */
+@Slf4j
+public class JobJournal implements Closeable {
+
+    private static final byte RUN_SUBMITTED = 1;
+    private static final byte ITEM_STARTED = 2;
+    private static final byte ITEM_COMPLETED = 3;
+    private static final byte ITEM_FAILED = 4;
+    private static final byte RUN_FINISHED = 5;
+
+    private static final int HEADER_BYTES = 9;
+    // Largest record written; replay treats a longer length field as corrupt and truncates there
+    static final int MAX_RECORD_BYTES = 256 * 1024 * 1024;
+
+    /**
+     * Item states as recorded in the journal
+     */
+    public enum ItemState {
+        PENDING,
+        COMPLETED,
+        FAILED
+    }
+
+    /**
+     * State of one run as rebuilt from the journal
+     */
+    public static final class Run {
+        private final String id;
+        private final String templateId;
+        private byte[] spec;
+        private final long submittedMillis;
+        private final ItemState[] states;
+        private final String[] results;
+        private int started;
+        private boolean finished;
+
+        Run(String id, String templateId, byte[] spec, long submittedMillis, int itemCount) {
+            this.id = id;
+            this.templateId = templateId;
+            this.spec = spec;
+            this.submittedMillis = submittedMillis;
+            this.states = new ItemState[itemCount];
+            this.results = new String[itemCount];
+            Arrays.fill(states, ItemState.PENDING);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getTemplateId() {
+            return templateId;
+        }
+
+        /**
+         * The run's input as submitted; empty once a finished run has been compacted
+         */
+        public synchronized byte[] getSpec() {
+            return spec;
+        }
+
+        public long getSubmittedMillis() {
+            return submittedMillis;
+        }
+
+        public int getItemCount() {
+            return states.length;
+        }
+
+        public synchronized ItemState getState(int item) {
+            return states[item];
+        }
+
+        /**
+         * The artifact ID of a completed item, or the error message of a failed one
+         */
+        public synchronized String getResult(int item) {
+            return results[item];
+        }
+
+        public synchronized int count(ItemState state) {
+            int count = 0;
+            for (ItemState s : states) {
+                if (s == state) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Number of item start records, including restarts after a crash
+         */
+        public synchronized int getStarted() {
+            return started;
+        }
+
+        public synchronized boolean isFinished() {
+            return finished;
+        }
+
+        synchronized void apply(byte type, int item, String result) {
+            switch (type) {
+                case ITEM_STARTED -> started++;
+                case ITEM_COMPLETED -> {
+                    states[item] = ItemState.COMPLETED;
+                    results[item] = result;
+                }
+                case ITEM_FAILED -> {
+                    states[item] = ItemState.FAILED;
+                    results[item] = result;
+                }
+                case RUN_FINISHED -> finished = true;
+                default -> throw new IllegalStateException("Unknown journal record type " + type);
+            }
+        }
+    }
+
+    private final Path file;
+    private final int maxRecordBytes;
+    private final Object writeLock = new Object();
+    private final Object syncLock = new Object();
+    private final Map<String, Run> runs = new LinkedHashMap<>();
+
+    private FileChannel channel;
+    private long writtenSeq;
+    private long syncedSeq;
+    private long syncs;
+    private long appended;
+    private long compactedSize;
+
+    /**
+     * Opens the journal, replaying existing records and discarding a torn tail
+     *
+     * @param file Journal file; created with its parent directories if missing
+     * @throws IOException If the journal cannot be read or opened for appending
+     */
+    public JobJournal(Path file) throws IOException {
+        this(file, MAX_RECORD_BYTES);
+    }
+
+    /**
+     * Opens the journal with a lower record limit than replay accepts; for tests
+     */
+    JobJournal(Path file, int maxRecordBytes) throws IOException {
+        this.file = file;
+        this.maxRecordBytes = Math.min(maxRecordBytes, MAX_RECORD_BYTES);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        long intact = replay(file, runs);
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() > intact) {
+            log.warn("Job journal {} has a torn tail, discarding {} bytes after offset {}", file, channel.size() - intact, intact);
+            channel.truncate(intact);
+            channel.force(true);
+        }
+        channel.position(intact);
+        this.compactedSize = intact;
+    }
+
+    /**
+     * Reads the runs recorded in a journal without opening it for writing
+     *
+     * @param file Journal file, possibly still being appended to by another process
+     * @return Runs in submission order
+     */
+    public static Collection<Run> read(Path file) throws IOException {
+        Map<String, Run> runs = new LinkedHashMap<>();
+        replay(file, runs);
+        return runs.values();
+    }
+
+    /**
+     * Records a new run; durable when this method returns
+     *
+     * @param runId      Unique run ID
+     * @param templateId Template used for every item
+     * @param spec       The run's input, needed to resume it
+     * @param itemCount  Number of items in the run
+     * @return The new run
+     * @throws IllegalArgumentException If the spec is too large to be replayed; nothing is written
+     */
+    public Run submitted(String runId, String templateId, byte[] spec, int itemCount) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(spec.length + 64);
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeUTF(runId);
+        payload.writeUTF(templateId);
+        payload.writeLong(System.currentTimeMillis());
+        payload.writeInt(itemCount);
+        payload.writeInt(spec.length);
+        payload.write(spec);
+        append(RUN_SUBMITTED, bytes.toByteArray(), true);
+        return getRun(runId);
+    }
+
+    /**
+     * Records that an item is being rendered; not synced
+     */
+    public void started(String runId, int item) throws IOException {
+        append(ITEM_STARTED, itemPayload(runId, item, null), false);
+    }
+
+    /**
+     * Records a rendered item; durable when this method returns
+     */
+    public void completed(String runId, int item, String artifactId) throws IOException {
+        append(ITEM_COMPLETED, itemPayload(runId, item, artifactId), true);
+    }
+
+    /**
+     * Records an item that cannot be rendered; durable when this method returns
+     */
+    public void failed(String runId, int item, String message) throws IOException {
+        append(ITEM_FAILED, itemPayload(runId, item, message == null ? "" : message), true);
+    }
+
+    /**
+     * Records that every item of the run has completed or failed; durable when this method returns
+     */
+    public void finished(String runId) throws IOException {
+        append(RUN_FINISHED, itemPayload(runId, -1, null), true);
+    }
+
+    public Run getRun(String runId) {
+        synchronized (writeLock) {
+            return runs.get(runId);
+        }
+    }
+
+    public List<Run> getRuns() {
+        synchronized (writeLock) {
+            return new ArrayList<>(runs.values());
+        }
+    }
+
+    public long size() throws IOException {
+        synchronized (writeLock) {
+            return channel.size();
+        }
+    }
+
+    /**
+     * Size of the journal right after the last compaction, or when it was opened
+     *
+     * What compaction cannot reclaim (the input of unfinished runs) stays above this size, so growth
+     * beyond it, not the absolute size, tells when compacting pays off.
+     */
+    public long getCompactedSize() {
+        synchronized (writeLock) {
+            return compactedSize;
+        }
+    }
+
+    /**
+     * Number of fsyncs so far; lower than the number of durable appends when commits were grouped
+     */
+    public long getSyncs() {
+        synchronized (syncLock) {
+            return syncs;
+        }
+    }
+
+    public long getAppended() {
+        synchronized (writeLock) {
+            return appended;
+        }
+    }
+
+    /**
+     * Rewrites the journal with only the records needed to rebuild the current state
+     *
+     * Start records are dropped, finished runs lose their input, and only the most recent finished
+     * runs are kept. The new journal is fsynced and atomically replaces the old one, and the directory
+     * is fsynced so the rename itself survives a crash.
+     *
+     * @param retainFinishedRuns Number of finished runs to keep for status queries
+     * @return Bytes reclaimed
+     */
+    public long compact(int retainFinishedRuns) throws IOException {
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                long before = channel.size();
+                List<Run> finished = runs.values().stream().filter(Run::isFinished).toList();
+                int dropFinished = Math.max(0, finished.size() - retainFinishedRuns);
+                for (int i = 0; i < dropFinished; i++) {
+                    runs.remove(finished.get(i).id);
+                }
+
+                Path temp = file.resolveSibling(file.getFileName() + ".compact");
+                try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    for (Run run : runs.values()) {
+                        rewrite(run, out);
+                    }
+                    out.force(true);
+                }
+                try {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                syncDirectory(file.toAbsolutePath().getParent());
+
+                channel.close();
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                channel.position(channel.size());
+                syncedSeq = writtenSeq;
+
+                long after = channel.size();
+                compactedSize = after;
+                log.info("Job journal compacted: runs={}, droppedFinished={}, bytes {} -> {}", runs.size(), dropFinished, before, after);
+                return before - after;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                if (channel.isOpen()) {
+                    channel.force(false);
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Fsyncs a directory so renames in it are durable; a no-op where directories cannot be opened
+     */
+    private static void syncDirectory(Path dir) {
+        try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            log.debug("Cannot fsync directory {}: {}", dir, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the records that rebuild the run; caller holds both locks, so the run cannot change
+     */
+    private static void rewrite(Run run, FileChannel out) throws IOException {
+        synchronized (run) {
+            if (run.finished) {
+                run.spec = new byte[0];
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(run.spec.length + 64);
+            DataOutputStream payload = new DataOutputStream(bytes);
+            payload.writeUTF(run.id);
+            payload.writeUTF(run.templateId);
+            payload.writeLong(run.submittedMillis);
+            payload.writeInt(run.states.length);
+            payload.writeInt(run.spec.length);
+            payload.write(run.spec);
+            writeFully(out, frame(RUN_SUBMITTED, bytes.toByteArray()));
+
+            for (int i = 0; i < run.states.length; i++) {
+                if (run.states[i] != ItemState.PENDING) {
+                    byte type = run.states[i] == ItemState.COMPLETED ? ITEM_COMPLETED : ITEM_FAILED;
+                    writeFully(out, frame(type, itemPayload(run.id, i, run.results[i])));
+                }
+            }
+            if (run.finished) {
+                writeFully(out, frame(RUN_FINISHED, itemPayload(run.id, -1, null)));
+            }
+        }
+    }
+
+    private void append(byte type, byte[] payload, boolean durable) throws IOException {
+        if (payload.length > maxRecordBytes) {
+            // Written, it would read back as a torn tail and take every later record with it
+            throw new IllegalArgumentException("Journal record of " + payload.length + " bytes exceeds "
+                    + maxRecordBytes);
+        }
+        ByteBuffer record = frame(type, payload);
+        long seq;
+        synchronized (writeLock) {
+            writeFully(channel, record);
+            apply(runs, type, payload);
+            seq = ++writtenSeq;
+            appended++;
+        }
+        if (durable) {
+            sync(seq);
+        }
+    }
+
+    /**
+     * Makes every record up to seq durable, sharing one fsync with concurrent appenders
+     */
+    private void sync(long seq) throws IOException {
+        synchronized (syncLock) {
+            if (syncedSeq >= seq) {
+                return;
+            }
+            long target;
+            synchronized (writeLock) {
+                target = writtenSeq;
+            }
+            channel.force(false);
+            syncedSeq = target;
+            syncs++;
+        }
+    }
+
+    private static ByteBuffer frame(byte type, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(type);
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(type).put(payload).flip();
+        return record;
+    }
+
+    private static byte[] itemPayload(String runId, int item, String result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeUTF(runId);
+        payload.writeInt(item);
+        payload.writeBoolean(result != null);
+        if (result != null) {
+            // Error messages may exceed writeUTF's limit
+            byte[] utf8 = result.getBytes(StandardCharsets.UTF_8);
+            payload.writeInt(utf8.length);
+            payload.write(utf8);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Applies every intact record to the map
+     *
+     * @return Offset just past the last intact record
+     */
+    private static long replay(Path file, Map<String, Run> runs) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        long offset = 0;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (true) {
+                header.clear();
+                if (!readFully(in, header)) {
+                    break;
+                }
+                header.flip();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                byte type = header.get();
+                if (length < 0 || length > MAX_RECORD_BYTES) {
+                    break;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                if (!readFully(in, payload)) {
+                    break;
+                }
+                CRC32C crc = new CRC32C();
+                crc.update(type);
+                crc.update(payload.array());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                try {
+                    apply(runs, type, payload.array());
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Job journal {} has an unreadable record at offset {}: {}", file, offset, e.getMessage());
+                    break;
+                }
+                offset += HEADER_BYTES + length;
+            }
+        }
+        return offset;
+    }
+
+    private static boolean readFully(FileChannel in, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void apply(Map<String, Run> runs, byte type, byte[] bytes) throws IOException {
+        DataInputStream payload = new DataInputStream(new ByteArrayInputStream(bytes));
+        try {
+            String runId = payload.readUTF();
+            if (type == RUN_SUBMITTED) {
+                String templateId = payload.readUTF();
+                long submittedMillis = payload.readLong();
+                int itemCount = payload.readInt();
+                byte[] spec = new byte[payload.readInt()];
+                payload.readFully(spec);
+                runs.put(runId, new Run(runId, templateId, spec, submittedMillis, itemCount));
+                return;
+            }
+
+            int item = payload.readInt();
+            String result = null;
+            if (payload.readBoolean()) {
+                byte[] utf8 = new byte[payload.readInt()];
+                payload.readFully(utf8);
+                result = new String(utf8, StandardCharsets.UTF_8);
+            }
+            Run run = runs.get(runId);
+            // Records of runs dropped by compaction
+            if (run != null) {
+                run.apply(type, item, result);
+            }
+        } catch (EOFException e) {
+            throw new IOException("Truncated journal record", e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.pdfgen.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of fixed-size segments for rendered document output
+ *
+ * Segments default to 64 KB, well below the G1 humongous-object threshold, and are reused across
+ * requests so steady-state rendering allocates no output arrays at all. At most
+ * render.buffer.max-pooled-segments idle segments are kept; extra segments returned to a full pool
+ * are left to the garbage collector. Hits and misses are exposed as metrics by MetricsConfig.
+ * Thread-safe.
+ */
+@Component
+@Slf4j
+public class OutputBufferPool {
+
+    /**
+     * Writes a document into a buffer
+     */
+    @FunctionalInterface
+    public interface DocumentWriter {
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+
+    private final int segmentSize;
+    private final int maxPooledSegments;
+    private final ConcurrentLinkedQueue<byte[]> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public OutputBufferPool(
+            @Value("${render.buffer.segment-bytes:65536}") int segmentSize,
+            @Value("${render.buffer.max-pooled-segments:256}") int maxPooledSegments) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("render.buffer.segment-bytes must be positive");
+        }
+        this.segmentSize = segmentSize;
+        this.maxPooledSegments = Math.max(0, maxPooledSegments);
+
+        log.info("Output buffer pool initialized: segment={} bytes, maxPooled={} segments",
+                segmentSize, this.maxPooledSegments);
+    }
+
+    /**
+     * Borrows an empty buffer; callers must release it, directly or by closing its input stream
+     */
+    public SegmentedOutputBuffer acquire() {
+        return new SegmentedOutputBuffer(this);
+    }
+
+    /**
+     * Runs the writer against a fresh buffer, releasing the buffer if the writer fails
+     *
+     * @return The filled buffer
+     */
+    public SegmentedOutputBuffer fill(DocumentWriter writer) throws IOException {
+        SegmentedOutputBuffer buffer = acquire();
+        try {
+            writer.writeTo(buffer);
+            return buffer;
+        } catch (IOException | RuntimeException | Error e) {
+            buffer.release();
+            throw e;
+        }
+    }
+
+    byte[] takeSegment() {
+        byte[] segment = idle.poll();
+        if (segment != null) {
+            idleCount.decrementAndGet();
+            hits.increment();
+            return segment;
+        }
+        misses.increment();
+        return new byte[segmentSize];
+    }
+
+    void returnSegment(byte[] segment) {
+        if (segment.length != segmentSize) {
+            return;
+        }
+        if (idleCount.incrementAndGet() > maxPooledSegments) {
+            idleCount.decrementAndGet();
+            return;
+        }
+        idle.offer(segment);
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    public int getIdleSegments() {
+        return idleCount.get();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Fraction of segment requests served from the pool, 0 before any request
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
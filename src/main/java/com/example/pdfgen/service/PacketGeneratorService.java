@@ -0,0 +1,104 @@
+package com.example.pdfgen.service;
+
+import com.example.pdfgen.model.CandidateProfile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Service for rendering many resumes into one PDF (a recruiter packet)
+ *
+ * Candidates are rendered one at a time, each holding a render slot only for its own conversion,
+ * and merged into the packet through a {@link PdfPacketWriter} as soon as they are done. Finished
+ * pages are flushed to the output stream, so a packet of thousands of pages needs no more memory
+ * than a single resume.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PacketGeneratorService {
+
+    private final TemplateService templateService;
+    private final PdfGeneratorService pdfGeneratorService;
+    private final RenderScheduler renderScheduler;
+    private final RenderCostEstimator renderCostEstimator;
+
+    /**
+     * Estimates every candidate before the packet starts streaming, while a 413 can still be sent
+     *
+     * @param profiles Candidates in packet order
+     * @return Their render costs, in the same order
+     * @throws RenderTooLargeException For the first candidate over the page limit
+     */
+    public List<RenderCost> check(List<CandidateProfile> profiles) {
+        List<RenderCost> costs = new ArrayList<>(profiles.size());
+        for (CandidateProfile profile : profiles) {
+            costs.add(renderCostEstimator.check(profile));
+        }
+        return costs;
+    }
+
+    /**
+     * Renders every profile with the template and writes the merged packet to the output stream
+     *
+     * @param templateId   Resume template used for every candidate
+     * @param profiles     Candidates in packet order
+     * @param costs        Their render costs from {@link #check(List)}; large candidates go to the worker pool
+     * @param outputStream The output stream where the packet should be written; closed when done
+     * @param priority     Scheduler lane each candidate render is admitted through
+     * @param deadlines    Supplies a fresh deadline for each candidate render
+     * @return Number of pages in the packet
+     * @throws IOException              If a candidate fails to render or the output cannot be written; the
+     *                                  packet is then left truncated, without its cross-reference table
+     * @throws RenderRejectedException  If the scheduler rejects a candidate render
+     * @throws RenderCancelledException If a candidate render passes its deadline
+     */
+    public int writePacket(String templateId, List<CandidateProfile> profiles, List<RenderCost> costs,
+                           OutputStream outputStream, RenderPriority priority, Supplier<RenderDeadline> deadlines)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        // Reused for every candidate; only one rendered resume is held in memory at a time
+        ByteArrayOutputStream candidatePdf = new ByteArrayOutputStream();
+
+        try (PdfPacketWriter packet = new PdfPacketWriter(outputStream)) {
+            try {
+                for (int i = 0; i < profiles.size(); i++) {
+                    CandidateProfile profile = profiles.get(i);
+                    RenderCost cost = costs.get(i);
+                    RenderDeadline deadline = deadlines.get();
+
+                    candidatePdf.reset();
+                    renderScheduler.execute(priority, deadline, () -> {
+                        pdfGeneratorService.generatePdfToStream(
+                                writer -> templateService.processTemplate(templateId, profile, deadline, writer),
+                                candidatePdf, deadline, templateId, cost);
+                        return null;
+                    });
+
+                    packet.append(bookmarkTitle(profile, i), new ByteArrayInputStream(candidatePdf.toByteArray()));
+                }
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                // Leave the packet without a trailer so the client cannot mistake it for a complete one
+                packet.abandon();
+                throw e;
+            }
+
+            log.info("Packet generated: template={}, candidates={}, pages={}, took={}ms",
+                    templateId, packet.getDocumentCount(), packet.getPageCount(), (System.nanoTime() - start) / 1_000_000);
+            return packet.getPageCount();
+        }
+    }
+
+    private static String bookmarkTitle(CandidateProfile profile, int index) {
+        String name = profile.getName();
+        return name == null || name.isBlank() ? "Candidate " + (index + 1) : name;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.pdfgen.service;
+
+/**
+ * Outcome of fitting a document to a page count, see {@link PdfGeneratorService#generateFittedPdfToStream}
+ */
+public class PageFit {
+
+    /**
+     * Response header carrying the chosen scale factor
+     */
+    public static final String SCALE_HEADER = "X-Fit-Scale";
+
+    /**
+     * Response header carrying the number of layout passes used to find the scale
+     */
+    public static final String ITERATIONS_HEADER = "X-Fit-Iterations";
+
+    /**
+     * Response header carrying the page count of the rendered document
+     */
+    public static final String PAGES_HEADER = "X-Fit-Pages";
+
+    /**
+     * Response header carrying whether the content fitted, false when it overflows even at the minimum scale
+     */
+    public static final String FITTED_HEADER = "X-Fit-Fitted";
+
+    private final float scale;
+    private final int pageCount;
+    private final boolean fitted;
+    private final int iterations;
+    private final long measureNanos;
+
+    public PageFit(float scale, int pageCount, boolean fitted, int iterations, long measureNanos) {
+        this.scale = scale;
+        this.pageCount = pageCount;
+        this.fitted = fitted;
+        this.iterations = iterations;
+        this.measureNanos = measureNanos;
+    }
+
+    /**
+     * Scale applied to the content, 1.0 when it already fitted
+     */
+    public float getScale() {
+        return scale;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * False when the content does not fit even at the minimum scale; the document is then rendered at that scale
+     */
+    public boolean isFitted() {
+        return fitted;
+    }
+
+    /**
+     * Number of layout passes, including passes stopped early
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Time spent in layout passes
+     */
+    public long getMeasureNanos() {
+        return measureNanos;
+    }
+}
@@ -1,24 +1,95 @@
 package com.example.pdfgen.service;
 
+import com.example.pdfgen.jfr.PdfConversionEvent;
 import com.itextpdf.html2pdf.ConverterProperties;
 import com.itextpdf.html2pdf.HtmlConverter;
+import com.itextpdf.html2pdf.resolver.font.DefaultFontProvider;
+import com.itextpdf.kernel.geom.PageSize;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.events.PdfDocumentEvent;
+import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.AreaBreak;
+import com.itextpdf.layout.element.IBlockElement;
+import com.itextpdf.layout.element.IElement;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.properties.AreaBreakType;
+import com.itextpdf.styledxmlparser.css.CssDeclaration;
+import com.itextpdf.styledxmlparser.css.CssNestedAtRule;
+import com.itextpdf.styledxmlparser.css.CssRuleSet;
+import com.itextpdf.styledxmlparser.css.CssStatement;
+import com.itextpdf.styledxmlparser.css.parse.CssStyleSheetParser;
+import com.itextpdf.styledxmlparser.css.util.CssDimensionParsingUtils;
+import com.itextpdf.styledxmlparser.css.util.CssTypesValidationUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Service class for generating PDFs from HTML using iText 7 pdfHTML
+ *
+ * Single-document conversions of very large HTML, or of profiles the {@link RenderCostEstimator}
+ * marks large, are handed to the {@link RenderWorkerPool} when it is enabled, so their garbage never
+ * reaches this JVM's heap. In-process conversions flush each page as soon as layout moves past it.
  */
 @Service
 @Slf4j
 public class PdfGeneratorService {
 
+    /**
+     * pdfHTML's page margin when a template has no @page rule: 36pt
+     */
+    private static final float DEFAULT_PAGE_MARGIN_POINTS = 36;
+
+    private static final Pattern STYLE_ELEMENT = Pattern.compile("<style[^>]*>(.*?)</style>",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    /**
+     * Smallest scale fit-to-pages will shrink content to; below this text stops being readable
+     */
+    private static final float MIN_FIT_SCALE = 0.6f;
+
+    /**
+     * Fit-to-pages stops searching once the scale is known to within this amount
+     */
+    private static final float FIT_SCALE_PRECISION = 0.01f;
+
+    private final RenderWorkerPool renderWorkerPool;
+
+    public PdfGeneratorService() {
+        this(null);
+    }
+
+    /**
+     * Converts large documents in the given worker pool (may be null to always convert in-process)
+     */
+    @Autowired
+    public PdfGeneratorService(RenderWorkerPool renderWorkerPool) {
+        this.renderWorkerPool = renderWorkerPool;
+    }
+
+    /**
+     * Produces HTML into a writer
+     */
+    @FunctionalInterface
+    public interface HtmlSource {
+        void writeTo(Writer writer) throws IOException;
+    }
+
     /**
      * Generates a PDF from HTML content and saves it to the specified file path
      *
@@ -74,10 +145,420 @@ public class PdfGeneratorService {
      * @throws IOException If there's an error writing the PDF
      */
     public void generatePdfToStream(String htmlContent, OutputStream outputStream) throws IOException {
+        generatePdfToStream(htmlContent, outputStream, RenderDeadline.none());
+    }
+
+    /**
+     * Generates a PDF from HTML content and writes it to an OutputStream, honouring the request deadline
+     * The deadline is checked before conversion and at every page boundary, so an abandoned
+     * request stops consuming CPU as soon as the next page is started
+     *
+     * @param htmlContent  The HTML content to convert to PDF
+     * @param outputStream The output stream where the PDF should be written
+     * @param deadline     Request deadline
+     * @throws IOException              If there's an error writing the PDF
+     * @throws RenderCancelledException If the deadline passes or the request is cancelled mid-render
+     */
+    public void generatePdfToStream(String htmlContent, OutputStream outputStream, RenderDeadline deadline) throws IOException {
+        generatePdfToStream(htmlContent, outputStream, deadline, null);
+    }
+
+    /**
+     * Generates a PDF from HTML content and writes it to an OutputStream, honouring the request deadline
+     *
+     * @param htmlContent  The HTML content to convert to PDF
+     * @param outputStream The output stream where the PDF should be written
+     * @param deadline     Request deadline
+     * @param templateId   Template the HTML was produced from, recorded on the PdfConversion JFR event (may be null)
+     * @throws IOException              If there's an error writing the PDF
+     * @throws RenderCancelledException If the deadline passes or the request is cancelled mid-render
+     */
+    public void generatePdfToStream(String htmlContent, OutputStream outputStream, RenderDeadline deadline,
+                                    String templateId) throws IOException {
+        // At least one byte per char, so shorter HTML can never reach the threshold
+        if (renderWorkerPool != null && renderWorkerPool.accepts(htmlContent.length())) {
+            byte[] html = htmlContent.getBytes(StandardCharsets.UTF_8);
+            renderWorkerPool.convert(html, html.length, outputStream, deadline);
+            return;
+        }
+        convert(outputStream, deadline, templateId, null,
+                (pdfDocument, converterProperties) -> HtmlConverter.convertToPdf(htmlContent, pdfDocument, converterProperties));
+    }
+
+    /**
+     * Generates a PDF from HTML written by the source, without materializing the HTML as a String
+     * The source writes into a reusable per-thread UTF-8 buffer which pdfHTML then reads as a stream
+     *
+     * @param htmlSource   Writes the HTML, e.g. a template being processed
+     * @param outputStream The output stream where the PDF should be written
+     * @param deadline     Request deadline
+     * @param templateId   Template the HTML is produced from, recorded on the PdfConversion JFR event (may be null)
+     * @throws IOException              If there's an error writing the PDF
+     * @throws RenderCancelledException If the deadline passes or the request is cancelled mid-render
+     */
+    public void generatePdfToStream(HtmlSource htmlSource, OutputStream outputStream, RenderDeadline deadline,
+                                    String templateId) throws IOException {
+        generatePdfToStream(htmlSource, outputStream, deadline, templateId, null);
+    }
+
+    /**
+     * Generates a PDF from HTML written by the source, routing it by its estimated size
+     * A large estimate sends the conversion to the worker pool whenever the pool is enabled, not only
+     * once the HTML reaches render.workers.threshold-bytes
+     *
+     * @param htmlSource   Writes the HTML, e.g. a template being processed
+     * @param outputStream The output stream where the PDF should be written
+     * @param deadline     Request deadline
+     * @param templateId   Template the HTML is produced from, recorded on the PdfConversion JFR event (may be null)
+     * @param cost         Estimate from {@link RenderCostEstimator#check}, also recorded on the JFR event (may be null)
+     * @throws IOException              If there's an error writing the PDF
+     * @throws RenderCancelledException If the deadline passes or the request is cancelled mid-render
+     */
+    public void generatePdfToStream(HtmlSource htmlSource, OutputStream outputStream, RenderDeadline deadline,
+                                    String templateId, RenderCost cost) throws IOException {
+        HtmlBuffer buffer = HtmlBuffer.acquire();
+        try {
+            Writer writer = buffer.writer();
+            htmlSource.writeTo(writer);
+            writer.flush();
+
+            if (renderWorkerPool != null && (renderWorkerPool.accepts(buffer.size())
+                    || (cost != null && cost.isLarge() && renderWorkerPool.isAvailable()))) {
+                renderWorkerPool.convert(buffer.array(), buffer.size(), outputStream, deadline);
+                return;
+            }
+            convert(outputStream, deadline, templateId, cost,
+                    (pdfDocument, converterProperties) -> HtmlConverter.convertToPdf(buffer.toInputStream(), pdfDocument, converterProperties));
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Generates one PDF from several HTML parts, each starting on a new page
+     *
+     * All parts are laid out into a single document through one writer with one shared font provider,
+     * so fonts used by several parts are embedded once. Parts are converted with convertToElements,
+     * which does not apply @page rules, so each part's margins are read from the plain @page rule in its
+     * own style elements (see {@link #pageMargins(String)}) and set before its first page.
+     *
+     * @param htmlSources  The parts in page order, e.g. cover letter then resume
+     * @param outputStream The output stream where the PDF should be written
+     * @param deadline     Request deadline
+     * @param templateId   Recorded on the PdfConversion JFR event (may be null)
+     * @throws IOException              If there's an error writing the PDF
+     * @throws RenderCancelledException If the deadline passes or the request is cancelled mid-render
+     */
+    public void generateCombinedPdfToStream(List<HtmlSource> htmlSources, OutputStream outputStream,
+                                            RenderDeadline deadline, String templateId) throws IOException {
+        HtmlBuffer buffer = HtmlBuffer.acquire();
+        try {
+            convert(outputStream, deadline, templateId, null, (pdfDocument, converterProperties) -> {
+                converterProperties.setFontProvider(new DefaultFontProvider());
+
+                Document document = new Document(pdfDocument, PageSize.A4);
+
+                for (int i = 0; i < htmlSources.size(); i++) {
+                    buffer.reset();
+                    Writer writer = buffer.writer();
+                    htmlSources.get(i).writeTo(writer);
+                    writer.flush();
+
+                    float[] margins = pageMargins(buffer.toString(StandardCharsets.UTF_8));
+                    document.setMargins(margins[0], margins[1], margins[2], margins[3]);
+                    if (i > 0) {
+                        document.add(new AreaBreak(AreaBreakType.NEXT_PAGE));
+                    }
+                    for (IElement element : HtmlConverter.convertToElements(buffer.toInputStream(), converterProperties)) {
+                        if (element instanceof IBlockElement) {
+                            document.add((IBlockElement) element);
+                        } else if (element instanceof Image) {
+                            document.add((Image) element);
+                        }
+                    }
+                }
+                document.close();
+            });
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Page margins in points (top, right, bottom, left) from the plain @page rules in the HTML's style
+     * elements, later rules overriding earlier ones as in the cascade; :first and other page selectors
+     * are ignored. Sides no rule sets keep pdfHTML's default.
+     */
+    static float[] pageMargins(String html) {
+        float[] margins = {DEFAULT_PAGE_MARGIN_POINTS, DEFAULT_PAGE_MARGIN_POINTS,
+                DEFAULT_PAGE_MARGIN_POINTS, DEFAULT_PAGE_MARGIN_POINTS};
+        Matcher style = STYLE_ELEMENT.matcher(html);
+        while (style.find()) {
+            for (CssStatement statement : CssStyleSheetParser.parse(style.group(1)).getStatements()) {
+                if (!(statement instanceof CssNestedAtRule rule) || !"page".equals(rule.getRuleName())
+                        || !rule.getRuleParameters().isBlank()) {
+                    continue;
+                }
+                for (CssStatement body : rule.getStatements()) {
+                    if (body instanceof CssRuleSet ruleSet) {
+                        for (CssDeclaration declaration : ruleSet.getNormalDeclarations()) {
+                            applyMargin(margins, declaration.getProperty(), declaration.getExpression());
+                        }
+                    }
+                }
+            }
+        }
+        return margins;
+    }
+
+    private static void applyMargin(float[] margins, String property, String expression) {
+        switch (property) {
+            case "margin" -> {
+                String[] values = expression.trim().split("\\s+");
+                if (values.length > 4) {
+                    return;
+                }
+                // 1 to 4 values in CSS shorthand order: top, right, bottom, left
+                float[] parsed = new float[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    Float points = marginPoints(values[i]);
+                    if (points == null) {
+                        return;
+                    }
+                    parsed[i] = points;
+                }
+                margins[0] = parsed[0];
+                margins[1] = parsed[values.length > 1 ? 1 : 0];
+                margins[2] = parsed[values.length > 2 ? 2 : 0];
+                margins[3] = parsed[values.length > 3 ? 3 : values.length > 1 ? 1 : 0];
+            }
+            case "margin-top" -> applyMargin(margins, 0, expression);
+            case "margin-right" -> applyMargin(margins, 1, expression);
+            case "margin-bottom" -> applyMargin(margins, 2, expression);
+            case "margin-left" -> applyMargin(margins, 3, expression);
+            default -> {
+            }
+        }
+    }
+
+    private static void applyMargin(float[] margins, int side, String expression) {
+        Float points = marginPoints(expression.trim());
+        if (points != null) {
+            margins[side] = points;
+        }
+    }
+
+    /**
+     * An absolute length in points, or null for percentages, font-relative units and anything else that
+     * has no fixed size without a page context
+     */
+    private static Float marginPoints(String value) {
+        if (CssTypesValidationUtils.isZero(value)) {
+            return 0f;
+        }
+        if (!CssTypesValidationUtils.isMetricValue(value)) {
+            return null;
+        }
+        return CssDimensionParsingUtils.parseAbsoluteLength(value);
+    }
+
+    /**
+     * Generates a PDF scaled down just enough for the content to fit on at most the given number of pages,
+     * without a cost estimate
+     *
+     * @see #generateFittedPdfToStream(HtmlSource, OutputStream, int, RenderDeadline, String, RenderCost)
+     */
+    public PageFit generateFittedPdfToStream(HtmlSource htmlSource, OutputStream outputStream, int maxPages,
+                                             RenderDeadline deadline, String templateId) throws IOException {
+        return generateFittedPdfToStream(htmlSource, outputStream, maxPages, deadline, templateId, null);
+    }
+
+    /**
+     * Generates a PDF scaled down just enough for the content to fit on at most the given number of pages
+     *
+     * The HTML is produced once. Each candidate scale is measured by laying the document out on a page
+     * 1/scale times larger than A4, which flows the text exactly as scaling it would, and the pass stops
+     * at the first page past the limit. A binary search finds the largest fitting scale to within
+     * {@link #FIT_SCALE_PRECISION}; content that already fits is rendered in a single pass. The winning
+     * pass's pages are then placed on A4 as scaled form XObjects, so text stays vector and selectable
+     * (link annotations are not carried over). Page margins scale with the content.
+     *
+     * Like {@link #generatePdfToStream(HtmlSource, OutputStream, RenderDeadline, String, RenderCost)}, large
+     * HTML or a large estimate sends the whole fit to the worker pool; in-process fits record one
+     * PdfConversion JFR event covering all passes.
+     *
+     * @param htmlSource   Writes the HTML, e.g. a template being processed
+     * @param outputStream The output stream where the PDF should be written
+     * @param maxPages     Page count the content should fit on
+     * @param deadline     Request deadline, checked at every page of every pass
+     * @param templateId   Template the HTML is produced from (may be null)
+     * @param cost         Estimate from {@link RenderCostEstimator#check}, also recorded on the JFR event (may be null)
+     * @return The chosen scale, page count, and the number and duration of layout passes
+     * @throws IOException              If there's an error writing the PDF
+     * @throws RenderCancelledException If the deadline passes or the request is cancelled mid-render
+     */
+    public PageFit generateFittedPdfToStream(HtmlSource htmlSource, OutputStream outputStream, int maxPages,
+                                             RenderDeadline deadline, String templateId, RenderCost cost) throws IOException {
+        if (maxPages < 1) {
+            throw new IllegalArgumentException("Page count to fit must be at least 1, got " + maxPages);
+        }
+        deadline.checkpoint("convert");
+
+        HtmlBuffer buffer = HtmlBuffer.acquire();
+        try {
+            Writer writer = buffer.writer();
+            htmlSource.writeTo(writer);
+            writer.flush();
+
+            if (renderWorkerPool != null && (renderWorkerPool.accepts(buffer.size())
+                    || (cost != null && cost.isLarge() && renderWorkerPool.isAvailable()))) {
+                return renderWorkerPool.convertFitted(buffer.array(), buffer.size(), maxPages, outputStream, deadline);
+            }
+
+            PdfConversionEvent conversionEvent = new PdfConversionEvent();
+            conversionEvent.start();
+            long start = System.nanoTime();
+            ByteArrayOutputStream pass = new ByteArrayOutputStream();
+            int iterations = 1;
+            boolean fitted = true;
+            float scale = 1f;
+            int pageCount = layout(buffer, scale, maxPages, pass, deadline);
+
+            if (pageCount < 0) {
+                iterations++;
+                scale = MIN_FIT_SCALE;
+                pageCount = layout(buffer, scale, maxPages, pass, deadline);
+
+                if (pageCount < 0) {
+                    // Does not fit even at the minimum scale: render it there in full
+                    iterations++;
+                    fitted = false;
+                    pageCount = layout(buffer, scale, Integer.MAX_VALUE, pass, deadline);
+                } else {
+                    byte[] best = pass.toByteArray();
+                    float low = MIN_FIT_SCALE;
+                    float high = 1f;
+                    while (high - low > FIT_SCALE_PRECISION) {
+                        float mid = (low + high) / 2;
+                        iterations++;
+                        int midPages = layout(buffer, mid, maxPages, pass, deadline);
+                        if (midPages < 0) {
+                            high = mid;
+                        } else {
+                            low = mid;
+                            pageCount = midPages;
+                            best = pass.toByteArray();
+                        }
+                    }
+                    scale = low;
+                    pass.reset();
+                    pass.write(best);
+                }
+            }
+            long measureNanos = System.nanoTime() - start;
+
+            long outputBytes;
+            if (scale == 1f) {
+                pass.writeTo(outputStream);
+                outputBytes = pass.size();
+            } else {
+                outputBytes = placeScaled(pass.toByteArray(), scale, outputStream);
+            }
+
+            conversionEvent.templateId = templateId;
+            conversionEvent.pageCount = pageCount;
+            conversionEvent.estimatedPages = cost != null ? cost.getEstimatedPages() : 0;
+            conversionEvent.outputBytes = outputBytes;
+            conversionEvent.finish();
+
+            log.debug("Fitted {} to {} page(s) at scale {} after {} layout passes", templateId, pageCount, scale, iterations);
+            return new PageFit(scale, pageCount, fitted, iterations, measureNanos);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Lays the HTML out at the given scale into the pass buffer
+     *
+     * @return The page count, or -1 if the pass was stopped on reaching page maxPages + 1
+     */
+    private static int layout(HtmlBuffer html, float scale, int maxPages, ByteArrayOutputStream pass,
+                              RenderDeadline deadline) throws IOException {
+        pass.reset();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(pass));
+        // Laying out on a page 1/scale times larger is equivalent to scaling the content by scale
+        pdfDocument.setDefaultPageSize(new PageSize(PageSize.A4.getWidth() / scale, PageSize.A4.getHeight() / scale));
+
+        int[] pages = new int[1];
+        pdfDocument.addEventHandler(PdfDocumentEvent.START_PAGE, event -> {
+            deadline.checkpoint("fit-page");
+            if (++pages[0] > maxPages) {
+                throw PageLimitReached.INSTANCE;
+            }
+        });
+
+        ConverterProperties converterProperties = new ConverterProperties();
+        converterProperties.setCharset(StandardCharsets.UTF_8.name());
+        try {
+            HtmlConverter.convertToPdf(html.toInputStream(), pdfDocument, converterProperties);
+        } catch (PageLimitReached e) {
+            // Left unclosed: the pass is discarded, so there is nothing worth serializing
+            return -1;
+        }
+        return pages[0];
+    }
+
+    /**
+     * Draws each page of the laid-out PDF scaled onto an A4 page
+     *
+     * @return Bytes written
+     */
+    private static long placeScaled(byte[] pdf, float scale, OutputStream outputStream) throws IOException {
+        PdfWriter writer = new PdfWriter(outputStream);
+        try (PdfDocument source = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)));
+             PdfDocument target = new PdfDocument(writer)) {
+            for (int page = 1; page <= source.getNumberOfPages(); page++) {
+                PdfFormXObject content = source.getPage(page).copyAsFormXObject(target);
+                new PdfCanvas(target.addNewPage(PageSize.A4))
+                        .addXObjectWithTransformationMatrix(content, scale, 0, 0, scale, 0, 0);
+            }
+        }
+        return writer.getCurrentPos();
+    }
+
+    /**
+     * Stops a fit-to-pages layout pass; thrown from the page event handler, so it carries no stack trace
+     */
+    private static final class PageLimitReached extends RuntimeException {
+        static final PageLimitReached INSTANCE = new PageLimitReached();
+
+        private PageLimitReached() {
+            super("Page limit reached", null, false, false);
+        }
+    }
+
+    /**
+     * One of the HtmlConverter entry points, applied to a prepared document
+     */
+    @FunctionalInterface
+    private interface Conversion {
+        void convert(PdfDocument pdfDocument, ConverterProperties converterProperties) throws IOException;
+    }
+
+    /**
+     * Runs a conversion into a fresh document, honouring the deadline and recording the PdfConversion JFR event
+     */
+    private void convert(OutputStream outputStream, RenderDeadline deadline, String templateId, RenderCost cost,
+                         Conversion conversion) throws IOException {
         log.debug("Generating PDF from HTML to stream");
+        deadline.checkpoint("convert");
 
         PdfWriter writer = null;
         PdfDocument pdfDocument = null;
+        boolean aborted = false;
+        PdfConversionEvent conversionEvent = new PdfConversionEvent();
+        conversionEvent.start();
 
         try {
             // Create a PdfWriter (each request gets its own instance)
@@ -86,16 +567,35 @@ public class PdfGeneratorService {
             // Create a PdfDocument (each request gets its own instance)
             pdfDocument = new PdfDocument(writer);
 
+            // Abort at page boundaries once the deadline has passed
+            pdfDocument.addEventHandler(PdfDocumentEvent.START_PAGE, event -> {
+                deadline.checkpoint("convert-page");
+                conversionEvent.pageCount++;
+            });
+
             // Set up converter properties (thread-safe, created per request)
             ConverterProperties converterProperties = new ConverterProperties();
+            converterProperties.setCharset(StandardCharsets.UTF_8.name());
+            // Write each page out and release its layout as soon as the next one starts, so heap stays
+            // bounded by the pages in flight rather than the page count (the pdfHTML default, relied on here)
+            converterProperties.setImmediateFlush(true);
 
             // Convert HTML to PDF
-            HtmlConverter.convertToPdf(htmlContent, pdfDocument, converterProperties);
+            conversion.convert(pdfDocument, converterProperties);
+
+            conversionEvent.templateId = templateId;
+            conversionEvent.estimatedPages = cost != null ? cost.getEstimatedPages() : 0;
+            conversionEvent.outputBytes = writer.getCurrentPos();
+            conversionEvent.finish();
 
             log.debug("PDF generated successfully to stream");
+        } catch (RenderCancelledException e) {
+            // Closing would serialize the partial document, which is exactly the work we want to skip
+            aborted = true;
+            throw e;
         } finally {
             // Ensure proper resource cleanup even if exceptions occur
-            if (pdfDocument != null) {
+            if (pdfDocument != null && !aborted) {
                 try {
                     pdfDocument.close();
                 } catch (Exception e) {
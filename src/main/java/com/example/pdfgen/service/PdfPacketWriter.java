@@ -0,0 +1,107 @@
+package com.example.pdfgen.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfOutline;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.navigation.PdfExplicitDestination;
+import com.itextpdf.kernel.utils.PdfMerger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Merges many rendered PDFs into one output document with a bookmark per source document
+ *
+ * The writer runs in smart mode, so objects that serialize identically across sources (font
+ * dictionaries, images, shared resources) are written once. After each source is merged its
+ * pages and copied objects are flushed to the output, so memory stays flat regardless of how
+ * many documents are appended. A packet that cannot be completed is {@link #abandon() abandoned}
+ * rather than closed, so it never ends in a valid trailer. Not thread-safe.
+ */
+public class PdfPacketWriter implements Closeable {
+
+    private final OutputStream outputStream;
+    private final PdfDocument packet;
+    private final PdfMerger merger;
+    private final PdfOutline outlineRoot;
+    private int documentCount;
+    private boolean abandoned;
+
+    public PdfPacketWriter(OutputStream outputStream) {
+        this.outputStream = outputStream;
+        PdfWriter writer = new PdfWriter(outputStream, new WriterProperties().setFullCompressionMode(true));
+        writer.setSmartMode(true);
+        this.packet = new PdfDocument(writer);
+        this.merger = new PdfMerger(packet, false, false);
+        this.outlineRoot = packet.getOutlines(false);
+        // Open with the bookmark panel visible
+        packet.getCatalog().setPageMode(PdfName.UseOutlines);
+    }
+
+    /**
+     * Appends all pages of a PDF and adds a bookmark pointing at its first page
+     *
+     * @param bookmarkTitle Title of the outline entry, e.g. the candidate name
+     * @param pdf           The PDF to append
+     * @throws IOException If the PDF cannot be read; the packet is abandoned
+     */
+    public void append(String bookmarkTitle, InputStream pdf) throws IOException {
+        if (abandoned) {
+            throw new IllegalStateException("Packet was abandoned");
+        }
+        try (PdfDocument source = new PdfDocument(new PdfReader(pdf))) {
+            int firstPage = packet.getNumberOfPages() + 1;
+            merger.merge(source, 1, source.getNumberOfPages());
+
+            outlineRoot.addOutline(bookmarkTitle)
+                    .addDestination(PdfExplicitDestination.createFit(packet.getPage(firstPage)));
+
+            // Write this document's pages out now instead of holding them until close
+            for (int page = firstPage; page <= packet.getNumberOfPages(); page++) {
+                packet.getPage(page).flush(true);
+            }
+            packet.flushCopiedObjects(source);
+        } catch (IOException | RuntimeException e) {
+            // A half-merged document must not be finalized either
+            abandon();
+            throw e;
+        }
+        documentCount++;
+    }
+
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    public int getPageCount() {
+        return packet.getNumberOfPages();
+    }
+
+    /**
+     * Ends the output without the outline, page tree and cross-reference table, so readers see a
+     * truncated PDF instead of a complete one missing documents; the output stream is closed
+     */
+    public void abandon() throws IOException {
+        if (abandoned) {
+            return;
+        }
+        abandoned = true;
+        outputStream.close();
+    }
+
+    /**
+     * Writes the outline, page tree and cross-reference table; the output stream is closed too.
+     * Does nothing once the packet was abandoned.
+     */
+    @Override
+    public void close() {
+        if (!abandoned) {
+            packet.close();
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.pdfgen.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Decodes, downscales and re-encodes profile photos once per distinct image
+ *
+ * A photo arrives as base64 (optionally a data URI) in any format ImageIO reads, often several
+ * megabytes straight from a camera. The first request for an image scales it to fit
+ * render.photo.max-pixels, flattens transparency onto white and re-encodes it as a baseline JPEG;
+ * the result is cached under the SHA-256 of the submitted data, bounded by render.photo.cache-bytes
+ * and evicted least recently used. JPEG is embedded by iText without decoding (the DCT stream is
+ * copied as is), so after its first use a photo costs a hash lookup and a ~20 KB copy per document.
+ * Concurrent first requests for the same image share one decode. Thread-safe.
+ */
+@Component
+@Slf4j
+public class PhotoCache {
+
+    private static final String DATA_URI_PREFIX = "data:";
+    private static final String JPEG_DATA_URI_PREFIX = "data:image/jpeg;base64,";
+    // Rejects decompression bombs before any pixels are decoded
+    private static final long MAX_SOURCE_PIXELS = 40_000_000L;
+    private static final HexFormat HEX = HexFormat.of();
+
+    /**
+     * A processed photo
+     */
+    public static final class Photo {
+        private final String hash;
+        private final byte[] jpeg;
+        private final int width;
+        private final int height;
+        private final String dataUri;
+
+        Photo(String hash, byte[] jpeg, int width, int height) {
+            this.hash = hash;
+            this.jpeg = jpeg;
+            this.width = width;
+            this.height = height;
+            this.dataUri = JPEG_DATA_URI_PREFIX + Base64.getEncoder().encodeToString(jpeg);
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        /**
+         * The re-encoded image; callers must not modify it
+         */
+        public byte[] getJpeg() {
+            return jpeg;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * The JPEG as a data URI, for an img src
+         */
+        public String getDataUri() {
+            return dataUri;
+        }
+
+        long footprint() {
+            return jpeg.length + 2L * dataUri.length();
+        }
+    }
+
+    private final int maxPixels;
+    private final int maxInputBytes;
+    private final long maxCacheBytes;
+    private final float jpegQuality;
+
+    // Access-ordered: iteration starts at the least recently used photo
+    private final LinkedHashMap<String, Photo> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, CompletableFuture<Photo>> inFlight = new ConcurrentHashMap<>();
+    private long cacheBytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a cache with the default settings, for callers outside the Spring context
+     */
+    public PhotoCache() {
+        this(480, 10 * 1024 * 1024, 32L * 1024 * 1024, 0.85f);
+    }
+
+    @Autowired
+    public PhotoCache(
+            @Value("${render.photo.max-pixels:480}") int maxPixels,
+            @Value("${render.photo.max-bytes:10485760}") int maxInputBytes,
+            @Value("${render.photo.cache-bytes:33554432}") long maxCacheBytes,
+            @Value("${render.photo.jpeg-quality:0.85}") float jpegQuality) {
+        this.maxPixels = maxPixels;
+        this.maxInputBytes = maxInputBytes;
+        this.maxCacheBytes = maxCacheBytes;
+        this.jpegQuality = jpegQuality;
+    }
+
+    /**
+     * Returns the processed photo, decoding and scaling it only the first time it is seen
+     *
+     * @param photo Base64 image data, or a data URI
+     * @return The processed photo
+     * @throws IllegalArgumentException If the data is not base64, too large, or not a readable image
+     */
+    public Photo get(String photo) {
+        String base64 = stripDataUriPrefix(photo);
+        String hash = sha256(base64);
+
+        synchronized (this) {
+            Photo cached = cache.get(hash);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        CompletableFuture<Photo> created = new CompletableFuture<>();
+        CompletableFuture<Photo> pending = inFlight.putIfAbsent(hash, created);
+        if (pending != null) {
+            return await(pending);
+        }
+        try {
+            Photo processed = process(hash, base64);
+            put(processed);
+            created.complete(processed);
+            return processed;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(hash);
+        }
+    }
+
+    public synchronized int getCount() {
+        return cache.size();
+    }
+
+    public synchronized long getCacheBytes() {
+        return cacheBytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private synchronized void put(Photo photo) {
+        if (cache.put(photo.hash, photo) == null) {
+            cacheBytes += photo.footprint();
+        }
+        Iterator<Photo> lru = cache.values().iterator();
+        while (cacheBytes > maxCacheBytes && cache.size() > 1 && lru.hasNext()) {
+            cacheBytes -= lru.next().footprint();
+            lru.remove();
+        }
+    }
+
+    private Photo process(String hash, String base64) {
+        long start = System.nanoTime();
+        if (base64.length() / 4L * 3 > maxInputBytes) {
+            throw new IllegalArgumentException("Photo is larger than " + maxInputBytes + " bytes");
+        }
+        byte[] source;
+        try {
+            source = Base64.getMimeDecoder().decode(base64);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Photo is not valid base64");
+        }
+
+        BufferedImage image = decode(source);
+        BufferedImage scaled = scale(image);
+        byte[] jpeg = encode(scaled);
+
+        log.debug("Photo {} processed: {}x{} ({} bytes) -> {}x{} ({} bytes) in {}ms", hash.substring(0, 12),
+                image.getWidth(), image.getHeight(), source.length, scaled.getWidth(), scaled.getHeight(),
+                jpeg.length, (System.nanoTime() - start) / 1_000_000);
+        return new Photo(hash, jpeg, scaled.getWidth(), scaled.getHeight());
+    }
+
+    /**
+     * Decodes the image, reading only every n-th pixel of a source much larger than maxPixels
+     *
+     * Subsampling keeps the decoded image at least twice maxPixels on the longer side, so the final
+     * filtered scale still averages over the pixels that are left, while a camera photo is never held
+     * in full resolution: a 6000x4000 image decoded for maxPixels 400 is 858x572, not 24 million pixels.
+     */
+    private BufferedImage decode(byte[] source) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(source))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("Photo is not a supported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_SOURCE_PIXELS) {
+                    throw new IllegalArgumentException("Photo has more than " + MAX_SOURCE_PIXELS + " pixels");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int period = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / (2 * maxPixels));
+                if (period > 1) {
+                    param.setSourceSubsampling(period, period, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Photo cannot be decoded: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Scales to fit maxPixels on the longer side, halving in steps so the bilinear filter never
+     * skips source pixels, and flattens onto white since JPEG has no alpha channel
+     */
+    private BufferedImage scale(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double factor = Math.min(1.0, (double) maxPixels / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * factor));
+        int targetHeight = Math.max(1, (int) Math.round(height * factor));
+
+        BufferedImage current = image;
+        do {
+            int stepWidth = Math.max(targetWidth, current.getWidth() / 2);
+            int stepHeight = Math.max(targetHeight, current.getHeight() / 2);
+            if (current != image && stepWidth == current.getWidth() && stepHeight == current.getHeight()) {
+                break;
+            }
+            BufferedImage step = new BufferedImage(stepWidth, stepHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, stepWidth, stepHeight, Color.WHITE, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (current.getWidth() > targetWidth || current.getHeight() > targetHeight);
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream(32 * 1024);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(jpeg)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode photo", e);
+        } finally {
+            writer.dispose();
+        }
+        return jpeg.toByteArray();
+    }
+
+    private static Photo await(CompletableFuture<Photo> pending) {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for photo processing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static String stripDataUriPrefix(String photo) {
+        String trimmed = photo.trim();
+        if (trimmed.startsWith(DATA_URI_PREFIX)) {
+            int comma = trimmed.indexOf(',');
+            if (comma < 0 || !trimmed.substring(0, comma).endsWith(";base64")) {
+                throw new IllegalArgumentException("Photo data URI must be base64 encoded");
+            }
+            return trimmed.substring(comma + 1);
+        }
+        return trimmed;
+    }
+
+    private static String sha256(String base64) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HEX.formatHex(digest.digest(base64.getBytes(StandardCharsets.ISO_8859_1)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.example.pdfgen.service;
+
+import com.example.pdfgen.controller.pdf.ResumePdfController;
+import com.example.pdfgen.model.CandidateProfile;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live-preview sessions for the template editor
+ *
+ * A session holds a resume model that the editor changes with JSON merge patches. Edits are
+ * coalesced: a render starts once no patch has arrived for render.preview.debounce-ms (but at least
+ * every render.preview.max-delay-ms while edits keep coming). Each session has at most one render
+ * in flight; a newer edit cancels it through its {@link RenderDeadline} and the next render starts
+ * when it has stopped. Only a document rendered from the newest model is pushed to the listener,
+ * so CPU per session is bounded by one render at a time no matter how fast the user types.
+ */
+@Service
+@Slf4j
+public class PreviewSessionService {
+
+    /**
+     * Receives a session's rendered documents; called from render threads, one call at a time
+     */
+    public interface PreviewListener {
+        void onUpdate(PreviewUpdate update) throws Exception;
+
+        void onError(long version, String message) throws Exception;
+
+        void onClose();
+    }
+
+    private final TemplateService templateService;
+    private final PdfGeneratorService pdfGeneratorService;
+    private final RenderScheduler renderScheduler;
+    private final RenderDeadlinePolicy renderDeadlinePolicy;
+    private final RenderCostEstimator renderCostEstimator;
+    private final ObjectMapper objectMapper;
+    private final Executor renderExecutor;
+    private final long debounceNanos;
+    private final long maxDelayNanos;
+    private final long idleTimeoutNanos;
+    private final int maxSessions;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Reserved before a session is added, so concurrent opens cannot exceed maxSessions
+    private final AtomicInteger openSessions = new AtomicInteger();
+    private final ScheduledExecutorService debounceScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "preview-debounce");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PreviewSessionService(TemplateService templateService,
+                                 PdfGeneratorService pdfGeneratorService,
+                                 RenderScheduler renderScheduler,
+                                 RenderDeadlinePolicy renderDeadlinePolicy,
+                                 RenderCostEstimator renderCostEstimator,
+                                 ObjectMapper objectMapper,
+                                 @Qualifier("pdfTaskExecutor") Executor renderExecutor,
+                                 @Value("${render.preview.debounce-ms:150}") long debounceMs,
+                                 @Value("${render.preview.max-delay-ms:1000}") long maxDelayMs,
+                                 @Value("${render.preview.idle-timeout-ms:600000}") long idleTimeoutMs,
+                                 @Value("${render.preview.max-sessions:200}") int maxSessions) {
+        this.templateService = templateService;
+        this.pdfGeneratorService = pdfGeneratorService;
+        this.renderScheduler = renderScheduler;
+        this.renderDeadlinePolicy = renderDeadlinePolicy;
+        this.renderCostEstimator = renderCostEstimator;
+        this.objectMapper = objectMapper;
+        this.renderExecutor = renderExecutor;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMs);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        this.maxSessions = maxSessions;
+
+        long sweepMs = Math.max(1000, idleTimeoutMs / 4);
+        debounceScheduler.scheduleWithFixedDelay(this::closeIdleSessions, sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a session for a resume model
+     *
+     * @param templateId Resume template to render
+     * @param format     What to push back: processed HTML or the PDF
+     * @param profile    Initial model, in the CandidateProfile JSON shape
+     * @return The session ID
+     * @throws IllegalArgumentException If the template is unknown or the model is not a valid profile
+     * @throws RenderTooLargeException  If the model would render to more pages than allowed
+     * @throws RenderRejectedException  If the maximum number of sessions is open
+     */
+    public String open(String templateId, PreviewUpdate.Format format, JsonNode profile) {
+        if (!ResumePdfController.TEMPLATE_IDS.contains(templateId)) {
+            throw new IllegalArgumentException("Unknown resume template: " + templateId);
+        }
+        CandidateProfile initial = toProfile(profile);
+        RenderCost cost = renderCostEstimator.check(initial);
+        if (openSessions.incrementAndGet() > maxSessions) {
+            openSessions.decrementAndGet();
+            throw new RenderRejectedException("Too many preview sessions (" + maxSessions + ")",
+                    RenderPriority.INTERACTIVE, TimeUnit.NANOSECONDS.toSeconds(idleTimeoutNanos));
+        }
+        Session session = new Session(UUID.randomUUID().toString(), templateId, format);
+        session.model = profile;
+        session.profile = initial;
+        session.cost = cost;
+        session.touch();
+        sessions.put(session.id, session);
+
+        log.debug("Preview session {} opened: template={}, format={}", session.id, templateId, format);
+        return session.id;
+    }
+
+    /**
+     * Attaches the listener, replacing any previous one, and renders the current model straight away
+     */
+    public void subscribe(String sessionId, PreviewListener listener) {
+        Session session = get(sessionId);
+        PreviewListener previous;
+        synchronized (session) {
+            previous = session.listener;
+            session.listener = listener;
+            session.touch();
+            scheduleRender(session, 0);
+        }
+        if (previous != null && previous != listener) {
+            previous.onClose();
+        }
+    }
+
+    /**
+     * Detaches the listener if it is still the current one; the session stays open for a new subscriber
+     */
+    public void unsubscribe(String sessionId, PreviewListener listener) {
+        Session session = sessions.get(sessionId);
+        if (session != null) {
+            synchronized (session) {
+                if (session.listener == listener) {
+                    session.listener = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies a JSON merge patch to the session's model and schedules a debounced render
+     *
+     * @return The new model version
+     * @throws IllegalArgumentException If the patched model is not a valid profile; the model is left unchanged
+     * @throws RenderTooLargeException  If the patched model would render to more pages than allowed; the model
+     *                                  is left unchanged
+     */
+    public long patch(String sessionId, JsonNode patch) {
+        Session session = get(sessionId);
+        synchronized (session) {
+            JsonNode model = JsonMergePatch.apply(session.model, patch);
+            CandidateProfile profile = toProfile(model);
+            session.cost = renderCostEstimator.check(profile);
+            session.profile = profile;
+            session.model = model;
+            session.version++;
+            session.touch();
+
+            long now = System.nanoTime();
+            if (session.firstPendingEditNanos == 0) {
+                session.firstPendingEditNanos = now;
+            }
+            // Wait for a pause in typing, but never longer than the max delay since the first unrendered edit
+            long delay = Math.min(debounceNanos, Math.max(0, maxDelayNanos - (now - session.firstPendingEditNanos)));
+            scheduleRender(session, delay);
+            return session.version;
+        }
+    }
+
+    /**
+     * Closes the session, cancelling any render in progress
+     */
+    public void close(String sessionId) {
+        Session session = sessions.remove(sessionId);
+        if (session == null) {
+            return;
+        }
+        openSessions.decrementAndGet();
+        PreviewListener listener;
+        synchronized (session) {
+            session.closed = true;
+            if (session.pendingRender != null) {
+                session.pendingRender.cancel(false);
+            }
+            if (session.inFlight != null) {
+                session.inFlight.cancel("preview session closed");
+            }
+            listener = session.listener;
+            session.listener = null;
+        }
+        if (listener != null) {
+            listener.onClose();
+        }
+        log.debug("Preview session {} closed after {} edits", sessionId, session.version);
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sessions.keySet().forEach(this::close);
+        debounceScheduler.shutdownNow();
+    }
+
+    private void scheduleRender(Session session, long delayNanos) {
+        if (session.pendingRender != null) {
+            session.pendingRender.cancel(false);
+        }
+        session.pendingRender = debounceScheduler.schedule(() -> startRender(session), delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Starts a render of the newest model, or supersedes the one in flight; runs on the debounce thread
+     */
+    private void startRender(Session session) {
+        synchronized (session) {
+            session.pendingRender = null;
+            if (session.closed || session.listener == null) {
+                return;
+            }
+            if (session.inFlight != null) {
+                // Only one render per session: stop the stale one and start again once it has exited
+                session.rerun = true;
+                session.inFlight.cancel("superseded by a newer edit");
+                return;
+            }
+
+            RenderDeadline deadline = renderDeadlinePolicy.resolve(null, "preview");
+            long version = session.version;
+            CandidateProfile profile = session.profile;
+            RenderCost cost = session.cost;
+            session.inFlight = deadline;
+            session.firstPendingEditNanos = 0;
+            renderExecutor.execute(() -> render(session, version, profile, cost, deadline));
+        }
+    }
+
+    private void render(Session session, long version, CandidateProfile profile, RenderCost cost,
+                        RenderDeadline deadline) {
+        try {
+            long start = System.nanoTime();
+            PreviewUpdate update = renderScheduler.execute(RenderPriority.INTERACTIVE, deadline, () -> {
+                if (session.format == PreviewUpdate.Format.HTML) {
+                    String html = templateService.processTemplate(session.templateId, profile, deadline);
+                    return PreviewUpdate.html(version, html, System.nanoTime() - start);
+                }
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                pdfGeneratorService.generatePdfToStream(
+                        writer -> templateService.processTemplate(session.templateId, profile, deadline, writer),
+                        outputStream, deadline, session.templateId, cost);
+                return PreviewUpdate.pdf(version, outputStream.toByteArray(), System.nanoTime() - start);
+            });
+            deliver(session, version, update, null);
+        } catch (RenderCancelledException e) {
+            log.debug("Preview render for session {} version {} stopped: {}", session.id, version, e.getMessage());
+        } catch (RenderRejectedException e) {
+            // Server is saturated; try again after the next pause rather than queuing more work
+            synchronized (session) {
+                session.rerun = true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Preview render for session {} failed: {}", session.id, e.getMessage());
+            deliver(session, version, null, e.getMessage());
+        } finally {
+            synchronized (session) {
+                session.inFlight = null;
+                if (session.rerun && !session.closed && session.pendingRender == null) {
+                    session.rerun = false;
+                    // A superseding edit already waited out its debounce; a rejected render waits again
+                    scheduleRender(session, session.version != version ? 0 : debounceNanos);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pushes the result unless the model has moved on since the render started
+     */
+    private void deliver(Session session, long version, PreviewUpdate update, String error) {
+        PreviewListener listener;
+        synchronized (session) {
+            if (session.closed || session.version != version) {
+                return;
+            }
+            listener = session.listener;
+        }
+        if (listener == null) {
+            return;
+        }
+        try {
+            if (update != null) {
+                listener.onUpdate(update);
+            } else {
+                listener.onError(version, error);
+            }
+        } catch (Exception e) {
+            log.debug("Preview listener for session {} went away: {}", session.id, e.getMessage());
+            unsubscribe(session.id, listener);
+        }
+    }
+
+    private void closeIdleSessions() {
+        long now = System.nanoTime();
+        for (Session session : sessions.values()) {
+            if (now - session.lastActivityNanos > idleTimeoutNanos) {
+                log.debug("Preview session {} idle, closing", session.id);
+                close(session.id);
+            }
+        }
+    }
+
+    private Session get(String sessionId) {
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            throw new NoSuchElementException("Unknown preview session: " + sessionId);
+        }
+        return session;
+    }
+
+    private CandidateProfile toProfile(JsonNode model) {
+        try {
+            return objectMapper.treeToValue(model, CandidateProfile.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid profile model: " + e.getMessage(), e);
+        }
+    }
+
+    private static final class Session {
+        final String id;
+        final String templateId;
+        final PreviewUpdate.Format format;
+
+        JsonNode model;
+        CandidateProfile profile;
+        RenderCost cost;
+        long version;
+        PreviewListener listener;
+        ScheduledFuture<?> pendingRender;
+        // Deadline of the render in progress, null when idle
+        RenderDeadline inFlight;
+        boolean rerun;
+        boolean closed;
+        long firstPendingEditNanos;
+        volatile long lastActivityNanos;
+
+        Session(String id, String templateId, PreviewUpdate.Format format) {
+            this.id = id;
+            this.templateId = templateId;
+            this.format = format;
+        }
+
+        void touch() {
+            lastActivityNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.pdfgen.service;
+
+/**
+ * A rendered live-preview document pushed to the editor
+ */
+public class PreviewUpdate {
+
+    /**
+     * What a preview session renders
+     */
+    public enum Format {
+        /**
+         * Processed template HTML; cheapest, suitable for every edit
+         */
+        HTML,
+        /**
+         * The full PDF
+         */
+        PDF
+    }
+
+    private final long version;
+    private final Format format;
+    private final String html;
+    private final byte[] pdf;
+    private final long renderNanos;
+
+    private PreviewUpdate(long version, Format format, String html, byte[] pdf, long renderNanos) {
+        this.version = version;
+        this.format = format;
+        this.html = html;
+        this.pdf = pdf;
+        this.renderNanos = renderNanos;
+    }
+
+    public static PreviewUpdate html(long version, String html, long renderNanos) {
+        return new PreviewUpdate(version, Format.HTML, html, null, renderNanos);
+    }
+
+    public static PreviewUpdate pdf(long version, byte[] pdf, long renderNanos) {
+        return new PreviewUpdate(version, Format.PDF, null, pdf, renderNanos);
+    }
+
+    /**
+     * Model version the document was rendered from; increases with every accepted patch
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Rendered HTML, null for PDF previews
+     */
+    public String getHtml() {
+        return html;
+    }
+
+    /**
+     * Rendered PDF, null for HTML previews
+     */
+    public byte[] getPdf() {
+        return pdf;
+    }
+
+    public long getRenderNanos() {
+        return renderNanos;
+    }
+}
@@ -0,0 +1,444 @@
+package com.example.pdfgen.service;
+
+import com.example.pdfgen.model.CandidateProfile;
+import com.example.pdfgen.model.Experience;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index of candidate profiles, ranked against a job description with BM25
+ *
+ * Indexes the skills, experience titles and experience descriptions of each profile. A term found in a
+ * skill counts {@link #SKILL_WEIGHT} times and one in a title {@link #TITLE_WEIGHT} times, so a listed
+ * skill outweighs a passing mention in a description. Ranking reads only the postings of the job
+ * description's terms, so scoring thousands of profiles takes milliseconds; use it to choose the few
+ * profiles worth sending to {@link ProfileOptimizer}. Replacing or removing a profile leaves a
+ * tombstone in the postings, and the postings are rebuilt once tombstones outnumber live profiles.
+ * Thread-safe: rankings share a read lock and updates take the write lock.
+ */
+@Service
+@Slf4j
+public class ProfileIndex {
+
+    /**
+     * BM25 term frequency saturation
+     */
+    static final double K1 = 1.2;
+
+    /**
+     * BM25 length normalization: 0 ignores profile length, 1 scales fully by it
+     */
+    static final double B = 0.75;
+
+    static final int SKILL_WEIGHT = 3;
+    static final int TITLE_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    /**
+     * Words with letters, digits and the + # . of names like C++, C# and Node.js
+     */
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}][\\p{L}\\p{N}+#.]*");
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "have", "in", "is", "it",
+            "its", "of", "on", "or", "our", "that", "the", "their", "this", "to", "was", "we", "were",
+            "will", "with", "you", "your", "etc", "e.g", "i.e");
+
+    /**
+     * One indexed profile: its weighted term frequencies and weighted length
+     */
+    private static final class Doc {
+        final String id;
+        final String name;
+        final Map<String, Integer> terms;
+        final int length;
+
+        Doc(String id, String name, Map<String, Integer> terms) {
+            this.id = id;
+            this.name = name;
+            this.terms = terms;
+            this.length = terms.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+
+    /**
+     * Documents holding a term, by ordinal, with the term's weighted frequency in each; tombstoned
+     * ordinals stay until the next rebuild but no longer count towards the document frequency
+     */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+        int documentFrequency;
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+            documentFrequency++;
+        }
+    }
+
+    /**
+     * A ranked profile
+     */
+    public static final class Match {
+        private final String profileId;
+        private final String name;
+        private final double score;
+        private final List<String> matchedTerms;
+
+        Match(String profileId, String name, double score, List<String> matchedTerms) {
+            this.profileId = profileId;
+            this.name = name;
+            this.score = score;
+            this.matchedTerms = matchedTerms;
+        }
+
+        public String getProfileId() {
+            return profileId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * Terms of the job description found in the profile, in the order they appear in the description
+         */
+        public List<String> getMatchedTerms() {
+            return matchedTerms;
+        }
+    }
+
+    private final int maxProfiles;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private long totalLength;
+
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong rankings = new AtomicLong();
+
+    /**
+     * Creates an index with the default capacity, for callers outside the Spring context
+     */
+    public ProfileIndex() {
+        this(100000);
+    }
+
+    @Autowired
+    public ProfileIndex(@Value("${profiles.index.max-profiles:100000}") int maxProfiles) {
+        this.maxProfiles = maxProfiles;
+    }
+
+    /**
+     * Adds a profile, replacing any indexed under the same ID
+     *
+     * @throws IllegalStateException If the index already holds profiles.index.max-profiles profiles
+     */
+    public void put(String profileId, CandidateProfile profile) {
+        putAll(Collections.singletonMap(profileId, profile));
+    }
+
+    /**
+     * Adds profiles by ID under one lock, replacing any indexed under the same IDs; all or none are added
+     *
+     * @throws IllegalStateException If the profiles would take the index past profiles.index.max-profiles
+     */
+    public void putAll(Map<String, CandidateProfile> profiles) {
+        // Tokenized before taking the lock, so rankings are not held up by the parsing
+        List<Doc> added = new ArrayList<>(profiles.size());
+        profiles.forEach((id, profile) -> added.add(toDoc(id, profile)));
+
+        lock.writeLock().lock();
+        try {
+            long newProfiles = added.stream().filter(doc -> !ordinals.containsKey(doc.id)).count();
+            if (ordinals.size() + newProfiles > maxProfiles) {
+                throw new IllegalStateException("Profile index holds " + ordinals.size() + " profiles, limit is "
+                        + maxProfiles);
+            }
+            for (Doc doc : added) {
+                Integer previous = ordinals.get(doc.id);
+                if (previous != null) {
+                    tombstone(previous);
+                }
+                add(doc);
+            }
+            if (docs.size() - ordinals.size() > ordinals.size()) {
+                rebuild();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        indexed.addAndGet(added.size());
+    }
+
+    /**
+     * Removes a profile
+     *
+     * @return Whether a profile was indexed under the ID
+     */
+    public boolean remove(String profileId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(profileId);
+            if (ordinal == null) {
+                return false;
+            }
+            tombstone(ordinal);
+            if (docs.size() - ordinals.size() > ordinals.size()) {
+                rebuild();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Terms indexed for a profile with their weighted frequencies, e.g. to see why it ranked as it did
+     */
+    public Optional<Map<String, Integer>> getTerms(String profileId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(profileId);
+            return ordinal == null ? Optional.empty() : Optional.of(Collections.unmodifiableMap(docs.get(ordinal).terms));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks the indexed profiles against a job description
+     *
+     * @param jobDescription Free text of the posting
+     * @param limit          Most profiles to return
+     * @return Profiles sharing at least one term with the description, best first
+     */
+    public List<Match> rank(String jobDescription, int limit) {
+        rankings.incrementAndGet();
+        // Repeated terms weigh more: a posting naming Java five times cares about Java
+        Map<String, Integer> query = new LinkedHashMap<>();
+        for (String term : tokenize(jobDescription)) {
+            query.merge(term, 1, Integer::sum);
+        }
+
+        lock.readLock().lock();
+        try {
+            int profiles = ordinals.size();
+            if (profiles == 0 || query.isEmpty() || limit <= 0) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / profiles;
+            double[] scores = new double[docs.size()];
+            int[] touched = new int[docs.size()];
+            int touchedCount = 0;
+
+            for (Map.Entry<String, Integer> term : query.entrySet()) {
+                Postings list = postings.get(term.getKey());
+                if (list == null || list.documentFrequency == 0) {
+                    continue;
+                }
+                double idf = Math.log(1 + (profiles - list.documentFrequency + 0.5) / (list.documentFrequency + 0.5));
+                double weight = idf * term.getValue();
+                for (int i = 0; i < list.size; i++) {
+                    int ordinal = list.docs[i];
+                    Doc doc = docs.get(ordinal);
+                    if (doc == null) {
+                        continue;
+                    }
+                    double frequency = list.frequencies[i];
+                    double norm = K1 * (1 - B + B * doc.length / averageLength);
+                    if (scores[ordinal] == 0) {
+                        touched[touchedCount++] = ordinal;
+                    }
+                    scores[ordinal] += weight * frequency * (K1 + 1) / (frequency + norm);
+                }
+            }
+
+            // Smallest of the best kept on top, so each candidate is compared with the one it would displace
+            PriorityQueue<Integer> best = new PriorityQueue<>(Math.min(limit, touchedCount) + 1,
+                    (a, b) -> Double.compare(scores[a], scores[b]));
+            for (int i = 0; i < touchedCount; i++) {
+                best.add(touched[i]);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            Match[] matches = new Match[best.size()];
+            for (int i = matches.length - 1; i >= 0; i--) {
+                int ordinal = best.poll();
+                Doc doc = docs.get(ordinal);
+                List<String> matched = new ArrayList<>();
+                for (String term : query.keySet()) {
+                    if (doc.terms.containsKey(term)) {
+                        matched.add(term);
+                    }
+                }
+                matches[i] = new Match(doc.id, doc.name, scores[ordinal], matched);
+            }
+            return Arrays.asList(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Distinct terms with postings, tombstoned ones included until the next rebuild
+     */
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getIndexed() {
+        return indexed.get();
+    }
+
+    public long getRankings() {
+        return rankings.get();
+    }
+
+    /**
+     * Lower-cased terms of the text without HTML tags, stop words, bare numbers or plural endings
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        Matcher matcher = TOKEN.matcher(TAG.matcher(text).replaceAll(" ").toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            String term = matcher.group();
+            // Sentence and abbreviation dots, not the one in node.js
+            int end = term.length();
+            while (end > 0 && term.charAt(end - 1) == '.') {
+                end--;
+            }
+            term = term.substring(0, end);
+            if (term.isEmpty() || STOP_WORDS.contains(term) || term.chars().allMatch(Character::isDigit)) {
+                continue;
+            }
+            terms.add(stem(term));
+        }
+        return terms;
+    }
+
+    /**
+     * Folds plurals so "services" matches "service"; applied alike to profiles and descriptions, and
+     * not to names like Node.js or words like "redis" and "status"
+     */
+    private static String stem(String term) {
+        if (term.length() > 3 && term.endsWith("s") && !term.endsWith("ss") && !term.endsWith("us")
+                && !term.endsWith("is") && term.chars().allMatch(Character::isLetter)) {
+            return term.endsWith("ies") ? term.substring(0, term.length() - 3) + "y" : term.substring(0, term.length() - 1);
+        }
+        return term;
+    }
+
+    private static Doc toDoc(String profileId, CandidateProfile profile) {
+        if (profileId == null || profileId.isBlank()) {
+            throw new IllegalArgumentException("Profile ID is required");
+        }
+        if (profile == null) {
+            throw new IllegalArgumentException("Profile " + profileId + " is empty");
+        }
+        Map<String, Integer> terms = new HashMap<>();
+        if (profile.getSkills() != null) {
+            for (String skill : profile.getSkills()) {
+                addTerms(terms, skill, SKILL_WEIGHT);
+            }
+        }
+        if (profile.getExperience() != null) {
+            for (Experience experience : profile.getExperience()) {
+                if (experience != null) {
+                    addTerms(terms, experience.getTitle(), TITLE_WEIGHT);
+                    addTerms(terms, experience.getDescription(), DESCRIPTION_WEIGHT);
+                }
+            }
+        }
+        return new Doc(profileId, profile.getName(), terms);
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String term : tokenize(text)) {
+            terms.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private void add(Doc doc) {
+        int ordinal = docs.size();
+        docs.add(doc);
+        ordinals.put(doc.id, ordinal);
+        totalLength += doc.length;
+        doc.terms.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new Postings()).add(ordinal, frequency));
+    }
+
+    private void tombstone(int ordinal) {
+        Doc doc = docs.set(ordinal, null);
+        totalLength -= doc.length;
+        for (String term : doc.terms.keySet()) {
+            postings.get(term).documentFrequency--;
+        }
+    }
+
+    /**
+     * Renumbers the live profiles and rebuilds the postings without tombstones
+     */
+    private void rebuild() {
+        List<Doc> live = new ArrayList<>(ordinals.size());
+        for (Doc doc : docs) {
+            if (doc != null) {
+                live.add(doc);
+            }
+        }
+        docs.clear();
+        ordinals.clear();
+        postings.clear();
+        totalLength = 0;
+        live.forEach(this::add);
+        log.debug("Rebuilt profile index: {} profiles, {} terms", docs.size(), postings.size());
+    }
+}
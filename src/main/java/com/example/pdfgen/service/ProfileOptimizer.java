@@ -1,10 +1,12 @@
 package com.example.pdfgen.service;
 
+import com.example.pdfgen.jfr.OpenAiCallEvent;
 import com.theokanning.openai.completion.chat.ChatCompletionRequest;
 import com.theokanning.openai.completion.chat.ChatMessage;
 import com.theokanning.openai.completion.chat.ChatMessageRole;
 import com.theokanning.openai.service.OpenAiService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -14,19 +16,32 @@ import java.util.List;
 
 /**
  * Service class for optimizing candidate profiles using OpenAI API
+ *
+ * Prompts are built by {@link ProfilePromptBuilder}, which compacts the profile and job description to
+ * fit openai.prompt.max-tokens; the estimated tokens before and after are logged and recorded on the
+ * OpenAiCall JFR event. The answer is passed back through {@link ProfilePromptBuilder#restoreResponse}
+ * so the fields and markup left out of the prompt are in the returned profile.
  */
 @Service
 @Slf4j
 public class ProfileOptimizer {
     private final OpenAiService openAiService;
     private final String model;
+    private final ProfilePromptBuilder promptBuilder;
 
+    public ProfileOptimizer(String apiKey, String model, int timeoutSeconds) {
+        this(apiKey, model, timeoutSeconds, new ProfilePromptBuilder());
+    }
+
+    @Autowired
     public ProfileOptimizer(
             @Value("${openai.api.key:DUMMY_KEY}") String apiKey,
             @Value("${openai.api.model:gpt-5}") String model,
-            @Value("${openai.api.timeout:180}") int timeoutSeconds) {
+            @Value("${openai.api.timeout:180}") int timeoutSeconds,
+            ProfilePromptBuilder promptBuilder) {
         this.openAiService = new OpenAiService(apiKey, Duration.ofSeconds(timeoutSeconds));
         this.model = model;
+        this.promptBuilder = promptBuilder;
         log.info("ProfileOptimizer initialized with model: {}", model);
     }
 
@@ -38,37 +53,30 @@ public class ProfileOptimizer {
      * @return Optimized profile content with enhanced summary, skills, and experience descriptions
      */
     public String optimizeProfile(String candidateProfile, String jobDescription) {
-        log.info("Optimizing profile with OpenAI using model: {}", model);
-
-        List<ChatMessage> messages = new ArrayList<>();
+        return optimizeProfile(candidateProfile, jobDescription, RenderDeadline.none());
+    }
 
-        // System message to set the context
-        ChatMessage systemMessage = new ChatMessage(
-            ChatMessageRole.SYSTEM.value(),
-            "You are an expert career coach and resume writer. Your task is to optimize candidate profiles " +
-            "to match job descriptions while maintaining truthfulness and highlighting relevant experience and skills."
-        );
-        messages.add(systemMessage);
+    /**
+     * Optimizes a candidate profile based on a job description using OpenAI, honouring the request deadline
+     * The deadline is checked before the API call and again before the response is used,
+     * so a late answer is discarded instead of feeding the rest of the pipeline
+     *
+     * @param candidateProfile The original candidate profile as JSON string
+     * @param jobDescription   The target job description
+     * @param deadline         Request deadline
+     * @return Optimized profile content with enhanced summary, skills, and experience descriptions
+     */
+    public String optimizeProfile(String candidateProfile, String jobDescription, RenderDeadline deadline) {
+        log.info("Optimizing profile with OpenAI using model: {}", model);
+        deadline.checkpoint("optimize");
 
-        // User message with the optimization request
-        String userPrompt = String.format(
-            "Please optimize the following candidate profile for this job description:\n\n" +
-            "=== JOB DESCRIPTION ===\n%s\n\n" +
-            "=== CANDIDATE PROFILE ===\n%s\n\n" +
-            "=== INSTRUCTIONS ===\n" +
-            "1. Enhance the professional summary to highlight skills and experience most relevant to this job\n" +
-            "2. Prioritize skills that match the job requirements\n" +
-            "3. Rewrite experience descriptions to emphasize relevant achievements and technologies\n" +
-            "4. Keep all information truthful - only reframe and emphasize, don't add false information\n" +
-            "5. Return ONLY the optimized profile content as a JSON object with the same structure as the input\n" +
-            "6. Maintain professional tone throughout\n\n" +
-            "Return the complete optimized profile in JSON format.",
-            jobDescription,
-            candidateProfile
-        );
+        ProfilePrompt prompt = promptBuilder.build(candidateProfile, jobDescription);
+        log.info("Prompt compacted from {} to {} estimated tokens (budget {}, {} lines left out)",
+                prompt.getOriginalTokens(), prompt.getTokens(), prompt.getMaxTokens(), prompt.getDroppedLines());
 
-        ChatMessage userMessage = new ChatMessage(ChatMessageRole.USER.value(), userPrompt);
-        messages.add(userMessage);
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add(new ChatMessage(ChatMessageRole.SYSTEM.value(), prompt.getSystemMessage()));
+        messages.add(new ChatMessage(ChatMessageRole.USER.value(), prompt.getUserMessage()));
 
         // Create the chat completion request
         ChatCompletionRequest completionRequest = ChatCompletionRequest.builder()
@@ -79,6 +87,12 @@ public class ProfileOptimizer {
             .build();
 
         // Execute the request and get the response
+        OpenAiCallEvent callEvent = new OpenAiCallEvent();
+        callEvent.model = model;
+        callEvent.promptLength = prompt.getUserMessage().length();
+        callEvent.promptTokens = prompt.getTokens();
+        callEvent.originalPromptTokens = prompt.getOriginalTokens();
+        callEvent.start();
         try {
             String response = openAiService.createChatCompletion(completionRequest)
                 .getChoices()
@@ -86,10 +100,18 @@ public class ProfileOptimizer {
                 .getMessage()
                 .getContent();
 
+            callEvent.succeeded = true;
+            callEvent.responseLength = response != null ? response.length() : 0;
+            callEvent.finish();
+
+            deadline.checkpoint("optimize");
             log.info("Profile optimization complete!");
-            return response;
+            return promptBuilder.restoreResponse(candidateProfile, response);
 
+        } catch (RenderCancelledException e) {
+            throw e;
         } catch (Exception e) {
+            callEvent.finish();
             log.error("Error calling OpenAI API: {}", e.getMessage());
             throw new RuntimeException("Failed to optimize profile with OpenAI", e);
         }
@@ -0,0 +1,61 @@
+package com.example.pdfgen.service;
+
+/**
+ * Chat prompt built by {@link ProfilePromptBuilder}, with its estimated size before and after compaction
+ */
+public class ProfilePrompt {
+
+    private final String systemMessage;
+    private final String userMessage;
+    private final int originalTokens;
+    private final int tokens;
+    private final int maxTokens;
+    private final int droppedLines;
+
+    ProfilePrompt(String systemMessage, String userMessage, int originalTokens, int tokens, int maxTokens,
+                  int droppedLines) {
+        this.systemMessage = systemMessage;
+        this.userMessage = userMessage;
+        this.originalTokens = originalTokens;
+        this.tokens = tokens;
+        this.maxTokens = maxTokens;
+        this.droppedLines = droppedLines;
+    }
+
+    public String getSystemMessage() {
+        return systemMessage;
+    }
+
+    public String getUserMessage() {
+        return userMessage;
+    }
+
+    /**
+     * Estimated tokens of the same prompt with the profile and job description sent as given
+     */
+    public int getOriginalTokens() {
+        return originalTokens;
+    }
+
+    /**
+     * Estimated tokens of the system and user messages as built
+     */
+    public int getTokens() {
+        return tokens;
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    public boolean isWithinBudget() {
+        return tokens <= maxTokens;
+    }
+
+    /**
+     * Job description lines and experience description lines left out to meet the token budget
+     */
+    public int getDroppedLines() {
+        return droppedLines;
+    }
+}
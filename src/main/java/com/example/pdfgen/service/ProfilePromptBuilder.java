@@ -0,0 +1,445 @@
+package com.example.pdfgen.service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the ProfileOptimizer prompt from as few tokens as carry the request
+ *
+ * The profile is sent as compact JSON: no indentation, no empty fields, no photo, and descriptions as
+ * plain text with one line per list item instead of HTML. Of the job description only the title and
+ * the requirement-bearing lines are kept: everything under requirement, responsibility and preferred
+ * headings, and elsewhere the sentences that ask for experience, skills or duties, minus the company
+ * pitch and benefits. If the prompt still exceeds openai.prompt.max-tokens, lines are left out in order
+ * of importance: preferred qualifications, then the older experience lines (every entry keeps its
+ * first), then responsibilities, then requirements. Tokens are estimated locally, see
+ * {@link #estimateTokens(String)}. {@link #restoreResponse(String, String)} puts the omitted fields and
+ * the description markup back into the model's answer. Thread-safe.
+ */
+@Component
+@Slf4j
+public class ProfilePromptBuilder {
+
+    static final String SYSTEM_MESSAGE = "You are an expert career coach and resume writer. Your task is to "
+            + "optimize candidate profiles to match job descriptions while maintaining truthfulness and "
+            + "highlighting relevant experience and skills.";
+
+    static final String INSTRUCTIONS = "Optimize the candidate profile for this job. Rewrite the summary "
+            + "around the most relevant skills and experience, list the skills the job asks for first, and "
+            + "rewrite experience descriptions to emphasize relevant achievements and technologies. Stay "
+            + "truthful: reframe and emphasize, never add information. Keep a professional tone. Experience "
+            + "descriptions have one achievement per line, as plain text. The photo is not included; leave it "
+            + "out. Return only the complete optimized profile as JSON with the same structure as the input.";
+
+    /**
+     * Profile fields the model cannot improve; a photo alone can run to tens of thousands of tokens
+     */
+    private static final Set<String> OMITTED_FIELDS = Set.of("photo");
+
+    private static final int PRIORITY_PREFERRED = 1;
+    private static final int PRIORITY_RESPONSIBILITY = 2;
+    private static final int PRIORITY_REQUIRED = 3;
+    private static final int PRIORITY_TITLE = 4;
+
+    private static final Pattern BLOCK_TAG = Pattern.compile("(?i)<\\s*/?\\s*(li|br|p|div|tr|h[1-6])\\b[^>]*>");
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+    private static final Pattern SPACES = Pattern.compile("[ \\t\\x0B\\f\\u00A0]+");
+    private static final Pattern BULLET = Pattern.compile("^(?:[-*•▪●]|\\d+[.)])\\s*");
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?])\\s+(?=[A-Z])");
+
+    private static final Pattern REQUIRED_HEADING = Pattern.compile("(?i)requir|qualif|must|need|skills");
+    private static final Pattern RESPONSIBILITY_HEADING = Pattern.compile("(?i)responsib|you will|you'll|duties|role|what you");
+    private static final Pattern PREFERRED_HEADING = Pattern.compile("(?i)prefer|nice|bonus|plus|desir");
+    private static final Pattern BOILERPLATE = Pattern.compile(
+            "(?i)we offer|benefit|perks|compensation|salary|equal opportunit|about us|who we are|how to apply|"
+                    + "apply now|join our|we are seeking|we're looking|culture|diversity");
+    private static final Pattern REQUIREMENT_CUE = Pattern.compile(
+            "(?i)\\b(must|required?|requirements?|qualifications?|experience|expertise|proficien\\w*|knowledge|"
+                    + "familiar\\w*|understanding|skills?|years?|degree|certifi\\w*|ability|able to|strong|"
+                    + "responsib\\w*|design\\w*|develop\\w*|build\\w*|implement\\w*|maintain\\w*|mentor\\w*|"
+                    + "ensure|optimi[sz]\\w*|collaborat\\w*)\\b");
+
+    /**
+     * Letters, digits, runs of whitespace holding a line break or several spaces, and single symbols
+     */
+    private static final Pattern TOKEN_PIECE = Pattern.compile("\\p{L}+|\\p{N}+|\\s*\\R\\s*| {2,}|[^\\s\\p{L}\\p{N}]");
+
+    // HTML escaping would spell out every = < > & as \\u003d and the like
+    private static final Gson COMPACT_GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    /**
+     * A kept job description line, with its heading and how important it is to keep
+     */
+    static final class Requirement {
+        final String heading;
+        final String text;
+        final int priority;
+
+        Requirement(String heading, String text, int priority) {
+            this.heading = heading;
+            this.text = text;
+            this.priority = priority;
+        }
+    }
+
+    private final int maxTokens;
+
+    /**
+     * Creates a builder with the default token budget, for callers outside the Spring context
+     */
+    public ProfilePromptBuilder() {
+        this(3000);
+    }
+
+    @Autowired
+    public ProfilePromptBuilder(@Value("${openai.prompt.max-tokens:3000}") int maxTokens) {
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * Builds the prompt for one profile and job description
+     *
+     * @param candidateProfile Profile JSON, in any formatting; other text is sent with whitespace collapsed
+     * @param jobDescription   Job description text
+     * @return System and user messages with their estimated tokens before and after compaction
+     */
+    public ProfilePrompt build(String candidateProfile, String jobDescription) {
+        String profileText = candidateProfile != null ? candidateProfile : "";
+        String jobText = jobDescription != null ? jobDescription : "";
+        int systemTokens = estimateTokens(SYSTEM_MESSAGE);
+        int originalTokens = systemTokens + estimateTokens(userMessage(jobText, profileText));
+
+        JsonElement profile = null;
+        try {
+            JsonElement parsed = JsonParser.parseString(profileText);
+            if (parsed.isJsonObject()) {
+                profile = compactProfile(parsed);
+            }
+        } catch (JsonParseException e) {
+            log.debug("Profile is not JSON, sending it as text: {}", e.getMessage());
+        }
+        List<Requirement> requirements = requirements(jobText);
+
+        int dropped = 0;
+        String user = userMessage(requirements, profile, profileText);
+        int tokens = systemTokens + estimateTokens(user);
+        while (tokens > maxTokens && cut(requirements, profile)) {
+            dropped++;
+            user = userMessage(requirements, profile, profileText);
+            tokens = systemTokens + estimateTokens(user);
+        }
+        if (tokens > maxTokens) {
+            log.warn("Prompt of {} estimated tokens exceeds openai.prompt.max-tokens={} after compaction", tokens, maxTokens);
+        }
+        return new ProfilePrompt(SYSTEM_MESSAGE, user, originalTokens, tokens, maxTokens, dropped);
+    }
+
+    /**
+     * Turns the model's answer back into a profile the templates can render
+     *
+     * Fields left out of the prompt are copied from the original profile, and experience descriptions
+     * sent as plain lines become a list again with one item per line, since the templates insert them
+     * as HTML. Descriptions that already contain markup are kept as they are.
+     *
+     * @param candidateProfile The profile JSON the prompt was built from
+     * @param response         The model's answer
+     * @return The restored profile JSON, or the answer unchanged if either is not a JSON object
+     */
+    public String restoreResponse(String candidateProfile, String response) {
+        JsonObject original;
+        JsonObject optimized;
+        try {
+            JsonElement parsedOriginal = JsonParser.parseString(candidateProfile != null ? candidateProfile : "");
+            JsonElement parsedResponse = JsonParser.parseString(response != null ? response : "");
+            if (!parsedOriginal.isJsonObject() || !parsedResponse.isJsonObject()) {
+                return response;
+            }
+            original = parsedOriginal.getAsJsonObject();
+            optimized = parsedResponse.getAsJsonObject();
+        } catch (JsonParseException e) {
+            log.warn("Optimized profile is not JSON, returning it as is: {}", e.getMessage());
+            return response;
+        }
+
+        for (String field : OMITTED_FIELDS) {
+            if (original.has(field)) {
+                optimized.add(field, original.get(field));
+            }
+        }
+        JsonArray originalExperience = original.has("experience") && original.get("experience").isJsonArray()
+                ? original.getAsJsonArray("experience") : new JsonArray();
+        if (optimized.has("experience") && optimized.get("experience").isJsonArray()) {
+            JsonArray experience = optimized.getAsJsonArray("experience");
+            for (int i = 0; i < experience.size(); i++) {
+                JsonElement entry = experience.get(i);
+                if (!entry.isJsonObject() || !entry.getAsJsonObject().has("description")
+                        || !entry.getAsJsonObject().get("description").isJsonPrimitive()) {
+                    continue;
+                }
+                String description = entry.getAsJsonObject().get("description").getAsString();
+                boolean wasList = i < originalExperience.size() && originalExperience.get(i).isJsonObject()
+                        && originalExperience.get(i).getAsJsonObject().has("description")
+                        && originalExperience.get(i).getAsJsonObject().get("description").toString().contains("<li");
+                entry.getAsJsonObject().addProperty("description", descriptionHtml(description, wasList));
+            }
+        }
+        return COMPACT_GSON.toJson(optimized);
+    }
+
+    /**
+     * Plain description lines as HTML: a list if there are several lines or the original was one
+     */
+    static String descriptionHtml(String description, boolean list) {
+        if (TAG.matcher(description).find()) {
+            return description;
+        }
+        List<String> lines = new ArrayList<>();
+        for (String line : cleanText(description).split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(line.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"));
+            }
+        }
+        if (lines.isEmpty()) {
+            return "";
+        }
+        if (!list && lines.size() == 1) {
+            return lines.get(0);
+        }
+        return "<ul><li>" + String.join("</li><li>", lines) + "</li></ul>";
+    }
+
+    /**
+     * Rough count of the tokens a BPE tokenizer produces for the text
+     *
+     * A word counts one token per 8 letters, a number one per 3 digits, every other symbol one, and a
+     * run of whitespace one if it breaks a line or spans several spaces (single spaces merge into the
+     * next word). Errs high for English prose and JSON; meant for budgeting, not billing.
+     */
+    public static int estimateTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int tokens = 0;
+        Matcher matcher = TOKEN_PIECE.matcher(text);
+        while (matcher.find()) {
+            String piece = matcher.group();
+            char first = piece.charAt(0);
+            if (Character.isLetter(first)) {
+                tokens += (piece.length() + 7) / 8;
+            } else if (Character.isDigit(first)) {
+                tokens += (piece.length() + 2) / 3;
+            } else {
+                tokens++;
+            }
+        }
+        return tokens;
+    }
+
+    private static String userMessage(String jobDescription, String profile) {
+        return INSTRUCTIONS + "\n\nJOB:\n" + jobDescription + "\n\nPROFILE:\n" + profile;
+    }
+
+    private static String userMessage(List<Requirement> requirements, JsonElement profile, String profileText) {
+        StringBuilder job = new StringBuilder();
+        String heading = null;
+        for (Requirement requirement : requirements) {
+            if (requirement.heading == null) {
+                job.append(requirement.text).append('\n');
+                continue;
+            }
+            if (!requirement.heading.equals(heading)) {
+                heading = requirement.heading;
+                job.append(heading).append(":\n");
+            }
+            job.append("- ").append(requirement.text).append('\n');
+        }
+        String compactProfile = profile != null ? COMPACT_GSON.toJson(profile) : cleanText(profileText);
+        return userMessage(job.toString().trim(), compactProfile);
+    }
+
+    /**
+     * Leaves out the least important remaining line
+     *
+     * @return False when nothing is left to leave out
+     */
+    private static boolean cut(List<Requirement> requirements, JsonElement profile) {
+        return dropRequirement(requirements, PRIORITY_PREFERRED)
+                || shortenOldestExperience(profile)
+                || dropRequirement(requirements, PRIORITY_RESPONSIBILITY)
+                || dropRequirement(requirements, PRIORITY_REQUIRED);
+    }
+
+    /**
+     * Drops the last requirement of the given priority
+     */
+    private static boolean dropRequirement(List<Requirement> requirements, int priority) {
+        for (int i = requirements.size() - 1; i >= 0; i--) {
+            if (requirements.get(i).priority == priority) {
+                requirements.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops the last line of the oldest experience description with more than one line
+     */
+    private static boolean shortenOldestExperience(JsonElement profile) {
+        if (profile == null || !profile.isJsonObject() || !profile.getAsJsonObject().has("experience")
+                || !profile.getAsJsonObject().get("experience").isJsonArray()) {
+            return false;
+        }
+        JsonArray experience = profile.getAsJsonObject().getAsJsonArray("experience");
+        for (int i = experience.size() - 1; i >= 0; i--) {
+            JsonElement entry = experience.get(i);
+            if (!entry.isJsonObject() || !entry.getAsJsonObject().has("description")) {
+                continue;
+            }
+            JsonElement description = entry.getAsJsonObject().get("description");
+            if (description.isJsonPrimitive()) {
+                String text = description.getAsString();
+                int lastLine = text.lastIndexOf('\n');
+                if (lastLine > 0) {
+                    entry.getAsJsonObject().addProperty("description", text.substring(0, lastLine));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The profile without omitted fields, empty values and HTML; null if nothing is left
+     */
+    static JsonElement compactProfile(JsonElement element) {
+        if (element == null || element.isJsonNull()) {
+            return null;
+        }
+        if (element.isJsonObject()) {
+            JsonObject compact = new JsonObject();
+            for (Map.Entry<String, JsonElement> field : element.getAsJsonObject().entrySet()) {
+                JsonElement value = OMITTED_FIELDS.contains(field.getKey()) ? null : compactProfile(field.getValue());
+                if (value != null) {
+                    compact.add(field.getKey(), value);
+                }
+            }
+            return compact.size() == 0 ? null : compact;
+        }
+        if (element.isJsonArray()) {
+            JsonArray compact = new JsonArray();
+            for (JsonElement item : element.getAsJsonArray()) {
+                JsonElement value = compactProfile(item);
+                if (value != null) {
+                    compact.add(value);
+                }
+            }
+            return compact.size() == 0 ? null : compact;
+        }
+        JsonPrimitive primitive = element.getAsJsonPrimitive();
+        if (primitive.isString()) {
+            String text = cleanText(primitive.getAsString());
+            return text.isEmpty() ? null : new JsonPrimitive(text);
+        }
+        return primitive;
+    }
+
+    /**
+     * Plain text of a field: block tags become line breaks, other tags and bullets go, entities are
+     * decoded and whitespace collapsed
+     */
+    static String cleanText(String text) {
+        String plain = text;
+        if (plain.indexOf('<') >= 0) {
+            plain = TAG.matcher(BLOCK_TAG.matcher(plain).replaceAll("\n")).replaceAll("");
+        }
+        if (plain.indexOf('&') >= 0) {
+            plain = plain.replace("&nbsp;", " ").replace("&lt;", "<").replace("&gt;", ">")
+                    .replace("&quot;", "\"").replace("&#39;", "'").replace("&amp;", "&");
+        }
+        StringBuilder lines = new StringBuilder();
+        for (String line : plain.split("\\R")) {
+            String clean = BULLET.matcher(SPACES.matcher(line).replaceAll(" ").trim()).replaceFirst("");
+            if (!clean.isEmpty()) {
+                if (lines.length() > 0) {
+                    lines.append('\n');
+                }
+                lines.append(clean);
+            }
+        }
+        return lines.toString();
+    }
+
+    /**
+     * The title and the requirement-bearing lines of a job description, in their original order
+     */
+    static List<Requirement> requirements(String jobDescription) {
+        List<Requirement> requirements = new ArrayList<>();
+        String heading = null;
+        int headingPriority = 0;
+        boolean title = true;
+        for (String rawLine : jobDescription.split("\\R")) {
+            String line = cleanText(rawLine);
+            if (line.isEmpty()) {
+                // A blank line ends the list under a heading; closing paragraphs stand on their own
+                if (rawLine.isBlank()) {
+                    heading = null;
+                    headingPriority = 0;
+                }
+                continue;
+            }
+            if (title) {
+                requirements.add(new Requirement(null, line, PRIORITY_TITLE));
+                title = false;
+                continue;
+            }
+            if (line.endsWith(":") && line.length() <= 60) {
+                heading = line.substring(0, line.length() - 1).trim();
+                headingPriority = headingPriority(heading);
+                continue;
+            }
+            for (String sentence : SENTENCE_END.split(line)) {
+                if (headingPriority > 0) {
+                    requirements.add(new Requirement(heading, sentence, headingPriority));
+                } else if (headingPriority == 0 && REQUIREMENT_CUE.matcher(sentence).find()
+                        && !BOILERPLATE.matcher(sentence).find()) {
+                    requirements.add(new Requirement(null, sentence, PRIORITY_PREFERRED));
+                }
+            }
+        }
+        return requirements;
+    }
+
+    /**
+     * Priority of the lines under a heading: 0 to judge each line on its own, -1 to drop them all
+     */
+    private static int headingPriority(String heading) {
+        if (PREFERRED_HEADING.matcher(heading).find()) {
+            return PRIORITY_PREFERRED;
+        }
+        if (REQUIRED_HEADING.matcher(heading).find()) {
+            return PRIORITY_REQUIRED;
+        }
+        if (RESPONSIBILITY_HEADING.matcher(heading).find()) {
+            return PRIORITY_RESPONSIBILITY;
+        }
+        return BOILERPLATE.matcher(heading).find() ? -1 : 0;
+    }
+}
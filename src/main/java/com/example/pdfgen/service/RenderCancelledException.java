@@ -0,0 +1,30 @@
+package com.example.pdfgen.service;
+
+/**
+ * Thrown at a render checkpoint once the request deadline has passed or the request was cancelled
+ * Controllers translate this into 504 Gateway Timeout
+ */
+public class RenderCancelledException extends RuntimeException {
+
+    public enum Reason {
+        DEADLINE,
+        CANCELLED
+    }
+
+    private final String stage;
+    private final Reason reason;
+
+    public RenderCancelledException(String stage, Reason reason, String detail) {
+        super("Render aborted at " + stage + ": " + detail);
+        this.stage = stage;
+        this.reason = reason;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
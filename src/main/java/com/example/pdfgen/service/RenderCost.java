@@ -0,0 +1,40 @@
+package com.example.pdfgen.service;
+
+/**
+ * Estimated size of a resume before it is rendered, see {@link RenderCostEstimator}
+ */
+public class RenderCost {
+
+    /**
+     * Response header carrying the estimated page count
+     */
+    public static final String ESTIMATED_PAGES_HEADER = "X-Estimated-Pages";
+
+    private final int estimatedPages;
+    private final long textChars;
+    private final boolean large;
+
+    public RenderCost(int estimatedPages, long textChars, boolean large) {
+        this.estimatedPages = estimatedPages;
+        this.textChars = textChars;
+        this.large = large;
+    }
+
+    public int getEstimatedPages() {
+        return estimatedPages;
+    }
+
+    /**
+     * Characters of profile text, including any markup in descriptions
+     */
+    public long getTextChars() {
+        return textChars;
+    }
+
+    /**
+     * Whether the document is large enough to be converted in a render worker when the pool is enabled
+     */
+    public boolean isLarge() {
+        return large;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.pdfgen.service;
+
+import com.example.pdfgen.model.CandidateProfile;
+import com.example.pdfgen.model.Education;
+import com.example.pdfgen.model.Experience;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estimates the page count of a resume from the profile alone, before any rendering starts
+ *
+ * The estimate counts lines: each text field wraps at {@link #CHARS_PER_LINE}, list items and
+ * paragraphs in descriptions start new lines, and every entry adds its title, company and date lines.
+ * It is calibrated on the roomiest resume template, so for the denser ones it runs up to a third high.
+ * Profiles estimated at more than render.cost.max-pages are rejected with {@link RenderTooLargeException}; those at
+ * render.cost.large-pages or more are marked large, which sends them to the {@link RenderWorkerPool}
+ * when it is enabled whatever the size of their HTML. Thread-safe.
+ *
+ * Memory per render stays bounded by the pages in flight rather than by this estimate because the
+ * resume templates emit experience entries as siblings of the section heading, not as children of
+ * one section block: pdfHTML can then lay out and flush each entry with its page, where a wrapping
+ * block would keep the whole history's layout alive until it ended. Keep that shape in new templates.
+ */
+@Component
+@Slf4j
+public class RenderCostEstimator {
+
+    /**
+     * Characters of body text per line on A4 in the roomiest template
+     */
+    private static final int CHARS_PER_LINE = 70;
+
+    /**
+     * Body text lines per A4 page inside the templates' 15mm margins
+     */
+    private static final int LINES_PER_PAGE = 48;
+
+    /**
+     * Name, contact line, header rule and the summary and skills headings
+     */
+    private static final int HEADER_LINES = 10;
+    private static final int PHOTO_LINES = 5;
+    private static final int SECTION_HEADING_LINES = 3;
+
+    /**
+     * Title, company and date of an experience entry and the gap after it, in body text lines
+     */
+    private static final int EXPERIENCE_ENTRY_LINES = 7;
+
+    /**
+     * Degree, institution and year of an education entry and the gap after it, in body text lines
+     */
+    private static final int EDUCATION_ENTRY_LINES = 6;
+
+    private final int maxPages;
+    private final int largePages;
+
+    private final AtomicLong estimated = new AtomicLong();
+    private final AtomicLong large = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Creates an estimator with the default limits, for callers outside the Spring context
+     */
+    public RenderCostEstimator() {
+        this(400, 50);
+    }
+
+    @Autowired
+    public RenderCostEstimator(@Value("${render.cost.max-pages:400}") int maxPages,
+                               @Value("${render.cost.large-pages:50}") int largePages) {
+        this.maxPages = maxPages;
+        this.largePages = largePages;
+    }
+
+    /**
+     * Estimates the profile's size without applying the page limit
+     */
+    public RenderCost estimate(CandidateProfile profile) {
+        long chars = 0;
+        long lines = HEADER_LINES;
+
+        if (profile.getPhoto() != null && !profile.getPhoto().isBlank()) {
+            lines += PHOTO_LINES;
+        }
+        chars += length(profile.getName()) + length(profile.getEmail()) + length(profile.getPhone())
+                + length(profile.getLocation());
+        chars += length(profile.getSummary());
+        lines += lines(profile.getSummary());
+
+        // Skills flow inline, separated by bullets
+        long skillChars = 0;
+        for (String skill : nonNull(profile.getSkills())) {
+            skillChars += length(skill) + 3;
+        }
+        chars += skillChars;
+        lines += (skillChars + CHARS_PER_LINE - 1) / CHARS_PER_LINE;
+
+        List<Experience> experience = nonNull(profile.getExperience());
+        if (!experience.isEmpty()) {
+            lines += SECTION_HEADING_LINES;
+        }
+        for (Experience entry : experience) {
+            chars += length(entry.getTitle()) + length(entry.getCompany()) + length(entry.getDuration())
+                    + length(entry.getDescription());
+            lines += EXPERIENCE_ENTRY_LINES + lines(entry.getDescription());
+        }
+
+        List<Education> education = nonNull(profile.getEducation());
+        if (!education.isEmpty()) {
+            lines += SECTION_HEADING_LINES;
+        }
+        for (Education entry : education) {
+            chars += length(entry.getDegree()) + length(entry.getInstitution()) + length(entry.getYear());
+            lines += EDUCATION_ENTRY_LINES;
+        }
+
+        List<String> certifications = nonNull(profile.getCertifications());
+        if (!certifications.isEmpty()) {
+            lines += SECTION_HEADING_LINES;
+        }
+        for (String certification : certifications) {
+            chars += length(certification);
+            lines += Math.max(1, lines(certification));
+        }
+
+        int pages = (int) Math.min(Integer.MAX_VALUE, (lines + LINES_PER_PAGE - 1) / LINES_PER_PAGE);
+        return new RenderCost(pages, chars, pages >= largePages);
+    }
+
+    /**
+     * Estimates the profile's size and rejects it if it would exceed render.cost.max-pages
+     *
+     * @throws RenderTooLargeException If the estimate is over the page limit
+     */
+    public RenderCost check(CandidateProfile profile) {
+        RenderCost cost = estimate(profile);
+        estimated.incrementAndGet();
+        if (cost.getEstimatedPages() > maxPages) {
+            rejected.incrementAndGet();
+            log.warn("Rejecting profile estimated at {} pages ({} chars of text), limit is {}",
+                    cost.getEstimatedPages(), cost.getTextChars(), maxPages);
+            throw new RenderTooLargeException(cost.getEstimatedPages(), maxPages);
+        }
+        if (cost.isLarge()) {
+            large.incrementAndGet();
+            log.debug("Profile estimated at {} pages is large", cost.getEstimatedPages());
+        }
+        return cost;
+    }
+
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    /**
+     * Profiles checked since startup
+     */
+    public long getEstimated() {
+        return estimated.get();
+    }
+
+    /**
+     * Profiles accepted but marked large
+     */
+    public long getLarge() {
+        return large.get();
+    }
+
+    /**
+     * Profiles rejected for exceeding render.cost.max-pages
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Wrapped lines of a text field, plus one for each paragraph, list item or line break in its markup
+     */
+    private static long lines(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        long lines = (text.length() + CHARS_PER_LINE - 1) / CHARS_PER_LINE;
+        for (int i = text.indexOf('<'); i >= 0; i = text.indexOf('<', i + 1)) {
+            if (text.startsWith("<li", i) || text.startsWith("<p", i) || text.startsWith("<br", i)) {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static long length(String text) {
+        return text == null ? 0 : text.length();
+    }
+
+    private static <T> List<T> nonNull(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.pdfgen.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Deadline and cancellation flag for a single render request
+ *
+ * Passed through TemplateService, PdfGeneratorService, WordGeneratorService and ProfileOptimizer,
+ * which call {@link #checkpoint(String)} at stage and page boundaries. Once the deadline has
+ * passed or {@link #cancel(String)} was called, the next checkpoint aborts the render with a
+ * {@link RenderCancelledException} so no further CPU is spent on a response nobody will read.
+ * Thread-safe: a deadline may be shared by renders running in parallel for the same request.
+ */
+public class RenderDeadline {
+
+    /**
+     * Request header carrying the client's time budget in milliseconds
+     */
+    public static final String HEADER = "X-Request-Timeout-Ms";
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final long deadlineNanos;
+    private final Consumer<RenderCancelledException> abortListener;
+    private final AtomicBoolean aborted = new AtomicBoolean();
+    private volatile String cancelReason;
+
+    private RenderDeadline(long deadlineNanos, Consumer<RenderCancelledException> abortListener) {
+        this.deadlineNanos = deadlineNanos;
+        this.abortListener = abortListener;
+    }
+
+    /**
+     * Creates a deadline that never expires but can still be cancelled
+     */
+    public static RenderDeadline none() {
+        return new RenderDeadline(NO_DEADLINE, null);
+    }
+
+    /**
+     * Creates a deadline the given duration from now
+     *
+     * @param timeout       Time budget for the render
+     * @param abortListener Invoked once when the render is aborted (may be null)
+     */
+    public static RenderDeadline after(Duration timeout, Consumer<RenderCancelledException> abortListener) {
+        return new RenderDeadline(System.nanoTime() + timeout.toNanos(), abortListener);
+    }
+
+    /**
+     * Marks the render as cancelled, e.g. because the client went away
+     * The render stops at its next checkpoint
+     */
+    public void cancel(String reason) {
+        if (cancelReason == null) {
+            cancelReason = reason;
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelReason != null;
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    public boolean hasDeadline() {
+        return deadlineNanos != NO_DEADLINE;
+    }
+
+    /**
+     * Remaining time budget in nanoseconds, Long.MAX_VALUE when there is no deadline
+     */
+    public long remainingNanos() {
+        if (deadlineNanos == NO_DEADLINE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * Aborts the current render if it was cancelled or ran past its deadline
+     *
+     * @param stage Name of the stage boundary being crossed (used for metrics)
+     * @throws RenderCancelledException If the render should stop
+     */
+    public void checkpoint(String stage) {
+        if (isCancelled()) {
+            throw abort(stage, RenderCancelledException.Reason.CANCELLED);
+        }
+        if (isExpired()) {
+            throw abort(stage, RenderCancelledException.Reason.DEADLINE);
+        }
+    }
+
+    /**
+     * Builds the exception for an abort at the given stage, notifying the listener the first time
+     */
+    RenderCancelledException abort(String stage, RenderCancelledException.Reason reason) {
+        String detail = reason == RenderCancelledException.Reason.CANCELLED ? cancelReason : "deadline exceeded";
+        RenderCancelledException e = new RenderCancelledException(stage, reason, detail);
+        if (abortListener != null && aborted.compareAndSet(false, true)) {
+            abortListener.accept(e);
+        }
+        return e;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.pdfgen.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Creates per-request render deadlines from the request header or the endpoint default
+ *
+ * Endpoint defaults are read from render.deadline.&lt;endpoint&gt;-ms, falling back to
+ * render.deadline.default-ms. Every abort is counted as render.aborted{endpoint, stage, reason}.
+ */
+@Component
+@Slf4j
+public class RenderDeadlinePolicy {
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final long defaultTimeoutMs;
+    private final long maxTimeoutMs;
+
+    public RenderDeadlinePolicy(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.defaultTimeoutMs = environment.getProperty("render.deadline.default-ms", Long.class, 30_000L);
+        this.maxTimeoutMs = environment.getProperty("render.deadline.max-ms", Long.class, 300_000L);
+    }
+
+    /**
+     * Resolves the deadline for a request
+     *
+     * @param headerValue Value of the {@value RenderDeadline#HEADER} header (may be null)
+     * @param endpoint    Endpoint name used to look up the default budget, e.g. "resume-pdf"
+     * @return A deadline counting from now
+     * @throws IllegalArgumentException If the header is not a positive number of milliseconds
+     */
+    public RenderDeadline resolve(String headerValue, String endpoint) {
+        long timeoutMs;
+        if (headerValue == null || headerValue.isBlank()) {
+            timeoutMs = environment.getProperty("render.deadline." + endpoint + "-ms", Long.class, defaultTimeoutMs);
+        } else {
+            try {
+                timeoutMs = Long.parseLong(headerValue.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + RenderDeadline.HEADER + ": " + headerValue);
+            }
+            if (timeoutMs <= 0) {
+                throw new IllegalArgumentException("Invalid " + RenderDeadline.HEADER + ": " + headerValue);
+            }
+            // Clients may ask for less time than the server allows, never more
+            timeoutMs = Math.min(timeoutMs, maxTimeoutMs);
+        }
+
+        return RenderDeadline.after(Duration.ofMillis(timeoutMs), e -> {
+            log.warn("Render aborted for {} at stage '{}': {}", endpoint, e.getStage(), e.getReason());
+            meterRegistry.counter("render.aborted",
+                    "endpoint", endpoint,
+                    "stage", e.getStage(),
+                    "reason", e.getReason().name().toLowerCase()).increment();
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.pdfgen.service;
+
+import java.util.Locale;
+
+/**
+ * Priority classes used by the {@link RenderScheduler} to separate interactive
+ * single-document requests from bulk generation runs
+ */
+public enum RenderPriority {
+
+    INTERACTIVE,
+    BULK;
+
+    /**
+     * Request header a client can use to pick a lane explicitly
+     */
+    public static final String HEADER = "X-Render-Priority";
+
+    /**
+     * Resolves the priority class from the request header, falling back to the endpoint default
+     *
+     * @param headerValue     Value of the {@value #HEADER} header (may be null)
+     * @param endpointDefault Priority class of the endpoint handling the request
+     * @return The resolved priority class
+     * @throws IllegalArgumentException If the header names an unknown priority class
+     */
+    public static RenderPriority resolve(String headerValue, RenderPriority endpointDefault) {
+        if (headerValue == null || headerValue.isBlank()) {
+            return endpointDefault;
+        }
+        try {
+            return RenderPriority.valueOf(headerValue.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown render priority: " + headerValue);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.pdfgen.service;
+
+/**
+ * Thrown when the {@link RenderScheduler} sheds a request instead of queuing it
+ * Controllers translate this into 429 Too Many Requests with a Retry-After header
+ */
+public class RenderRejectedException extends RuntimeException {
+
+    private final RenderPriority priority;
+    private final long retryAfterSeconds;
+
+    public RenderRejectedException(String message, RenderPriority priority, long retryAfterSeconds) {
+        super(message);
+        this.priority = priority;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public RenderPriority getPriority() {
+        return priority;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.pdfgen.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission scheduler in front of PdfGeneratorService / WordGeneratorService
+ *
+ * Render slots are shared between priority lanes using smooth weighted round-robin,
+ * so a bulk run can never starve interactive previews. The number of slots follows an
+ * {@link AdaptiveConcurrencyLimit}. Each lane has its own bounded queue; requests that do
+ * not fit, or wait longer than the configured limit, are rejected with a
+ * {@link RenderRejectedException} instead of queuing forever.
+ */
+@Service
+@Slf4j
+public class RenderScheduler {
+
+    /**
+     * Unit of render work executed while holding a slot
+     */
+    @FunctionalInterface
+    public interface RenderTask<T> {
+        T run() throws IOException;
+    }
+
+    private static final long CANCEL_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<RenderPriority, Lane> lanes = new EnumMap<>(RenderPriority.class);
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final long maxQueueWaitNanos;
+
+    private int inFlight;
+    // Exponentially weighted average of slot hold time, used for Retry-After estimates
+    private double avgServiceNanos = TimeUnit.SECONDS.toNanos(1);
+
+    public RenderScheduler(
+            AdaptiveConcurrencyLimit concurrencyLimit,
+            @Value("${render.scheduler.interactive.weight:4}") int interactiveWeight,
+            @Value("${render.scheduler.interactive.queue-limit:50}") int interactiveQueueLimit,
+            @Value("${render.scheduler.bulk.weight:1}") int bulkWeight,
+            @Value("${render.scheduler.bulk.queue-limit:200}") int bulkQueueLimit,
+            @Value("${render.scheduler.max-queue-wait-ms:30000}") long maxQueueWaitMs) {
+        this.concurrencyLimit = concurrencyLimit;
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+        lanes.put(RenderPriority.INTERACTIVE, new Lane(interactiveWeight, interactiveQueueLimit));
+        lanes.put(RenderPriority.BULK, new Lane(bulkWeight, bulkQueueLimit));
+
+        log.info("RenderScheduler initialized: limit={}, interactive(weight={}, queue={}), bulk(weight={}, queue={}), maxWait={}ms",
+                concurrencyLimit.getLimit(), interactiveWeight, interactiveQueueLimit, bulkWeight, bulkQueueLimit, maxQueueWaitMs);
+    }
+
+    /**
+     * Runs the task once a render slot is granted to the given lane
+     *
+     * @param priority Lane the request belongs to
+     * @param task     Render work to execute while holding the slot
+     * @return The task result
+     * @throws RenderRejectedException If the lane queue is full or the wait limit is exceeded
+     */
+    public <T> T execute(RenderPriority priority, RenderTask<T> task) throws IOException, InterruptedException {
+        return execute(priority, RenderDeadline.none(), task);
+    }
+
+    /**
+     * Runs the task once a render slot is granted to the given lane, giving up when the deadline passes
+     *
+     * @param priority Lane the request belongs to
+     * @param deadline Request deadline; also bounds the time spent waiting in the queue
+     * @param task     Render work to execute while holding the slot
+     * @return The task result
+     * @throws RenderRejectedException  If the lane queue is full or the wait limit is exceeded
+     * @throws RenderCancelledException If the deadline passes or the request is cancelled while queued
+     */
+    public <T> T execute(RenderPriority priority, RenderDeadline deadline, RenderTask<T> task)
+            throws IOException, InterruptedException {
+        acquire(priority, deadline);
+        long start = System.nanoTime();
+        try {
+            return task.run();
+        } finally {
+            release(System.nanoTime() - start);
+        }
+    }
+
+    private void acquire(RenderPriority priority, RenderDeadline deadline) throws InterruptedException {
+        deadline.checkpoint("queue");
+
+        Lane lane = lanes.get(priority);
+        lock.lock();
+        try {
+            // Fast path: free slot and nobody waiting ahead of us
+            if (inFlight < concurrencyLimit.getLimit() && totalQueued() == 0) {
+                inFlight++;
+                return;
+            }
+
+            if (lane.waiting.size() >= lane.queueLimit) {
+                lane.rejected++;
+                throw new RenderRejectedException(
+                        priority + " render queue is full (" + lane.queueLimit + ")", priority, retryAfterSeconds());
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition());
+            lane.waiting.addLast(waiter);
+            long remaining = maxQueueWaitNanos;
+            try {
+                while (!waiter.granted) {
+                    if (deadline.isExpired() || deadline.isCancelled()) {
+                        lane.waiting.remove(waiter);
+                        deadline.checkpoint("queue");
+                    }
+                    if (remaining <= 0) {
+                        lane.waiting.remove(waiter);
+                        lane.rejected++;
+                        throw new RenderRejectedException(
+                                priority + " render queue wait exceeded", priority, retryAfterSeconds());
+                    }
+                    // Wake up periodically so an explicit cancel() is noticed while queued
+                    long waitNanos = Math.min(Math.min(remaining, deadline.remainingNanos()), CANCEL_POLL_NANOS);
+                    remaining -= waitNanos - waiter.condition.awaitNanos(waitNanos);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    // Slot was handed over while we were being interrupted, give it back
+                    inFlight--;
+                    dispatch();
+                } else {
+                    lane.waiting.remove(waiter);
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long serviceNanos) {
+        lock.lock();
+        try {
+            avgServiceNanos = avgServiceNanos * 0.9 + serviceNanos * 0.1;
+            concurrencyLimit.onSample(serviceNanos, inFlight);
+            inFlight--;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands free slots to waiting requests, picking lanes by smooth weighted round-robin
+     * The number of slots follows the adaptive concurrency limit
+     * Must be called while holding the lock
+     */
+    private void dispatch() {
+        while (inFlight < concurrencyLimit.getLimit()) {
+            Lane next = null;
+            int totalWeight = 0;
+            for (Lane lane : lanes.values()) {
+                if (lane.waiting.isEmpty()) {
+                    continue;
+                }
+                lane.currentWeight += lane.weight;
+                totalWeight += lane.weight;
+                if (next == null || lane.currentWeight > next.currentWeight) {
+                    next = lane;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            next.currentWeight -= totalWeight;
+
+            Waiter waiter = next.waiting.pollFirst();
+            waiter.granted = true;
+            inFlight++;
+            waiter.condition.signal();
+        }
+    }
+
+    private int totalQueued() {
+        int queued = 0;
+        for (Lane lane : lanes.values()) {
+            queued += lane.waiting.size();
+        }
+        return queued;
+    }
+
+    /**
+     * Estimates how long until the current backlog drains, rounded up to whole seconds
+     */
+    private long retryAfterSeconds() {
+        double drainNanos = (totalQueued() + 1) * avgServiceNanos / concurrencyLimit.getLimit();
+        return Math.max(1, (long) Math.ceil(drainNanos / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    public int getLimit() {
+        return concurrencyLimit.getLimit();
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued(RenderPriority priority) {
+        lock.lock();
+        try {
+            return lanes.get(priority).waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected(RenderPriority priority) {
+        lock.lock();
+        try {
+            return lanes.get(priority).rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Lane {
+        final int weight;
+        final int queueLimit;
+        final ArrayDeque<Waiter> waiting = new ArrayDeque<>();
+        int currentWeight;
+        long rejected;
+
+        Lane(int weight, int queueLimit) {
+            this.weight = Math.max(1, weight);
+            this.queueLimit = Math.max(0, queueLimit);
+        }
+    }
+
+    private static final class Waiter {
+        final Condition condition;
+        boolean granted;
+
+        Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.pdfgen.service;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Request-scoped recorder for rendering stage durations and output size
+ *
+ * One instance is created per request by the RenderTimingFilter and handed to controllers as a
+ * request attribute. Controllers wrap each stage (template, convert, serialize, ...) so the result
+ * can be reported as a Server-Timing response header and a single structured log line.
+ * Thread-safe: renders running in parallel for the same request add up into the same stage.
+ * Stages may nest (e.g. template processing streamed from inside conversion); a stage's recorded
+ * duration excludes stages nested in it on the same thread, so stage durations add up to the total.
+ * The serialize stage also covers writing the response body: the Server-Timing header is built when
+ * the response is ready, which marks the start of the write, and the filter records the rest of the
+ * serialize time once the body has been sent. The header therefore reports serialize without the
+ * write, since it goes out before the body; the log line reports it with the write.
+ */
+public class RenderTimings {
+
+    /**
+     * Request attribute under which the current request's recorder is stored
+     */
+    public static final String ATTRIBUTE = "com.example.pdfgen.service.RenderTimings";
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    /**
+     * A stage that produces nothing, e.g. writing a document to a stream
+     */
+    @FunctionalInterface
+    public interface StageAction {
+        void run() throws IOException;
+    }
+
+    /**
+     * Time spent in completed stages on this thread, used to subtract nested stages from their parent
+     */
+    private static final ThreadLocal<long[]> STAGE_NANOS_ON_THREAD = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private long outputBytes = -1;
+    private long responseReadyNanos;
+
+    /**
+     * Runs a stage and records its duration
+     */
+    public <T> T time(String stage, RenderScheduler.RenderTask<T> task) throws IOException {
+        long[] onThread = STAGE_NANOS_ON_THREAD.get();
+        long nestedBefore = onThread[0];
+        long start = System.nanoTime();
+        try {
+            return task.run();
+        } finally {
+            finish(stage, onThread, nestedBefore, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Runs a stage without a result and records its duration
+     */
+    public void run(String stage, StageAction action) throws IOException {
+        long[] onThread = STAGE_NANOS_ON_THREAD.get();
+        long nestedBefore = onThread[0];
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            finish(stage, onThread, nestedBefore, System.nanoTime() - start);
+        }
+    }
+
+    private void finish(String stage, long[] onThread, long nestedBefore, long elapsed) {
+        record(stage, elapsed - (onThread[0] - nestedBefore));
+        onThread[0] = nestedBefore + elapsed;
+    }
+
+    public synchronized void record(String stage, long nanos) {
+        stageNanos.merge(stage, nanos, Long::sum);
+    }
+
+    /**
+     * Attaches a descriptive attribute (e.g. template ID) to the log line
+     */
+    public synchronized void tag(String key, String value) {
+        tags.put(key, value);
+    }
+
+    public synchronized void addOutputBytes(long bytes) {
+        outputBytes = Math.max(0, outputBytes) + bytes;
+    }
+
+    /**
+     * Adds the time since the response was ready to the serialize stage; called once the body has been written
+     */
+    public synchronized void recordResponseWritten() {
+        if (responseReadyNanos != 0) {
+            record("serialize", System.nanoTime() - responseReadyNanos);
+            responseReadyNanos = 0;
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return stageNanos.isEmpty();
+    }
+
+    public long totalNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Formats the recorded stages as a Server-Timing header value, e.g.
+     * template;dur=12.3, convert;dur=250.1, serialize;dur=0.4, total;dur=265.2, bytes;desc="48213"
+     *
+     * Called when the response is ready; writing the body from here on counts as serialize.
+     */
+    public synchronized String toServerTimingHeader() {
+        responseReadyNanos = System.nanoTime();
+        StringBuilder header = new StringBuilder();
+        for (Map.Entry<String, Long> stage : stageNanos.entrySet()) {
+            header.append(stage.getKey()).append(";dur=").append(millis(stage.getValue())).append(", ");
+        }
+        header.append("total;dur=").append(millis(totalNanos()));
+        if (outputBytes >= 0) {
+            header.append(", bytes;desc=\"").append(outputBytes).append('"');
+        }
+        return header.toString();
+    }
+
+    /**
+     * Formats the recorded stages as key=value pairs for the per-request log line
+     */
+    public synchronized String toLogFields() {
+        StringBuilder line = new StringBuilder();
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            line.append(' ').append(tag.getKey()).append('=').append(tag.getValue());
+        }
+        for (Map.Entry<String, Long> stage : stageNanos.entrySet()) {
+            line.append(' ').append(stage.getKey()).append("_ms=").append(millis(stage.getValue()));
+        }
+        line.append(" total_ms=").append(millis(totalNanos()));
+        if (outputBytes >= 0) {
+            line.append(" bytes=").append(outputBytes);
+        }
+        return line.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
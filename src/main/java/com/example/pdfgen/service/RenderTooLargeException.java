@@ -0,0 +1,26 @@
+package com.example.pdfgen.service;
+
+/**
+ * Thrown by {@link RenderCostEstimator} when a profile would lay out to more pages than allowed
+ * Controllers translate this into 413 Payload Too Large; it is an IllegalArgumentException so callers
+ * that do not distinguish it treat it as invalid input
+ */
+public class RenderTooLargeException extends IllegalArgumentException {
+
+    private final int estimatedPages;
+    private final int maxPages;
+
+    public RenderTooLargeException(int estimatedPages, int maxPages) {
+        super("Profile would render to about " + estimatedPages + " pages, more than the limit of " + maxPages);
+        this.estimatedPages = estimatedPages;
+        this.maxPages = maxPages;
+    }
+
+    public int getEstimatedPages() {
+        return estimatedPages;
+    }
+
+    public int getMaxPages() {
+        return maxPages;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.pdfgen.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Entry point of an out-of-process render worker, started by {@link RenderWorkerPool}
+ *
+ * Reads conversion jobs from stdin and answers each on stdout, one at a time. Frames are
+ * length-prefixed: a job is [int maxPages][int length][UTF-8 HTML], where maxPages is 0 for a plain
+ * conversion or the page count to fit the document to; a reply is [byte status][long heap][fit]
+ * [int length][PDF or UTF-8 error message], where heap is the heap in use after the worker's last GC and
+ * fit, present only in successful replies to fit jobs, is [float scale][int pages][boolean fitted]
+ * [int iterations][long measureNanos]. The worker exits when stdin is closed. Logging goes to stderr so
+ * stdout carries only replies.
+ */
+public final class RenderWorker {
+
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_ERROR = 1;
+
+    private RenderWorker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        DataOutputStream replies = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        System.setOut(System.err);
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        PdfGeneratorService pdfGeneratorService = new PdfGeneratorService();
+        DataInputStream jobs = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream(256 * 1024);
+
+        while (true) {
+            int maxPages;
+            byte[] html;
+            try {
+                maxPages = jobs.readInt();
+                html = readFrame(jobs);
+            } catch (EOFException e) {
+                // The pool closed our stdin: recycled or shutting down
+                return;
+            }
+
+            pdf.reset();
+            byte status;
+            byte[] payload;
+            PageFit fit = null;
+            try {
+                String htmlContent = new String(html, StandardCharsets.UTF_8);
+                if (maxPages > 0) {
+                    fit = pdfGeneratorService.generateFittedPdfToStream(
+                            writer -> writer.write(htmlContent), pdf, maxPages, RenderDeadline.none(), null);
+                } else {
+                    pdfGeneratorService.generatePdfToStream(htmlContent, pdf);
+                }
+                status = STATUS_OK;
+                payload = pdf.toByteArray();
+            } catch (Exception e) {
+                status = STATUS_ERROR;
+                payload = String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8);
+            }
+            html = null;
+
+            replies.writeByte(status);
+            replies.writeLong(heapUsedAfterGc());
+            if (fit != null) {
+                replies.writeFloat(fit.getScale());
+                replies.writeInt(fit.getPageCount());
+                replies.writeBoolean(fit.isFitted());
+                replies.writeInt(fit.getIterations());
+                replies.writeLong(fit.getMeasureNanos());
+            }
+            replies.writeInt(payload.length);
+            replies.write(payload);
+            replies.flush();
+        }
+    }
+
+    static byte[] readFrame(DataInputStream in) throws IOException {
+        byte[] frame = new byte[in.readInt()];
+        in.readFully(frame);
+        return frame;
+    }
+
+    /**
+     * Heap occupied right after the last collection, summed over heap pools; unlike the current
+     * usage this does not include garbage, so it grows only when memory is actually retained
+     */
+    static long heapUsedAfterGc() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && afterGc != null) {
+                used += afterGc.getUsed();
+            }
+        }
+        return used;
+    }
+}
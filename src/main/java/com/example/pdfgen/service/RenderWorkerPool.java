@@ -0,0 +1,482 @@
+package com.example.pdfgen.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.ApplicationHome;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of pre-started worker JVMs that convert very large documents outside the API's heap
+ *
+ * When enabled (render.workers.enabled), {@link PdfGeneratorService} sends HTML of at least
+ * render.workers.threshold-bytes to a worker over its stdin/stdout (see {@link RenderWorker}) instead
+ * of converting it in-process, so the garbage of a huge render is collected in a separate, small heap
+ * and cannot pause unrelated requests. Each worker is limited to render.workers.max-heap and exits on
+ * OutOfMemoryError; a worker that dies fails only its own job and is replaced. Workers are recycled
+ * after render.workers.max-jobs jobs or once their heap after GC exceeds render.workers.recycle-heap-bytes.
+ * A job past its deadline or cancelled kills its worker. Replacements are started on a background thread,
+ * retried with backoff if the JVM cannot be launched, so a request never waits for or fails on a new
+ * worker other than its own. Thread-safe.
+ */
+@Component
+@Slf4j
+public class RenderWorkerPool {
+
+    private static final String LAUNCHER = "org.springframework.boot.loader.launch.PropertiesLauncher";
+    private static final int MAX_REPLY_BYTES = 1024 * 1024 * 1024;
+    private static final int COPY_CHUNK_BYTES = 64 * 1024;
+    private static final long MIN_RESPAWN_DELAY_MS = 100;
+    private static final long MAX_RESPAWN_DELAY_MS = 30_000;
+
+    private final boolean enabled;
+    private final int workerCount;
+    private final long thresholdBytes;
+    private final int maxJobs;
+    private final long recycleHeapBytes;
+    private final String maxHeap;
+    private final long acquireTimeoutMs;
+
+    private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+    private final List<Worker> all = new ArrayList<>();
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "render-worker-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ScheduledExecutorService spawner = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "render-worker-spawner");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong jobs = new AtomicLong();
+    private final AtomicLong recycled = new AtomicLong();
+    private final AtomicLong crashed = new AtomicLong();
+    private final AtomicLong spawnFailures = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * A worker process and the streams the pool talks to it over
+     */
+    private static final class Worker {
+        private final Process process;
+        private final DataOutputStream jobs;
+        private final DataInputStream replies;
+        private int jobCount;
+        private long heapUsed;
+
+        Worker(Process process) {
+            this.process = process;
+            this.jobs = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            this.replies = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        }
+    }
+
+    public RenderWorkerPool(
+            @Value("${render.workers.enabled:false}") boolean enabled,
+            @Value("${render.workers.count:2}") int workerCount,
+            @Value("${render.workers.threshold-bytes:2097152}") long thresholdBytes,
+            @Value("${render.workers.max-jobs:200}") int maxJobs,
+            @Value("${render.workers.recycle-heap-bytes:268435456}") long recycleHeapBytes,
+            @Value("${render.workers.max-heap:512m}") String maxHeap,
+            @Value("${render.workers.acquire-timeout-ms:30000}") long acquireTimeoutMs) {
+        this.enabled = enabled;
+        this.workerCount = workerCount;
+        this.thresholdBytes = thresholdBytes;
+        this.maxJobs = maxJobs;
+        this.recycleHeapBytes = recycleHeapBytes;
+        this.maxHeap = maxHeap;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    /**
+     * Starts the workers so they have warmed up before the first large document arrives
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < workerCount; i++) {
+            idle.add(spawn());
+        }
+        log.info("Render worker pool started: workers={}, thresholdBytes={}, maxJobs={}, recycleHeapBytes={}, maxHeap={}",
+                workerCount, thresholdBytes, maxJobs, recycleHeapBytes, maxHeap);
+    }
+
+    /**
+     * Whether HTML of this size should be converted by a worker
+     */
+    public boolean accepts(long htmlBytes) {
+        return isAvailable() && htmlBytes >= thresholdBytes;
+    }
+
+    /**
+     * Whether the pool is enabled and not shut down, i.e. can take a job of any size
+     */
+    public boolean isAvailable() {
+        return enabled && !closed;
+    }
+
+    /**
+     * Converts the HTML in a worker JVM and streams the PDF to the output stream as the worker's reply arrives
+     *
+     * If the worker dies mid-reply, part of the PDF may already have been written.
+     *
+     * @param html         UTF-8 HTML
+     * @param length       Number of bytes of html to send
+     * @param outputStream The output stream where the PDF should be written
+     * @param deadline     Request deadline; the worker is killed once it passes or the request is cancelled
+     * @throws IOException              If the conversion fails, the worker dies, or no worker becomes free in time
+     * @throws RenderCancelledException If the deadline passes or the request is cancelled mid-render
+     */
+    public void convert(byte[] html, int length, OutputStream outputStream, RenderDeadline deadline) throws IOException {
+        run(html, length, 0, outputStream, deadline);
+    }
+
+    /**
+     * Fits the HTML to the page count in a worker JVM, see {@link PdfGeneratorService#generateFittedPdfToStream},
+     * and streams the PDF to the output stream
+     *
+     * @param html         UTF-8 HTML
+     * @param length       Number of bytes of html to send
+     * @param maxPages     Page count the content should fit on, at least 1
+     * @param outputStream The output stream where the PDF should be written
+     * @param deadline     Request deadline; the worker is killed once it passes or the request is cancelled
+     * @return The worker's fit result
+     * @throws IOException              If the conversion fails, the worker dies, or no worker becomes free in time
+     * @throws RenderCancelledException If the deadline passes or the request is cancelled mid-render
+     */
+    public PageFit convertFitted(byte[] html, int length, int maxPages, OutputStream outputStream,
+                                 RenderDeadline deadline) throws IOException {
+        if (maxPages < 1) {
+            throw new IllegalArgumentException("Page count to fit must be at least 1, got " + maxPages);
+        }
+        return run(html, length, maxPages, outputStream, deadline);
+    }
+
+    /**
+     * Sends one job to a worker and streams back its reply
+     *
+     * @param maxPages 0 for a plain conversion, otherwise the page count to fit to
+     * @return The fit result for a fit job, null for a plain conversion
+     */
+    private PageFit run(byte[] html, int length, int maxPages, OutputStream outputStream,
+                        RenderDeadline deadline) throws IOException {
+        deadline.checkpoint("convert-worker");
+        Worker worker = acquire(deadline);
+        jobs.incrementAndGet();
+
+        // Kills the worker if the request is abandoned, which unblocks the read below
+        ScheduledFuture<?> guard = watchdog.scheduleWithFixedDelay(() -> {
+            if (deadline.isCancelled() || deadline.isExpired()) {
+                worker.process.destroyForcibly();
+            }
+        }, 50, 50, TimeUnit.MILLISECONDS);
+
+        boolean healthy = false;
+        try {
+            worker.jobs.writeInt(maxPages);
+            worker.jobs.writeInt(length);
+            worker.jobs.write(html, 0, length);
+            worker.jobs.flush();
+
+            byte status = worker.replies.readByte();
+            worker.heapUsed = worker.replies.readLong();
+            if (status != RenderWorker.STATUS_OK && status != RenderWorker.STATUS_ERROR) {
+                // Something other than the worker loop wrote to its stdout
+                throw new IOException("Corrupt reply from render worker");
+            }
+            PageFit fit = null;
+            if (status == RenderWorker.STATUS_OK && maxPages > 0) {
+                fit = new PageFit(worker.replies.readFloat(), worker.replies.readInt(), worker.replies.readBoolean(),
+                        worker.replies.readInt(), worker.replies.readLong());
+            }
+            int replyLength = worker.replies.readInt();
+            if (replyLength < 0 || replyLength > MAX_REPLY_BYTES) {
+                // Something other than the worker loop wrote to its stdout
+                throw new IOException("Corrupt reply from render worker");
+            }
+            if (status != RenderWorker.STATUS_OK) {
+                byte[] message = worker.replies.readNBytes(replyLength);
+                if (message.length < replyLength) {
+                    throw new EOFException("Render worker exited mid-reply");
+                }
+                worker.jobCount++;
+                healthy = true;
+                throw new IOException("Worker conversion failed: " + new String(message, StandardCharsets.UTF_8));
+            }
+
+            IOException writeFailure = copyReply(worker, replyLength, outputStream);
+            worker.jobCount++;
+            healthy = true;
+            if (writeFailure != null) {
+                throw writeFailure;
+            }
+            return fit;
+
+        } catch (IOException e) {
+            if (healthy) {
+                throw e;
+            }
+            deadline.checkpoint("convert-worker");
+            crashed.incrementAndGet();
+            log.error("Render worker pid={} died during a conversion: {}", worker.process.pid(), e.getMessage());
+            throw new IOException("Render worker died during the conversion", e);
+        } finally {
+            guard.cancel(false);
+            release(worker, healthy);
+        }
+    }
+
+    /**
+     * Copies a reply of the given length from the worker to the output stream in fixed-size chunks
+     *
+     * A failure writing to the output stream (e.g. the client went away) does not stop the copy: the rest
+     * of the reply is read and discarded so the worker can take the next job, and the failure is returned.
+     *
+     * @return The exception writing to the output stream, or null if the whole reply was written
+     * @throws IOException If reading from the worker fails
+     */
+    private static IOException copyReply(Worker worker, int replyLength, OutputStream outputStream) throws IOException {
+        byte[] chunk = new byte[Math.min(COPY_CHUNK_BYTES, Math.max(replyLength, 1))];
+        IOException writeFailure = null;
+        int remaining = replyLength;
+        while (remaining > 0) {
+            int read = worker.replies.read(chunk, 0, Math.min(chunk.length, remaining));
+            if (read < 0) {
+                throw new EOFException("Render worker exited mid-reply");
+            }
+            remaining -= read;
+            if (writeFailure == null) {
+                try {
+                    outputStream.write(chunk, 0, read);
+                } catch (IOException e) {
+                    writeFailure = e;
+                }
+            }
+        }
+        return writeFailure;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getIdleWorkers() {
+        return idle.size();
+    }
+
+    public long getJobs() {
+        return jobs.get();
+    }
+
+    public long getRecycled() {
+        return recycled.get();
+    }
+
+    public long getCrashed() {
+        return crashed.get();
+    }
+
+    public long getSpawnFailures() {
+        return spawnFailures.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        watchdog.shutdownNow();
+        spawner.shutdownNow();
+        synchronized (all) {
+            for (Worker worker : all) {
+                stop(worker);
+            }
+            all.clear();
+        }
+        idle.clear();
+    }
+
+    private Worker acquire(RenderDeadline deadline) throws IOException {
+        long waitMs = Math.min(acquireTimeoutMs, TimeUnit.NANOSECONDS.toMillis(deadline.remainingNanos()));
+        long waitUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs);
+        while (true) {
+            Worker worker;
+            try {
+                worker = idle.poll(Math.max(0, waitUntil - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for a render worker", e);
+            }
+            if (worker == null) {
+                deadline.checkpoint("convert-worker");
+                throw new IOException("No render worker became free within " + waitMs + "ms");
+            }
+            if (worker.process.isAlive()) {
+                return worker;
+            }
+            // Died while idle, e.g. killed from outside; wait for another one
+            crashed.incrementAndGet();
+            replaceLater(worker);
+        }
+    }
+
+    /**
+     * Returns the worker to the idle queue, or hands it to the spawner to be replaced. Never throws.
+     */
+    private void release(Worker worker, boolean healthy) {
+        if (closed) {
+            stop(worker);
+            return;
+        }
+        if (!healthy || !worker.process.isAlive()) {
+            replaceLater(worker);
+        } else if (worker.jobCount >= maxJobs || worker.heapUsed > recycleHeapBytes) {
+            log.debug("Recycling render worker pid={}: jobs={}, heapUsed={}", worker.process.pid(), worker.jobCount, worker.heapUsed);
+            recycled.incrementAndGet();
+            replaceLater(worker);
+        } else {
+            idle.add(worker);
+        }
+    }
+
+    /**
+     * Stops the worker and starts a new one on the spawner thread
+     */
+    private void replaceLater(Worker worker) {
+        try {
+            spawner.execute(() -> {
+                stop(worker);
+                synchronized (all) {
+                    all.remove(worker);
+                }
+                respawn(MIN_RESPAWN_DELAY_MS);
+            });
+        } catch (RejectedExecutionException e) {
+            // Shut down; shutdown() stops every worker still in the pool
+            worker.process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Starts a worker and adds it to the idle queue, retrying with exponential backoff if it cannot be launched
+     */
+    private void respawn(long retryDelayMs) {
+        if (closed) {
+            return;
+        }
+        try {
+            idle.add(spawn());
+        } catch (IOException | RuntimeException e) {
+            if (closed) {
+                return;
+            }
+            spawnFailures.incrementAndGet();
+            log.error("Could not start a render worker, retrying in {}ms: {}", retryDelayMs, e.getMessage());
+            long nextDelayMs = Math.min(retryDelayMs * 2, MAX_RESPAWN_DELAY_MS);
+            try {
+                spawner.schedule(() -> respawn(nextDelayMs), retryDelayMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException shutDown) {
+                // Pool shut down meanwhile
+            }
+        }
+    }
+
+    private Worker spawn() throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xmx" + maxHeap);
+        // A small heap with a single-threaded collector keeps each worker cheap
+        command.add("-XX:+UseSerialGC");
+        command.add("-XX:+ExitOnOutOfMemoryError");
+        // The JVM's own messages (e.g. the OutOfMemoryError report) would otherwise corrupt the reply stream
+        command.add("-XX:+DisplayVMOutputToStderr");
+        command.add("-Djava.awt.headless=true");
+
+        File source = new ApplicationHome(RenderWorkerPool.class).getSource();
+        if (source != null && source.isFile() && source.getName().endsWith(".jar")) {
+            // Packaged application: classes and dependencies are nested in the jar
+            command.add("-Dloader.main=" + RenderWorker.class.getName());
+            command.add("-cp");
+            command.add(source.getAbsolutePath());
+            command.add(LAUNCHER);
+        } else {
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(RenderWorker.class.getName());
+        }
+
+        Process process = new ProcessBuilder(command).start();
+        forwardLog(process);
+        Worker worker = new Worker(process);
+        synchronized (all) {
+            if (closed) {
+                stop(worker);
+                throw new IOException("Render worker pool is shut down");
+            }
+            all.add(worker);
+        }
+        log.debug("Render worker started: pid={}", process.pid());
+        return worker;
+    }
+
+    /**
+     * Copies the worker's stderr (its log output, or the JVM's own OutOfMemoryError report) into this log
+     */
+    private static void forwardLog(Process process) {
+        Thread forwarder = new Thread(() -> {
+            try (BufferedReader lines = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    log.warn("Render worker pid={}: {}", process.pid(), line);
+                }
+            } catch (IOException e) {
+                // Worker exited
+            }
+        }, "render-worker-log-" + process.pid());
+        forwarder.setDaemon(true);
+        forwarder.start();
+    }
+
+    private static void stop(Worker worker) {
+        try {
+            // Closing stdin lets the worker exit on its own
+            worker.jobs.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+        try {
+            if (!worker.process.waitFor(2, TimeUnit.SECONDS)) {
+                worker.process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            worker.process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
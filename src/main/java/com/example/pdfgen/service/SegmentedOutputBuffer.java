@@ -0,0 +1,195 @@
+package com.example.pdfgen.service;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Output stream over fixed-size segments borrowed from an {@link OutputBufferPool}
+ *
+ * Unlike ByteArrayOutputStream it never copies on growth and never builds one large array: the
+ * document is read back segment by segment. Segments go back to the pool when {@link #release()}
+ * is called or when the stream from {@link #toInputStream()} is closed. Not thread-safe.
+ */
+public final class SegmentedOutputBuffer extends OutputStream {
+
+    private final OutputBufferPool pool;
+    private final List<byte[]> segments = new ArrayList<>();
+    private byte[] current;
+    private int position;
+    private long size;
+    private boolean released;
+
+    SegmentedOutputBuffer(OutputBufferPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void write(int b) {
+        if (current == null || position == current.length) {
+            nextSegment();
+        }
+        current[position++] = (byte) b;
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        while (len > 0) {
+            if (current == null || position == current.length) {
+                nextSegment();
+            }
+            int chunk = Math.min(len, current.length - position);
+            System.arraycopy(b, off, current, position, chunk);
+            position += chunk;
+            off += chunk;
+            len -= chunk;
+            size += chunk;
+        }
+    }
+
+    private void nextSegment() {
+        if (released) {
+            throw new IllegalStateException("Buffer already released");
+        }
+        current = pool.takeSegment();
+        segments.add(current);
+        position = 0;
+    }
+
+    /**
+     * Number of bytes written
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Writes the contents to the stream segment by segment
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        long remaining = size;
+        for (byte[] segment : segments) {
+            int length = (int) Math.min(segment.length, remaining);
+            out.write(segment, 0, length);
+            remaining -= length;
+        }
+    }
+
+    /**
+     * Reads the contents without copying them; closing the stream releases the buffer
+     */
+    public InputStream toInputStream() {
+        return new SegmentInputStream();
+    }
+
+    /**
+     * Exposes the contents as a response body with an exact content length; the buffer is released once written
+     */
+    public Resource toResource() {
+        return new AbstractResource() {
+            @Override
+            public String getDescription() {
+                return "Rendered document [" + size + " bytes]";
+            }
+
+            @Override
+            public long contentLength() {
+                return size;
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                return toInputStream();
+            }
+        };
+    }
+
+    /**
+     * Returns the segments to the pool; the buffer must not be used afterwards
+     */
+    public void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        for (byte[] segment : segments) {
+            pool.returnSegment(segment);
+        }
+        segments.clear();
+        current = null;
+    }
+
+    private final class SegmentInputStream extends InputStream {
+        private int segmentIndex;
+        private int segmentPosition;
+        private long remaining = size;
+
+        @Override
+        public int read() {
+            if (remaining == 0) {
+                return -1;
+            }
+            byte[] segment = advance();
+            remaining--;
+            return segment[segmentPosition++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (remaining == 0) {
+                return -1;
+            }
+            byte[] segment = advance();
+            int chunk = (int) Math.min(Math.min(len, segment.length - segmentPosition), remaining);
+            System.arraycopy(segment, segmentPosition, b, off, chunk);
+            segmentPosition += chunk;
+            remaining -= chunk;
+            return chunk;
+        }
+
+        /**
+         * Writes the unread segments straight to the target, without an intermediate buffer
+         */
+        @Override
+        public long transferTo(OutputStream out) throws IOException {
+            long transferred = 0;
+            while (remaining > 0) {
+                byte[] segment = advance();
+                int chunk = (int) Math.min(segment.length - segmentPosition, remaining);
+                out.write(segment, segmentPosition, chunk);
+                segmentPosition += chunk;
+                remaining -= chunk;
+                transferred += chunk;
+            }
+            return transferred;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, remaining);
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+
+        private byte[] advance() {
+            byte[] segment = segments.get(segmentIndex);
+            if (segmentPosition == segment.length) {
+                segment = segments.get(++segmentIndex);
+                segmentPosition = 0;
+            }
+            return segment;
+        }
+    }
+}
@@ -1,32 +1,89 @@
 package com.example.pdfgen.service;
 
+import com.example.pdfgen.jfr.TemplateProcessingEvent;
 import com.example.pdfgen.model.CandidateProfile;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
+import org.thymeleaf.ITemplateEngine;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
 import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Locale;
 
 /**
  * Service class for processing HTML templates using Thymeleaf
+ *
+ * Two engines are supported, selected with render.template.engine:
+ *   standalone - a plain TemplateEngine evaluating expressions with OGNL (default, also used by the CLI)
+ *   spring     - the Spring Boot configured SpringTemplateEngine, honouring spring.thymeleaf.*, with
+ *                expressions evaluated by SpEL and compiled to bytecode once they are hot
  */
 @Service
 @Slf4j
 public class TemplateService {
-    private final TemplateEngine templateEngine;
+    private final ITemplateEngine templateEngine;
+    private final PhotoCache photoCache;
 
     public TemplateService() {
-        this.templateEngine = createTemplateEngine();
-        log.info("TemplateService initialized");
+        this(createTemplateEngine());
+    }
+
+    /**
+     * Uses the given engine, e.g. a SpringTemplateEngine configured by the caller
+     */
+    public TemplateService(ITemplateEngine templateEngine) {
+        this(templateEngine, new PhotoCache());
+    }
+
+    public TemplateService(ITemplateEngine templateEngine, PhotoCache photoCache) {
+        this.templateEngine = templateEngine;
+        this.photoCache = photoCache;
+        log.info("TemplateService initialized with {}", templateEngine.getClass().getSimpleName());
+    }
+
+    @Autowired
+    public TemplateService(@Value("${render.template.engine:standalone}") String engineMode,
+                           ObjectProvider<SpringTemplateEngine> springTemplateEngine,
+                           Environment environment,
+                           PhotoCache photoCache) {
+        this(selectTemplateEngine(engineMode, springTemplateEngine, environment), photoCache);
+    }
+
+    private static ITemplateEngine selectTemplateEngine(String engineMode,
+                                                        ObjectProvider<SpringTemplateEngine> springTemplateEngine,
+                                                        Environment environment) {
+        switch (engineMode) {
+            case "standalone":
+                return createTemplateEngine();
+            case "spring":
+                SpringTemplateEngine engine = springTemplateEngine.getIfAvailable();
+                if (engine == null) {
+                    throw new IllegalStateException("render.template.engine=spring but no SpringTemplateEngine is configured");
+                }
+                // Boot leaves the compiler off by default; this mode exists to turn it on unless explicitly disabled
+                engine.setEnableSpringELCompiler(
+                        environment.getProperty("spring.thymeleaf.enable-spring-el-compiler", Boolean.class, true));
+                return engine;
+            default:
+                throw new IllegalArgumentException("Unknown render.template.engine: " + engineMode);
+        }
     }
 
     /**
      * Configures and creates a Thymeleaf template engine
      * Thread-safe with caching enabled for production use
      */
-    private TemplateEngine createTemplateEngine() {
+    private static TemplateEngine createTemplateEngine() {
         ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
         templateResolver.setPrefix("/templates/");
         templateResolver.setSuffix(".html");
@@ -50,6 +107,62 @@ public class TemplateService {
      * @return Processed HTML string with data injected
      */
     public String processTemplate(String templateName, CandidateProfile candidateProfile) {
+        return processTemplate(templateName, candidateProfile, RenderDeadline.none());
+    }
+
+    /**
+     * Processes a template with the provided candidate profile data, honouring the request deadline
+     *
+     * @param templateName     The name of the template file (without extension)
+     * @param candidateProfile The candidate profile data to inject into the template
+     * @param deadline         Request deadline, checked before template processing starts
+     * @return Processed HTML string with data injected
+     */
+    public String processTemplate(String templateName, CandidateProfile candidateProfile, RenderDeadline deadline) {
+        deadline.checkpoint("template");
+        return process(templateName, profileContext(candidateProfile));
+    }
+
+    /**
+     * Processes a template with the provided candidate profile data, writing the HTML to a writer
+     * Avoids building the document as a String when the consumer can read a stream
+     *
+     * @param templateName     The name of the template file (without extension)
+     * @param candidateProfile The candidate profile data to inject into the template
+     * @param deadline         Request deadline, checked before template processing starts
+     * @param writer           Destination for the processed HTML
+     */
+    public void processTemplate(String templateName, CandidateProfile candidateProfile, RenderDeadline deadline,
+                                Writer writer) {
+        deadline.checkpoint("template");
+        process(templateName, profileContext(candidateProfile), writer);
+    }
+
+    /**
+     * Binds the candidate profile into a template context once, for rendering into several templates
+     * The context is only read during processing, so renders running in parallel may share it
+     *
+     * @param candidateProfile The candidate profile data to inject into the templates
+     * @return Context to pass to {@link #processTemplate(String, IContext, RenderDeadline, Writer)}
+     */
+    public IContext bindProfile(CandidateProfile candidateProfile) {
+        return profileContext(candidateProfile);
+    }
+
+    /**
+     * Processes a template with an already bound profile context, writing the HTML to a writer
+     *
+     * @param templateName   The name of the template file (without extension)
+     * @param profileContext Context from {@link #bindProfile(CandidateProfile)}
+     * @param deadline       Request deadline, checked before template processing starts
+     * @param writer         Destination for the processed HTML
+     */
+    public void processTemplate(String templateName, IContext profileContext, RenderDeadline deadline, Writer writer) {
+        deadline.checkpoint("template");
+        process(templateName, profileContext, writer);
+    }
+
+    private Context profileContext(CandidateProfile candidateProfile) {
         Context context = new Context(Locale.getDefault());
 
         // Add all profile fields to the context
@@ -62,9 +175,10 @@ public class TemplateService {
         context.setVariable("experience", candidateProfile.getExperience());
         context.setVariable("education", candidateProfile.getEducation());
         context.setVariable("certifications", candidateProfile.getCertifications());
-
-        // Process the template
-        return templateEngine.process(templateName, context);
+        // Downscaled once per distinct image; templates show it only when present
+        String photo = candidateProfile.getPhoto();
+        context.setVariable("photo", photo == null || photo.isBlank() ? null : photoCache.get(photo).getDataUri());
+        return context;
     }
 
     /**
@@ -77,6 +191,38 @@ public class TemplateService {
      * @return Processed HTML string with data injected
      */
     public String processCoverLetterTemplate(String templateName, com.example.pdfgen.model.CoverLetter coverLetter) {
+        return processCoverLetterTemplate(templateName, coverLetter, RenderDeadline.none());
+    }
+
+    /**
+     * Processes a cover letter template with the provided data, honouring the request deadline
+     *
+     * @param templateName The name of the cover letter template file (without extension)
+     * @param coverLetter  The cover letter data to inject into the template
+     * @param deadline     Request deadline, checked before template processing starts
+     * @return Processed HTML string with data injected
+     */
+    public String processCoverLetterTemplate(String templateName, com.example.pdfgen.model.CoverLetter coverLetter,
+                                             RenderDeadline deadline) {
+        deadline.checkpoint("template");
+        return process(templateName, coverLetterContext(coverLetter));
+    }
+
+    /**
+     * Processes a cover letter template with the provided data, writing the HTML to a writer
+     *
+     * @param templateName The name of the cover letter template file (without extension)
+     * @param coverLetter  The cover letter data to inject into the template
+     * @param deadline     Request deadline, checked before template processing starts
+     * @param writer       Destination for the processed HTML
+     */
+    public void processCoverLetterTemplate(String templateName, com.example.pdfgen.model.CoverLetter coverLetter,
+                                           RenderDeadline deadline, Writer writer) {
+        deadline.checkpoint("template");
+        process(templateName, coverLetterContext(coverLetter), writer);
+    }
+
+    private Context coverLetterContext(com.example.pdfgen.model.CoverLetter coverLetter) {
         Context context = new Context(Locale.getDefault());
 
         // Add header fields (candidate info)
@@ -100,7 +246,61 @@ public class TemplateService {
         context.setVariable("valediction", coverLetter.getClosing() != null ? coverLetter.getClosing().getValediction() : "Sincerely,");
         context.setVariable("signature", coverLetter.getClosing() != null ? coverLetter.getClosing().getName() : coverLetter.getHeader().getName());
 
-        // Process the template
-        return templateEngine.process(templateName, context);
+        return context;
+    }
+
+    /**
+     * Runs the template engine, recording a JFR event for the processing stage
+     */
+    private String process(String templateName, Context context) {
+        TemplateProcessingEvent event = new TemplateProcessingEvent();
+        event.start();
+        String html = templateEngine.process(templateName, context);
+        event.templateId = templateName;
+        event.htmlLength = html.length();
+        event.finish();
+        return html;
+    }
+
+    /**
+     * Runs the template engine into a writer, recording a JFR event for the processing stage
+     */
+    private void process(String templateName, IContext context, Writer writer) {
+        TemplateProcessingEvent event = new TemplateProcessingEvent();
+        event.start();
+        CountingWriter countingWriter = new CountingWriter(writer);
+        templateEngine.process(templateName, context, countingWriter);
+        event.templateId = templateName;
+        event.htmlLength = countingWriter.count;
+        event.finish();
+    }
+
+    /**
+     * Counts characters passed through so the JFR event can report the HTML length
+     */
+    private static final class CountingWriter extends FilterWriter {
+        private int count;
+
+        CountingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            out.write(c);
+            count++;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            out.write(cbuf, off, len);
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            out.write(str, off, len);
+            count += len;
+        }
     }
-}
\ No newline at end of file
+}
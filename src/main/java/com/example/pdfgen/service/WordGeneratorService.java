@@ -1,5 +1,6 @@
 package com.example.pdfgen.service;
 
+import com.example.pdfgen.jfr.DocxBuildEvent;
 import com.example.pdfgen.model.CandidateProfile;
 import com.example.pdfgen.model.CoverLetter;
 import com.example.pdfgen.model.Education;
@@ -7,10 +8,15 @@ import com.example.pdfgen.model.Experience;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.xwpf.usermodel.*;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.*;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.util.Units;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigInteger;
 
 /**
@@ -20,6 +26,22 @@ import java.math.BigInteger;
 @Slf4j
 public class WordGeneratorService {
 
+    /**
+     * Height of the profile photo in the resume header
+     */
+    private static final int PHOTO_HEIGHT_POINTS = 80;
+
+    private final PhotoCache photoCache;
+
+    public WordGeneratorService() {
+        this(new PhotoCache());
+    }
+
+    @Autowired
+    public WordGeneratorService(PhotoCache photoCache) {
+        this.photoCache = photoCache;
+    }
+
     /**
      * Strip HTML tags from text and convert to plain text
      * Handles common HTML entities and formatting
@@ -61,135 +83,35 @@ public class WordGeneratorService {
     /**
      * Generate resume Word document from candidate profile
      */
-    public void generateResumeDocx(CandidateProfile profile, ByteArrayOutputStream outputStream) throws IOException {
+    public void generateResumeDocx(CandidateProfile profile, OutputStream outputStream) throws IOException {
+        generateResumeDocx(profile, outputStream, RenderDeadline.none());
+    }
+
+    /**
+     * Generate resume Word document from candidate profile, honouring the request deadline
+     * The deadline is checked between sections and experience entries and before serialization
+     */
+    public void generateResumeDocx(CandidateProfile profile, OutputStream outputStream,
+                                   RenderDeadline deadline) throws IOException {
         log.debug("Generating resume DOCX for: {}", profile.getName());
+        deadline.checkpoint("docx-build");
 
+        DocxBuildEvent buildEvent = new DocxBuildEvent();
+        buildEvent.start();
         XWPFDocument document = new XWPFDocument();
 
         try {
-            // Header with name
-            XWPFParagraph namePara = document.createParagraph();
-            namePara.setAlignment(ParagraphAlignment.CENTER);
-            XWPFRun nameRun = namePara.createRun();
-            nameRun.setText(profile.getName());
-            nameRun.setBold(true);
-            nameRun.setFontSize(24);
-            nameRun.setFontFamily("Arial");
-
-            // Contact information
-            XWPFParagraph contactPara = document.createParagraph();
-            contactPara.setAlignment(ParagraphAlignment.CENTER);
-            XWPFRun contactRun = contactPara.createRun();
-            contactRun.setText(profile.getEmail() + " | " + profile.getPhone() + " | " + profile.getLocation());
-            contactRun.setFontSize(11);
-            contactRun.setFontFamily("Arial");
-
-            addSpacing(document);
+            writeResume(document, profile, deadline);
 
-            // Professional Summary
-            if (profile.getSummary() != null && !profile.getSummary().isEmpty()) {
-                addSectionHeading(document, "PROFESSIONAL SUMMARY");
-                XWPFParagraph summaryPara = document.createParagraph();
-                XWPFRun summaryRun = summaryPara.createRun();
-                summaryRun.setText(stripHtml(profile.getSummary()));
-                summaryRun.setFontSize(11);
-                summaryRun.setFontFamily("Arial");
-                addSpacing(document);
-            }
-
-            // Skills
-            if (profile.getSkills() != null && !profile.getSkills().isEmpty()) {
-                addSectionHeading(document, "SKILLS");
-                XWPFParagraph skillsPara = document.createParagraph();
-                XWPFRun skillsRun = skillsPara.createRun();
-                skillsRun.setText(String.join(" • ", profile.getSkills()));
-                skillsRun.setFontSize(11);
-                skillsRun.setFontFamily("Arial");
-                addSpacing(document);
-            }
-
-            // Experience
-            if (profile.getExperience() != null && !profile.getExperience().isEmpty()) {
-                addSectionHeading(document, "PROFESSIONAL EXPERIENCE");
-                for (Experience exp : profile.getExperience()) {
-                    // Job title and company
-                    XWPFParagraph expPara = document.createParagraph();
-                    XWPFRun titleRun = expPara.createRun();
-                    titleRun.setText(exp.getTitle() + " - " + exp.getCompany());
-                    titleRun.setBold(true);
-                    titleRun.setFontSize(12);
-                    titleRun.setFontFamily("Arial");
-
-                    // Duration
-                    XWPFParagraph durPara = document.createParagraph();
-                    XWPFRun durRun = durPara.createRun();
-                    durRun.setText(exp.getDuration());
-                    durRun.setItalic(true);
-                    durRun.setFontSize(10);
-                    durRun.setFontFamily("Arial");
-
-                    // Description (strip HTML and handle bullet points)
-                    if (exp.getDescription() != null && !exp.getDescription().isEmpty()) {
-                        String cleanDescription = stripHtml(exp.getDescription());
-
-                        // Split by newlines to handle multiple bullet points
-                        String[] lines = cleanDescription.split("\n");
-                        for (String line : lines) {
-                            line = line.trim();
-                            if (!line.isEmpty()) {
-                                XWPFParagraph descPara = document.createParagraph();
-                                descPara.setIndentationLeft(720); // 0.5 inch indent
-                                XWPFRun descRun = descPara.createRun();
-                                // Add bullet if not already present
-                                if (!line.startsWith("•") && !line.startsWith("-") && !line.startsWith("*")) {
-                                    descRun.setText("• " + line);
-                                } else {
-                                    descRun.setText(line.replaceFirst("^[-*]", "•"));
-                                }
-                                descRun.setFontSize(11);
-                                descRun.setFontFamily("Arial");
-                            }
-                        }
-                    }
-                    addSpacing(document);
-                }
-            }
+            deadline.checkpoint("docx-write");
+            CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+            document.write(countingStream);
 
-            // Education
-            if (profile.getEducation() != null && !profile.getEducation().isEmpty()) {
-                addSectionHeading(document, "EDUCATION");
-                for (Education edu : profile.getEducation()) {
-                    XWPFParagraph eduPara = document.createParagraph();
-                    XWPFRun degreeRun = eduPara.createRun();
-                    degreeRun.setText(edu.getDegree() + " - " + edu.getInstitution());
-                    degreeRun.setBold(true);
-                    degreeRun.setFontSize(12);
-                    degreeRun.setFontFamily("Arial");
-
-                    XWPFParagraph gradPara = document.createParagraph();
-                    XWPFRun gradRun = gradPara.createRun();
-                    gradRun.setText(edu.getYear());
-                    gradRun.setItalic(true);
-                    gradRun.setFontSize(10);
-                    gradRun.setFontFamily("Arial");
-                    addSpacing(document);
-                }
-            }
+            buildEvent.documentType = "resume";
+            buildEvent.paragraphCount = document.getParagraphs().size();
+            buildEvent.outputBytes = countingStream.count;
+            buildEvent.finish();
 
-            // Certifications
-            if (profile.getCertifications() != null && !profile.getCertifications().isEmpty()) {
-                addSectionHeading(document, "CERTIFICATIONS");
-                for (String cert : profile.getCertifications()) {
-                    XWPFParagraph certPara = document.createParagraph();
-                    certPara.setIndentationLeft(360);
-                    XWPFRun certRun = certPara.createRun();
-                    certRun.setText("• " + cert);
-                    certRun.setFontSize(11);
-                    certRun.setFontFamily("Arial");
-                }
-            }
-
-            document.write(outputStream);
             log.debug("Resume DOCX generated successfully");
 
         } finally {
@@ -200,119 +122,327 @@ public class WordGeneratorService {
     /**
      * Generate cover letter Word document
      */
-    public void generateCoverLetterDocx(CoverLetter coverLetter, ByteArrayOutputStream outputStream) throws IOException {
+    public void generateCoverLetterDocx(CoverLetter coverLetter, OutputStream outputStream) throws IOException {
+        generateCoverLetterDocx(coverLetter, outputStream, RenderDeadline.none());
+    }
+
+    /**
+     * Generate cover letter Word document, honouring the request deadline
+     */
+    public void generateCoverLetterDocx(CoverLetter coverLetter, OutputStream outputStream,
+                                        RenderDeadline deadline) throws IOException {
         log.debug("Generating cover letter DOCX for: {}", coverLetter.getHeader().getName());
+        deadline.checkpoint("docx-build");
 
+        DocxBuildEvent buildEvent = new DocxBuildEvent();
+        buildEvent.start();
         XWPFDocument document = new XWPFDocument();
 
         try {
-            // Header - Candidate info
-            XWPFParagraph headerPara = document.createParagraph();
-            headerPara.setAlignment(ParagraphAlignment.LEFT);
-            XWPFRun nameRun = headerPara.createRun();
-            nameRun.setText(coverLetter.getHeader().getName());
-            nameRun.setBold(true);
-            nameRun.setFontSize(14);
-            nameRun.setFontFamily("Arial");
-            nameRun.addBreak();
-
-            XWPFRun contactRun = headerPara.createRun();
-            contactRun.setText(coverLetter.getHeader().getEmail());
-            contactRun.setFontSize(11);
-            contactRun.setFontFamily("Arial");
-            contactRun.addBreak();
+            writeCoverLetter(document, coverLetter);
 
-            if (coverLetter.getHeader().getPhone() != null) {
-                contactRun.setText(coverLetter.getHeader().getPhone());
-                contactRun.addBreak();
-            }
+            deadline.checkpoint("docx-write");
+            CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+            document.write(countingStream);
 
-            addSpacing(document);
+            buildEvent.documentType = "cover-letter";
+            buildEvent.paragraphCount = document.getParagraphs().size();
+            buildEvent.outputBytes = countingStream.count;
+            buildEvent.finish();
 
-            // Date
-            XWPFParagraph datePara = document.createParagraph();
-            XWPFRun dateRun = datePara.createRun();
-            dateRun.setText(coverLetter.getHeader().getDate());
-            dateRun.setFontSize(11);
-            dateRun.setFontFamily("Arial");
+            log.debug("Cover letter DOCX generated successfully");
 
-            addSpacing(document);
+        } finally {
+            document.close();
+        }
+    }
 
-            // Recipient
-            if (coverLetter.getRecipient() != null) {
-                XWPFParagraph recipientPara = document.createParagraph();
-                XWPFRun recipientRun = recipientPara.createRun();
+    /**
+     * Generate a single Word document containing the cover letter followed by the resume on a new page
+     * Styles, fonts and document parts are written once instead of once per document
+     */
+    public void generateApplicationDocx(CoverLetter coverLetter, CandidateProfile profile,
+                                        OutputStream outputStream, RenderDeadline deadline) throws IOException {
+        log.debug("Generating application DOCX for: {}", profile.getName());
+        deadline.checkpoint("docx-build");
 
-                if (coverLetter.getRecipient().getName() != null) {
-                    recipientRun.setText(coverLetter.getRecipient().getName());
-                    recipientRun.addBreak();
-                }
+        DocxBuildEvent buildEvent = new DocxBuildEvent();
+        buildEvent.start();
+        XWPFDocument document = new XWPFDocument();
 
-                if (coverLetter.getRecipient().getPosition() != null) {
-                    recipientRun.setText(coverLetter.getRecipient().getPosition());
-                    recipientRun.addBreak();
-                }
+        try {
+            writeCoverLetter(document, coverLetter);
 
-                if (coverLetter.getRecipient().getCompany() != null) {
-                    recipientRun.setText(coverLetter.getRecipient().getCompany());
-                    recipientRun.addBreak();
-                }
+            // Resume starts on its own page
+            deadline.checkpoint("docx-build");
+            document.createParagraph().setPageBreak(true);
+            writeResume(document, profile, deadline);
 
-                recipientRun.setFontSize(11);
-                recipientRun.setFontFamily("Arial");
+            deadline.checkpoint("docx-write");
+            CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+            document.write(countingStream);
 
-                addSpacing(document);
+            buildEvent.documentType = "application";
+            buildEvent.paragraphCount = document.getParagraphs().size();
+            buildEvent.outputBytes = countingStream.count;
+            buildEvent.finish();
+
+            log.debug("Application DOCX generated successfully");
+
+        } finally {
+            document.close();
+        }
+    }
+
+    /**
+     * Appends the resume sections to the document
+     */
+    private void writeResume(XWPFDocument document, CandidateProfile profile, RenderDeadline deadline) {
+        // Photo above the name, downscaled once per distinct image
+        if (profile.getPhoto() != null && !profile.getPhoto().isBlank()) {
+            PhotoCache.Photo photo = photoCache.get(profile.getPhoto());
+            XWPFParagraph photoPara = document.createParagraph();
+            photoPara.setAlignment(ParagraphAlignment.CENTER);
+            int widthPoints = Math.round((float) PHOTO_HEIGHT_POINTS * photo.getWidth() / photo.getHeight());
+            try {
+                photoPara.createRun().addPicture(new ByteArrayInputStream(photo.getJpeg()), Document.PICTURE_TYPE_JPEG,
+                        "photo.jpg", Units.toEMU(widthPoints), Units.toEMU(PHOTO_HEIGHT_POINTS));
+            } catch (InvalidFormatException | IOException e) {
+                throw new IllegalStateException("Could not add photo", e);
             }
+        }
 
-            // Salutation
-            XWPFParagraph salutationPara = document.createParagraph();
-            XWPFRun salutationRun = salutationPara.createRun();
-            salutationRun.setText(coverLetter.getSalutation());
-            salutationRun.setFontSize(11);
-            salutationRun.setFontFamily("Arial");
+        // Header with name
+        XWPFParagraph namePara = document.createParagraph();
+        namePara.setAlignment(ParagraphAlignment.CENTER);
+        XWPFRun nameRun = namePara.createRun();
+        nameRun.setText(profile.getName());
+        nameRun.setBold(true);
+        nameRun.setFontSize(24);
+        nameRun.setFontFamily("Arial");
+
+        // Contact information
+        XWPFParagraph contactPara = document.createParagraph();
+        contactPara.setAlignment(ParagraphAlignment.CENTER);
+        XWPFRun contactRun = contactPara.createRun();
+        contactRun.setText(profile.getEmail() + " | " + profile.getPhone() + " | " + profile.getLocation());
+        contactRun.setFontSize(11);
+        contactRun.setFontFamily("Arial");
+
+        addSpacing(document);
+
+        // Professional Summary
+        deadline.checkpoint("docx-build");
+        if (profile.getSummary() != null && !profile.getSummary().isEmpty()) {
+            addSectionHeading(document, "PROFESSIONAL SUMMARY");
+            XWPFParagraph summaryPara = document.createParagraph();
+            XWPFRun summaryRun = summaryPara.createRun();
+            summaryRun.setText(stripHtml(profile.getSummary()));
+            summaryRun.setFontSize(11);
+            summaryRun.setFontFamily("Arial");
+            addSpacing(document);
+        }
 
+        // Skills
+        if (profile.getSkills() != null && !profile.getSkills().isEmpty()) {
+            addSectionHeading(document, "SKILLS");
+            XWPFParagraph skillsPara = document.createParagraph();
+            XWPFRun skillsRun = skillsPara.createRun();
+            skillsRun.setText(String.join(" • ", profile.getSkills()));
+            skillsRun.setFontSize(11);
+            skillsRun.setFontFamily("Arial");
             addSpacing(document);
+        }
 
-            // Body paragraphs
-            if (coverLetter.getContent() != null) {
-                for (String paragraph : coverLetter.getContent()) {
-                    XWPFParagraph bodyPara = document.createParagraph();
-                    bodyPara.setAlignment(ParagraphAlignment.BOTH);
-                    XWPFRun bodyRun = bodyPara.createRun();
-                    bodyRun.setText(stripHtml(paragraph));
-                    bodyRun.setFontSize(11);
-                    bodyRun.setFontFamily("Arial");
-                    addSpacing(document);
+        // Experience
+        if (profile.getExperience() != null && !profile.getExperience().isEmpty()) {
+            addSectionHeading(document, "PROFESSIONAL EXPERIENCE");
+            for (Experience exp : profile.getExperience()) {
+                deadline.checkpoint("docx-build");
+
+                // Job title and company
+                XWPFParagraph expPara = document.createParagraph();
+                XWPFRun titleRun = expPara.createRun();
+                titleRun.setText(exp.getTitle() + " - " + exp.getCompany());
+                titleRun.setBold(true);
+                titleRun.setFontSize(12);
+                titleRun.setFontFamily("Arial");
+
+                // Duration
+                XWPFParagraph durPara = document.createParagraph();
+                XWPFRun durRun = durPara.createRun();
+                durRun.setText(exp.getDuration());
+                durRun.setItalic(true);
+                durRun.setFontSize(10);
+                durRun.setFontFamily("Arial");
+
+                // Description (strip HTML and handle bullet points)
+                if (exp.getDescription() != null && !exp.getDescription().isEmpty()) {
+                    String cleanDescription = stripHtml(exp.getDescription());
+
+                    // Split by newlines to handle multiple bullet points
+                    String[] lines = cleanDescription.split("\n");
+                    for (String line : lines) {
+                        line = line.trim();
+                        if (!line.isEmpty()) {
+                            XWPFParagraph descPara = document.createParagraph();
+                            descPara.setIndentationLeft(720); // 0.5 inch indent
+                            XWPFRun descRun = descPara.createRun();
+                            // Add bullet if not already present
+                            if (!line.startsWith("•") && !line.startsWith("-") && !line.startsWith("*")) {
+                                descRun.setText("• " + line);
+                            } else {
+                                descRun.setText(line.replaceFirst("^[-*]", "•"));
+                            }
+                            descRun.setFontSize(11);
+                            descRun.setFontFamily("Arial");
+                        }
+                    }
                 }
+                addSpacing(document);
             }
+        }
 
-            // Closing
-            XWPFParagraph closingPara = document.createParagraph();
-            XWPFRun closingRun = closingPara.createRun();
-            String valediction = coverLetter.getClosing() != null ?
-                    coverLetter.getClosing().getValediction() : "Sincerely,";
-            closingRun.setText(valediction);
-            closingRun.setFontSize(11);
-            closingRun.setFontFamily("Arial");
+        // Education
+        deadline.checkpoint("docx-build");
+        if (profile.getEducation() != null && !profile.getEducation().isEmpty()) {
+            addSectionHeading(document, "EDUCATION");
+            for (Education edu : profile.getEducation()) {
+                XWPFParagraph eduPara = document.createParagraph();
+                XWPFRun degreeRun = eduPara.createRun();
+                degreeRun.setText(edu.getDegree() + " - " + edu.getInstitution());
+                degreeRun.setBold(true);
+                degreeRun.setFontSize(12);
+                degreeRun.setFontFamily("Arial");
+
+                XWPFParagraph gradPara = document.createParagraph();
+                XWPFRun gradRun = gradPara.createRun();
+                gradRun.setText(edu.getYear());
+                gradRun.setItalic(true);
+                gradRun.setFontSize(10);
+                gradRun.setFontFamily("Arial");
+                addSpacing(document);
+            }
+        }
 
-            addSpacing(document);
-            addSpacing(document);
+        // Certifications
+        if (profile.getCertifications() != null && !profile.getCertifications().isEmpty()) {
+            addSectionHeading(document, "CERTIFICATIONS");
+            for (String cert : profile.getCertifications()) {
+                XWPFParagraph certPara = document.createParagraph();
+                certPara.setIndentationLeft(360);
+                XWPFRun certRun = certPara.createRun();
+                certRun.setText("• " + cert);
+                certRun.setFontSize(11);
+                certRun.setFontFamily("Arial");
+            }
+        }
+    }
 
-            // Signature
-            XWPFParagraph signaturePara = document.createParagraph();
-            XWPFRun signatureRun = signaturePara.createRun();
-            String signature = coverLetter.getClosing() != null ?
-                    coverLetter.getClosing().getName() : coverLetter.getHeader().getName();
-            signatureRun.setText(signature);
-            signatureRun.setFontSize(11);
-            signatureRun.setFontFamily("Arial");
+    /**
+     * Appends the cover letter to the document
+     */
+    private void writeCoverLetter(XWPFDocument document, CoverLetter coverLetter) {
+        // Header - Candidate info
+        XWPFParagraph headerPara = document.createParagraph();
+        headerPara.setAlignment(ParagraphAlignment.LEFT);
+        XWPFRun nameRun = headerPara.createRun();
+        nameRun.setText(coverLetter.getHeader().getName());
+        nameRun.setBold(true);
+        nameRun.setFontSize(14);
+        nameRun.setFontFamily("Arial");
+        nameRun.addBreak();
+
+        XWPFRun contactRun = headerPara.createRun();
+        contactRun.setText(coverLetter.getHeader().getEmail());
+        contactRun.setFontSize(11);
+        contactRun.setFontFamily("Arial");
+        contactRun.addBreak();
+
+        if (coverLetter.getHeader().getPhone() != null) {
+            contactRun.setText(coverLetter.getHeader().getPhone());
+            contactRun.addBreak();
+        }
 
-            document.write(outputStream);
-            log.debug("Cover letter DOCX generated successfully");
+        addSpacing(document);
 
-        } finally {
-            document.close();
+        // Date
+        XWPFParagraph datePara = document.createParagraph();
+        XWPFRun dateRun = datePara.createRun();
+        dateRun.setText(coverLetter.getHeader().getDate());
+        dateRun.setFontSize(11);
+        dateRun.setFontFamily("Arial");
+
+        addSpacing(document);
+
+        // Recipient
+        if (coverLetter.getRecipient() != null) {
+            XWPFParagraph recipientPara = document.createParagraph();
+            XWPFRun recipientRun = recipientPara.createRun();
+
+            if (coverLetter.getRecipient().getName() != null) {
+                recipientRun.setText(coverLetter.getRecipient().getName());
+                recipientRun.addBreak();
+            }
+
+            if (coverLetter.getRecipient().getPosition() != null) {
+                recipientRun.setText(coverLetter.getRecipient().getPosition());
+                recipientRun.addBreak();
+            }
+
+            if (coverLetter.getRecipient().getCompany() != null) {
+                recipientRun.setText(coverLetter.getRecipient().getCompany());
+                recipientRun.addBreak();
+            }
+
+            recipientRun.setFontSize(11);
+            recipientRun.setFontFamily("Arial");
+
+            addSpacing(document);
         }
+
+        // Salutation
+        XWPFParagraph salutationPara = document.createParagraph();
+        XWPFRun salutationRun = salutationPara.createRun();
+        salutationRun.setText(coverLetter.getSalutation());
+        salutationRun.setFontSize(11);
+        salutationRun.setFontFamily("Arial");
+
+        addSpacing(document);
+
+        // Body paragraphs
+        if (coverLetter.getContent() != null) {
+            for (String paragraph : coverLetter.getContent()) {
+                XWPFParagraph bodyPara = document.createParagraph();
+                bodyPara.setAlignment(ParagraphAlignment.BOTH);
+                XWPFRun bodyRun = bodyPara.createRun();
+                bodyRun.setText(stripHtml(paragraph));
+                bodyRun.setFontSize(11);
+                bodyRun.setFontFamily("Arial");
+                addSpacing(document);
+            }
+        }
+
+        // Closing
+        XWPFParagraph closingPara = document.createParagraph();
+        XWPFRun closingRun = closingPara.createRun();
+        String valediction = coverLetter.getClosing() != null ?
+                coverLetter.getClosing().getValediction() : "Sincerely,";
+        closingRun.setText(valediction);
+        closingRun.setFontSize(11);
+        closingRun.setFontFamily("Arial");
+
+        addSpacing(document);
+        addSpacing(document);
+
+        // Signature
+        XWPFParagraph signaturePara = document.createParagraph();
+        XWPFRun signatureRun = signaturePara.createRun();
+        String signature = coverLetter.getClosing() != null ?
+                coverLetter.getClosing().getName() : coverLetter.getHeader().getName();
+        signatureRun.setText(signature);
+        signatureRun.setFontSize(11);
+        signatureRun.setFontFamily("Arial");
     }
 
     /**
@@ -346,4 +476,27 @@ public class WordGeneratorService {
         XWPFRun spacerRun = spacer.createRun();
         spacerRun.setFontSize(6);
     }
+
+    /**
+     * Counts bytes passed through so the JFR event can report the document size
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
 }
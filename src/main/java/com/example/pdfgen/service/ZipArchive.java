@@ -0,0 +1,51 @@
+package com.example.pdfgen.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Packs rendered documents into a ZIP archive
+ *
+ * Entries are stored rather than deflated: PDF and DOCX output is already compressed, so
+ * deflating again costs CPU for no size benefit.
+ */
+public final class ZipArchive {
+
+    private ZipArchive() {
+    }
+
+    /**
+     * Builds a ZIP archive containing one stored entry per document
+     *
+     * @param entries File name to content, in archive order
+     * @return The archive bytes
+     * @throws IOException If the archive cannot be written
+     */
+    public static byte[] of(Map<String, byte[]> entries) throws IOException {
+        int size = entries.values().stream().mapToInt(content -> content.length).sum();
+        ByteArrayOutputStream archive = new ByteArrayOutputStream(size + 1024);
+
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                byte[] content = entry.getValue();
+                CRC32 crc = new CRC32();
+                crc.update(content);
+
+                ZipEntry zipEntry = new ZipEntry(entry.getKey());
+                zipEntry.setMethod(ZipEntry.STORED);
+                zipEntry.setSize(content.length);
+                zipEntry.setCompressedSize(content.length);
+                zipEntry.setCrc(crc.getValue());
+
+                zip.putNextEntry(zipEntry);
+                zip.write(content);
+                zip.closeEntry();
+            }
+        }
+        return archive.toByteArray();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.pdfgen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ProfilePdfGenerator batch tool
+ */
+public class ProfilePdfGeneratorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testFailuresAreCollectedWithoutStoppingTheRun() throws Exception {
+        Path input = Files.createDirectories(dir.resolve("input"));
+        Path output = dir.resolve("output");
+        for (String name : new String[]{"entry-level-profile.json", "senior-engineer-profile.json"}) {
+            Files.copy(Paths.get("src/main/resources/input", name), input.resolve(name));
+        }
+        Files.writeString(input.resolve("broken.json"), "{\"name\": ");
+        Files.writeString(input.resolve("notes.txt"), "not a profile");
+
+        ProfilePdfGenerator generator = new ProfilePdfGenerator("resume_template_002", Set.of("pdf", "docx"));
+        ProfilePdfGenerator.Summary summary = generator.run(input, "*.json", output, 2);
+
+        assertEquals(2, summary.getSucceeded());
+        assertEquals(1, summary.getFailed());
+        assertEquals(4, summary.getDocuments());
+        assertTrue(summary.getFailures().containsKey(input.resolve("broken.json")));
+        assertTrue(summary.getThroughput() > 0);
+        assertTrue(summary.getLatencyMillis(50) <= summary.getLatencyMillis(100));
+
+        byte[] pdf = Files.readAllBytes(output.resolve("entry-level-profile.pdf"));
+        assertEquals("%PDF", new String(pdf, 0, 4));
+        assertTrue(Files.size(output.resolve("senior-engineer-profile.docx")) > 0);
+        // Nothing half-written is left behind by the failed item; the rest is the render manifest
+        try (Stream<Path> files = Files.list(output)) {
+            assertEquals(4, files.filter(file -> !file.getFileName().toString().equals(RenderManifest.FILE_NAME)).count());
+        }
+    }
+
+    @Test
+    public void testIncrementalRunRendersOnlyWhatChanged() throws Exception {
+        Path input = Files.createDirectories(dir.resolve("input"));
+        Path templates = Files.createDirectories(dir.resolve("templates"));
+        Path output = dir.resolve("output");
+        for (String name : new String[]{"entry-level-profile.json", "senior-engineer-profile.json"}) {
+            Files.copy(Paths.get("src/main/resources/input", name), input.resolve(name));
+        }
+        Path template = templates.resolve("resume_template_002.html");
+        Files.copy(Paths.get("src/main/resources/templates/resume_template_002.html"), template);
+
+        ProfilePdfGenerator generator = new ProfilePdfGenerator("resume_template_002", Set.of("pdf", "docx"), templates);
+        assertEquals(4, generator.run(input, "*.json", output, 2, true).getDocuments());
+
+        // Nothing changed, nothing rendered and the manifest left alone
+        Path manifest = output.resolve(RenderManifest.FILE_NAME);
+        Files.setLastModifiedTime(manifest, FileTime.fromMillis(0));
+        ProfilePdfGenerator.Summary unchanged = generator.run(input, "*.json", output, 2, true);
+        assertEquals(0, unchanged.getProfiles());
+        assertEquals(2, unchanged.getSkipped());
+        assertEquals(0, Files.getLastModifiedTime(manifest).toMillis());
+
+        // One profile edited: only its documents
+        Path edited = input.resolve("entry-level-profile.json");
+        Files.writeString(edited, Files.readString(edited).replace("Austin, TX", "Dallas, TX"));
+        ProfilePdfGenerator.Summary profileChanged = generator.run(input, "*.json", output, 2, true);
+        assertEquals(1, profileChanged.getProfiles());
+        assertEquals(2, profileChanged.getDocuments());
+        assertEquals(1, profileChanged.getSkipped());
+
+        // Template edited: every PDF, no DOCX, and the new template is what renders
+        Files.writeString(template, Files.readString(template).replace("</body>", "<p>Revised</p></body>"));
+        ProfilePdfGenerator.Summary templateChanged = generator.run(input, "*.json", output, 2, true);
+        assertEquals(2, templateChanged.getProfiles());
+        assertEquals(2, templateChanged.getDocuments());
+
+        // A fresh process picks up the manifest; a missing document is rendered again
+        Files.delete(output.resolve("senior-engineer-profile.pdf"));
+        ProfilePdfGenerator restarted = new ProfilePdfGenerator("resume_template_002", Set.of("pdf", "docx"), templates);
+        ProfilePdfGenerator.Summary missing = restarted.run(input, "*.json", output, 2, true);
+        assertEquals(1, missing.getDocuments());
+        assertTrue(Files.exists(output.resolve("senior-engineer-profile.pdf")));
+
+        // A deleted profile takes its documents with it
+        Files.delete(edited);
+        ProfilePdfGenerator.Summary deleted = restarted.run(input, "*.json", output, 2, true);
+        assertEquals(2, deleted.getRemoved());
+        assertFalse(Files.exists(output.resolve("entry-level-profile.pdf")));
+        assertFalse(Files.exists(output.resolve("entry-level-profile.docx")));
+    }
+}
@@ -1,9 +1,23 @@
 package com.example.pdfgen.controller;
 
+import com.example.pdfgen.dto.ApplicationRequest;
+import com.example.pdfgen.dto.BulkRunRequest;
+import com.example.pdfgen.dto.CompareRequest;
 import com.example.pdfgen.dto.CoverLetterRequest;
+import com.example.pdfgen.dto.PacketRequest;
 import com.example.pdfgen.dto.ProfileRequest;
 import com.example.pdfgen.model.*;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfOutline;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import org.apache.poi.xwpf.usermodel.Document;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,12 +27,30 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
-
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -26,7 +58,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Integration tests for PDF and DOCX document generation
  * Tests the segregated controller structure
  */
-@SpringBootTest
+@SpringBootTest(properties = {"render.store.enabled=true", "render.store.dir=target/test-artifacts", "render.jobs.dir=target/test-jobs"})
 @AutoConfigureMockMvc
 public class DocumentGenerationIntegrationTest {
 
@@ -120,6 +152,7 @@ public class DocumentGenerationIntegrationTest {
                         .content(jsonRequest))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(header().string("Server-Timing", containsString("convert;dur=")))
                 .andReturn();
 
         byte[] pdfContent = result.getResponse().getContentAsByteArray();
@@ -131,6 +164,95 @@ public class DocumentGenerationIntegrationTest {
         System.out.println("✅ Resume PDF generated: target/test-output/resume_pdf_test.pdf");
     }
 
+    @Test
+    public void testUnknownTemplateIsRejected() throws Exception {
+        testProfileRequest.setTemplateId("../application");
+        mockMvc.perform(post("/api/pdf/resume/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testProfileRequest)))
+                .andExpect(status().isBadRequest());
+
+        testCoverLetterRequest.setTemplateId("resume_template_001");
+        mockMvc.perform(post("/api/pdf/cover-letter/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testCoverLetterRequest)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testResumeWithPhoto() throws Exception {
+        byte[] png;
+        try (InputStream in = getClass().getResourceAsStream("/template-builder/david.png")) {
+            png = in.readAllBytes();
+        }
+        testProfileRequest.getProfile().setPhoto("data:image/png;base64," + Base64.getEncoder().encodeToString(png));
+        String jsonRequest = objectMapper.writeValueAsString(testProfileRequest);
+
+        MvcResult pdfResult = mockMvc.perform(post("/api/pdf/resume/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonRequest))
+                .andExpect(status().isOk())
+                .andReturn();
+        byte[] pdfContent = pdfResult.getResponse().getContentAsByteArray();
+        // The downscaled JPEG is embedded, not the original PNG
+        assertTrue(pdfContent.length < png.length);
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdfContent)))) {
+            PdfDictionary images = pdfDocument.getFirstPage().getResources().getResource(PdfName.XObject);
+            PdfStream image = images.getAsStream(images.keySet().iterator().next());
+            assertEquals(PdfName.DCTDecode, image.getAsName(PdfName.Filter));
+        }
+
+        MvcResult docxResult = mockMvc.perform(post("/api/docx/resume/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonRequest))
+                .andExpect(status().isOk())
+                .andReturn();
+        try (XWPFDocument docx = new XWPFDocument(new ByteArrayInputStream(docxResult.getResponse().getContentAsByteArray()))) {
+            assertEquals(1, docx.getAllPictures().size());
+            assertEquals(Document.PICTURE_TYPE_JPEG, docx.getAllPictures().get(0).getPictureType());
+        }
+
+        testProfileRequest.getProfile().setPhoto("bm90IGFuIGltYWdl");
+        mockMvc.perform(post("/api/pdf/resume/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testProfileRequest)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testOversizedProfileIsRefused() throws Exception {
+        Experience experience = testProfileRequest.getProfile().getExperience().get(0);
+        List<Experience> history = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            history.add(experience);
+        }
+        testProfileRequest.getProfile().setExperience(history);
+        String jsonRequest = objectMapper.writeValueAsString(testProfileRequest);
+
+        // Refused from the estimate, before any rendering
+        mockMvc.perform(post("/api/pdf/resume/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonRequest))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(header().exists("X-Estimated-Pages"));
+        mockMvc.perform(post("/api/docx/resume/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonRequest))
+                .andExpect(status().isPayloadTooLarge());
+        mockMvc.perform(post("/api/pdf/resume/compare")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("profile", testProfileRequest.getProfile()))))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(header().exists("X-Estimated-Pages"));
+        // The whole packet is refused before streaming starts
+        mockMvc.perform(post("/api/pdf/packet/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("templateId", "resume_template_001",
+                                "profiles", List.of(testProfileRequest.getProfile())))))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(header().exists("X-Estimated-Pages"));
+    }
+
     @Test
     public void testCoverLetterPdfGeneration() throws Exception {
         String jsonRequest = objectMapper.writeValueAsString(testCoverLetterRequest);
@@ -140,6 +262,7 @@ public class DocumentGenerationIntegrationTest {
                         .content(jsonRequest))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(header().string("Server-Timing", containsString("convert;dur=")))
                 .andReturn();
 
         byte[] pdfContent = result.getResponse().getContentAsByteArray();
@@ -162,6 +285,7 @@ public class DocumentGenerationIntegrationTest {
                         .content(jsonRequest))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("application/vnd.openxmlformats-officedocument.wordprocessingml.document"))
+                .andExpect(header().string("Server-Timing", containsString("convert;dur=")))
                 .andReturn();
 
         byte[] docxContent = result.getResponse().getContentAsByteArray();
@@ -182,6 +306,7 @@ public class DocumentGenerationIntegrationTest {
                         .content(jsonRequest))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("application/vnd.openxmlformats-officedocument.wordprocessingml.document"))
+                .andExpect(header().string("Server-Timing", containsString("convert;dur=")))
                 .andReturn();
 
         byte[] docxContent = result.getResponse().getContentAsByteArray();
@@ -192,4 +317,309 @@ public class DocumentGenerationIntegrationTest {
 
         System.out.println("✅ Cover Letter DOCX generated: target/test-output/cover_letter_docx_test.docx");
     }
+
+    // ============== COMBINED TESTS ==============
+
+    @Test
+    public void testApplicationPdfGeneration() throws Exception {
+        String jsonRequest = objectMapper.writeValueAsString(applicationRequest());
+
+        MvcResult result = mockMvc.perform(post("/api/pdf/application/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonRequest))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(header().string("Server-Timing", containsString("template;dur=")))
+                .andReturn();
+
+        byte[] pdfContent = result.getResponse().getContentAsByteArray();
+        // Cover letter and resume each start on their own page
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdfContent)))) {
+            assertTrue(pdfDocument.getNumberOfPages() >= 2);
+        }
+        new java.io.File("target/test-output").mkdirs();
+        try (FileOutputStream fos = new FileOutputStream("target/test-output/application_pdf_test.pdf")) {
+            fos.write(pdfContent);
+        }
+
+        System.out.println("✅ Application PDF generated: target/test-output/application_pdf_test.pdf");
+    }
+
+    @Test
+    public void testApplicationDocxGeneration() throws Exception {
+        String jsonRequest = objectMapper.writeValueAsString(applicationRequest());
+
+        MvcResult result = mockMvc.perform(post("/api/docx/application/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonRequest))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.openxmlformats-officedocument.wordprocessingml.document"))
+                .andExpect(header().string("Server-Timing", containsString("convert;dur=")))
+                .andReturn();
+
+        byte[] docxContent = result.getResponse().getContentAsByteArray();
+        new java.io.File("target/test-output").mkdirs();
+        try (FileOutputStream fos = new FileOutputStream("target/test-output/application_docx_test.docx")) {
+            fos.write(docxContent);
+        }
+
+        System.out.println("✅ Application DOCX generated: target/test-output/application_docx_test.docx");
+    }
+
+    @Test
+    public void testPacketPdfGeneration() throws Exception {
+        CandidateProfile second = objectMapper.readValue(
+                objectMapper.writeValueAsString(testProfileRequest.getProfile()), CandidateProfile.class);
+        second.setName("Jane Roe");
+        PacketRequest packetRequest = new PacketRequest(testProfileRequest.getTemplateId(),
+                List.of(testProfileRequest.getProfile(), second, testProfileRequest.getProfile()));
+
+        MvcResult pending = mockMvc.perform(post("/api/pdf/packet/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(packetRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andReturn();
+
+        byte[] pdfContent = result.getResponse().getContentAsByteArray();
+        // One bookmark per candidate, in request order
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdfContent)))) {
+            assertTrue(pdfDocument.getNumberOfPages() >= 3);
+            assertEquals(List.of("John Doe", "Jane Roe", "John Doe"), pdfDocument.getOutlines(false).getAllChildren()
+                    .stream().map(PdfOutline::getTitle).toList());
+        }
+        new java.io.File("target/test-output").mkdirs();
+        try (FileOutputStream fos = new FileOutputStream("target/test-output/packet_pdf_test.pdf")) {
+            fos.write(pdfContent);
+        }
+
+        System.out.println("✅ Packet PDF generated: target/test-output/packet_pdf_test.pdf");
+    }
+
+    @Test
+    public void testResumeTemplateComparison() throws Exception {
+        CompareRequest compareRequest = new CompareRequest(null, testProfileRequest.getProfile());
+
+        MvcResult result = mockMvc.perform(post("/api/pdf/resume/compare")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(compareRequest)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/zip"))
+                .andExpect(header().string("Server-Timing", containsString("convert;dur=")))
+                .andReturn();
+
+        // One PDF per resume template, in template order
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.add(entry.getName());
+                try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(zip.readAllBytes())))) {
+                    assertTrue(pdfDocument.getNumberOfPages() >= 1);
+                }
+            }
+        }
+        assertEquals(List.of("resume_template_001.pdf", "resume_template_002.pdf", "resume_template_003.pdf"), entries);
+
+        System.out.println("✅ Resume template comparison generated");
+    }
+
+    @Test
+    public void testResumeTemplateComparisonRejectsUnknownTemplate() throws Exception {
+        CompareRequest compareRequest = new CompareRequest(List.of("resume_template_999"), testProfileRequest.getProfile());
+
+        mockMvc.perform(post("/api/pdf/resume/compare")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(compareRequest)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testResumeMultiFormatGeneration() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/resume/generate")
+                        .param("formats", "pdf,docx")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testProfileRequest)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/zip"))
+                .andExpect(header().string("Server-Timing", containsString("convert-docx;dur=")))
+                .andReturn();
+
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.add(entry.getName());
+                assertTrue(zip.readAllBytes().length > 0);
+            }
+        }
+        assertEquals(List.of("John_Doe_resume.docx", "John_Doe_resume.pdf"), entries);
+
+        // A single format is returned as the document itself
+        mockMvc.perform(post("/api/resume/generate")
+                        .param("formats", "docx")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testProfileRequest)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.openxmlformats-officedocument.wordprocessingml.document"));
+
+        mockMvc.perform(post("/api/resume/generate")
+                        .param("formats", "pdf,odt")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testProfileRequest)))
+                .andExpect(status().isBadRequest());
+
+        System.out.println("✅ Multi-format resume generated");
+    }
+
+    @Test
+    public void testResumePdfFitToPages() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/pdf/resume/generate")
+                        .param("fitToPages", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testProfileRequest)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(header().string("X-Fit-Scale", "1.0"))
+                .andExpect(header().string("X-Fit-Iterations", "1"))
+                .andExpect(header().string("X-Fit-Pages", "1"))
+                .andExpect(header().string("X-Fit-Fitted", "true"))
+                .andReturn();
+
+        // Written from pooled segments with the exact length announced up front
+        assertEquals(String.valueOf(result.getResponse().getContentAsByteArray().length),
+                result.getResponse().getHeader("Content-Length"));
+
+        mockMvc.perform(post("/api/pdf/resume/generate")
+                        .param("fitToPages", "0")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testProfileRequest)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testPreviewSessionLifecycle() throws Exception {
+        String openRequest = "{\"templateId\":\"resume_template_001\",\"profile\":"
+                + objectMapper.writeValueAsString(testProfileRequest.getProfile()) + "}";
+
+        MvcResult opened = mockMvc.perform(post("/api/preview/sessions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(openRequest))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String sessionId = objectMapper.readTree(opened.getResponse().getContentAsString()).get("sessionId").asText();
+
+        mockMvc.perform(patch("/api/preview/sessions/" + sessionId + "/profile")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"summary\":\"Updated summary\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(delete("/api/preview/sessions/" + sessionId))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(patch("/api/preview/sessions/" + sessionId + "/profile")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"summary\":\"Too late\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGeneratedDocumentCanBeDownloadedAgain() throws Exception {
+        MvcResult generated = mockMvc.perform(post("/api/docx/resume/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testProfileRequest)))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Artifact-Id"))
+                .andReturn();
+        String artifactId = generated.getResponse().getHeader("X-Artifact-Id");
+
+        MvcResult downloaded = mockMvc.perform(get("/api/artifacts/" + artifactId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.openxmlformats-officedocument.wordprocessingml.document"))
+                .andExpect(header().string("ETag", "\"" + artifactId + "\""))
+                .andReturn();
+        assertArrayEquals(generated.getResponse().getContentAsByteArray(), downloaded.getResponse().getContentAsByteArray());
+
+        mockMvc.perform(get("/api/artifacts/" + artifactId).header("If-None-Match", "\"" + artifactId + "\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/artifacts/" + "0".repeat(64)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testBulkRunRendersEveryProfile() throws Exception {
+        BulkRunRequest bulkRequest = new BulkRunRequest(testProfileRequest.getTemplateId(),
+                List.of(testProfileRequest.getProfile(), testProfileRequest.getProfile()));
+
+        MvcResult submitted = mockMvc.perform(post("/api/bulk/runs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bulkRequest)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.items").value(2))
+                .andReturn();
+        String location = submitted.getResponse().getHeader("Location");
+
+        JsonNode run = null;
+        for (int attempt = 0; attempt < 300; attempt++) {
+            run = objectMapper.readTree(mockMvc.perform(get(location))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            if (run.get("finished").asBoolean()) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertTrue(run.get("finished").asBoolean());
+        assertEquals(2, run.get("completed").asInt());
+
+        for (JsonNode item : run.get("results")) {
+            mockMvc.perform(get("/api/artifacts/" + item.get("artifactId").asText()))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_PDF));
+        }
+
+        mockMvc.perform(get("/api/bulk/runs/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testProfilesAreRankedAgainstJobDescription() throws Exception {
+        ObjectNode profiles = objectMapper.createObjectNode();
+        for (String id : new String[]{"entry-level", "marketing-manager", "senior-engineer"}) {
+            profiles.set(id, objectMapper.readTree(Files.readString(Paths.get("src/main/resources/input", id + "-profile.json"))));
+        }
+        mockMvc.perform(post("/api/profiles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.createObjectNode().set("profiles", profiles).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.indexed").value(3));
+
+        mockMvc.perform(post("/api/profiles/rank")
+                        .param("limit", "2")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(Files.readString(Paths.get("src/main/resources/input/job-description.txt"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.length()").value(2))
+                .andExpect(jsonPath("$.results[0].profileId").value("senior-engineer"))
+                .andExpect(jsonPath("$.results[0].matchedTerms", hasItem("java")));
+
+        mockMvc.perform(post("/api/profiles/rank")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"jobDescription\": \"Java\", \"limit\": 100000}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(delete("/api/profiles/marketing-manager"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/profiles/marketing-manager"))
+                .andExpect(status().isNotFound());
+    }
+
+    private ApplicationRequest applicationRequest() {
+        return new ApplicationRequest(testProfileRequest.getTemplateId(), testCoverLetterRequest.getTemplateId(),
+                testProfileRequest.getProfile(), testCoverLetterRequest.getCoverLetter());
+    }
 }
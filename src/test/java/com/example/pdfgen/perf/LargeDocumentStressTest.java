@@ -0,0 +1,132 @@
+package com.example.pdfgen.perf;
+
+import com.example.pdfgen.model.CandidateProfile;
+import com.example.pdfgen.service.PdfGeneratorService;
+import com.example.pdfgen.service.RenderCost;
+import com.example.pdfgen.service.RenderCostEstimator;
+import com.example.pdfgen.service.RenderDeadline;
+import com.example.pdfgen.service.TemplateService;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+import static com.example.pdfgen.service.LongProfiles.profile;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress test: a 200-page resume must render with heap bounded by the pages in flight
+ *
+ * Renders a 50-page and a 200-page profile and samples the heap after a full GC each time another
+ * chunk of the PDF reaches the output stream. Pages are written as layout moves past them, so output
+ * arrives throughout the render and the retained heap of the long document stays close to that of the
+ * short one. Excluded from the default build; run with mvn test -Pperf.
+ */
+@Tag("perf")
+public class LargeDocumentStressTest {
+
+    private static final String TEMPLATE = "resume_template_002";
+    private static final int SAMPLE_EVERY_BYTES = 4 * 1024;
+    private static final long MAX_GROWTH_BYTES = 8L * 1024 * 1024;
+
+    @Test
+    public void testTwoHundredPageProfileRendersInBoundedHeap() throws Exception {
+        TemplateService templateService = new TemplateService();
+        PdfGeneratorService pdfGeneratorService = new PdfGeneratorService();
+        RenderCostEstimator estimator = new RenderCostEstimator();
+
+        // Loads fonts and CSS defaults, which stay for the life of the JVM
+        render(templateService, pdfGeneratorService, estimator, profile(5));
+        Result shortRender = render(templateService, pdfGeneratorService, estimator, profile(160));
+        Result longRender = render(templateService, pdfGeneratorService, estimator, profile(720));
+        System.out.printf(Locale.ROOT, "[perf] %d pages (estimated %d): peak retained %,d bytes, %d samples%n",
+                shortRender.pages, shortRender.estimatedPages, shortRender.peakRetained, shortRender.samples);
+        System.out.printf(Locale.ROOT, "[perf] %d pages (estimated %d): peak retained %,d bytes, %d samples%n",
+                longRender.pages, longRender.estimatedPages, longRender.peakRetained, longRender.samples);
+
+        assertTrue(longRender.pages >= 200, "Expected at least 200 pages, got " + longRender.pages);
+        assertTrue(longRender.large, "A 200-page profile should be estimated large");
+        // Written page by page, not all at close
+        assertTrue(longRender.samples >= 10, "PDF reached the output stream in only " + longRender.samples + " chunks");
+        assertTrue(longRender.peakRetained - shortRender.peakRetained < MAX_GROWTH_BYTES,
+                "Retained heap grew from " + shortRender.peakRetained + " to " + longRender.peakRetained
+                        + " bytes between " + shortRender.pages + " and " + longRender.pages + " pages");
+    }
+
+    private static Result render(TemplateService templateService, PdfGeneratorService pdfGeneratorService,
+                                 RenderCostEstimator estimator, CandidateProfile profile) throws IOException {
+        RenderCost cost = estimator.check(profile);
+        long baseline = retainedHeap();
+        SamplingOutputStream out = new SamplingOutputStream(baseline);
+        pdfGeneratorService.generatePdfToStream(
+                writer -> templateService.processTemplate(TEMPLATE, profile, RenderDeadline.none(), writer),
+                out, RenderDeadline.none(), TEMPLATE, cost);
+
+        Result result = new Result();
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.pdf.toByteArray())))) {
+            result.pages = document.getNumberOfPages();
+        }
+        result.estimatedPages = cost.getEstimatedPages();
+        result.large = cost.isLarge();
+        result.peakRetained = out.peakRetained;
+        result.samples = out.samples;
+        return result;
+    }
+
+    private static long retainedHeap() {
+        System.gc();
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static final class Result {
+        int pages;
+        int estimatedPages;
+        boolean large;
+        long peakRetained;
+        int samples;
+    }
+
+    /**
+     * Collects the PDF and measures the heap retained by the render every SAMPLE_EVERY_BYTES of output
+     */
+    private static final class SamplingOutputStream extends OutputStream {
+        private final ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        private final long baseline;
+        private long nextSample = SAMPLE_EVERY_BYTES;
+        private long peakRetained;
+        private int samples;
+
+        SamplingOutputStream(long baseline) {
+            this.baseline = baseline;
+        }
+
+        @Override
+        public void write(int b) {
+            pdf.write(b);
+            sample();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            pdf.write(b, off, len);
+            sample();
+        }
+
+        private void sample() {
+            if (pdf.size() >= nextSample) {
+                nextSample = pdf.size() + SAMPLE_EVERY_BYTES;
+                samples++;
+                // The PDF collected so far is output, not render state
+                peakRetained = Math.max(peakRetained, retainedHeap() - baseline - pdf.size());
+            }
+        }
+    }
+}
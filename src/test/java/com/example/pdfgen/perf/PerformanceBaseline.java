@@ -0,0 +1,136 @@
+package com.example.pdfgen.perf;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Committed performance baseline and the comparison rules applied to a new measurement
+ *
+ * Stored as JSON at src/test/resources/perf/baseline.json. Tolerances are relative, e.g. a throughput
+ * tolerance of 0.30 fails the build when throughput drops more than 30% below the baseline.
+ * Allocation per document is nearly deterministic and gets the tightest tolerance.
+ * Each tolerance can be overridden with -Dperf.tolerance.&lt;metric&gt;=0.5 on noisy machines.
+ */
+class PerformanceBaseline {
+
+    static final Path DEFAULT_PATH = Path.of("src", "test", "resources", "perf", "baseline.json");
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    /**
+     * Measurement of one scenario
+     */
+    static class Metrics {
+        double throughputPerSecond;
+        double p99Millis;
+        long allocatedBytesPerDocument;
+
+        Metrics() {
+        }
+
+        Metrics(double throughputPerSecond, double p99Millis, long allocatedBytesPerDocument) {
+            this.throughputPerSecond = throughputPerSecond;
+            this.p99Millis = p99Millis;
+            this.allocatedBytesPerDocument = allocatedBytesPerDocument;
+        }
+
+        static Metrics best(Metrics a, Metrics b) {
+            return new Metrics(Math.max(a.throughputPerSecond, b.throughputPerSecond),
+                    Math.min(a.p99Millis, b.p99Millis),
+                    Math.min(a.allocatedBytesPerDocument, b.allocatedBytesPerDocument));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%.1f docs/s, p99 %.1f ms, %,d B/doc",
+                    throughputPerSecond, p99Millis, allocatedBytesPerDocument);
+        }
+    }
+
+    static class Tolerance {
+        double throughput = 0.30;
+        double p99 = 0.50;
+        double allocation = 0.10;
+    }
+
+    static class Environment {
+        String javaVersion;
+        int availableProcessors;
+
+        static Environment current() {
+            Environment environment = new Environment();
+            environment.javaVersion = System.getProperty("java.version");
+            environment.availableProcessors = Runtime.getRuntime().availableProcessors();
+            return environment;
+        }
+    }
+
+    Tolerance tolerance = new Tolerance();
+    Environment environment;
+    Map<String, Metrics> scenarios = new LinkedHashMap<>();
+
+    static PerformanceBaseline load(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return new PerformanceBaseline();
+        }
+        PerformanceBaseline baseline = GSON.fromJson(Files.readString(path), PerformanceBaseline.class);
+        if (baseline.tolerance == null) {
+            baseline.tolerance = new Tolerance();
+        }
+        if (baseline.scenarios == null) {
+            baseline.scenarios = new LinkedHashMap<>();
+        }
+        return baseline;
+    }
+
+    void write(Path path) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, GSON.toJson(this) + "\n");
+    }
+
+    /**
+     * Compares a measurement against the baseline
+     *
+     * @return Human-readable regressions; empty if the scenario is within tolerance
+     */
+    List<String> compare(String scenario, Metrics actual) {
+        List<String> regressions = new ArrayList<>();
+        Metrics expected = scenarios.get(scenario);
+        if (expected == null) {
+            regressions.add(scenario + ": no baseline entry (run with -Dperf.updateBaseline=true)");
+            return regressions;
+        }
+
+        double throughputTolerance = override("throughput", tolerance.throughput);
+        double p99Tolerance = override("p99", tolerance.p99);
+        double allocationTolerance = override("allocation", tolerance.allocation);
+
+        if (actual.throughputPerSecond < expected.throughputPerSecond * (1 - throughputTolerance)) {
+            regressions.add(String.format(Locale.ROOT, "%s: throughput %.1f docs/s is below baseline %.1f (-%.0f%% allowed)",
+                    scenario, actual.throughputPerSecond, expected.throughputPerSecond, throughputTolerance * 100));
+        }
+        if (actual.p99Millis > expected.p99Millis * (1 + p99Tolerance)) {
+            regressions.add(String.format(Locale.ROOT, "%s: p99 %.1f ms is above baseline %.1f ms (+%.0f%% allowed)",
+                    scenario, actual.p99Millis, expected.p99Millis, p99Tolerance * 100));
+        }
+        if (actual.allocatedBytesPerDocument > expected.allocatedBytesPerDocument * (1 + allocationTolerance)) {
+            regressions.add(String.format(Locale.ROOT, "%s: allocation %,d B/doc is above baseline %,d B/doc (+%.0f%% allowed)",
+                    scenario, actual.allocatedBytesPerDocument, expected.allocatedBytesPerDocument, allocationTolerance * 100));
+        }
+        return regressions;
+    }
+
+    private static double override(String metric, double configured) {
+        String value = System.getProperty("perf.tolerance." + metric);
+        return value == null ? configured : Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.pdfgen.perf;
+
+import com.example.pdfgen.model.CandidateProfile;
+import com.example.pdfgen.model.CoverLetter;
+import com.example.pdfgen.service.PdfGeneratorService;
+import com.example.pdfgen.service.RenderDeadline;
+import com.example.pdfgen.service.TemplateService;
+import com.example.pdfgen.service.WordGeneratorService;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Performance regression tier: renders fixed fixtures through every template and format and
+ * compares throughput, p99 latency and allocation per document against the committed baseline
+ *
+ * Excluded from the default build. Run with:
+ *   mvn test -Pperf                              compare against src/test/resources/perf/baseline.json
+ *   mvn test -Pperf -Dperf.updateBaseline=true   re-measure and overwrite the baseline
+ *
+ * Tuning: -Dperf.warmup (default 15), -Dperf.iterations (default 40), -Dperf.threads (default cores),
+ * -Dperf.tolerance.{throughput,p99,allocation}. Results are also written to target/perf/results.json.
+ */
+@Tag("perf")
+public class RenderingPerformanceTest {
+
+    private static final int WARMUP = Integer.getInteger("perf.warmup", 15);
+    private static final int ITERATIONS = Integer.getInteger("perf.iterations", 40);
+    private static final int THREADS = Integer.getInteger("perf.threads", Runtime.getRuntime().availableProcessors());
+    private static final int THROUGHPUT_ROUNDS = 3;
+    private static final boolean UPDATE_BASELINE = Boolean.getBoolean("perf.updateBaseline");
+
+    private static final String[] PDF_RESUME_TEMPLATES = {
+            "resume_template_001", "resume_template_002", "resume_template_003"
+    };
+    private static final String[] PDF_COVER_LETTER_TEMPLATES = {
+            "cover_letter_template_001", "cover_letter_template_002", "cover_letter_template_003"
+    };
+
+    /**
+     * Renders one document into the given buffer
+     */
+    @FunctionalInterface
+    interface Scenario {
+        void render(ByteArrayOutputStream out) throws IOException;
+    }
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static TemplateService templateService;
+    private static PdfGeneratorService pdfGeneratorService;
+    private static WordGeneratorService wordGeneratorService;
+    private static CandidateProfile profile;
+    private static CoverLetter coverLetter;
+
+    @BeforeAll
+    public static void setUp() throws IOException {
+        templateService = new TemplateService();
+        pdfGeneratorService = new PdfGeneratorService();
+        wordGeneratorService = new WordGeneratorService();
+        profile = fixture("perf/fixtures/resume.json", CandidateProfile.class);
+        coverLetter = fixture("perf/fixtures/cover-letter.json", CoverLetter.class);
+    }
+
+    @Test
+    public void testRenderingStaysWithinBaseline() throws Exception {
+        Map<String, Scenario> scenarios = new LinkedHashMap<>();
+        for (String template : PDF_RESUME_TEMPLATES) {
+            scenarios.put("pdf/" + template, out -> pdfGeneratorService.generatePdfToStream(
+                    writer -> templateService.processTemplate(template, profile, RenderDeadline.none(), writer),
+                    out, RenderDeadline.none(), template));
+        }
+        for (String template : PDF_COVER_LETTER_TEMPLATES) {
+            scenarios.put("pdf/" + template, out -> pdfGeneratorService.generatePdfToStream(
+                    writer -> templateService.processCoverLetterTemplate(template, coverLetter, RenderDeadline.none(), writer),
+                    out, RenderDeadline.none(), template));
+        }
+        scenarios.put("docx/resume", out -> wordGeneratorService.generateResumeDocx(profile, out));
+        scenarios.put("docx/cover-letter", out -> wordGeneratorService.generateCoverLetterDocx(coverLetter, out));
+        scenarios.put("pdf/application", out -> pdfGeneratorService.generateCombinedPdfToStream(List.of(
+                        writer -> templateService.processCoverLetterTemplate(PDF_COVER_LETTER_TEMPLATES[0], coverLetter, RenderDeadline.none(), writer),
+                        writer -> templateService.processTemplate(PDF_RESUME_TEMPLATES[0], profile, RenderDeadline.none(), writer)),
+                out, RenderDeadline.none(), PDF_RESUME_TEMPLATES[0]));
+        scenarios.put("docx/application", out -> wordGeneratorService.generateApplicationDocx(coverLetter, profile, out, RenderDeadline.none()));
+
+        PerformanceBaseline baseline = PerformanceBaseline.load(PerformanceBaseline.DEFAULT_PATH);
+        PerformanceBaseline measured = new PerformanceBaseline();
+        measured.tolerance = baseline.tolerance;
+        measured.environment = PerformanceBaseline.Environment.current();
+
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Scenario> scenario : scenarios.entrySet()) {
+            PerformanceBaseline.Metrics metrics = measure(scenario.getValue());
+            System.out.printf(Locale.ROOT, "[perf] %-32s %s%n", scenario.getKey(), metrics);
+            if (!UPDATE_BASELINE && baseline.scenarios.containsKey(scenario.getKey())
+                    && !baseline.compare(scenario.getKey(), metrics).isEmpty()) {
+                // Confirm before failing: keep the better of two runs so one noisy run is not a regression
+                PerformanceBaseline.Metrics retry = measure(scenario.getValue());
+                System.out.printf(Locale.ROOT, "[perf] %-32s %s (re-measured)%n", scenario.getKey(), retry);
+                metrics = PerformanceBaseline.Metrics.best(metrics, retry);
+            }
+            measured.scenarios.put(scenario.getKey(), metrics);
+            if (!UPDATE_BASELINE) {
+                regressions.addAll(baseline.compare(scenario.getKey(), metrics));
+            }
+        }
+
+        measured.write(Path.of("target", "perf", "results.json"));
+        if (UPDATE_BASELINE) {
+            measured.write(PerformanceBaseline.DEFAULT_PATH);
+            System.out.println("[perf] Baseline updated: " + PerformanceBaseline.DEFAULT_PATH);
+            return;
+        }
+
+        if (baseline.environment != null
+                && baseline.environment.availableProcessors != measured.environment.availableProcessors) {
+            System.out.printf("[perf] Baseline was recorded with %d cores, this machine has %d; "
+                            + "throughput and latency comparisons may not be meaningful%n",
+                    baseline.environment.availableProcessors, measured.environment.availableProcessors);
+        }
+        if (!regressions.isEmpty()) {
+            fail("Performance regressions detected:\n  " + String.join("\n  ", regressions));
+        }
+    }
+
+    /**
+     * Compares converting a materialized HTML String against streaming the template output into pdfHTML
+     * Reported only; the pipelined path is what the baseline scenarios measure
+     */
+    @Test
+    public void testPipelinedConversionAgainstStringConversion() throws Exception {
+        Map<String, CandidateProfile> profiles = new LinkedHashMap<>();
+        profiles.put("fixture", profile);
+        profiles.put("large", largeProfile());
+
+        for (Map.Entry<String, CandidateProfile> entry : profiles.entrySet()) {
+            CandidateProfile candidate = entry.getValue();
+            String template = PDF_RESUME_TEMPLATES[0];
+            int htmlLength = templateService.processTemplate(template, candidate).length();
+            PerformanceBaseline.Metrics string = measure(out -> pdfGeneratorService.generatePdfToStream(
+                    templateService.processTemplate(template, candidate), out, RenderDeadline.none(), template));
+            PerformanceBaseline.Metrics pipelined = measure(out -> pdfGeneratorService.generatePdfToStream(
+                    writer -> templateService.processTemplate(template, candidate, RenderDeadline.none(), writer),
+                    out, RenderDeadline.none(), template));
+            System.out.printf(Locale.ROOT, "[perf] %-8s (%,d chars of HTML) string:    %s%n", entry.getKey(), htmlLength, string);
+            System.out.printf(Locale.ROOT, "[perf] %-8s (%,d chars of HTML) pipelined: %s%n", entry.getKey(), htmlLength, pipelined);
+            System.out.printf(Locale.ROOT, "[perf] %-8s pipelined allocation vs string: %+.1f%%%n", entry.getKey(),
+                    100.0 * (pipelined.allocatedBytesPerDocument - string.allocatedBytesPerDocument)
+                            / string.allocatedBytesPerDocument);
+        }
+    }
+
+    /**
+     * Compares the template stage alone across expression evaluators: OGNL (standalone engine),
+     * SpEL interpreted and SpEL compiled (Spring engine). Reported only.
+     *
+     * A template renders in well under a millisecond, so engines are measured in interleaved rounds
+     * and the best round's mean is reported, which keeps JIT and GC noise from favouring one engine.
+     */
+    @Test
+    public void testTemplateEngineExpressionCost() throws Exception {
+        Map<String, TemplateService> engines = new LinkedHashMap<>();
+        engines.put("standalone/ognl", templateService);
+        engines.put("spring/spel", new TemplateService(springTemplateEngine(false)));
+        engines.put("spring/spel-compiled", new TemplateService(springTemplateEngine(true)));
+
+        Map<String, CandidateProfile> profiles = new LinkedHashMap<>();
+        profiles.put("fixture", profile);
+        profiles.put("large", largeProfile());
+
+        // The engines must be interchangeable before their cost is worth comparing
+        for (TemplateService service : engines.values()) {
+            for (String template : PDF_RESUME_TEMPLATES) {
+                assertEquals(templateService.processTemplate(template, profile), service.processTemplate(template, profile));
+            }
+            for (String template : PDF_COVER_LETTER_TEMPLATES) {
+                assertEquals(templateService.processCoverLetterTemplate(template, coverLetter),
+                        service.processCoverLetterTemplate(template, coverLetter));
+            }
+        }
+
+        for (String template : PDF_RESUME_TEMPLATES) {
+            for (Map.Entry<String, CandidateProfile> candidate : profiles.entrySet()) {
+                Map<String, Scenario> scenarios = new LinkedHashMap<>();
+                engines.forEach((name, service) -> scenarios.put(name, out -> writeTemplate(out,
+                        writer -> service.processTemplate(template, candidate.getValue(), RenderDeadline.none(), writer))));
+                reportTemplateCost(template + " (" + candidate.getKey() + ")", scenarios);
+            }
+        }
+        for (String template : PDF_COVER_LETTER_TEMPLATES) {
+            Map<String, Scenario> scenarios = new LinkedHashMap<>();
+            engines.forEach((name, service) -> scenarios.put(name, out -> writeTemplate(out,
+                    writer -> service.processCoverLetterTemplate(template, coverLetter, RenderDeadline.none(), writer))));
+            reportTemplateCost(template, scenarios);
+        }
+    }
+
+    private static void reportTemplateCost(String label, Map<String, Scenario> scenarios) throws Exception {
+        int rounds = 5;
+        int perRound = Math.max(50, ITERATIONS * 5);
+        Map<String, Double> bestMicros = new LinkedHashMap<>();
+        Map<String, Long> allocated = new LinkedHashMap<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 * 1024);
+        long threadId = Thread.currentThread().getId();
+
+        for (int round = 0; round < rounds; round++) {
+            for (Map.Entry<String, Scenario> scenario : scenarios.entrySet()) {
+                long allocatedBefore = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                for (int i = 0; i < perRound; i++) {
+                    out.reset();
+                    scenario.getValue().render(out);
+                }
+                double micros = (System.nanoTime() - start) / 1000.0 / perRound;
+                long bytes = (THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - allocatedBefore) / perRound;
+                // Round 0 doubles as warmup
+                if (round > 0) {
+                    bestMicros.merge(scenario.getKey(), micros, Math::min);
+                    allocated.merge(scenario.getKey(), bytes, Math::min);
+                }
+            }
+        }
+
+        double reference = bestMicros.values().iterator().next();
+        for (String engine : scenarios.keySet()) {
+            System.out.printf(Locale.ROOT, "[perf] %-36s %-21s %8.1f us/doc (%5.2fx) %,9d B/doc%n",
+                    label, engine, bestMicros.get(engine), reference / bestMicros.get(engine), allocated.get(engine));
+        }
+    }
+
+    private static SpringTemplateEngine springTemplateEngine(boolean compileExpressions) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("/templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode("HTML");
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        engine.setEnableSpringELCompiler(compileExpressions);
+        return engine;
+    }
+
+    private static void writeTemplate(ByteArrayOutputStream out, PdfGeneratorService.HtmlSource source) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        source.writeTo(writer);
+        writer.flush();
+    }
+
+    /**
+     * The fixture profile with its experience section repeated, producing a document of roughly twenty pages
+     */
+    private static CandidateProfile largeProfile() {
+        CandidateProfile large = new Gson().fromJson(new Gson().toJson(profile), CandidateProfile.class);
+        List<com.example.pdfgen.model.Experience> experience = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            experience.addAll(profile.getExperience());
+        }
+        large.setExperience(experience);
+        return large;
+    }
+
+    /**
+     * Measures latency and allocation single-threaded, then throughput with {@link #THREADS} concurrent renderers
+     */
+    static PerformanceBaseline.Metrics measure(Scenario scenario) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        for (int i = 0; i < WARMUP; i++) {
+            out.reset();
+            scenario.render(out);
+        }
+        assertTrue(out.size() > 0, "Scenario produced no output");
+
+        long threadId = Thread.currentThread().getId();
+        long[] latencies = new long[ITERATIONS];
+        long[] allocations = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            out.reset();
+            long allocatedBefore = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            scenario.render(out);
+            latencies[i] = System.nanoTime() - start;
+            allocations[i] = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+
+        double throughput = measureThroughput(scenario);
+
+        Arrays.sort(latencies);
+        Arrays.sort(allocations);
+        double p99Millis = latencies[(int) Math.ceil(0.99 * ITERATIONS) - 1] / 1_000_000.0;
+        // Median: allocation per document is deterministic apart from occasional JIT or class loading noise
+        long allocatedPerDocument = allocations[ITERATIONS / 2];
+        return new PerformanceBaseline.Metrics(round(throughput), round(p99Millis), allocatedPerDocument);
+    }
+
+    /**
+     * Best of {@link #THROUGHPUT_ROUNDS} rounds, so a single GC or scheduler hiccup doesn't register as a regression
+     */
+    private static double measureThroughput(Scenario scenario) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            int perThread = Math.max(1, ITERATIONS / (2 * THREADS));
+            double best = 0;
+            for (int round = 0; round < THROUGHPUT_ROUNDS; round++) {
+                List<Future<?>> futures = new ArrayList<>();
+                long start = System.nanoTime();
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+                        for (int i = 0; i < perThread; i++) {
+                            out.reset();
+                            scenario.render(out);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                long elapsed = System.nanoTime() - start;
+                best = Math.max(best, perThread * THREADS / (elapsed / 1e9));
+            }
+            return best;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T fixture(String resource, Class<T> type) throws IOException {
+        try (Reader reader = new InputStreamReader(
+                RenderingPerformanceTest.class.getClassLoader().getResourceAsStream(resource), StandardCharsets.UTF_8)) {
+            return new Gson().fromJson(reader, type);
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.pdfgen.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the gradient-based render concurrency limit
+ */
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void testLimitGrowsWhileLatencyIsStable() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 64, true);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(RTT, limit.getLimit());
+        }
+
+        assertTrue(limit.getLimit() > 4, "limit should probe upwards, was " + limit.getLimit());
+        assertEquals(100.0, limit.getShortRttMillis(), 0.5);
+    }
+
+    @Test
+    public void testLimitShrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(32, 1, 64, true);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(RTT, limit.getLimit());
+        }
+        int before = limit.getLimit();
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(RTT * 4, limit.getLimit());
+        }
+
+        assertTrue(limit.getLimit() < before, "limit should back off, was " + before + " now " + limit.getLimit());
+        assertTrue(limit.getLimit() >= 1);
+    }
+
+    @Test
+    public void testLimitIgnoresSamplesWhenApplicationLimited() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(16, 1, 64, true);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(RTT, 1);
+        }
+
+        assertEquals(16, limit.getLimit());
+    }
+
+    @Test
+    public void testFixedLimitNeverMoves() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 64, false);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(RTT * (i % 5 + 1), 8);
+        }
+
+        assertEquals(8, limit.getLimit());
+        assertEquals(100.0, limit.getMinRttMillis(), 0.01);
+    }
+}
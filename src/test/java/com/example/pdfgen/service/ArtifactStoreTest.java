@@ -0,0 +1,77 @@
+package com.example.pdfgen.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ArtifactStore
+ */
+public class ArtifactStoreTest {
+
+    private final OutputBufferPool pool = new OutputBufferPool(64, 16);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testStoresByContentHashInShardedDirectories() throws Exception {
+        ArtifactStore store = new ArtifactStore(true, dir.toString(), 1_000_000);
+
+        String id = store.put(document(100, 1), "pdf");
+        assertEquals("pdf", store.get(id).orElseThrow().getExtension());
+        Path path = store.get(id).orElseThrow().getPath();
+        assertEquals(dir.resolve(id.substring(0, 2)).resolve(id.substring(2, 4)).resolve(id + ".pdf"), path);
+        assertArrayEquals(bytes(100, 1), Files.readAllBytes(path));
+
+        // Identical content is stored once
+        assertEquals(id, store.put(document(100, 1), "pdf"));
+        assertEquals(1, store.getCount());
+        assertEquals(100, store.getTotalBytes());
+
+        assertTrue(store.get("0".repeat(64)).isEmpty());
+        assertTrue(store.get("../../etc/passwd").isEmpty());
+        try (var temp = Files.list(dir.resolve("tmp"))) {
+            assertEquals(0, temp.count());
+        }
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedAndRestoresOrderOnRestart() throws Exception {
+        ArtifactStore store = new ArtifactStore(true, dir.toString(), 300);
+        String first = store.put(document(100, 1), "pdf");
+        String second = store.put(document(100, 2), "docx");
+        String third = store.put(document(100, 3), "pdf");
+
+        // Touch the first document so the second one is least recently used
+        store.get(first);
+        store.shutdown();
+
+        ArtifactStore restarted = new ArtifactStore(true, dir.toString(), 300);
+        assertEquals(3, restarted.getCount());
+        String fourth = restarted.put(document(100, 4), "pdf");
+
+        assertTrue(restarted.get(second).isEmpty());
+        assertFalse(Files.exists(dir.resolve(second.substring(0, 2)).resolve(second.substring(2, 4)).resolve(second + ".docx")));
+        assertTrue(restarted.get(first).isPresent());
+        assertTrue(restarted.get(fourth).isPresent());
+        assertTrue(restarted.getTotalBytes() <= 270);
+        assertTrue(restarted.getEvictions() >= 1);
+        assertNotNull(third);
+    }
+
+    private SegmentedOutputBuffer document(int size, int seed) throws Exception {
+        return pool.fill(out -> out.write(bytes(size, seed)));
+    }
+
+    private static byte[] bytes(int size, int seed) {
+        byte[] content = new byte[size];
+        Arrays.fill(content, (byte) seed);
+        return content;
+    }
+}
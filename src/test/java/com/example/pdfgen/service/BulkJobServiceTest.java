@@ -0,0 +1,158 @@
+package com.example.pdfgen.service;
+
+import com.example.pdfgen.model.CandidateProfile;
+import com.example.pdfgen.model.Experience;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Crash-recovery and failure tests for BulkJobService
+ *
+ * A child JVM starts a run and is killed (SIGKILL) part-way through; the run is then resumed from
+ * the journal it left behind. Items whose render throws are recorded as failed and still let the
+ * run finish.
+ */
+public class BulkJobServiceTest {
+
+    private static final int ITEMS = 40;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testRunResumesAfterProcessIsKilled() throws Exception {
+        Path journalFile = dir.resolve("jobs").resolve("journal.log");
+
+        Process child = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                BulkJobServiceTest.class.getName(), dir.toString())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        JobJournal.Run beforeCrash;
+        try {
+            long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+            while (true) {
+                assertTrue(child.isAlive(), "Child process exited before it was killed");
+                assertTrue(System.nanoTime() < giveUp, "Child process made no progress");
+                List<JobJournal.Run> runs = new ArrayList<>(JobJournal.read(journalFile));
+                if (!runs.isEmpty() && runs.get(0).count(JobJournal.ItemState.COMPLETED) >= 5) {
+                    break;
+                }
+                Thread.sleep(20);
+            }
+        } finally {
+            child.destroyForcibly();
+            child.waitFor(30, TimeUnit.SECONDS);
+        }
+
+        beforeCrash = JobJournal.read(journalFile).iterator().next();
+        int completedBeforeCrash = beforeCrash.count(JobJournal.ItemState.COMPLETED);
+        assertFalse(beforeCrash.isFinished());
+        assertTrue(completedBeforeCrash < ITEMS, "Run finished before the process was killed");
+
+        BulkJobService restarted = newService(dir);
+        try {
+            restarted.resumeRuns();
+            JobJournal.Run run = restarted.getRun(beforeCrash.getId()).orElseThrow();
+            long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+            while (!run.isFinished()) {
+                assertTrue(System.nanoTime() < giveUp, "Resumed run did not finish");
+                Thread.sleep(20);
+            }
+
+            assertEquals(ITEMS, run.count(JobJournal.ItemState.COMPLETED));
+            // Outputs finished before the crash are kept, not rendered again
+            assertEquals(completedBeforeCrash, restarted.getSkippedItems());
+            assertEquals(ITEMS - completedBeforeCrash, restarted.getRenderedItems());
+            for (int i = 0; i < ITEMS; i++) {
+                if (beforeCrash.getState(i) == JobJournal.ItemState.COMPLETED) {
+                    assertEquals(beforeCrash.getResult(i), run.getResult(i));
+                }
+            }
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    public void testItemFailingAtRenderTimeIsRecordedAndRunFinishes() throws Exception {
+        // Parses fine; fails only while the template is rendered
+        TemplateEngine engine = new TemplateEngine();
+        engine.setTemplateResolver(new StringTemplateResolver());
+        BulkJobService service = newService(dir, new TemplateService(engine));
+        try {
+            String runId = service.submit("<p th:text=\"${1 / 0}\"></p>", profiles().subList(0, 3));
+            JobJournal.Run run = service.getRun(runId).orElseThrow();
+            long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (!run.isFinished()) {
+                assertTrue(System.nanoTime() < giveUp, "Run with failing items did not finish");
+                Thread.sleep(20);
+            }
+
+            assertEquals(3, run.count(JobJournal.ItemState.FAILED));
+            assertNotNull(run.getResult(0));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    /**
+     * Child process: submits a run and keeps rendering until it is killed
+     */
+    public static void main(String[] args) throws Exception {
+        BulkJobService service = newService(Paths.get(args[0]));
+        service.resumeRuns();
+        service.submit("resume_template_001", profiles());
+        Thread.sleep(Long.MAX_VALUE);
+    }
+
+    private static BulkJobService newService(Path dir) throws Exception {
+        return newService(dir, new TemplateService());
+    }
+
+    private static BulkJobService newService(Path dir, TemplateService templateService) throws Exception {
+        return new BulkJobService(
+                templateService,
+                new PdfGeneratorService(),
+                new RenderScheduler(new AdaptiveConcurrencyLimit(2, 1, 2, false), 4, 50, 1, 200, 30_000),
+                new RenderDeadlinePolicy(new MockEnvironment(), new SimpleMeterRegistry()),
+                new RenderCostEstimator(),
+                new OutputBufferPool(65536, 64),
+                new ArtifactStore(true, dir.resolve("artifacts").toString(), 1L << 30),
+                dir.resolve("jobs").toString(), 2, 64L << 20, 100);
+    }
+
+    private static List<CandidateProfile> profiles() {
+        List<CandidateProfile> profiles = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            CandidateProfile profile = new CandidateProfile();
+            profile.setName("Candidate " + i);
+            profile.setEmail("candidate" + i + "@example.com");
+            profile.setSummary("Engineer number " + i + " with a track record of shipping reliable systems.");
+            profile.setSkills(List.of("Java", "Spring Boot", "PostgreSQL"));
+            Experience experience = new Experience();
+            experience.setTitle("Software Engineer");
+            experience.setCompany("Company " + i);
+            experience.setDuration("2019 - Present");
+            experience.setDescription("Built services used by millions of customers.");
+            profile.setExperience(List.of(experience));
+            profiles.add(profile);
+        }
+        return profiles;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.pdfgen.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.Writer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HtmlBuffer reuse
+ */
+public class HtmlBufferTest {
+
+    @Test
+    public void testBufferIsReusedOnTheSameThread() {
+        HtmlBuffer buffer = HtmlBuffer.acquire();
+        HtmlBuffer nested = HtmlBuffer.acquire();
+        assertNotSame(buffer, nested);
+        nested.release();
+        buffer.release();
+
+        HtmlBuffer again = HtmlBuffer.acquire();
+        assertSame(buffer, again);
+        assertEquals(0, again.size());
+        again.release();
+    }
+
+    @Test
+    public void testLargeRenderShrinksBackAfterRelease() throws Exception {
+        HtmlBuffer buffer = HtmlBuffer.acquire();
+        Writer writer = buffer.writer();
+        writer.write("<p>x</p>".repeat(64 * 1024));
+        writer.flush();
+        assertTrue(buffer.capacity() > 256 * 1024);
+        buffer.release();
+
+        HtmlBuffer again = HtmlBuffer.acquire();
+        assertSame(buffer, again);
+        assertEquals(32 * 1024, again.capacity());
+        again.release();
+    }
+}
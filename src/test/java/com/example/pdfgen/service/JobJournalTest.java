@@ -0,0 +1,205 @@
+package com.example.pdfgen.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for JobJournal
+ */
+public class JobJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testReplaysRunsAfterReopen() throws Exception {
+        Path file = dir.resolve("journal.log");
+        try (JobJournal journal = new JobJournal(file)) {
+            journal.submitted("run-1", "resume_template_001", spec("three profiles"), 3);
+            journal.started("run-1", 0);
+            journal.completed("run-1", 0, "artifact-0");
+            journal.started("run-1", 1);
+            journal.failed("run-1", 1, "Template not found");
+            journal.started("run-1", 2);
+        }
+
+        try (JobJournal journal = new JobJournal(file)) {
+            JobJournal.Run run = journal.getRun("run-1");
+            assertEquals("resume_template_001", run.getTemplateId());
+            assertEquals("three profiles", new String(run.getSpec(), StandardCharsets.UTF_8));
+            assertEquals(JobJournal.ItemState.COMPLETED, run.getState(0));
+            assertEquals("artifact-0", run.getResult(0));
+            assertEquals(JobJournal.ItemState.FAILED, run.getState(1));
+            assertEquals("Template not found", run.getResult(1));
+            // Started but not completed before the journal was closed
+            assertEquals(JobJournal.ItemState.PENDING, run.getState(2));
+            assertEquals(3, run.getStarted());
+            assertFalse(run.isFinished());
+        }
+    }
+
+    @Test
+    public void testDiscardsTornTailAndKeepsAppending() throws Exception {
+        Path file = dir.resolve("journal.log");
+        try (JobJournal journal = new JobJournal(file)) {
+            journal.submitted("run-1", "resume_template_001", spec("two profiles"), 2);
+            journal.completed("run-1", 0, "artifact-0");
+        }
+        long intact = Files.size(file);
+
+        // A crash part-way through writing the next record
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3, 4, 3, 0, 5, 'r'}));
+        }
+        assertEquals(1, JobJournal.read(file).iterator().next().count(JobJournal.ItemState.COMPLETED));
+
+        try (JobJournal journal = new JobJournal(file)) {
+            assertEquals(intact, journal.size());
+            journal.completed("run-1", 1, "artifact-1");
+            journal.finished("run-1");
+        }
+        JobJournal.Run run = JobJournal.read(file).iterator().next();
+        assertEquals(2, run.count(JobJournal.ItemState.COMPLETED));
+        assertTrue(run.isFinished());
+    }
+
+    @Test
+    public void testIgnoresRecordsWithBadChecksum() throws Exception {
+        Path file = dir.resolve("journal.log");
+        try (JobJournal journal = new JobJournal(file)) {
+            journal.submitted("run-1", "resume_template_001", spec("two profiles"), 2);
+        }
+        long intact = Files.size(file);
+        try (JobJournal journal = new JobJournal(file)) {
+            journal.completed("run-1", 0, "artifact-0");
+        }
+
+        // Flip a payload byte of the completion record
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), intact + 12);
+        }
+
+        try (JobJournal journal = new JobJournal(file)) {
+            assertEquals(JobJournal.ItemState.PENDING, journal.getRun("run-1").getState(0));
+            assertEquals(intact, journal.size());
+        }
+    }
+
+    @Test
+    public void testCompactionKeepsStateAndDropsOldRuns() throws Exception {
+        Path file = dir.resolve("journal.log");
+        try (JobJournal journal = new JobJournal(file)) {
+            for (int r = 0; r < 3; r++) {
+                String runId = "finished-" + r;
+                journal.submitted(runId, "resume_template_001", spec("x".repeat(10_000)), 10);
+                for (int i = 0; i < 10; i++) {
+                    journal.started(runId, i);
+                    journal.completed(runId, i, "artifact-" + r + "-" + i);
+                }
+                journal.finished(runId);
+            }
+            journal.submitted("active", "resume_template_002", spec("active profiles"), 4);
+            journal.started("active", 0);
+            journal.completed("active", 0, "artifact-a");
+            journal.started("active", 1);
+
+            long before = journal.size();
+            assertTrue(journal.compact(1) > 0);
+            assertTrue(journal.size() < before / 2);
+            assertEquals(journal.size(), journal.getCompactedSize());
+
+            // Appends continue on the compacted file
+            journal.completed("active", 1, "artifact-b");
+        }
+
+        try (JobJournal journal = new JobJournal(file)) {
+            List<String> runIds = journal.getRuns().stream().map(JobJournal.Run::getId).toList();
+            assertEquals(List.of("finished-2", "active"), runIds);
+
+            JobJournal.Run finished = journal.getRun("finished-2");
+            assertTrue(finished.isFinished());
+            assertEquals(10, finished.count(JobJournal.ItemState.COMPLETED));
+            assertEquals("artifact-2-9", finished.getResult(9));
+            assertEquals(0, finished.getSpec().length);
+
+            JobJournal.Run active = journal.getRun("active");
+            assertEquals("active profiles", new String(active.getSpec(), StandardCharsets.UTF_8));
+            assertEquals("artifact-a", active.getResult(0));
+            assertEquals("artifact-b", active.getResult(1));
+            assertEquals(JobJournal.ItemState.PENDING, active.getState(2));
+        }
+    }
+
+    @Test
+    public void testConcurrentCompletionsAreAllDurable() throws Exception {
+        int threads = 8;
+        int itemsPerThread = 100;
+        Path file = dir.resolve("journal.log");
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try (JobJournal journal = new JobJournal(file)) {
+            journal.submitted("run-1", "resume_template_001", spec("profiles"), threads * itemsPerThread);
+            long syncsBefore = journal.getSyncs();
+
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int first = t * itemsPerThread;
+                writers.add(executor.submit(() -> {
+                    for (int i = first; i < first + itemsPerThread; i++) {
+                        journal.completed("run-1", i, "artifact-" + i);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+
+            assertEquals(threads * itemsPerThread, journal.getRun("run-1").count(JobJournal.ItemState.COMPLETED));
+            long syncs = journal.getSyncs() - syncsBefore;
+            assertTrue(syncs <= threads * itemsPerThread, "Expected at most one fsync per completion, got " + syncs);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * itemsPerThread, JobJournal.read(file).iterator().next().count(JobJournal.ItemState.COMPLETED));
+    }
+
+    @Test
+    public void testOversizedSpecIsRefusedNotWritten() throws Exception {
+        Path file = dir.resolve("journal.log");
+        try (JobJournal journal = new JobJournal(file, 1024)) {
+            journal.submitted("run-1", "resume_template_001", spec("small"), 1);
+            long size = Files.size(file);
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> journal.submitted("run-2", "resume_template_001", new byte[2048], 1));
+            assertEquals(size, Files.size(file));
+            assertNull(journal.getRun("run-2"));
+            journal.completed("run-1", 0, "artifact-0");
+        }
+
+        try (JobJournal journal = new JobJournal(file)) {
+            assertEquals(1, journal.getRuns().size());
+            assertEquals(JobJournal.ItemState.COMPLETED, journal.getRun("run-1").getState(0));
+        }
+    }
+
+    private static byte[] spec(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
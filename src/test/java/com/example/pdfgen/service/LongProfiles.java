@@ -0,0 +1,38 @@
+package com.example.pdfgen.service;
+
+import com.example.pdfgen.model.CandidateProfile;
+import com.example.pdfgen.model.Education;
+import com.example.pdfgen.model.Experience;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test fixture: resume profiles whose length is set by their number of experience entries
+ */
+public final class LongProfiles {
+
+    /**
+     * About four wrapped lines per entry in every resume template
+     */
+    public static final String DESCRIPTION = ("Led the design and delivery of a distributed system handling many "
+            + "requests per second, mentoring engineers and improving reliability. ").repeat(4);
+
+    private LongProfiles() {
+    }
+
+    public static CandidateProfile profile(int entries) {
+        return profile(entries, DESCRIPTION);
+    }
+
+    public static CandidateProfile profile(int entries, String description) {
+        List<Experience> experience = new ArrayList<>();
+        for (int i = 0; i < entries; i++) {
+            experience.add(new Experience("Engineer " + i, "Company " + i, "2010 - 2012", description));
+        }
+        return new CandidateProfile("Jane Doe", "jane@example.com", "+1 555 0100", "Springfield",
+                "Engineer with a long history of shipping distributed systems and leading small teams.",
+                List.of("Java", "Go", "Kubernetes", "PostgreSQL"), experience,
+                List.of(new Education("BSc Computer Science", "State University", "2010")), List.of("AWS"));
+    }
+}
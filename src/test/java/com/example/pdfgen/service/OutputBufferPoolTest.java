@@ -0,0 +1,77 @@
+package com.example.pdfgen.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OutputBufferPool and SegmentedOutputBuffer
+ */
+public class OutputBufferPoolTest {
+
+    @Test
+    public void testContentSurvivesSegmentBoundaries() throws Exception {
+        OutputBufferPool pool = new OutputBufferPool(16, 8);
+        byte[] content = new byte[100];
+        new Random(42).nextBytes(content);
+
+        SegmentedOutputBuffer buffer = pool.acquire();
+        buffer.write(content[0]);
+        buffer.write(content, 1, 40);
+        buffer.write(content, 41, 59);
+        assertEquals(100, buffer.size());
+
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        buffer.writeTo(written);
+        assertArrayEquals(content, written.toByteArray());
+
+        ByteArrayOutputStream transferred = new ByteArrayOutputStream();
+        try (InputStream in = buffer.toInputStream()) {
+            assertEquals(content[0] & 0xff, in.read());
+            byte[] chunk = new byte[20];
+            assertEquals(15, in.read(chunk, 0, 20));
+            transferred.write(content[0]);
+            transferred.write(chunk, 0, 15);
+            assertEquals(84, in.transferTo(transferred));
+            assertEquals(-1, in.read());
+        }
+        assertArrayEquals(content, transferred.toByteArray());
+    }
+
+    @Test
+    public void testSegmentsAreReusedAndPoolIsBounded() throws Exception {
+        OutputBufferPool pool = new OutputBufferPool(16, 4);
+
+        SegmentedOutputBuffer first = pool.acquire();
+        first.write(new byte[16 * 6]);
+        assertEquals(6, pool.getMisses());
+        // Closing the stream releases the buffer; only four segments are kept
+        first.toResource().getInputStream().close();
+        assertEquals(4, pool.getIdleSegments());
+
+        SegmentedOutputBuffer second = pool.fill(out -> out.write(new byte[16 * 3]));
+        assertEquals(3, pool.getHits());
+        assertEquals(1, pool.getIdleSegments());
+        assertEquals(48, second.toResource().contentLength());
+        second.release();
+        second.release();
+        assertEquals(4, pool.getIdleSegments());
+        assertEquals(3.0 / 9, pool.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void testFailedWriterReleasesBuffer() {
+        OutputBufferPool pool = new OutputBufferPool(16, 4);
+
+        assertThrows(IOException.class, () -> pool.fill(out -> {
+            out.write(new byte[40]);
+            throw new IOException("render failed");
+        }));
+        assertEquals(3, pool.getIdleSegments());
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.pdfgen.service;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.EventType;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfCanvasProcessor;
+import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
+import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for deadline handling, fit-to-pages and combined documents in PdfGeneratorService
+ */
+public class PdfGeneratorServiceTest {
+
+    private final PdfGeneratorService pdfGeneratorService = new PdfGeneratorService();
+
+    @Test
+    public void testExpiredDeadlineAbortsBeforeConversion() {
+        AtomicReference<RenderCancelledException> notified = new AtomicReference<>();
+        RenderDeadline deadline = RenderDeadline.after(Duration.ZERO, notified::set);
+
+        RenderCancelledException e = assertThrows(RenderCancelledException.class,
+                () -> pdfGeneratorService.generatePdfToStream("<p>Hello</p>", new ByteArrayOutputStream(), deadline));
+
+        assertEquals("convert", e.getStage());
+        assertEquals(RenderCancelledException.Reason.DEADLINE, e.getReason());
+        assertSame(e, notified.get());
+    }
+
+    @Test
+    public void testCancellationStopsAtPageBoundary() throws Exception {
+        StringBuilder html = new StringBuilder("<html><body>");
+        for (int i = 0; i < 4000; i++) {
+            html.append("<p>Paragraph ").append(i).append(" of a very long document that spans many pages.</p>");
+        }
+        html.append("</body></html>");
+
+        RenderDeadline deadline = RenderDeadline.none();
+        ScheduledExecutorService canceller = Executors.newSingleThreadScheduledExecutor();
+        try {
+            canceller.schedule(() -> deadline.cancel("client disconnected"), 200, TimeUnit.MILLISECONDS);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            RenderCancelledException e = assertThrows(RenderCancelledException.class,
+                    () -> pdfGeneratorService.generatePdfToStream(html.toString(), out, deadline));
+
+            assertEquals("convert-page", e.getStage());
+            assertEquals(RenderCancelledException.Reason.CANCELLED, e.getReason());
+        } finally {
+            canceller.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFitToPagesKeepsContentThatAlreadyFits() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PageFit fit = pdfGeneratorService.generateFittedPdfToStream(
+                writer -> writer.write(paragraphs(5)), out, 1, RenderDeadline.none(), null);
+
+        assertEquals(1f, fit.getScale());
+        assertEquals(1, fit.getIterations());
+        assertTrue(fit.isFitted());
+        assertEquals(1, pageCount(out));
+    }
+
+    @Test
+    public void testFitToPagesShrinksOverflowOntoTargetPages() throws Exception {
+        String html = paragraphs(35);
+        ByteArrayOutputStream unscaled = new ByteArrayOutputStream();
+        pdfGeneratorService.generatePdfToStream(html, unscaled);
+        assertEquals(2, pageCount(unscaled));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PageFit fit = pdfGeneratorService.generateFittedPdfToStream(
+                writer -> writer.write(html), out, 1, RenderDeadline.none(), null);
+
+        assertTrue(fit.isFitted());
+        assertTrue(fit.getScale() < 1f && fit.getScale() >= 0.6f, "scale " + fit.getScale());
+        assertTrue(fit.getIterations() > 2);
+        assertEquals(1, fit.getPageCount());
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+            assertEquals(1, document.getNumberOfPages());
+            assertEquals(PageSize.A4.getWidth(), document.getPage(1).getPageSize().getWidth(), 0.01);
+        }
+    }
+
+    @Test
+    public void testFitToPagesRendersAtMinimumScaleWhenContentCannotFit() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PageFit fit = pdfGeneratorService.generateFittedPdfToStream(
+                writer -> writer.write(paragraphs(400)), out, 1, RenderDeadline.none(), null);
+
+        assertFalse(fit.isFitted());
+        assertEquals(0.6f, fit.getScale());
+        assertEquals(3, fit.getIterations());
+        assertEquals(fit.getPageCount(), pageCount(out));
+        assertTrue(fit.getPageCount() > 1);
+    }
+
+    @Test
+    public void testPageMarginsComeFromThePlainPageRule() {
+        float mm = 72 / 25.4f;
+        float[] margins = PdfGeneratorService.pageMargins("<html><head><style>body { margin: 0; } "
+                + "@page { margin: 15mm 10mm; } @page :first { margin-top: 0; }</style>"
+                + "<style>@page { margin-left: 1in; }</style></head><body></body></html>");
+
+        assertArrayEquals(new float[]{15 * mm, 10 * mm, 15 * mm, 72}, margins, 0.01f);
+        assertArrayEquals(new float[]{36, 36, 36, 36}, PdfGeneratorService.pageMargins("<p>No styles</p>"), 0.01f);
+    }
+
+    @Test
+    public void testCombinedPartsKeepTheirOwnPageMargins() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pdfGeneratorService.generateCombinedPdfToStream(List.of(
+                writer -> writer.write("<html><body><p>Letter</p></body></html>"),
+                writer -> writer.write("<html><head><style>@page { margin: 72pt; }</style></head>"
+                        + "<body><p>Resume</p></body></html>")), out, RenderDeadline.none(), null);
+
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+            assertEquals(2, document.getNumberOfPages());
+            assertEquals(36, textLeft(document.getPage(1)), 0.5);
+            assertEquals(72, textLeft(document.getPage(2)), 0.5);
+        }
+    }
+
+    private static float textLeft(PdfPage page) {
+        float[] left = {Float.MAX_VALUE};
+        new PdfCanvasProcessor(new IEventListener() {
+            @Override
+            public void eventOccurred(IEventData data, EventType type) {
+                left[0] = Math.min(left[0], ((TextRenderInfo) data).getBaseline().getStartPoint().get(0));
+            }
+
+            @Override
+            public Set<EventType> getSupportedEvents() {
+                return Set.of(EventType.RENDER_TEXT);
+            }
+        }).processPageContent(page);
+        return left[0];
+    }
+
+    private static String paragraphs(int count) {
+        StringBuilder html = new StringBuilder("<html><body>");
+        for (int i = 0; i < count; i++) {
+            html.append("<p>Paragraph ").append(i).append(" describing a role, its scope and its outcomes.</p>");
+        }
+        return html.append("</body></html>").toString();
+    }
+
+    private static int pageCount(ByteArrayOutputStream pdf) throws Exception {
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf.toByteArray())))) {
+            return document.getNumberOfPages();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.pdfgen.service;
+
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfOutline;
+import com.itextpdf.kernel.pdf.PdfReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PdfPacketWriter
+ */
+public class PdfPacketWriterTest {
+
+    private final PdfGeneratorService pdfGeneratorService = new PdfGeneratorService();
+
+    @Test
+    public void testBookmarkPerDocumentAndSharedResources() throws Exception {
+        byte[] first = render("Alice", 1);
+        byte[] second = render("Bob", 60);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PdfPacketWriter packet = new PdfPacketWriter(out)) {
+            packet.append("Alice", new ByteArrayInputStream(first));
+            packet.append("Bob", new ByteArrayInputStream(second));
+            packet.append("Alice again", new ByteArrayInputStream(first));
+        }
+
+        try (PdfDocument merged = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+            int firstPages = pages(first);
+            int secondPages = pages(second);
+            assertEquals(2 * firstPages + secondPages, merged.getNumberOfPages());
+
+            List<PdfOutline> bookmarks = merged.getOutlines(false).getAllChildren();
+            assertEquals(List.of("Alice", "Bob", "Alice again"), bookmarks.stream().map(PdfOutline::getTitle).toList());
+            PdfArray secondDestination = (PdfArray) bookmarks.get(1).getDestination().getPdfObject();
+            assertEquals(firstPages + 1, merged.getPageNumber(secondDestination.getAsDictionary(0)));
+        }
+
+        // Smart mode stores the repeated document's resources once
+        assertTrue(out.size() < first.length * 2 + second.length);
+    }
+
+    @Test
+    public void testFailedAppendLeavesPacketWithoutTrailer() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PdfPacketWriter packet = new PdfPacketWriter(out)) {
+            packet.append("Alice", new ByteArrayInputStream(render("Alice", 1)));
+            assertThrows(RuntimeException.class,
+                    () -> packet.append("Broken", new ByteArrayInputStream("not a pdf".getBytes(StandardCharsets.US_ASCII))));
+            assertThrows(IllegalStateException.class,
+                    () -> packet.append("Bob", new ByteArrayInputStream(render("Bob", 1))));
+        }
+
+        String written = out.toString(StandardCharsets.ISO_8859_1);
+        assertTrue(written.startsWith("%PDF-"));
+        assertFalse(written.contains("startxref"));
+        assertFalse(written.contains("%%EOF"));
+        assertThrows(Exception.class,
+                () -> new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray()))).close());
+    }
+
+    @Test
+    public void testMemoryStaysFlatAsPacketGrows() throws Exception {
+        byte[] document = render("Candidate", 40);
+        OutputStream discard = OutputStream.nullOutputStream();
+
+        try (PdfPacketWriter packet = new PdfPacketWriter(discard)) {
+            for (int i = 0; i < 200; i++) {
+                packet.append("Candidate " + i, new ByteArrayInputStream(document));
+            }
+            long afterWarmup = usedHeapAfterGc();
+            for (int i = 0; i < 1500; i++) {
+                packet.append("Candidate " + i, new ByteArrayInputStream(document));
+            }
+            long afterGrowth = usedHeapAfterGc();
+
+            assertTrue(packet.getPageCount() >= 1700);
+            // Only the page tree, outline and cross-reference entries remain; well under 50 KB per document
+            long growthPerDocument = (afterGrowth - afterWarmup) / 1500;
+            assertTrue(growthPerDocument < 50_000, "Heap grew " + growthPerDocument + " bytes per document");
+        }
+    }
+
+    private byte[] render(String name, int paragraphs) throws Exception {
+        StringBuilder html = new StringBuilder("<html><body><h1>").append(name).append("</h1>");
+        for (int i = 0; i < paragraphs; i++) {
+            html.append("<p>Experience entry ").append(i).append(" describing work at a previous employer.</p>");
+        }
+        html.append("</body></html>");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pdfGeneratorService.generatePdfToStream(html.toString(), out);
+        return out.toByteArray();
+    }
+
+    private static int pages(byte[] pdf) throws Exception {
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            return document.getNumberOfPages();
+        }
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.pdfgen.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PhotoCache
+ */
+public class PhotoCacheTest {
+
+    private final PhotoCache photoCache = new PhotoCache(240, 10 * 1024 * 1024, 1024 * 1024, 0.85f);
+
+    @Test
+    public void testDownscalesOncePerDistinctImage() throws Exception {
+        String photo = samplePhoto();
+
+        PhotoCache.Photo first = photoCache.get(photo);
+        assertTrue(Math.max(first.getWidth(), first.getHeight()) == 240);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(first.getJpeg()));
+        assertEquals(first.getWidth(), decoded.getWidth());
+        assertEquals(first.getHeight(), decoded.getHeight());
+        // JPEG start-of-image marker
+        assertEquals((byte) 0xFF, first.getJpeg()[0]);
+        assertEquals((byte) 0xD8, first.getJpeg()[1]);
+        assertTrue(first.getDataUri().startsWith("data:image/jpeg;base64,"));
+        assertTrue(first.getJpeg().length < Base64.getDecoder().decode(photo).length / 4);
+
+        // Same image again, also as a data URI: served from the cache
+        assertSame(first, photoCache.get(photo));
+        assertSame(first, photoCache.get("data:image/png;base64," + photo));
+        assertEquals(1, photoCache.getMisses());
+        assertEquals(2, photoCache.getHits());
+    }
+
+    @Test
+    public void testLargeImagesAreSubsampledToTheTargetSize() throws Exception {
+        // Decoded at every 6th pixel (500x334), then scaled to 240 on the longer side
+        BufferedImage large = new BufferedImage(3000, 2000, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(large, "png", png);
+
+        PhotoCache.Photo photo = photoCache.get(Base64.getEncoder().encodeToString(png.toByteArray()));
+        assertEquals(240, photo.getWidth());
+        assertEquals(160, photo.getHeight());
+    }
+
+    @Test
+    public void testSmallImagesKeepTheirSizeAndLoseTransparency() throws Exception {
+        BufferedImage transparent = new BufferedImage(40, 30, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(transparent, "png", png);
+
+        PhotoCache.Photo photo = photoCache.get(Base64.getEncoder().encodeToString(png.toByteArray()));
+        assertEquals(40, photo.getWidth());
+        assertEquals(30, photo.getHeight());
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(photo.getJpeg()));
+        // Transparent pixels are flattened onto white
+        assertTrue((decoded.getRGB(10, 10) & 0xFFFFFF) > 0xF0F0F0);
+    }
+
+    @Test
+    public void testCacheStaysWithinItsBudget() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 40; i++) {
+            // Noise compresses poorly, so every processed photo is large
+            BufferedImage image = new BufferedImage(400, 400, BufferedImage.TYPE_INT_RGB);
+            for (int x = 0; x < 400; x++) {
+                for (int y = 0; y < 400; y++) {
+                    image.setRGB(x, y, random.nextInt(0xFFFFFF));
+                }
+            }
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", png);
+            photoCache.get(Base64.getEncoder().encodeToString(png.toByteArray()));
+        }
+        assertTrue(photoCache.getCacheBytes() <= 1024 * 1024);
+        assertTrue(photoCache.getCount() < 40);
+    }
+
+    @Test
+    public void testRejectsDataThatIsNotAnImage() {
+        assertThrows(IllegalArgumentException.class, () -> photoCache.get("not base64 at all!"));
+        assertThrows(IllegalArgumentException.class,
+                () -> photoCache.get(Base64.getEncoder().encodeToString("plain text".getBytes())));
+        assertThrows(IllegalArgumentException.class, () -> photoCache.get("data:image/png,rawbytes"));
+    }
+
+    private static String samplePhoto() throws Exception {
+        try (InputStream in = PhotoCacheTest.class.getResourceAsStream("/template-builder/david.png")) {
+            return Base64.getEncoder().encodeToString(in.readAllBytes());
+        }
+    }
+}
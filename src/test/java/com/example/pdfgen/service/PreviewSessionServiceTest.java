@@ -0,0 +1,199 @@
+package com.example.pdfgen.service;
+
+import com.example.pdfgen.model.CandidateProfile;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for edit coalescing and model checks in PreviewSessionService
+ */
+public class PreviewSessionServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService renderExecutor = Executors.newFixedThreadPool(2);
+    private final PreviewSessionService previewSessionService = newService(new TemplateService());
+
+    @AfterEach
+    public void tearDown() {
+        previewSessionService.shutdown();
+        renderExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testRapidEditsAreCoalescedIntoNewestDocument() throws Exception {
+        String sessionId = previewSessionService.open("resume_template_001", PreviewUpdate.Format.HTML,
+                json("{\"name\":\"Jane Roe\",\"skills\":[\"Java\"]}"));
+        RecordingListener listener = new RecordingListener();
+        previewSessionService.subscribe(sessionId, listener);
+        assertTrue(listener.awaitVersion(0));
+
+        // Twenty edits faster than the debounce window
+        for (int i = 1; i <= 20; i++) {
+            previewSessionService.patch(sessionId, json("{\"summary\":\"Edit " + i + "\"}"));
+            Thread.sleep(10);
+        }
+        assertTrue(listener.awaitVersion(20));
+        Thread.sleep(300);
+
+        List<Long> versions = listener.updates.stream().map(PreviewUpdate::getVersion).toList();
+        assertEquals(20L, versions.get(versions.size() - 1));
+        // The initial render plus at most one more for the burst
+        assertTrue(versions.size() <= 3, "Rendered versions " + versions);
+        assertTrue(listener.updates.get(listener.updates.size() - 1).getHtml().contains("Edit 20"));
+    }
+
+    @Test
+    public void testNewerEditCancelsRenderInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        // Renders of the initial model run until their deadline is cancelled
+        TemplateService slowFirstRender = new TemplateService() {
+            @Override
+            public String processTemplate(String templateName, CandidateProfile candidateProfile, RenderDeadline deadline) {
+                if (candidateProfile.getSummary() == null) {
+                    started.countDown();
+                    long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                    while (!deadline.isCancelled() && System.nanoTime() < giveUp) {
+                        Thread.onSpinWait();
+                    }
+                    if (deadline.isCancelled()) {
+                        cancelled.countDown();
+                    }
+                    deadline.checkpoint("template");
+                }
+                return super.processTemplate(templateName, candidateProfile, deadline);
+            }
+        };
+        PreviewSessionService service = newService(slowFirstRender);
+        try {
+            String sessionId = service.open("resume_template_001", PreviewUpdate.Format.HTML, json("{\"name\":\"Jane Roe\"}"));
+            RecordingListener listener = new RecordingListener();
+            service.subscribe(sessionId, listener);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            service.patch(sessionId, json("{\"summary\":\"Edited\"}"));
+
+            assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+            assertTrue(listener.awaitVersion(1));
+            assertEquals(List.of(1L), listener.updates.stream().map(PreviewUpdate::getVersion).toList());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testMergePatchEditsModelAndRejectsInvalidProfiles() throws Exception {
+        String sessionId = previewSessionService.open("resume_template_001", PreviewUpdate.Format.HTML,
+                json("{\"name\":\"Jane Roe\",\"email\":\"jane@example.com\",\"skills\":[\"Java\"]}"));
+        RecordingListener listener = new RecordingListener();
+        previewSessionService.subscribe(sessionId, listener);
+
+        // null removes a member, arrays are replaced
+        assertEquals(1, previewSessionService.patch(sessionId, json("{\"email\":null,\"skills\":[\"Kotlin\",\"Go\"]}")));
+        assertThrows(IllegalArgumentException.class,
+                () -> previewSessionService.patch(sessionId, json("{\"skills\":{\"not\":\"a list\"}}")));
+
+        assertTrue(listener.awaitVersion(1));
+        String html = listener.updates.get(listener.updates.size() - 1).getHtml();
+        assertTrue(html.contains("Kotlin"));
+        assertFalse(html.contains("jane@example.com"));
+    }
+
+    @Test
+    public void testOversizedModelsAreRefusedBeforeRendering() throws Exception {
+        StringBuilder experience = new StringBuilder("{\"experience\":[");
+        for (int i = 0; i < 40; i++) {
+            experience.append(i > 0 ? "," : "").append("{\"title\":\"Engineer\",\"company\":\"Company ").append(i)
+                    .append("\",\"duration\":\"2020\",\"description\":\"").append("Built and ran services. ".repeat(20))
+                    .append("\"}");
+        }
+        JsonNode oversized = json(experience.append("]}").toString());
+
+        assertThrows(RenderTooLargeException.class,
+                () -> previewSessionService.open("resume_template_001", PreviewUpdate.Format.HTML, oversized));
+
+        String sessionId = previewSessionService.open("resume_template_001", PreviewUpdate.Format.HTML,
+                json("{\"name\":\"Jane Roe\"}"));
+        assertThrows(RenderTooLargeException.class, () -> previewSessionService.patch(sessionId, oversized));
+        // The refused edit left the model and its version alone
+        assertEquals(1, previewSessionService.patch(sessionId, json("{\"summary\":\"Short\"}")));
+    }
+
+    @Test
+    public void testSessionLimitAndClose() throws Exception {
+        String first = previewSessionService.open("resume_template_001", PreviewUpdate.Format.HTML, json("{\"name\":\"A\"}"));
+        previewSessionService.open("resume_template_001", PreviewUpdate.Format.HTML, json("{\"name\":\"B\"}"));
+        assertThrows(RenderRejectedException.class,
+                () -> previewSessionService.open("resume_template_001", PreviewUpdate.Format.HTML, json("{\"name\":\"C\"}")));
+
+        RecordingListener listener = new RecordingListener();
+        previewSessionService.subscribe(first, listener);
+        previewSessionService.close(first);
+        assertTrue(listener.closed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, previewSessionService.getSessionCount());
+        previewSessionService.open("resume_template_001", PreviewUpdate.Format.HTML, json("{\"name\":\"C\"}"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> previewSessionService.open("../secrets", PreviewUpdate.Format.HTML, json("{\"name\":\"D\"}")));
+    }
+
+    private PreviewSessionService newService(TemplateService templateService) {
+        return new PreviewSessionService(
+                templateService,
+                new PdfGeneratorService(),
+                new RenderScheduler(new AdaptiveConcurrencyLimit(2, 1, 2, false), 4, 50, 1, 50, 5000),
+                new RenderDeadlinePolicy(new MockEnvironment(), new SimpleMeterRegistry()),
+                new RenderCostEstimator(5, 3),
+                objectMapper,
+                renderExecutor,
+                100, 1000, 60_000, 2);
+    }
+
+    private JsonNode json(String value) throws Exception {
+        return objectMapper.readTree(value);
+    }
+
+    private static final class RecordingListener implements PreviewSessionService.PreviewListener {
+        final List<PreviewUpdate> updates = new CopyOnWriteArrayList<>();
+        final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void onUpdate(PreviewUpdate update) {
+            updates.add(update);
+        }
+
+        @Override
+        public void onError(long version, String message) {
+            fail("Render failed for version " + version + ": " + message);
+        }
+
+        @Override
+        public void onClose() {
+            closed.countDown();
+        }
+
+        boolean awaitVersion(long version) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (System.nanoTime() < deadline) {
+                if (updates.stream().anyMatch(update -> update.getVersion() == version)) {
+                    return true;
+                }
+                Thread.sleep(10);
+            }
+            return false;
+        }
+    }
+}
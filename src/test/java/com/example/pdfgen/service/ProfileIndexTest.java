@@ -0,0 +1,113 @@
+package com.example.pdfgen.service;
+
+import com.example.pdfgen.model.CandidateProfile;
+import com.example.pdfgen.model.Experience;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProfileIndex
+ */
+public class ProfileIndexTest {
+
+    private static final String JOB = "Senior Backend Engineer. Strong Java and Spring Boot, microservices on AWS, "
+            + "PostgreSQL, Docker and Kubernetes. Java experience required.";
+
+    @Test
+    public void testRanksRelevantProfilesFirst() {
+        ProfileIndex index = new ProfileIndex();
+        index.put("backend", profile("Backend", List.of("Java", "Spring Boot", "PostgreSQL", "Kubernetes"),
+                "Senior Software Engineer", "Built <li>microservices</li> on AWS with Docker"));
+        index.put("frontend", profile("Frontend", List.of("JavaScript", "React", "CSS"),
+                "Frontend Engineer", "Built single page applications"));
+        index.put("marketing", profile("Marketing", List.of("SEO", "Campaigns"),
+                "Marketing Manager", "Ran campaigns"));
+
+        List<ProfileIndex.Match> matches = index.rank(JOB, 10);
+
+        assertEquals(List.of("backend", "frontend"), matches.stream().map(ProfileIndex.Match::getProfileId).toList());
+        assertTrue(matches.get(0).getScore() > matches.get(1).getScore());
+        assertEquals("Backend", matches.get(0).getName());
+        // In the order of the description, plural and markup folded away
+        assertEquals(List.of("senior", "engineer", "java", "spring", "boot", "microservice", "aws", "postgresql",
+                "docker", "kubernete"), matches.get(0).getMatchedTerms());
+        assertEquals(1, index.rank(JOB, 1).size());
+        assertTrue(index.rank("Underwater basket weaving", 10).isEmpty());
+    }
+
+    @Test
+    public void testSkillOutweighsPassingMention() {
+        ProfileIndex index = new ProfileIndex();
+        index.put("skill", profile("A", List.of("Kafka"), "Engineer", "Built services"));
+        index.put("mention", profile("B", List.of("Go"), "Engineer", "Attended a Kafka talk"));
+
+        assertEquals("skill", index.rank("Kafka", 10).get(0).getProfileId());
+    }
+
+    @Test
+    public void testTokenizeKeepsTechnologyNames() {
+        assertEquals(List.of("c++", "c#", "node.js", "redis", "service", "technology"),
+                ProfileIndex.tokenize("C++, C# and Node.js; Redis services in 2019 technologies."));
+    }
+
+    @Test
+    public void testReplaceAndRemove() {
+        ProfileIndex index = new ProfileIndex();
+        index.put("p", profile("P", List.of("Java"), "Engineer", ""));
+        index.put("p", profile("P", List.of("Python"), "Engineer", ""));
+
+        assertEquals(1, index.size());
+        assertTrue(index.rank("Java", 10).isEmpty());
+        assertEquals("p", index.rank("Python", 10).get(0).getProfileId());
+        assertTrue(index.remove("p"));
+        assertFalse(index.remove("p"));
+        assertTrue(index.rank("Python", 10).isEmpty());
+    }
+
+    @Test
+    public void testRebuildAfterChurnKeepsRanking() {
+        ProfileIndex index = new ProfileIndex();
+        Map<String, CandidateProfile> profiles = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            profiles.put("p" + i, profile("P" + i, List.of(i % 2 == 0 ? "Kubernetes" : "Excel"), "Engineer", ""));
+        }
+        index.putAll(profiles);
+        // Tombstones outnumber live profiles after the 501st removal, which rebuilds the postings
+        for (int i = 0; i < 600; i++) {
+            index.remove("p" + i);
+        }
+
+        assertEquals(400, index.size());
+        List<ProfileIndex.Match> matches = index.rank("Kubernetes", 1000);
+        assertEquals(200, matches.size());
+        for (ProfileIndex.Match match : matches) {
+            int number = Integer.parseInt(match.getProfileId().substring(1));
+            assertTrue(number >= 600 && number % 2 == 0, match.getProfileId());
+        }
+        index.put("p601", profile("P601", List.of("Kubernetes"), "Engineer", ""));
+        assertEquals(201, index.rank("Kubernetes", 1000).size());
+    }
+
+    @Test
+    public void testCapacityIsEnforced() {
+        ProfileIndex index = new ProfileIndex(1);
+        index.put("a", profile("A", List.of("Java"), "Engineer", ""));
+        index.put("a", profile("A", List.of("Go"), "Engineer", ""));
+
+        assertThrows(IllegalStateException.class, () -> index.put("b", profile("B", List.of("Java"), "Engineer", "")));
+        assertThrows(IllegalArgumentException.class, () -> index.put(" ", profile("C", List.of(), "", "")));
+    }
+
+    static CandidateProfile profile(String name, List<String> skills, String title, String description) {
+        CandidateProfile profile = new CandidateProfile();
+        profile.setName(name);
+        profile.setSkills(skills);
+        profile.setExperience(List.of(new Experience(title, "Company", "2020 - 2023", description)));
+        return profile;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.pdfgen.service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProfilePromptBuilder
+ */
+public class ProfilePromptBuilderTest {
+
+    private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    @Test
+    public void testProfileIsSentCompactWithoutHtmlOrPhoto() throws Exception {
+        JsonObject source = JsonParser.parseString(read("senior-engineer-profile.json")).getAsJsonObject();
+        source.addProperty("photo", "data:image/png;base64," + "iVBORw0KGgo".repeat(2000));
+        source.addProperty("certifications", "");
+        String profile = PRETTY_GSON.toJson(source);
+
+        ProfilePrompt prompt = new ProfilePromptBuilder().build(profile, read("job-description.txt"));
+
+        String user = prompt.getUserMessage();
+        assertFalse(user.contains("<li>"));
+        assertFalse(user.contains("base64"));
+        assertFalse(user.contains("  "));
+        JsonObject sent = JsonParser.parseString(user.substring(user.indexOf("PROFILE:\n") + 9)).getAsJsonObject();
+        assertFalse(sent.has("certifications"));
+        assertEquals("Michael Chen", sent.get("name").getAsString());
+        String description = sent.getAsJsonArray("experience").get(0).getAsJsonObject().get("description").getAsString();
+        assertTrue(description.startsWith("Architected and implemented a microservices-based e-commerce platform"));
+        assertEquals(6, description.split("\n").length);
+
+        assertTrue(prompt.isWithinBudget());
+        assertEquals(0, prompt.getDroppedLines());
+        assertTrue(prompt.getTokens() < prompt.getOriginalTokens() / 4,
+                prompt.getOriginalTokens() + " -> " + prompt.getTokens());
+    }
+
+    @Test
+    public void testJobDescriptionKeepsRequirementsOnly() throws Exception {
+        String user = new ProfilePromptBuilder().build("{}", read("job-description.txt")).getUserMessage();
+
+        assertTrue(user.contains("JOB:\nSenior Backend Engineer - Cloud Platform Team\n"));
+        assertTrue(user.contains("You will be responsible for designing and implementing scalable backend services"));
+        assertTrue(user.contains("Required Qualifications:\n- 5+ years of professional software development experience\n"));
+        assertTrue(user.contains("- Background in Agile/Scrum methodologies"));
+        assertFalse(user.contains("We are seeking"));
+        assertFalse(user.contains("competitive compensation"));
+    }
+
+    @Test
+    public void testBudgetLeavesOutLeastImportantLinesFirst() throws Exception {
+        String profile = read("senior-engineer-profile.json");
+        String job = read("job-description.txt");
+        ProfilePrompt full = new ProfilePromptBuilder().build(profile, job);
+
+        ProfilePrompt trimmed = new ProfilePromptBuilder(full.getTokens() - 60).build(profile, job);
+
+        assertTrue(trimmed.isWithinBudget(), trimmed.getTokens() + " > " + trimmed.getMaxTokens());
+        assertTrue(trimmed.getDroppedLines() > 0);
+        String user = trimmed.getUserMessage();
+        assertFalse(user.contains("Background in Agile/Scrum methodologies"));
+        assertTrue(user.contains("Strong expertise in Java and Spring Boot framework"));
+        assertTrue(user.contains("Architected and implemented a microservices-based e-commerce platform"));
+
+        ProfilePrompt impossible = new ProfilePromptBuilder(10).build(profile, job);
+        assertFalse(impossible.isWithinBudget());
+        assertTrue(impossible.getUserMessage().contains("Senior Backend Engineer - Cloud Platform Team"));
+    }
+
+    @Test
+    public void testResponseGetsPhotoAndListMarkupBack() {
+        String profile = "{\"name\":\"Ann\",\"photo\":\"data:image/png;base64,AAAA\",\"experience\":["
+                + "{\"title\":\"Engineer\",\"description\":\"<ul><li>Built APIs</li></ul>\"},"
+                + "{\"title\":\"Intern\",\"description\":\"Wrote tests\"}]}";
+        String response = "{\"name\":\"Ann\",\"experience\":["
+                + "{\"title\":\"Engineer\",\"description\":\"Built Java APIs\\nCut latency by 40% & cost\"},"
+                + "{\"title\":\"Intern\",\"description\":\"Wrote JUnit tests\"}]}";
+
+        JsonObject restored = JsonParser.parseString(new ProfilePromptBuilder().restoreResponse(profile, response))
+                .getAsJsonObject();
+
+        assertEquals("data:image/png;base64,AAAA", restored.get("photo").getAsString());
+        assertEquals("<ul><li>Built Java APIs</li><li>Cut latency by 40% &amp; cost</li></ul>",
+                restored.getAsJsonArray("experience").get(0).getAsJsonObject().get("description").getAsString());
+        assertEquals("Wrote JUnit tests",
+                restored.getAsJsonArray("experience").get(1).getAsJsonObject().get("description").getAsString());
+        assertEquals("not json", new ProfilePromptBuilder().restoreResponse(profile, "not json"));
+    }
+
+    @Test
+    public void testEstimateTokens() {
+        String pretty = PRETTY_GSON.toJson(JsonParser.parseString("{\"skills\":[\"Java\",\"Kubernetes\"]}"));
+
+        assertEquals(0, ProfilePromptBuilder.estimateTokens(""));
+        assertEquals(6, ProfilePromptBuilder.estimateTokens("Senior engineer, 2019."));
+        assertEquals(2, ProfilePromptBuilder.estimateTokens("microservices"));
+        assertTrue(ProfilePromptBuilder.estimateTokens(pretty)
+                > ProfilePromptBuilder.estimateTokens("{\"skills\":[\"Java\",\"Kubernetes\"]}"));
+    }
+
+    private static String read(String name) throws Exception {
+        return Files.readString(Paths.get("src/main/resources/input", name));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.pdfgen.service;
+
+import com.example.pdfgen.model.CandidateProfile;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static com.example.pdfgen.service.LongProfiles.DESCRIPTION;
+import static com.example.pdfgen.service.LongProfiles.profile;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RenderCostEstimator
+ */
+public class RenderCostEstimatorTest {
+
+    @Test
+    public void testEstimateCoversRenderedPageCount() throws Exception {
+        TemplateService templateService = new TemplateService();
+        PdfGeneratorService pdfGeneratorService = new PdfGeneratorService();
+        RenderCostEstimator estimator = new RenderCostEstimator();
+        CandidateProfile profile = profile(40, DESCRIPTION);
+        int estimated = estimator.estimate(profile).getEstimatedPages();
+
+        for (String template : List.of("resume_template_001", "resume_template_002", "resume_template_003")) {
+            ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+            pdfGeneratorService.generatePdfToStream(templateService.processTemplate(template, profile), pdf);
+            int pages;
+            try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf.toByteArray())))) {
+                pages = document.getNumberOfPages();
+            }
+            // Never low, so the page limit is never exceeded, and not so high that it refuses fitting profiles
+            assertTrue(estimated >= pages, template + ": estimated " + estimated + ", rendered " + pages);
+            assertTrue(estimated <= pages * 3 / 2, template + ": estimated " + estimated + ", rendered " + pages);
+        }
+    }
+
+    @Test
+    public void testRefusesProfilesOverThePageLimit() {
+        RenderCostEstimator estimator = new RenderCostEstimator(10, 5);
+
+        RenderCost small = estimator.check(profile(2, DESCRIPTION));
+        assertFalse(small.isLarge());
+
+        RenderCost large = estimator.check(profile(20, DESCRIPTION));
+        assertTrue(large.isLarge());
+        assertTrue(large.getEstimatedPages() >= 5 && large.getEstimatedPages() <= 10);
+
+        RenderTooLargeException e = assertThrows(RenderTooLargeException.class,
+                () -> estimator.check(profile(500, DESCRIPTION)));
+        assertTrue(e.getEstimatedPages() > 10);
+        assertEquals(10, e.getMaxPages());
+
+        assertEquals(3, estimator.getEstimated());
+        assertEquals(1, estimator.getLarge());
+        assertEquals(1, estimator.getRejected());
+    }
+
+    @Test
+    public void testListItemsCountAsLines() {
+        RenderCostEstimator estimator = new RenderCostEstimator();
+        String items = "<ul><li>Cut latency</li><li>Led a team</li><li>Migrated billing</li></ul>";
+
+        RenderCost plain = estimator.estimate(profile(100, "Cut latency, led a team, migrated billing"));
+        RenderCost bulleted = estimator.estimate(profile(100, items));
+        assertTrue(bulleted.getEstimatedPages() > plain.getEstimatedPages());
+    }
+
+    @Test
+    public void testEmptyProfileIsOnePage() {
+        RenderCost cost = new RenderCostEstimator().estimate(new CandidateProfile());
+        assertEquals(1, cost.getEstimatedPages());
+        assertEquals(0, cost.getTextChars());
+    }
+}
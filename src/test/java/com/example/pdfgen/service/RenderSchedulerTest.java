@@ -0,0 +1,120 @@
+package com.example.pdfgen.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for lane admission in RenderScheduler
+ */
+public class RenderSchedulerTest {
+
+    @Test
+    public void testRejectsWhenLaneQueueIsFull() throws Exception {
+        RenderScheduler scheduler = new RenderScheduler(fixedLimit(1), 4, 0, 1, 0, 1000);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        try {
+            pool.submit(() -> scheduler.execute(RenderPriority.BULK, () -> {
+                holding.countDown();
+                await(done);
+                return null;
+            }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            RenderRejectedException e = assertThrows(RenderRejectedException.class,
+                    () -> scheduler.execute(RenderPriority.INTERACTIVE, () -> "never"));
+            assertEquals(RenderPriority.INTERACTIVE, e.getPriority());
+            assertTrue(e.getRetryAfterSeconds() >= 1);
+        } finally {
+            done.countDown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectsWhenQueueWaitExceeded() throws Exception {
+        RenderScheduler scheduler = new RenderScheduler(fixedLimit(1), 4, 10, 1, 10, 50);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        try {
+            pool.submit(() -> scheduler.execute(RenderPriority.INTERACTIVE, () -> {
+                holding.countDown();
+                await(done);
+                return null;
+            }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            assertThrows(RenderRejectedException.class,
+                    () -> scheduler.execute(RenderPriority.BULK, () -> "never"));
+            assertEquals(0, scheduler.getQueued(RenderPriority.BULK));
+            assertEquals(1, scheduler.getRejected(RenderPriority.BULK));
+        } finally {
+            done.countDown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testInteractiveLaneGetsWeightedShareOfSlots() throws Exception {
+        RenderScheduler scheduler = new RenderScheduler(fixedLimit(1), 4, 10, 1, 10, 10_000);
+        ExecutorService pool = Executors.newCachedThreadPool();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<RenderPriority> order = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            pool.submit(() -> scheduler.execute(RenderPriority.BULK, () -> {
+                holding.countDown();
+                await(done);
+                return null;
+            }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            // Bulk work queued first must not push interactive requests to the back
+            for (RenderPriority priority : List.of(RenderPriority.BULK, RenderPriority.INTERACTIVE)) {
+                for (int i = 0; i < 5; i++) {
+                    futures.add(pool.submit(() -> scheduler.execute(priority, () -> order.add(priority))));
+                }
+                while (scheduler.getQueued(priority) < 5) {
+                    Thread.sleep(5);
+                }
+            }
+
+            done.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+
+            assertEquals(10, order.size());
+            long bulkInFirstFive = order.subList(0, 5).stream().filter(p -> p == RenderPriority.BULK).count();
+            assertEquals(1, bulkInFirstFive);
+        } finally {
+            done.countDown();
+            pool.shutdown();
+        }
+    }
+
+    private static AdaptiveConcurrencyLimit fixedLimit(int limit) {
+        return new AdaptiveConcurrencyLimit(limit, limit, limit, false);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
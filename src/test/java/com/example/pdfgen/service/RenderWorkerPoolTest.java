@@ -0,0 +1,137 @@
+package com.example.pdfgen.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for RenderWorkerPool, running real worker JVMs
+ */
+public class RenderWorkerPoolTest {
+
+    // One worker, recycled after every two jobs; documents of 10 KB or more go to the worker
+    private final RenderWorkerPool pool = new RenderWorkerPool(true, 1, 10_000, 2, 256L << 20, "256m", 30_000);
+    private final PdfGeneratorService pdfGeneratorService = new PdfGeneratorService(pool);
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testLargeDocumentsAreConvertedByWorkersAndWorkersRecycled() throws Exception {
+        pool.start();
+
+        for (int i = 0; i < 3; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            pdfGeneratorService.generatePdfToStream(writer -> writer.write(html(200)), out, RenderDeadline.none(), null);
+            assertTrue(pages(out.toByteArray()) >= 2);
+        }
+        assertEquals(3, pool.getJobs());
+        assertEquals(1, pool.getRecycled());
+
+        // Small documents stay in-process
+        ByteArrayOutputStream small = new ByteArrayOutputStream();
+        pdfGeneratorService.generatePdfToStream(html(2), small, RenderDeadline.none());
+        assertEquals(1, pages(small.toByteArray()));
+        assertEquals(3, pool.getJobs());
+    }
+
+    @Test
+    public void testWorkerIsKilledAtDeadlineAndReplaced() throws Exception {
+        pool.start();
+
+        RenderDeadline deadline = RenderDeadline.after(Duration.ofMillis(300), null);
+        assertThrows(RenderCancelledException.class, () ->
+                pdfGeneratorService.generatePdfToStream(html(20_000), new ByteArrayOutputStream(), deadline));
+        assertEquals(0, pool.getCrashed());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pdfGeneratorService.generatePdfToStream(html(200), out, RenderDeadline.none());
+        assertTrue(pages(out.toByteArray()) >= 2);
+    }
+
+    @Test
+    public void testRunawayRenderKillsOnlyItsWorker() throws Exception {
+        RenderWorkerPool smallHeap = new RenderWorkerPool(true, 1, 10_000, 200, 256L << 20, "48m", 30_000);
+        try {
+            smallHeap.start();
+            PdfGeneratorService service = new PdfGeneratorService(smallHeap);
+
+            // Exhausts the worker's heap; the worker exits instead of the API
+            IOException e = assertThrows(IOException.class, () ->
+                    service.generatePdfToStream(html(100_000), new ByteArrayOutputStream(), RenderDeadline.none()));
+            assertEquals("Render worker died during the conversion", e.getMessage());
+            assertEquals(1, smallHeap.getCrashed());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            service.generatePdfToStream(html(200), out, RenderDeadline.none());
+            assertTrue(pages(out.toByteArray()) >= 2);
+        } finally {
+            smallHeap.shutdown();
+        }
+    }
+
+    @Test
+    public void testFittedDocumentsAreConvertedByWorkers() throws Exception {
+        pool.start();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PageFit fit = pdfGeneratorService.generateFittedPdfToStream(writer -> writer.write(html(200)), out, 5,
+                RenderDeadline.none(), null);
+
+        assertEquals(1, pool.getJobs());
+        assertTrue(fit.isFitted());
+        assertTrue(fit.getScale() < 1f);
+        assertTrue(fit.getPageCount() <= 5);
+        assertEquals(fit.getPageCount(), pages(out.toByteArray()));
+    }
+
+    @Test
+    public void testClientFailureMidReplyKeepsWorker() throws Exception {
+        pool.start();
+        byte[] html = html(200).getBytes(StandardCharsets.UTF_8);
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        IOException e = assertThrows(IOException.class, () ->
+                pool.convert(html, html.length, disconnected, RenderDeadline.none()));
+        assertEquals("Broken pipe", e.getMessage());
+        assertEquals(0, pool.getCrashed());
+        assertEquals(1, pool.getIdleWorkers());
+
+        // The reply was drained, so the same worker's next reply is intact
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pool.convert(html, html.length, out, RenderDeadline.none());
+        assertTrue(pages(out.toByteArray()) >= 2);
+        assertEquals(0, pool.getCrashed());
+    }
+
+    private static String html(int paragraphs) {
+        StringBuilder html = new StringBuilder("<html><body><h1>Large profile</h1>");
+        for (int i = 0; i < paragraphs; i++) {
+            html.append("<p>Experience entry ").append(i).append(" describing work at a previous employer.</p>");
+        }
+        return html.append("</body></html>").toString();
+    }
+
+    private static int pages(byte[] pdf) throws Exception {
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            return document.getNumberOfPages();
+        }
+    }
+}